@@ -1,14 +1,63 @@
 package org.rafalohaki.portalsPermission;
 
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import com.destroystokyo.paper.event.player.PlayerElytraBoostEvent;
+import io.papermc.paper.event.entity.EntityPortalReadyEvent;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityPortalEnterEvent;
+import org.bukkit.event.entity.EntityToggleGlideEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerPortalEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerVelocityEvent;
+import org.bukkit.event.server.ServiceRegisterEvent;
+import org.bukkit.event.server.ServiceUnregisterEvent;
+import org.bukkit.event.vehicle.VehicleEnterEvent;
+import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.PortalCreateEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.api.PortalProviderChangeEvent;
 import org.rafalohaki.portalsPermission.commands.PortalsCommand;
 import org.rafalohaki.portalsPermission.events.EntityPortalSecurityListener;
 import org.rafalohaki.portalsPermission.events.PlayerMovementSecurityListener;
+import org.rafalohaki.portalsPermission.events.SecurityStateEvictionListener;
 import org.rafalohaki.portalsPermission.events.VehicleSecurityListener;
+import org.rafalohaki.portalsPermission.listeners.FeatureListenerRegistrar;
+import org.rafalohaki.portalsPermission.listeners.PlayerSlotListener;
+import org.rafalohaki.portalsPermission.listeners.PortalIndexListener;
+import org.rafalohaki.portalsPermission.listeners.PortalProviderListener;
 import org.rafalohaki.portalsPermission.listeners.RefactoredPortalAccessListener;
 import org.rafalohaki.portalsPermission.managers.ConfigManager;
 import org.rafalohaki.portalsPermission.managers.CooldownManager;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.managers.PortalGrantStore;
+import org.rafalohaki.portalsPermission.managers.VelocityTagManager;
+import org.rafalohaki.portalsPermission.managers.ViolationScoreManager;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessPipeline;
+import org.rafalohaki.portalsPermission.pipeline.stages.BypassStage;
+import org.rafalohaki.portalsPermission.pipeline.stages.CooldownStage;
+import org.rafalohaki.portalsPermission.pipeline.stages.DwellStage;
+import org.rafalohaki.portalsPermission.pipeline.stages.EnabledStage;
+import org.rafalohaki.portalsPermission.pipeline.stages.PermissionStage;
+import org.rafalohaki.portalsPermission.pipeline.stages.ThrottleStage;
+import org.rafalohaki.portalsPermission.pipeline.stages.VehicleStage;
+import org.rafalohaki.portalsPermission.portal.PortalCatalog;
+import org.rafalohaki.portalsPermission.portal.PortalChunkScanner;
+import org.rafalohaki.portalsPermission.portal.PortalLocationIndex;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.portal.PortalRegionIndex;
+import org.rafalohaki.portalsPermission.portal.ProvidedPortalIndex;
 import org.rafalohaki.portalsPermission.services.IPortalKnockbackService;
 import org.rafalohaki.portalsPermission.services.IPortalMessageService;
 import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
@@ -30,16 +79,33 @@ import java.util.logging.Level;
 public class PortalsPermission extends JavaPlugin {
     
     private ConfigManager configManager;
+    private PortalClock clock;
+    private PlayerSlotRegistry playerSlots;
+    private ViolationScoreManager violationScores;
     private CooldownManager cooldownManager;
+    private PortalGrantStore grantStore;
+    private VelocityTagManager velocityTagManager;
+    private PortalMaterialRegistry materialRegistry;
+    private PortalLocationIndex portalIndex;
+    private PortalChunkScanner chunkScanner;
+    private PortalCatalog portalCatalog;
+    private PortalRegionIndex regionIndex;
+    private ProvidedPortalIndex providedPortals;
     private IPortalSecurityService portalSecurityService;
     private IPortalPermissionChecker permissionChecker;
     private IPortalKnockbackService knockbackService;
     private IPortalMessageService messageService;
     private ISoundService soundService;
+    private PortalAccessPipeline accessPipeline;
     private RefactoredPortalAccessListener refactoredPortalListener;
     private EntityPortalSecurityListener entityPortalSecurityListener;
     private VehicleSecurityListener vehicleSecurityListener;
     private PlayerMovementSecurityListener playerMovementSecurityListener;
+    private PortalIndexListener portalIndexListener;
+    private PortalProviderListener portalProviderListener;
+    private SecurityStateEvictionListener securityStateEvictionListener;
+    private PlayerSlotListener playerSlotListener;
+    private FeatureListenerRegistrar listenerRegistrar;
     private PortalsCommand portalsCommand;
     
     @Override
@@ -87,18 +153,49 @@ public class PortalsPermission extends JavaPlugin {
     private void initializeManagers() {
         // Initialize managers first
         this.configManager = new ConfigManager(this);
-        this.cooldownManager = new CooldownManager(this, configManager);
+        this.clock = new PortalClock(this, configManager);
+        clock.start();
+        this.playerSlots = new PlayerSlotRegistry();
+        this.violationScores = new ViolationScoreManager(configManager, playerSlots, clock);
+        this.cooldownManager = new CooldownManager(this, configManager, playerSlots, violationScores, clock);
+        this.velocityTagManager = new VelocityTagManager(playerSlots, clock);
+        this.grantStore = new PortalGrantStore(this);
+        this.materialRegistry = new PortalMaterialRegistry(configManager);
+        this.portalIndex = new PortalLocationIndex();
+        this.portalCatalog = new PortalCatalog(this, materialRegistry, portalIndex);
+        this.regionIndex = new PortalRegionIndex(this);
+        this.providedPortals = new ProvidedPortalIndex(this);
         
         // Initialize services with dependency injection
-        this.permissionChecker = new PortalPermissionChecker(configManager);
+        this.permissionChecker = new PortalPermissionChecker(configManager, materialRegistry, grantStore, regionIndex,
+            providedPortals);
         this.soundService = new SoundService();
-        this.knockbackService = new PortalKnockbackService(this, configManager, soundService);
+        this.knockbackService = new PortalKnockbackService(this, configManager, soundService, materialRegistry, portalCatalog,
+            velocityTagManager, clock);
         this.messageService = new PortalMessageService(configManager);
-        this.portalSecurityService = new PortalSecurityService(this, configManager);
+        this.portalSecurityService = new PortalSecurityService(this, configManager, materialRegistry, portalIndex, portalCatalog,
+            permissionChecker, playerSlots, violationScores, clock, grantStore);
+        this.accessPipeline = createAccessPipeline();
         
         getLogger().info("Managers and services initialized successfully");
     }
     
+    /**
+     * Creates the portal access pipeline; stage order is decided by cost on every reload
+     * Tworzy potok dostępu do portali; kolejność etapów ustalana jest wg kosztu przy każdym przeładowaniu
+     */
+    private @NotNull PortalAccessPipeline createAccessPipeline() {
+        PortalAccessPipeline pipeline = new PortalAccessPipeline(this, configManager);
+        pipeline.addStage(new EnabledStage(configManager));
+        pipeline.addStage(new BypassStage(permissionChecker));
+        pipeline.addStage(new CooldownStage(configManager, cooldownManager, messageService, knockbackService));
+        pipeline.addStage(new DwellStage(configManager, portalSecurityService, knockbackService));
+        pipeline.addStage(new VehicleStage(configManager, portalSecurityService));
+        pipeline.addStage(new PermissionStage(permissionChecker, messageService, knockbackService));
+        pipeline.addStage(new ThrottleStage(configManager, playerSlots, clock));
+        return pipeline;
+    }
+    
     /**
      * Loads configuration asynchronously
      * Ładuje konfigurację asynchronicznie
@@ -123,6 +220,24 @@ public class PortalsPermission extends JavaPlugin {
      */
     private void registerComponents() {
         try {
+            // Load the persisted portal catalog before scans start reconciling it
+            portalCatalog.start();
+            
+            // Load temporary grants and portal regions before portal events are checked
+            grantStore.start();
+            regionIndex.start();
+            
+            // Ask portal providers registered before us about the loaded chunks
+            providedPortals.refreshProviders();
+            
+            // Start the portal index scanner; thread count is read from the loaded configuration
+            this.chunkScanner = new PortalChunkScanner(this, configManager, materialRegistry, portalIndex);
+            chunkScanner.addListener(portalCatalog::onChunkScanned);
+            chunkScanner.start();
+            
+            // Players online before enable (e.g. after a reload) never fire a join event
+            getServer().getOnlinePlayers().forEach(player -> playerSlots.assign(player.getUniqueId()));
+            
             // Register event listeners
             registerEventListeners();
             
@@ -142,32 +257,155 @@ public class PortalsPermission extends JavaPlugin {
     }
     
     /**
-     * Registers event listeners
-     * Rejestruje listenery wydarzeń
+     * Registers event listeners through the feature-driven registrar
+     * Rejestruje listenery wydarzeń przez rejestrator sterowany funkcjami
      */
     private void registerEventListeners() {
-        // Register refactored portal access listener with SOLID principles
         this.refactoredPortalListener = new RefactoredPortalAccessListener(
             this,
             configManager,
             cooldownManager,
-            permissionChecker, 
-            knockbackService, 
-            messageService
+            accessPipeline,
+            materialRegistry,
+            providedPortals
         );
-        getServer().getPluginManager().registerEvents(refactoredPortalListener, this);
-        
-        // Register security listeners for bypass prevention
         this.entityPortalSecurityListener = new EntityPortalSecurityListener(this, portalSecurityService);
-        getServer().getPluginManager().registerEvents(entityPortalSecurityListener, this);
-        
         this.vehicleSecurityListener = new VehicleSecurityListener(this, portalSecurityService);
-        getServer().getPluginManager().registerEvents(vehicleSecurityListener, this);
+        this.playerMovementSecurityListener = new PlayerMovementSecurityListener(this, portalSecurityService, velocityTagManager);
+        this.portalIndexListener = new PortalIndexListener(this, materialRegistry, portalIndex, chunkScanner, portalCatalog);
+        this.portalProviderListener = new PortalProviderListener(providedPortals);
+        this.securityStateEvictionListener = new SecurityStateEvictionListener(this, portalSecurityService, velocityTagManager);
+        this.playerSlotListener = new PlayerSlotListener(playerSlots);
+        
+        this.listenerRegistrar = new FeatureListenerRegistrar(this);
+        bindEventHandlers(listenerRegistrar);
+        listenerRegistrar.apply();
         
-        this.playerMovementSecurityListener = new PlayerMovementSecurityListener(this, portalSecurityService);
-        getServer().getPluginManager().registerEvents(playerMovementSecurityListener, this);
+        // Chunk handlers of the provider cache are attached only while providers are registered
+        providedPortals.addChangeListener(listenerRegistrar::apply);
         
-        getLogger().info("Event listeners registered (including security listeners)");
+        // Re-evaluate handler conditions on every reload (HandlerList changes belong on the main thread)
+        configManager.addReloadListener(() -> getServer().getScheduler().runTask(this, () -> {
+            if (listenerRegistrar != null) {
+                listenerRegistrar.apply();
+            }
+        }));
+        
+        getLogger().info("Event listeners registered (" + listenerRegistrar.getActiveCount() + "/"
+            + listenerRegistrar.getBindingCount() + " handlers active)");
+    }
+    
+    /**
+     * Declares every event handler together with the configuration that requires it
+     * Deklaruje każdy handler zdarzeń razem z konfiguracją która go wymaga
+     */
+    private void bindEventHandlers(@NotNull FeatureListenerRegistrar registrar) {
+        ConfigManager config = configManager;
+        
+        // Portal access
+        registrar.bind("portal-access", PlayerPortalEvent.class, PlayerPortalEvent.getHandlerList(),
+            refactoredPortalListener, EventPriority.HIGH, true,
+            refactoredPortalListener::onPlayerPortal, config::isEnabled);
+        
+        // Entity portal security
+        registrar.bind("entity-portal-enter", EntityPortalEnterEvent.class, EntityPortalEnterEvent.getHandlerList(),
+            entityPortalSecurityListener, EventPriority.HIGH, true,
+            entityPortalSecurityListener::onEntityPortalEnter, () -> config.isEnabled() && config.isEntityChecksEnabled());
+        registrar.bind("entity-portal-ready", EntityPortalReadyEvent.class, EntityPortalReadyEvent.getHandlerList(),
+            entityPortalSecurityListener, EventPriority.HIGH, true,
+            entityPortalSecurityListener::onEntityPortalReady, () -> config.isEnabled() && config.isEntityChecksEnabled());
+        
+        // Vehicle security
+        registrar.bind("vehicle-enter", VehicleEnterEvent.class, VehicleEnterEvent.getHandlerList(),
+            vehicleSecurityListener, EventPriority.HIGHEST, true,
+            vehicleSecurityListener::onVehicleEnter, () -> config.isEnabled() && config.isVehicleChecksEnabled());
+        registrar.bind("vehicle-exit", VehicleExitEvent.class, VehicleExitEvent.getHandlerList(),
+            vehicleSecurityListener, EventPriority.HIGHEST, true,
+            vehicleSecurityListener::onVehicleExit, () -> config.isEnabled() && config.isVehicleChecksEnabled());
+        registrar.bind("vehicle-move", VehicleMoveEvent.class, VehicleMoveEvent.getHandlerList(),
+            vehicleSecurityListener, EventPriority.MONITOR, true,
+            vehicleSecurityListener::onVehicleMove, () -> config.isEnabled() && config.isVehicleChecksEnabled());
+        
+        // Player movement security
+        registrar.bind("glide-toggle", EntityToggleGlideEvent.class, EntityToggleGlideEvent.getHandlerList(),
+            playerMovementSecurityListener, EventPriority.HIGHEST, true,
+            playerMovementSecurityListener::onEntityToggleGlide, () -> config.isEnabled() && config.isElytraChecksEnabled());
+        registrar.bind("elytra-boost", PlayerElytraBoostEvent.class, PlayerElytraBoostEvent.getHandlerList(),
+            playerMovementSecurityListener, EventPriority.HIGHEST, true,
+            playerMovementSecurityListener::onPlayerElytraBoost, () -> config.isEnabled() && config.isElytraChecksEnabled());
+        registrar.bind("player-move", PlayerMoveEvent.class, PlayerMoveEvent.getHandlerList(),
+            playerMovementSecurityListener, EventPriority.MONITOR, true,
+            playerMovementSecurityListener::onPlayerMove,
+            // Risk scoring samples positions per tick and ignores move events; the batched sweep still needs them
+            () -> config.isEnabled() && config.isMovementChecksEnabled() && !config.isRiskScoringEnabled());
+        registrar.bind("player-velocity", PlayerVelocityEvent.class, PlayerVelocityEvent.getHandlerList(),
+            playerMovementSecurityListener, EventPriority.HIGHEST, true,
+            playerMovementSecurityListener::onPlayerVelocity, () -> config.isEnabled() && config.isVelocityChecksEnabled());
+        
+        // Portal index maintenance
+        registrar.bind("chunk-scan", ChunkLoadEvent.class, ChunkLoadEvent.getHandlerList(),
+            portalIndexListener, EventPriority.MONITOR, false,
+            portalIndexListener::onChunkLoad, config::isScanOnChunkLoadEnabled);
+        registrar.bind("chunk-unindex", ChunkUnloadEvent.class, ChunkUnloadEvent.getHandlerList(),
+            portalIndexListener, EventPriority.MONITOR, false,
+            portalIndexListener::onChunkUnload, config::isScannerEnabled);
+        registrar.bind("portal-create", PortalCreateEvent.class, PortalCreateEvent.getHandlerList(),
+            portalIndexListener, EventPriority.MONITOR, true,
+            portalIndexListener::onPortalCreate, config::isScannerEnabled);
+        registrar.bind("portal-block-place", BlockPlaceEvent.class, BlockPlaceEvent.getHandlerList(),
+            portalIndexListener, EventPriority.MONITOR, true,
+            portalIndexListener::onBlockPlace, config::isScannerEnabled);
+        registrar.bind("portal-block-change", EntityChangeBlockEvent.class, EntityChangeBlockEvent.getHandlerList(),
+            portalIndexListener, EventPriority.MONITOR, true,
+            portalIndexListener::onEntityChangeBlock, config::isScannerEnabled);
+        registrar.bind("end-frame-activate", PlayerInteractEvent.class, PlayerInteractEvent.getHandlerList(),
+            portalIndexListener, EventPriority.MONITOR, true,
+            portalIndexListener::onEndFrameActivate, config::isScannerEnabled);
+        registrar.bind("world-unload", WorldUnloadEvent.class, WorldUnloadEvent.getHandlerList(),
+            portalIndexListener, EventPriority.MONITOR, true,
+            portalIndexListener::onWorldUnload, () -> true);
+        
+        // Provided portal cache; chunk handlers only while providers exist, registrations always watched
+        registrar.bind("provider-chunk-load", ChunkLoadEvent.class, ChunkLoadEvent.getHandlerList(),
+            portalProviderListener, EventPriority.MONITOR, false,
+            portalProviderListener::onChunkLoad, providedPortals::hasProviders);
+        registrar.bind("provider-chunk-unload", ChunkUnloadEvent.class, ChunkUnloadEvent.getHandlerList(),
+            portalProviderListener, EventPriority.MONITOR, false,
+            portalProviderListener::onChunkUnload, providedPortals::hasProviders);
+        registrar.bind("provider-change", PortalProviderChangeEvent.class, PortalProviderChangeEvent.getHandlerList(),
+            portalProviderListener, EventPriority.MONITOR, false,
+            portalProviderListener::onProviderChange, providedPortals::hasProviders);
+        registrar.bind("provider-world-unload", WorldUnloadEvent.class, WorldUnloadEvent.getHandlerList(),
+            portalProviderListener, EventPriority.MONITOR, true,
+            portalProviderListener::onWorldUnload, () -> true);
+        registrar.bind("provider-register", ServiceRegisterEvent.class, ServiceRegisterEvent.getHandlerList(),
+            portalProviderListener, EventPriority.MONITOR, false,
+            portalProviderListener::onServiceRegister, () -> true);
+        registrar.bind("provider-unregister", ServiceUnregisterEvent.class, ServiceUnregisterEvent.getHandlerList(),
+            portalProviderListener, EventPriority.MONITOR, false,
+            portalProviderListener::onServiceUnregister, () -> true);
+        
+        // Security state eviction; always attached so no state outlives its entity
+        registrar.bind("state-evict-quit", PlayerQuitEvent.class, PlayerQuitEvent.getHandlerList(),
+            securityStateEvictionListener, EventPriority.MONITOR, false,
+            securityStateEvictionListener::onPlayerQuit, () -> true);
+        registrar.bind("state-evict-remove", EntityRemoveFromWorldEvent.class, EntityRemoveFromWorldEvent.getHandlerList(),
+            securityStateEvictionListener, EventPriority.MONITOR, false,
+            securityStateEvictionListener::onEntityRemoveFromWorld, () -> true);
+        registrar.bind("state-evict-death", EntityDeathEvent.class, EntityDeathEvent.getHandlerList(),
+            securityStateEvictionListener, EventPriority.MONITOR, true,
+            securityStateEvictionListener::onEntityDeath, () -> true);
+        registrar.bind("state-evict-world", WorldUnloadEvent.class, WorldUnloadEvent.getHandlerList(),
+            securityStateEvictionListener, EventPriority.MONITOR, true,
+            securityStateEvictionListener::onWorldUnload, () -> true);
+        
+        // Player slots; assigned before and released after every other handler
+        registrar.bind("slot-join", PlayerJoinEvent.class, PlayerJoinEvent.getHandlerList(),
+            playerSlotListener, EventPriority.LOWEST, false,
+            playerSlotListener::onPlayerJoin, () -> true);
+        registrar.bind("slot-quit", PlayerQuitEvent.class, PlayerQuitEvent.getHandlerList(),
+            playerSlotListener, EventPriority.MONITOR, false,
+            playerSlotListener::onPlayerQuit, () -> true);
     }
     
     /**
@@ -175,7 +413,9 @@ public class PortalsPermission extends JavaPlugin {
      * Rejestruje komendy
      */
     private void registerCommands() {
-        this.portalsCommand = new PortalsCommand(this, configManager, cooldownManager);
+        this.portalsCommand = new PortalsCommand(this, configManager, cooldownManager, accessPipeline, listenerRegistrar,
+            portalIndex, chunkScanner, portalCatalog, velocityTagManager, portalSecurityService, playerSlots, grantStore, regionIndex,
+            providedPortals);
         
         var command = getCommand("portals");
         if (command != null) {
@@ -210,6 +450,18 @@ public class PortalsPermission extends JavaPlugin {
      * Wyłącza wszystkie menedżery i serwisy
      */
     private void shutdownManagers() {
+        if (listenerRegistrar != null) {
+            listenerRegistrar.unregisterAll();
+        }
+        
+        if (chunkScanner != null) {
+            chunkScanner.shutdown();
+        }
+        
+        if (portalCatalog != null) {
+            portalCatalog.shutdown();
+        }
+        
         if (portalSecurityService != null) {
             portalSecurityService.shutdown();
         }
@@ -218,12 +470,43 @@ public class PortalsPermission extends JavaPlugin {
             cooldownManager.shutdown();
         }
         
+        if (grantStore != null) {
+            grantStore.shutdown();
+        }
+        
+        if (regionIndex != null) {
+            regionIndex.shutdown();
+        }
+        
+        if (playerSlots != null) {
+            playerSlots.clear();
+        }
+        
+        if (clock != null) {
+            clock.shutdown();
+        }
+        
         // Clear references
         this.configManager = null;
+        this.clock = null;
         this.cooldownManager = null;
+        this.grantStore = null;
+        this.regionIndex = null;
+        this.providedPortals = null;
+        this.playerSlots = null;
+        this.violationScores = null;
         this.portalSecurityService = null;
+        this.accessPipeline = null;
+        this.chunkScanner = null;
+        this.portalIndex = null;
+        this.portalCatalog = null;
+        this.portalIndexListener = null;
+        this.portalProviderListener = null;
+        this.securityStateEvictionListener = null;
+        this.playerSlotListener = null;
         this.entityPortalSecurityListener = null;
         this.vehicleSecurityListener = null;
+        this.listenerRegistrar = null;
         this.portalsCommand = null;
     }
     
@@ -293,6 +576,17 @@ public class PortalsPermission extends JavaPlugin {
         return messageService;
     }
     
+    /**
+     * Gets the portal access pipeline
+     * Pobiera potok dostępu do portali
+     */
+    public @NotNull PortalAccessPipeline getAccessPipeline() {
+        if (accessPipeline == null) {
+            throw new IllegalStateException("AccessPipeline not initialized");
+        }
+        return accessPipeline;
+    }
+    
     /**
      * Checks if plugin is properly initialized
      * Sprawdza czy plugin jest poprawnie zainicjalizowany
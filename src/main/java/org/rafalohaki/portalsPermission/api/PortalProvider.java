@@ -0,0 +1,32 @@
+package org.rafalohaki.portalsPermission.api;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Service implemented by portal plugins to report the portals they own
+ * Serwis implementowany przez pluginy portali do zgłaszania portali którymi zarządzają
+ *
+ * <p>Register an implementation with Bukkit's services manager:
+ * {@code getServer().getServicesManager().register(PortalProvider.class, provider, plugin, ServicePriority.Normal)}.
+ * Providers are asked once per chunk when the chunk loads or when providers change, never while
+ * a portal event is being checked, and the answers are cached until the chunk unloads. A provider
+ * whose portals change calls a {@link PortalProviderChangeEvent} for the affected chunks to have
+ * them asked again. Called on the main thread only; /portals info lists providers by the plugin
+ * that registered them.</p>
+ */
+public interface PortalProvider {
+    
+    /**
+     * Reports the portals of this provider that intersect a chunk
+     * Zgłasza portale tego dostawcy, które przecinają chunk
+     *
+     * @param world The world of the chunk
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return The portals intersecting the chunk; empty if there are none
+     */
+    @NotNull Collection<ProvidedPortal> getPortals(@NotNull World world, int chunkX, int chunkZ);
+}
@@ -0,0 +1,52 @@
+package org.rafalohaki.portalsPermission.api;
+
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Called by a {@link PortalProvider} after its portals in a chunk were created, moved or removed
+ * Wywoływane przez {@link PortalProvider} po utworzeniu, przeniesieniu lub usunięciu jego portali w chunku
+ *
+ * <p>Fire it on the main thread with {@code Bukkit.getPluginManager().callEvent(...)}, once for every
+ * chunk the changed portal intersects. The cached answers for the chunk are dropped and, if the chunk
+ * is loaded, the providers are asked again right away.</p>
+ */
+public class PortalProviderChangeEvent extends Event {
+    
+    private static final HandlerList HANDLERS = new HandlerList();
+    
+    private final World world;
+    private final int chunkX;
+    private final int chunkZ;
+    
+    public PortalProviderChangeEvent(@NotNull World world, int chunkX, int chunkZ) {
+        this.world = Objects.requireNonNull(world, "World cannot be null");
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+    
+    public @NotNull World getWorld() {
+        return world;
+    }
+    
+    public int getChunkX() {
+        return chunkX;
+    }
+    
+    public int getChunkZ() {
+        return chunkZ;
+    }
+    
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+    
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
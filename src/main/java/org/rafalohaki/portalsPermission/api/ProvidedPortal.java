@@ -0,0 +1,45 @@
+package org.rafalohaki.portalsPermission.api;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.util.Objects;
+
+/**
+ * A portal reported by a {@link PortalProvider}
+ * Portal zgłoszony przez {@link PortalProvider}
+ *
+ * <p>The box is inclusive and may be given with its corners in any order.</p>
+ *
+ * @param id Identifier of the portal, unique within its provider
+ * @param type Portal type used for the type settings and permission, usually {@link PortalType#CUSTOM}
+ * @param targetEnvironment Environment the portal leads to, or null if unknown
+ * @param permission Permission node that grants this portal on its own, or null for none
+ */
+public record ProvidedPortal(@NotNull String id,
+                             @NotNull PortalType type,
+                             @Nullable World.Environment targetEnvironment,
+                             @Nullable String permission,
+                             int minX, int minY, int minZ,
+                             int maxX, int maxY, int maxZ) {
+    
+    public ProvidedPortal {
+        Objects.requireNonNull(id, "Portal id cannot be null");
+        Objects.requireNonNull(type, "Portal type cannot be null");
+        int lowX = Math.min(minX, maxX);
+        int lowY = Math.min(minY, maxY);
+        int lowZ = Math.min(minZ, maxZ);
+        maxX = Math.max(minX, maxX);
+        maxY = Math.max(minY, maxY);
+        maxZ = Math.max(minZ, maxZ);
+        minX = lowX;
+        minY = lowY;
+        minZ = lowZ;
+    }
+    
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+}
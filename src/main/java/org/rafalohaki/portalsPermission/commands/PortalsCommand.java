@@ -4,20 +4,44 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.listeners.FeatureListenerRegistrar;
 import org.rafalohaki.portalsPermission.managers.ConfigManager;
 import org.rafalohaki.portalsPermission.managers.CooldownManager;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+import org.rafalohaki.portalsPermission.managers.PortalGrantStore;
+import org.rafalohaki.portalsPermission.managers.VelocityTagManager;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessPipeline;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageMetrics;
+import org.rafalohaki.portalsPermission.portal.PortalCatalog;
+import org.rafalohaki.portalsPermission.portal.PortalChunkScanner;
+import org.rafalohaki.portalsPermission.portal.KnownPortal;
+import org.rafalohaki.portalsPermission.portal.PortalLocationIndex;
+import org.rafalohaki.portalsPermission.portal.PortalRegion;
+import org.rafalohaki.portalsPermission.portal.PortalRegionIndex;
+import org.rafalohaki.portalsPermission.portal.ProvidedPortalIndex;
+import org.rafalohaki.portalsPermission.security.EntitySecurityTable;
+import org.rafalohaki.portalsPermission.security.LoadGovernor;
+import org.rafalohaki.portalsPermission.security.LoadTier;
+import org.rafalohaki.portalsPermission.security.MovementSweeper;
+import org.rafalohaki.portalsPermission.security.RiskScorer;
+import org.rafalohaki.portalsPermission.services.IPortalSecurityService;
+import org.rafalohaki.portalsPermission.utils.PortalType;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Main command executor for portal management
@@ -28,12 +52,46 @@ public class PortalsCommand implements CommandExecutor, TabCompleter {
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final CooldownManager cooldownManager;
+    private final PortalAccessPipeline accessPipeline;
+    private final FeatureListenerRegistrar listenerRegistrar;
+    private final PortalLocationIndex portalIndex;
+    private final PortalChunkScanner chunkScanner;
+    private final PortalCatalog portalCatalog;
+    private final VelocityTagManager velocityTags;
+    private final IPortalSecurityService securityService;
+    private final PlayerSlotRegistry playerSlots;
+    private final PortalGrantStore grantStore;
+    private final PortalRegionIndex regionIndex;
+    private final ProvidedPortalIndex providedPortals;
     private final MiniMessage miniMessage;
     
-    public PortalsCommand(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager, @NotNull CooldownManager cooldownManager) {
+    private static final int MAX_SCAN_RADIUS = 32;
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+)([smhd])");
+    private static final long MAX_GRANT_MILLIS = 365L * 24 * 60 * 60 * 1000;
+    private static final Pattern REGION_NAME = Pattern.compile("[a-z0-9_-]{1,32}");
+    private static final int REGION_PORTAL_SEARCH_DISTANCE = 3;
+    
+    public PortalsCommand(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager, @NotNull CooldownManager cooldownManager,
+                          @NotNull PortalAccessPipeline accessPipeline, @NotNull FeatureListenerRegistrar listenerRegistrar,
+                          @NotNull PortalLocationIndex portalIndex, @NotNull PortalChunkScanner chunkScanner,
+                          @NotNull PortalCatalog portalCatalog, @NotNull VelocityTagManager velocityTags,
+                          @NotNull IPortalSecurityService securityService, @NotNull PlayerSlotRegistry playerSlots,
+                          @NotNull PortalGrantStore grantStore, @NotNull PortalRegionIndex regionIndex,
+                          @NotNull ProvidedPortalIndex providedPortals) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.cooldownManager = cooldownManager;
+        this.accessPipeline = accessPipeline;
+        this.listenerRegistrar = listenerRegistrar;
+        this.portalIndex = portalIndex;
+        this.chunkScanner = chunkScanner;
+        this.portalCatalog = portalCatalog;
+        this.velocityTags = velocityTags;
+        this.securityService = securityService;
+        this.playerSlots = playerSlots;
+        this.grantStore = grantStore;
+        this.regionIndex = regionIndex;
+        this.providedPortals = providedPortals;
         this.miniMessage = MiniMessage.miniMessage();
     }
     
@@ -56,9 +114,14 @@ public class PortalsCommand implements CommandExecutor, TabCompleter {
             case "reload" -> handleReloadCommand(sender);
             case "info" -> handleInfoCommand(sender);
             case "cooldown" -> handleCooldownCommand(sender, args);
+            case "stats" -> handleStatsCommand(sender, args);
+            case "scan" -> handleScanCommand(sender, args);
+            case "grant" -> handleGrantCommand(sender, args);
+            case "revoke" -> handleRevokeCommand(sender, args);
+            case "region" -> handleRegionCommand(sender, args);
             case "help" -> sendHelpMessage(sender);
             default -> {
-                String usage = "/portals <reload|info|cooldown|help>";
+                String usage = "/portals <reload|info|cooldown|stats|scan|grant|revoke|region|help>";
                 sendMessage(sender, configManager.getMessage("invalid_usage", "usage", usage));
             }
         }
@@ -123,11 +186,404 @@ public class PortalsCommand implements CommandExecutor, TabCompleter {
         sendMessage(sender, "<yellow>Knockback Enabled: <white>" + (configManager.isKnockbackEnabled() ? "<green>Yes</green>" : "<red>No</red>") + "</white></yellow>");
         sendMessage(sender, "<yellow>Knockback Strength: <white>" + configManager.getKnockbackStrength() + "</white></yellow>");
         sendMessage(sender, "<yellow>Knockback Height: <white>" + configManager.getKnockbackHeight() + "</white></yellow>");
+        sendMessage(sender, "<yellow>Knockback Mode: <white>" + configManager.getKnockbackMode() + "</white></yellow>");
         sendMessage(sender, "");
         sendMessage(sender, "<gold>Cooldown Settings:</gold>");
         sendMessage(sender, "<yellow>Cooldown Enabled: <white>" + (configManager.isCooldownEnabled() ? "<green>Yes</green>" : "<red>No</red>") + "</white></yellow>");
         sendMessage(sender, "<yellow>Cooldown Time: <white>" + configManager.getCooldownTime() + " seconds</white></yellow>");
+        sendMessage(sender, "<yellow>Cooldown Clock: <white>" + (configManager.isTickBasedCooldown() ? "server ticks" : "real time")
+            + "</white></yellow>");
         sendMessage(sender, "<yellow>Active Cooldowns: <white>" + cooldownManager.getActiveCooldownCount() + "</white></yellow>");
+        sendMessage(sender, "");
+        sendMessage(sender, "<gold>Event Handlers:</gold>");
+        sendMessage(sender, "<yellow>Active: <white>" + listenerRegistrar.getActiveCount() + "/" + listenerRegistrar.getBindingCount() + "</white></yellow>");
+        sendMessage(sender, "<yellow>Attached: <white>" + String.join(", ", listenerRegistrar.getActiveHandlerNames()) + "</white></yellow>");
+        sendMessage(sender, "");
+        sendMessage(sender, "<gold>Portal Index:</gold>");
+        sendMessage(sender, "<yellow>Portal Blocks: <white>" + portalIndex.getBlockCount() + " in " + portalIndex.getPortalChunkCount()
+            + " chunks (" + portalIndex.getWorldCount() + " worlds)</white></yellow>");
+        sendMessage(sender, "<yellow>Scanned Chunks: <white>" + portalIndex.getScannedChunkCount() + " indexed, "
+            + chunkScanner.getPaletteRejectedCount() + "/" + chunkScanner.getScannedChunkCount() + " rejected by palette, " + chunkScanner.getStaleResultCount() + " stale</white></yellow>");
+        String bootstrap = chunkScanner.isBootstrapComplete()
+            ? "<green>Done</green> (" + chunkScanner.getBootstrapMillis() + " ms)"
+            : "<yellow>Running</yellow> (" + chunkScanner.getPendingCount() + " queued, " + chunkScanner.getInFlightCount() + " scanning)";
+        sendMessage(sender, "<yellow>Bootstrap: <white>" + bootstrap + "</white></yellow>");
+        sendMessage(sender, "<yellow>Cataloged Portals: <white>" + portalCatalog.getPortalCount() + "</white></yellow>");
+        sendMessage(sender, "<yellow>Temporary Grants: <white>" + grantStore.getPlayerCount() + " players, "
+            + grantStore.getExpiredCount() + " expired</white></yellow>");
+        sendMessage(sender, "<yellow>Portal Regions: <white>" + regionIndex.getRegionCount() + " in "
+            + regionIndex.getCellCount() + " chunk cells</white></yellow>");
+        String providers = providedPortals.hasProviders() ? String.join(", ", providedPortals.getProviderNames()) : "none";
+        sendMessage(sender, "<yellow>Portal Providers: <white>" + providers + " (" + providedPortals.getPortalCount() + " portals in "
+            + providedPortals.getCellCount() + " chunks, " + providedPortals.getProviderCalls() + " calls, "
+            + providedPortals.getProviderFailures() + " failed)</white></yellow>");
+        sendMessage(sender, "");
+        
+        // Read from the published snapshot, so this stays valid if info is ever served off the main thread
+        EntitySecurityTable.Snapshot state = securityService.getStateSnapshot();
+        sendMessage(sender, "<gold>Security State:</gold>");
+        sendMessage(sender, "<yellow>Tracked Entities: <white>" + state.size() + " (max " + configManager.getMaxTrackedEntities()
+            + ", " + configManager.getStateEvictionPolicy() + ")</white></yellow>");
+        sendMessage(sender, "<yellow>Entity Cooldowns: <white>" + state.countCooldownsActiveAt(plugin.getServer().getCurrentTick())
+            + "</white></yellow>");
+        sendMessage(sender, "<yellow>In Portals: <white>" + state.countDwelling() + ", gliding: "
+            + state.countFlag(EntitySecurityTable.FLAG_GLIDING) + ", in vehicles: "
+            + state.countFlag(EntitySecurityTable.FLAG_IN_VEHICLE) + "</white></yellow>");
+        LoadGovernor governor = securityService.getLoadGovernor();
+        sendMessage(sender, "<yellow>Check Tier: <white>" + governor.getTier() + " (MSPT " + String.format("%.1f", governor.getLastMspt())
+            + (configManager.isAdaptiveChecksEnabled() ? "" : ", adaptive off") + ")</white></yellow>");
+        sendMessage(sender, "<yellow>Player Slots: <white>" + playerSlots.getActiveCount() + "/" + playerSlots.getCapacity()
+            + " (" + playerSlots.getBytesPerSlot() + " bytes per slot, "
+            + (long) playerSlots.getCapacity() * playerSlots.getBytesPerSlot() + " bytes allocated)</white></yellow>");
+    }
+    
+    /**
+     * Handles scan command - queues loaded chunks for a portal index rescan
+     * Obsługuje komendę scan - kolejkuje załadowane chunki do ponownego skanowania indeksu portali
+     */
+    private void handleScanCommand(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (args.length < 2) {
+            sendMessage(sender, "&cUsage: /portals scan <radius|all>");
+            return;
+        }
+        
+        if (args[1].equalsIgnoreCase("all")) {
+            chunkScanner.bootstrap();
+            sendMessage(sender, "<green>Queued " + chunkScanner.getPendingCount() + " loaded chunks for scanning</green>");
+            return;
+        }
+        
+        if (!(sender instanceof Player player)) {
+            sendMessage(sender, "&cOnly players can scan by radius, use /portals scan all");
+            return;
+        }
+        
+        int radius;
+        try {
+            radius = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            sendMessage(sender, "&cInvalid radius: " + args[1]);
+            return;
+        }
+        if (radius < 0 || radius > MAX_SCAN_RADIUS) {
+            sendMessage(sender, "&cRadius must be between 0 and " + MAX_SCAN_RADIUS + " chunks");
+            return;
+        }
+        
+        var location = player.getLocation();
+        int queued = chunkScanner.enqueueRadius(player.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4, radius);
+        sendMessage(sender, "<green>Queued " + queued + " loaded chunks for scanning</green>");
+    }
+    
+    /**
+     * Handles grant command - gives a player temporary access to a portal type
+     * Obsługuje komendę grant - nadaje graczowi tymczasowy dostęp do typu portalu
+     */
+    private void handleGrantCommand(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission(configManager.getPermission("grant"))) {
+            sendMessage(sender, configManager.getMessage("no_command_permission"));
+            return;
+        }
+        
+        if (args.length < 4) {
+            sendMessage(sender, "&cUsage: /portals grant <player> <nether|end|custom> <duration, e.g. 30m or 1h30m>");
+            return;
+        }
+        
+        OfflinePlayer target = findPlayer(args[1]);
+        if (target == null) {
+            sendMessage(sender, "&cPlayer not found: " + args[1]);
+            return;
+        }
+        
+        PortalType type = PortalType.fromConfig(args[2]);
+        if (type == null) {
+            sendMessage(sender, "&cUnknown portal type: " + args[2]);
+            return;
+        }
+        
+        long durationMillis = parseDuration(args[3]);
+        if (durationMillis <= 0L || durationMillis > MAX_GRANT_MILLIS) {
+            sendMessage(sender, "&cInvalid duration: " + args[3] + " (use s, m, h and d, up to 365d)");
+            return;
+        }
+        
+        grantStore.grant(target.getUniqueId(), type, durationMillis);
+        sendMessage(sender, "&aGranted " + type.getPermissionKey() + " portal access to " + target.getName()
+            + " for " + formatDuration(durationMillis));
+        if (isTypeBlocked(type)) {
+            sendMessage(sender, "&eNote: block_" + type.getPermissionKey() + " is on; the grant lifts it for this player."
+                + " Deny rules and portal regions still apply.");
+        }
+    }
+    
+    /**
+     * Handles revoke command - removes one or all temporary grants of a player
+     * Obsługuje komendę revoke - usuwa jeden lub wszystkie tymczasowe dostępy gracza
+     */
+    private void handleRevokeCommand(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission(configManager.getPermission("grant"))) {
+            sendMessage(sender, configManager.getMessage("no_command_permission"));
+            return;
+        }
+        
+        if (args.length < 2) {
+            sendMessage(sender, "&cUsage: /portals revoke <player> [nether|end|custom]");
+            return;
+        }
+        
+        OfflinePlayer target = findPlayer(args[1]);
+        if (target == null) {
+            sendMessage(sender, "&cPlayer not found: " + args[1]);
+            return;
+        }
+        
+        PortalType type = null;
+        if (args.length >= 3) {
+            type = PortalType.fromConfig(args[2]);
+            if (type == null) {
+                sendMessage(sender, "&cUnknown portal type: " + args[2]);
+                return;
+            }
+        }
+        
+        String scope = type != null ? type.getPermissionKey() + " portal access" : "all temporary portal access";
+        if (grantStore.revoke(target.getUniqueId(), type)) {
+            sendMessage(sender, "&aRevoked " + scope + " from " + target.getName());
+        } else {
+            sendMessage(sender, "&ePlayer " + target.getName() + " has no " + scope);
+        }
+    }
+    
+    /**
+     * Handles region command - creates, edits and lists portal regions with access lists
+     * Obsługuje komendę region - tworzy, edytuje i wyświetla obszary portali z listami dostępu
+     */
+    private void handleRegionCommand(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!sender.hasPermission(configManager.getPermission("region"))) {
+            sendMessage(sender, configManager.getMessage("no_command_permission"));
+            return;
+        }
+        
+        String usage = "&cUsage: /portals region <create|remove|allow|disallow|info|list> ...";
+        if (args.length < 2) {
+            sendMessage(sender, usage);
+            return;
+        }
+        
+        switch (args[1].toLowerCase()) {
+            case "create" -> handleRegionCreate(sender, args);
+            case "remove" -> {
+                if (args.length < 3) {
+                    sendMessage(sender, "&cUsage: /portals region remove <name>");
+                    return;
+                }
+                PortalRegion removed = regionIndex.remove(args[2]);
+                sendMessage(sender, removed != null ? "&aRemoved portal region " + removed.name() : "&cUnknown portal region: " + args[2]);
+            }
+            case "allow", "disallow" -> handleRegionEdit(sender, args, args[1].equalsIgnoreCase("allow"));
+            case "info" -> {
+                if (args.length < 3) {
+                    sendMessage(sender, "&cUsage: /portals region info <name>");
+                    return;
+                }
+                PortalRegion region = regionIndex.get(args[2]);
+                if (region == null) {
+                    sendMessage(sender, "&cUnknown portal region: " + args[2]);
+                    return;
+                }
+                sendRegionInfo(sender, region);
+            }
+            case "list" -> {
+                if (regionIndex.getRegionCount() == 0) {
+                    sendMessage(sender, "&eNo portal regions defined");
+                    return;
+                }
+                List<String> names = new ArrayList<>();
+                for (PortalRegion region : regionIndex.getRegions()) {
+                    names.add(region.name());
+                }
+                sendMessage(sender, "&ePortal regions (" + names.size() + "): &f" + String.join(", ", names));
+            }
+            default -> sendMessage(sender, usage);
+        }
+    }
+    
+    /**
+     * Creates a region around the portal the player stands at, or from two corners
+     * Tworzy obszar wokół portalu przy którym stoi gracz, lub z dwóch narożników
+     */
+    private void handleRegionCreate(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (!(sender instanceof Player player)) {
+            sendMessage(sender, "&cOnly players can create portal regions");
+            return;
+        }
+        if (args.length != 3 && args.length != 9) {
+            sendMessage(sender, "&cUsage: /portals region create <name> [x1 y1 z1 x2 y2 z2]");
+            return;
+        }
+        
+        String name = args[2].toLowerCase();
+        if (!REGION_NAME.matcher(name).matches()) {
+            sendMessage(sender, "&cRegion names may only use a-z, 0-9, _ and -, up to 32 characters");
+            return;
+        }
+        if (regionIndex.get(name) != null) {
+            sendMessage(sender, "&cPortal region already exists: " + name);
+            return;
+        }
+        
+        PortalRegion region;
+        if (args.length == 9) {
+            int[] corners = new int[6];
+            try {
+                for (int i = 0; i < corners.length; i++) {
+                    corners[i] = Integer.parseInt(args[3 + i]);
+                }
+            } catch (NumberFormatException e) {
+                sendMessage(sender, "&cCorner coordinates must be whole numbers");
+                return;
+            }
+            region = PortalRegion.of(name, player.getWorld().getUID(),
+                corners[0], corners[1], corners[2], corners[3], corners[4], corners[5]);
+        } else {
+            var location = player.getLocation();
+            KnownPortal portal = portalCatalog.findNear(player.getWorld(), location.getBlockX(), location.getBlockY(),
+                location.getBlockZ(), REGION_PORTAL_SEARCH_DISTANCE);
+            if (portal == null) {
+                sendMessage(sender, "&cNo cataloged portal nearby; stand next to a portal or give two corners");
+                return;
+            }
+            // One block of margin so the frame-side teleport location is covered too
+            region = PortalRegion.of(name, portal.worldId(), portal.minX() - 1, portal.minY() - 1, portal.minZ() - 1,
+                portal.maxX() + 1, portal.maxY() + 1, portal.maxZ() + 1);
+        }
+        
+        if (PortalRegionIndex.getChunkCount(region) > PortalRegionIndex.MAX_REGION_CHUNKS) {
+            sendMessage(sender, "&cPortal regions may span at most " + PortalRegionIndex.MAX_REGION_CHUNKS + " chunks");
+            return;
+        }
+        
+        regionIndex.put(region);
+        sendMessage(sender, "&aCreated portal region " + name + " from " + region.minX() + " " + region.minY() + " " + region.minZ()
+            + " to " + region.maxX() + " " + region.maxY() + " " + region.maxZ() + "; only bypass can use it until entries are allowed");
+    }
+    
+    /**
+     * Adds or removes a permission, player or group on a region's access list
+     * Dodaje lub usuwa uprawnienie, gracza lub grupę z listy dostępu obszaru
+     */
+    private void handleRegionEdit(@NotNull CommandSender sender, @NotNull String[] args, boolean add) {
+        if (args.length < 5) {
+            sendMessage(sender, "&cUsage: /portals region " + args[1].toLowerCase() + " <name> <permission|player|group> <value>");
+            return;
+        }
+        
+        PortalRegion region = regionIndex.get(args[2]);
+        if (region == null) {
+            sendMessage(sender, "&cUnknown portal region: " + args[2]);
+            return;
+        }
+        
+        String value = args[4];
+        PortalRegion updated;
+        switch (args[3].toLowerCase()) {
+            case "permission" -> updated = region.withPermission(value, add);
+            case "group" -> updated = region.withGroup(value, add);
+            case "player" -> {
+                OfflinePlayer target = findPlayer(value);
+                if (target == null) {
+                    sendMessage(sender, "&cPlayer not found: " + value);
+                    return;
+                }
+                updated = region.withPlayer(target.getUniqueId(), add);
+            }
+            default -> {
+                sendMessage(sender, "&cUnknown entry type: " + args[3] + " (use permission, player or group)");
+                return;
+            }
+        }
+        
+        regionIndex.put(updated);
+        sendMessage(sender, "&a" + (add ? "Allowed " : "Disallowed ") + args[3].toLowerCase() + " " + value
+            + " in portal region " + region.name());
+    }
+    
+    private void sendRegionInfo(@NotNull CommandSender sender, @NotNull PortalRegion region) {
+        var world = plugin.getServer().getWorld(region.worldId());
+        List<String> players = new ArrayList<>();
+        for (var playerId : region.players()) {
+            String name = plugin.getServer().getOfflinePlayer(playerId).getName();
+            players.add(name != null ? name : playerId.toString());
+        }
+        
+        sendMessage(sender, "&6=== Portal region " + region.name() + " ===");
+        sendMessage(sender, "&eWorld: &f" + (world != null ? world.getName() : region.worldId().toString()));
+        sendMessage(sender, "&eBounds: &f" + region.minX() + " " + region.minY() + " " + region.minZ()
+            + " to " + region.maxX() + " " + region.maxY() + " " + region.maxZ());
+        sendMessage(sender, "&ePermissions: &f" + (region.permissions().isEmpty() ? "-" : String.join(", ", region.permissions())));
+        sendMessage(sender, "&ePlayers: &f" + (players.isEmpty() ? "-" : String.join(", ", players)));
+        sendMessage(sender, "&eGroups: &f" + (region.groups().isEmpty() ? "-" : String.join(", ", region.groups())));
+    }
+    
+    /**
+     * Finds an online player, or an offline one who has joined before
+     * Znajduje gracza online, lub offline który już wcześniej dołączył
+     */
+    private @Nullable OfflinePlayer findPlayer(@NotNull String name) {
+        Player online = plugin.getServer().getPlayer(name);
+        return online != null ? online : plugin.getServer().getOfflinePlayerIfCached(name);
+    }
+    
+    /**
+     * Parses durations such as 90s, 30m or 1h30m into milliseconds
+     * Parsuje czasy takie jak 90s, 30m lub 1h30m na milisekundy
+     *
+     * @return The duration, or -1 if the text is not a valid duration
+     */
+    private static long parseDuration(@NotNull String text) {
+        Matcher matcher = DURATION_PART.matcher(text.toLowerCase());
+        long millis = 0L;
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            long amount;
+            try {
+                amount = Long.parseLong(matcher.group(1));
+            } catch (NumberFormatException e) {
+                return -1L;
+            }
+            long unit = switch (matcher.group(2)) {
+                case "s" -> 1000L;
+                case "m" -> 60_000L;
+                case "h" -> 3_600_000L;
+                default -> 86_400_000L;
+            };
+            if (amount > MAX_GRANT_MILLIS / unit) {
+                return -1L;
+            }
+            millis += amount * unit;
+            end = matcher.end();
+        }
+        return end == text.length() && end > 0 ? millis : -1L;
+    }
+    
+    private static @NotNull String formatDuration(long millis) {
+        long seconds = millis / 1000L;
+        if (seconds >= 3600L) {
+            return seconds / 3600L + "h " + seconds % 3600L / 60L + "m";
+        }
+        if (seconds >= 60L) {
+            return seconds / 60L + "m " + seconds % 60L + "s";
+        }
+        return seconds + "s";
+    }
+    
+    private boolean isTypeBlocked(@NotNull PortalType type) {
+        return switch (type) {
+            case NETHER -> configManager.isNetherBlocked();
+            case END -> configManager.isEndBlocked();
+            case CUSTOM -> configManager.isCustomBlocked();
+        };
     }
     
     /**
@@ -176,17 +632,95 @@ public class PortalsCommand implements CommandExecutor, TabCompleter {
                     return;
                 }
                 
-                if (cooldownManager.hasCooldown(target)) {
-                    int remaining = cooldownManager.getRemainingCooldown(target);
-                    sendMessage(sender, "&ePlayer " + target.getName() + " has " + remaining + " seconds remaining");
-                } else {
+                boolean anyCooldown = false;
+                for (PortalType type : PortalType.values()) {
+                    int remaining = cooldownManager.getRemainingCooldown(target, type);
+                    if (remaining > 0) {
+                        sendMessage(sender, "&ePlayer " + target.getName() + " has " + remaining + " seconds remaining ("
+                            + type.getPermissionKey() + ")");
+                        anyCooldown = true;
+                    }
+                }
+                if (!anyCooldown) {
                     sendMessage(sender, "&aPlayer " + target.getName() + " has no active cooldown");
                 }
+                sendMessage(sender, "&eCooldown tier: " + cooldownManager.getTier(target).name());
+                
+                double score = cooldownManager.getViolationScore(target);
+                if (score > 0.0) {
+                    sendMessage(sender, "&eViolation score: " + String.format("%.2f", score));
+                }
             }
             default -> sendMessage(sender, "&cUsage: /portals cooldown <clear|check> [player]");
         }
     }
     
+    /**
+     * Handles stats command - shows per-stage pipeline counters
+     * Obsługuje komendę stats - pokazuje liczniki etapów potoku
+     */
+    private void handleStatsCommand(@NotNull CommandSender sender, @NotNull String[] args) {
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            accessPipeline.resetMetrics();
+            velocityTags.resetCounters();
+            securityService.getMovementSweeper().resetCounters();
+            securityService.getRiskScorer().resetCounters();
+            securityService.getLoadGovernor().resetCounters();
+            sendMessage(sender, "<green>Pipeline statistics reset</green>");
+            return;
+        }
+        
+        sendMessage(sender, "<gold>=== Portal Pipeline Stats ===</gold>");
+        if (!accessPipeline.isMetricsEnabled()) {
+            sendMessage(sender, "<gray>Metrics collection is disabled (pipeline.metrics)</gray>");
+        }
+        
+        List<PortalAccessStage> active = accessPipeline.getActiveStages();
+        StringBuilder chain = new StringBuilder();
+        for (PortalAccessStage stage : active) {
+            if (!chain.isEmpty()) {
+                chain.append(" > ");
+            }
+            chain.append(stage.getName());
+        }
+        sendMessage(sender, "<yellow>Active chain: <white>" + (chain.isEmpty() ? "-" : chain.toString()) + "</white></yellow>");
+        
+        for (PortalAccessStage stage : accessPipeline.getStages()) {
+            StageMetrics metrics = accessPipeline.getMetrics(stage);
+            String state = active.contains(stage) ? "" : " <gray>(disabled)</gray>";
+            sendMessage(sender, String.format(
+                "<yellow>%s</yellow> <gray>[%s]</gray>%s<white>: %d evaluated, %d allowed, %d denied, avg %.0f ns</white>",
+                stage.getName(),
+                stage.getCostClass().name().toLowerCase(),
+                state,
+                metrics.getEvaluations(),
+                metrics.getAllows(),
+                metrics.getDenials(),
+                metrics.getAverageNanos()
+            ));
+        }
+        
+        sendMessage(sender, "<yellow>Velocity events: <white>" + velocityTags.getSkippedEvents() + " self-induced skipped, "
+            + velocityTags.getCheckedEvents() + " checked</white></yellow>");
+        
+        MovementSweeper sweeper = securityService.getMovementSweeper();
+        String mode = configManager.isBatchedMovementEnabled()
+            ? "batched, " + configManager.getMovementTickBudgetMicros() + " µs/tick"
+            : "per event";
+        sendMessage(sender, "<yellow>Movement checks: <white>" + mode + ", " + sweeper.getVisitedCount() + " swept, "
+            + sweeper.getPendingCount() + " pending, " + sweeper.getCarryOverCount() + " budget carry-overs</white></yellow>");
+        
+        RiskScorer scorer = securityService.getRiskScorer();
+        sendMessage(sender, "<yellow>Risk scoring: <white>" + (configManager.isRiskScoringEnabled() ? "on" : "off") + ", "
+            + scorer.getWindowsScored() + " windows scored, " + scorer.getVerdictsIssued() + " verdicts, "
+            + scorer.getWindowsDropped() + " dropped, " + scorer.getBufferedFrameCount() + " frames buffered</white></yellow>");
+        
+        LoadGovernor governor = securityService.getLoadGovernor();
+        sendMessage(sender, "<yellow>Check tiers: <white>full " + governor.getTicksInTier(LoadTier.FULL) / 20 + " s, sampled "
+            + governor.getTicksInTier(LoadTier.SAMPLED) / 20 + " s, portal-only " + governor.getTicksInTier(LoadTier.PORTAL_ONLY) / 20
+            + " s, " + governor.getTransitionCount() + " transitions, " + governor.getSkippedCheckCount() + " checks skipped</white></yellow>");
+    }
+    
     /**
      * Sends help message
      * Wysyła wiadomość pomocy
@@ -197,6 +731,11 @@ public class PortalsCommand implements CommandExecutor, TabCompleter {
         sendMessage(sender, "&e/portals info &7- Show plugin information");
         sendMessage(sender, "&e/portals cooldown clear [player] &7- Clear cooldowns");
         sendMessage(sender, "&e/portals cooldown check <player> &7- Check player cooldown");
+        sendMessage(sender, "&e/portals stats [reset] &7- Show access pipeline statistics");
+        sendMessage(sender, "&e/portals scan <radius|all> &7- Rescan loaded chunks for portals");
+        sendMessage(sender, "&e/portals grant <player> <type> <duration> &7- Grant temporary portal access");
+        sendMessage(sender, "&e/portals revoke <player> [type] &7- Revoke temporary portal access");
+        sendMessage(sender, "&e/portals region <create|remove|allow|disallow|info|list> &7- Manage portal access regions");
         sendMessage(sender, "&e/portals help &7- Show this help message");
     }
     
@@ -225,7 +764,7 @@ public class PortalsCommand implements CommandExecutor, TabCompleter {
         
         if (args.length == 1) {
             // First argument - subcommands
-            List<String> subCommands = Arrays.asList("reload", "info", "cooldown", "help");
+            List<String> subCommands = Arrays.asList("reload", "info", "cooldown", "stats", "scan", "grant", "revoke", "region", "help");
             String input = args[0].toLowerCase();
             
             for (String subCommand : subCommands) {
@@ -243,6 +782,55 @@ public class PortalsCommand implements CommandExecutor, TabCompleter {
                     completions.add(action);
                 }
             }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            if ("reset".startsWith(args[1].toLowerCase())) {
+                completions.add("reset");
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("scan")) {
+            for (String option : Arrays.asList("all", "4", "8", "16")) {
+                if (option.startsWith(args[1].toLowerCase())) {
+                    completions.add(option);
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("region")) {
+            for (String action : Arrays.asList("create", "remove", "allow", "disallow", "info", "list")) {
+                if (action.startsWith(args[1].toLowerCase())) {
+                    completions.add(action);
+                }
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("region") && !args[1].equalsIgnoreCase("create")) {
+            for (PortalRegion region : regionIndex.getRegions()) {
+                if (region.name().startsWith(args[2].toLowerCase())) {
+                    completions.add(region.name());
+                }
+            }
+        } else if (args.length == 4 && args[0].equalsIgnoreCase("region")
+                && (args[1].equalsIgnoreCase("allow") || args[1].equalsIgnoreCase("disallow"))) {
+            for (String kind : Arrays.asList("permission", "player", "group")) {
+                if (kind.startsWith(args[3].toLowerCase())) {
+                    completions.add(kind);
+                }
+            }
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("grant") || args[0].equalsIgnoreCase("revoke"))) {
+            String input = args[1].toLowerCase();
+            
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                if (player.getName().toLowerCase().startsWith(input)) {
+                    completions.add(player.getName());
+                }
+            }
+        } else if (args.length == 3 && (args[0].equalsIgnoreCase("grant") || args[0].equalsIgnoreCase("revoke"))) {
+            for (PortalType type : PortalType.values()) {
+                if (type.getPermissionKey().startsWith(args[2].toLowerCase())) {
+                    completions.add(type.getPermissionKey());
+                }
+            }
+        } else if (args.length == 4 && args[0].equalsIgnoreCase("grant")) {
+            for (String option : Arrays.asList("10m", "30m", "1h", "1d")) {
+                if (option.startsWith(args[3].toLowerCase())) {
+                    completions.add(option);
+                }
+            }
         } else if (args.length == 3 && args[0].equalsIgnoreCase("cooldown")) {
             // Third argument for cooldown command - player names
             String input = args[2].toLowerCase();
@@ -1,7 +1,5 @@
 package org.rafalohaki.portalsPermission.events;
 
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityPortalEnterEvent;
 import io.papermc.paper.event.entity.EntityPortalReadyEvent;
@@ -14,6 +12,8 @@ import java.util.logging.Level;
 /**
  * Listener for entity portal security events to prevent bypasses
  * Listener dla zdarzeń zabezpieczeń portali encji zapobiegający bypassom
+ *
+ * <p>Handlers are attached individually by {@link org.rafalohaki.portalsPermission.listeners.FeatureListenerRegistrar}.</p>
  */
 public class EntityPortalSecurityListener implements Listener {
     
@@ -33,7 +33,6 @@ public class EntityPortalSecurityListener implements Listener {
      * Handles entity portal enter events to prevent long-stay bypasses
      * Obsługuje zdarzenia wejścia encji do portalu aby zapobiec bypassom przez długie przebywanie
      */
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onEntityPortalEnter(@NotNull EntityPortalEnterEvent event) {
         try {
             portalSecurityService.handleEntityPortalEnter(event);
@@ -46,7 +45,6 @@ public class EntityPortalSecurityListener implements Listener {
      * Handles entity portal ready events to prevent teleportation bypasses
      * Obsługuje zdarzenia gotowości portalu encji aby zapobiec bypassom teleportacji
      */
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onEntityPortalReady(@NotNull EntityPortalReadyEvent event) {
         try {
             portalSecurityService.handleEntityPortalReady(event);
@@ -1,8 +1,6 @@
 package org.rafalohaki.portalsPermission.events;
 
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityToggleGlideEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
@@ -10,6 +8,7 @@ import org.bukkit.event.player.PlayerVelocityEvent;
 import com.destroystokyo.paper.event.player.PlayerElytraBoostEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.VelocityTagManager;
 import org.rafalohaki.portalsPermission.services.IPortalSecurityService;
 
 import java.util.logging.Level;
@@ -17,26 +16,30 @@ import java.util.logging.Level;
 /**
  * Listener for player movement security events to prevent portal bypasses
  * Listener dla zdarzeń zabezpieczeń ruchu gracza zapobiegający bypassom portali
+ *
+ * <p>Handlers are attached individually by {@link org.rafalohaki.portalsPermission.listeners.FeatureListenerRegistrar}.</p>
  */
 public class PlayerMovementSecurityListener implements Listener {
     
     private final JavaPlugin plugin;
     private final IPortalSecurityService portalSecurityService;
+    private final VelocityTagManager velocityTags;
 
     /**
      * Constructor for PlayerMovementSecurityListener
      * Konstruktor dla PlayerMovementSecurityListener
      */
-    public PlayerMovementSecurityListener(@NotNull JavaPlugin plugin, @NotNull IPortalSecurityService portalSecurityService) {
+    public PlayerMovementSecurityListener(@NotNull JavaPlugin plugin, @NotNull IPortalSecurityService portalSecurityService,
+                                          @NotNull VelocityTagManager velocityTags) {
         this.plugin = plugin;
         this.portalSecurityService = portalSecurityService;
+        this.velocityTags = velocityTags;
     }
 
     /**
      * Handles entity toggle glide events to prevent elytra bypasses
      * Obsługuje zdarzenia przełączania szybowania aby zapobiec bypassom z elytrą
      */
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onEntityToggleGlide(@NotNull EntityToggleGlideEvent event) {
         if (!(event.getEntity() instanceof Player player)) {
             return;
@@ -53,7 +56,6 @@ public class PlayerMovementSecurityListener implements Listener {
      * Handles player elytra boost events to prevent elytra bypasses
      * Obsługuje zdarzenia boostowania elytr aby zapobiec bypassom z elytrą
      */
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPlayerElytraBoost(@NotNull PlayerElytraBoostEvent event) {
         Player player = event.getPlayer();
         
@@ -68,7 +70,6 @@ public class PlayerMovementSecurityListener implements Listener {
      * Handles player move events to prevent fast movement bypasses
      * Obsługuje zdarzenia ruchu gracza aby zapobiec bypassom przez szybki ruch
      */
-    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerMove(@NotNull PlayerMoveEvent event) {
         Player player = event.getPlayer();
         
@@ -88,10 +89,14 @@ public class PlayerMovementSecurityListener implements Listener {
      * Handles player velocity events to prevent velocity-based bypasses
      * Obsługuje zdarzenia prędkości gracza aby zapobiec bypassom opartym na prędkości
      */
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onPlayerVelocity(@NotNull PlayerVelocityEvent event) {
         Player player = event.getPlayer();
         
+        // Knockback set by this plugin would otherwise re-trigger the velocity check
+        if (velocityTags.isSelfInduced(player, event.getVelocity())) {
+            return;
+        }
+        
         try {
             portalSecurityService.handlePlayerVelocityChange(player, event.getVelocity());
         } catch (Exception e) {
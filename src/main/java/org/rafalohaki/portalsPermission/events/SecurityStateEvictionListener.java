@@ -0,0 +1,97 @@
+package org.rafalohaki.portalsPermission.events;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.VelocityTagManager;
+import org.rafalohaki.portalsPermission.services.IPortalSecurityService;
+
+import java.util.logging.Level;
+
+/**
+ * Listener that drops per-entity security state when an entity's lifecycle ends
+ * Listener usuwający stan zabezpieczeń encji gdy kończy się jej cykl życia
+ *
+ * <p>Handlers are attached individually by {@link org.rafalohaki.portalsPermission.listeners.FeatureListenerRegistrar}.</p>
+ */
+public class SecurityStateEvictionListener implements Listener {
+    
+    private final JavaPlugin plugin;
+    private final IPortalSecurityService portalSecurityService;
+    private final VelocityTagManager velocityTags;
+    
+    /**
+     * Constructor for SecurityStateEvictionListener
+     * Konstruktor dla SecurityStateEvictionListener
+     */
+    public SecurityStateEvictionListener(@NotNull JavaPlugin plugin, @NotNull IPortalSecurityService portalSecurityService,
+                                         @NotNull VelocityTagManager velocityTags) {
+        this.plugin = plugin;
+        this.portalSecurityService = portalSecurityService;
+        this.velocityTags = velocityTags;
+    }
+    
+    /**
+     * Handles player quit events to forget every tracked state of the player
+     * Obsługuje zdarzenia wyjścia gracza aby zapomnieć cały śledzony stan gracza
+     */
+    public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        
+        try {
+            portalSecurityService.evictEntity(player);
+            velocityTags.remove(player.getUniqueId());
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error handling PlayerQuitEvent for player: " + player.getName(), e);
+        }
+    }
+    
+    /**
+     * Handles entity removal, including chunk unloads and despawns
+     * Obsługuje usuwanie encji, w tym wyładowanie chunków i despawn
+     */
+    public void onEntityRemoveFromWorld(@NotNull EntityRemoveFromWorldEvent event) {
+        Entity entity = event.getEntity();
+        
+        // Players are also removed when changing worlds; their state is dropped on quit instead
+        if (entity instanceof Player) {
+            return;
+        }
+        
+        try {
+            portalSecurityService.evictEntity(entity);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error handling EntityRemoveFromWorldEvent for entity: " + entity.getUniqueId(), e);
+        }
+    }
+    
+    /**
+     * Handles entity and player deaths
+     * Obsługuje śmierć encji i graczy
+     */
+    public void onEntityDeath(@NotNull EntityDeathEvent event) {
+        try {
+            portalSecurityService.evictEntity(event.getEntity());
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error handling EntityDeathEvent for entity: " + event.getEntity().getUniqueId(), e);
+        }
+    }
+    
+    /**
+     * Handles world unload events to forget entities of the unloaded world
+     * Obsługuje zdarzenia wyładowania świata aby zapomnieć encje wyładowanego świata
+     */
+    public void onWorldUnload(@NotNull WorldUnloadEvent event) {
+        try {
+            portalSecurityService.evictWorld(event.getWorld());
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error handling WorldUnloadEvent for world: " + event.getWorld().getName(), e);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package org.rafalohaki.portalsPermission.events;
 
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.vehicle.VehicleEnterEvent;
 import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.rafalohaki.portalsPermission.services.IPortalSecurityService;
@@ -14,6 +13,8 @@ import java.util.logging.Level;
 /**
  * Listener for vehicle security events to prevent portal bypasses
  * Listener dla zdarzeń zabezpieczeń pojazdów zapobiegający bypassom portali
+ *
+ * <p>Handlers are attached individually by {@link org.rafalohaki.portalsPermission.listeners.FeatureListenerRegistrar}.</p>
  */
 public class VehicleSecurityListener implements Listener {
     
@@ -33,7 +34,6 @@ public class VehicleSecurityListener implements Listener {
      * Handles vehicle enter events to track players in vehicles near portals
      * Obsługuje zdarzenia wejścia do pojazdu aby śledzić graczy w pojazdach blisko portali
      */
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onVehicleEnter(@NotNull VehicleEnterEvent event) {
         try {
             portalSecurityService.handleVehicleEnter(event);
@@ -46,7 +46,6 @@ public class VehicleSecurityListener implements Listener {
      * Handles vehicle exit events to stop tracking players who left vehicles
      * Obsługuje zdarzenia wyjścia z pojazdu aby przestać śledzić graczy którzy opuścili pojazdy
      */
-    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onVehicleExit(@NotNull VehicleExitEvent event) {
         try {
             portalSecurityService.handleVehicleExit(event);
@@ -54,4 +53,16 @@ public class VehicleSecurityListener implements Listener {
             plugin.getLogger().log(Level.SEVERE, "Error handling VehicleExitEvent for entity: " + event.getExited().getUniqueId(), e);
         }
     }
+    
+    /**
+     * Handles vehicle move events to follow ridden vehicles towards portals
+     * Obsługuje zdarzenia ruchu pojazdu aby śledzić pojazdy z pasażerami zmierzające do portali
+     */
+    public void onVehicleMove(@NotNull VehicleMoveEvent event) {
+        try {
+            portalSecurityService.handleVehicleMove(event);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error handling VehicleMoveEvent for vehicle: " + event.getVehicle().getUniqueId(), e);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package org.rafalohaki.portalsPermission.listeners;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Registers individual event handlers only while the features that need them are enabled
+ * Rejestruje pojedyncze handlery zdarzeń tylko gdy funkcje które ich potrzebują są włączone
+ *
+ * <p>Each handler is bound to the {@link HandlerList} of its event, so a disabled feature
+ * costs nothing in event dispatch - the handler is simply not in the list.</p>
+ */
+public final class FeatureListenerRegistrar {
+    
+    private final JavaPlugin plugin;
+    private final List<HandlerBinding> bindings = new ArrayList<>();
+    
+    public FeatureListenerRegistrar(@NotNull JavaPlugin plugin) {
+        this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+    }
+    
+    /**
+     * Declares a handler; it is attached by {@link #apply()} whenever the condition holds
+     * Deklaruje handler; jest podłączany przez {@link #apply()} gdy warunek jest spełniony
+     *
+     * @param name Handler name shown in diagnostics
+     * @param eventClass The event class
+     * @param handlerList The handler list of the event class
+     * @param owner The listener instance owning the handler
+     * @param priority The handler priority
+     * @param ignoreCancelled Whether cancelled events are skipped
+     * @param handler The handler method
+     * @param condition Whether the handler is needed under the current configuration
+     */
+    public <E extends Event> void bind(@NotNull String name,
+                                       @NotNull Class<E> eventClass,
+                                       @NotNull HandlerList handlerList,
+                                       @NotNull Listener owner,
+                                       @NotNull EventPriority priority,
+                                       boolean ignoreCancelled,
+                                       @NotNull Consumer<E> handler,
+                                       @NotNull BooleanSupplier condition) {
+        RegisteredListener registered = new RegisteredListener(owner, (listener, event) -> {
+            // Handler lists are per class, but guard against subclasses sharing a list
+            if (eventClass.isInstance(event)) {
+                handler.accept(eventClass.cast(event));
+            }
+        }, priority, plugin, ignoreCancelled);
+        
+        bindings.add(new HandlerBinding(name, handlerList, registered, condition));
+    }
+    
+    /**
+     * Attaches and detaches handlers according to their conditions; main thread only
+     * Podłącza i odłącza handlery zgodnie z ich warunkami; tylko główny wątek
+     */
+    public void apply() {
+        int attached = 0;
+        int detached = 0;
+        
+        for (HandlerBinding binding : bindings) {
+            boolean needed;
+            try {
+                needed = binding.condition().getAsBoolean();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to evaluate condition for handler " + binding.name(), e);
+                continue;
+            }
+            
+            if (needed && !binding.isActive()) {
+                binding.handlerList().register(binding.registered());
+                binding.setActive(true);
+                attached++;
+            } else if (!needed && binding.isActive()) {
+                binding.handlerList().unregister(binding.registered());
+                binding.setActive(false);
+                detached++;
+            }
+        }
+        
+        if (attached > 0 || detached > 0) {
+            plugin.getLogger().info("Event handlers updated: " + attached + " attached, " + detached + " detached ("
+                + getActiveCount() + "/" + bindings.size() + " active)");
+        }
+    }
+    
+    /**
+     * Detaches every handler
+     * Odłącza wszystkie handlery
+     */
+    public void unregisterAll() {
+        for (HandlerBinding binding : bindings) {
+            if (binding.isActive()) {
+                binding.handlerList().unregister(binding.registered());
+                binding.setActive(false);
+            }
+        }
+    }
+    
+    public int getActiveCount() {
+        int count = 0;
+        for (HandlerBinding binding : bindings) {
+            if (binding.isActive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public int getBindingCount() {
+        return bindings.size();
+    }
+    
+    /**
+     * Gets the names of currently attached handlers
+     * Pobiera nazwy aktualnie podłączonych handlerów
+     */
+    public @NotNull List<String> getActiveHandlerNames() {
+        List<String> names = new ArrayList<>();
+        for (HandlerBinding binding : bindings) {
+            if (binding.isActive()) {
+                names.add(binding.name());
+            }
+        }
+        return names;
+    }
+    
+    public boolean isActive(@NotNull String name) {
+        for (HandlerBinding binding : bindings) {
+            if (binding.name().equals(name)) {
+                return binding.isActive();
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Single declared handler and its registration state
+     * Pojedynczy zadeklarowany handler i jego stan rejestracji
+     */
+    private static final class HandlerBinding {
+        
+        private final String name;
+        private final HandlerList handlerList;
+        private final RegisteredListener registered;
+        private final BooleanSupplier condition;
+        private boolean active;
+        
+        HandlerBinding(@NotNull String name, @NotNull HandlerList handlerList,
+                       @NotNull RegisteredListener registered, @NotNull BooleanSupplier condition) {
+            this.name = name;
+            this.handlerList = handlerList;
+            this.registered = registered;
+            this.condition = condition;
+        }
+        
+        String name() {
+            return name;
+        }
+        
+        HandlerList handlerList() {
+            return handlerList;
+        }
+        
+        RegisteredListener registered() {
+            return registered;
+        }
+        
+        BooleanSupplier condition() {
+            return condition;
+        }
+        
+        boolean isActive() {
+            return active;
+        }
+        
+        void setActive(boolean active) {
+            this.active = active;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.rafalohaki.portalsPermission.listeners;
+
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+
+/**
+ * Assigns player slots on join and recycles them on quit
+ * Przydziela sloty graczy przy dołączeniu i odzyskuje je przy wyjściu
+ *
+ * <p>Handlers are attached individually by {@link FeatureListenerRegistrar}. Join runs first so
+ * every other handler already sees a slot; quit runs last so state is readable until then.</p>
+ */
+public class PlayerSlotListener implements Listener {
+    
+    private final PlayerSlotRegistry playerSlots;
+    
+    /**
+     * Constructor for PlayerSlotListener
+     * Konstruktor dla PlayerSlotListener
+     */
+    public PlayerSlotListener(@NotNull PlayerSlotRegistry playerSlots) {
+        this.playerSlots = playerSlots;
+    }
+    
+    public void onPlayerJoin(@NotNull PlayerJoinEvent event) {
+        playerSlots.assign(event.getPlayer().getUniqueId());
+    }
+    
+    public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        playerSlots.release(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,161 @@
+package org.rafalohaki.portalsPermission.listeners;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.PortalCreateEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.portal.PortalCatalog;
+import org.rafalohaki.portalsPermission.portal.PortalChunkScanner;
+import org.rafalohaki.portalsPermission.portal.PortalKind;
+import org.rafalohaki.portalsPermission.portal.PortalLocationIndex;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Keeps the portal location index in sync with chunk loads and unloads, new portals and world unloads
+ * Utrzymuje indeks lokalizacji portali zgodny z ładowaniem i wyładowaniem chunków, nowymi portalami i wyładowaniem światów
+ *
+ * <p>Portal blocks that appear without a {@link PortalCreateEvent} (placed frames and custom blocks,
+ * blocks changed by entities, end portals lit with eyes of ender) are indexed or rescanned as well,
+ * since indexed areas are answered from the index alone. Handlers are attached individually by
+ * {@link FeatureListenerRegistrar}.</p>
+ */
+public class PortalIndexListener implements Listener {
+    
+    // Farthest block distance between an end portal frame and the portal it lights
+    private static final int END_PORTAL_REACH = 4;
+    
+    private final JavaPlugin plugin;
+    private final PortalMaterialRegistry materialRegistry;
+    private final PortalLocationIndex portalIndex;
+    private final PortalChunkScanner scanner;
+    private final PortalCatalog portalCatalog;
+    
+    /**
+     * Constructor for PortalIndexListener
+     * Konstruktor dla PortalIndexListener
+     */
+    public PortalIndexListener(@NotNull JavaPlugin plugin,
+                               @NotNull PortalMaterialRegistry materialRegistry,
+                               @NotNull PortalLocationIndex portalIndex,
+                               @NotNull PortalChunkScanner scanner,
+                               @NotNull PortalCatalog portalCatalog) {
+        this.plugin = plugin;
+        this.materialRegistry = materialRegistry;
+        this.portalIndex = portalIndex;
+        this.scanner = scanner;
+        this.portalCatalog = portalCatalog;
+    }
+    
+    /**
+     * Queues freshly loaded chunks for an off-thread scan
+     * Kolejkuje świeżo załadowane chunki do skanowania poza głównym wątkiem
+     */
+    public void onChunkLoad(@NotNull ChunkLoadEvent event) {
+        scanner.enqueue(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+    
+    /**
+     * Forgets the index data of an unloaded chunk so the scanned set stays bounded by loaded chunks
+     * Zapomina dane indeksu wyładowanego chunka, aby zbiór przeskanowanych był ograniczony załadowanymi chunkami
+     */
+    public void onChunkUnload(@NotNull ChunkUnloadEvent event) {
+        portalIndex.unloadChunk(event.getWorld().getUID(),
+            BlockKeys.chunkKey(event.getChunk().getX(), event.getChunk().getZ()));
+    }
+    
+    /**
+     * Indexes the blocks of a newly created portal right away and queues its chunks for cataloging
+     * Od razu indeksuje bloki nowo utworzonego portalu i kolejkuje jego chunki do katalogowania
+     */
+    public void onPortalCreate(@NotNull PortalCreateEvent event) {
+        try {
+            World world = event.getWorld();
+            UUID worldId = world.getUID();
+            for (BlockState state : event.getBlocks()) {
+                if (materialRegistry.classify(state.getBlockData()) != PortalKind.NONE) {
+                    portalIndex.addBlock(worldId, state.getX(), state.getY(), state.getZ());
+                    // Blocks are placed after the event, so the rescan next tick sees the finished portal
+                    scanner.enqueue(world, state.getX() >> 4, state.getZ() >> 4);
+                }
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error indexing PortalCreateEvent in world: " + event.getWorld().getName(), e);
+        }
+    }
+    
+    /**
+     * Indexes a placed portal frame or custom portal block
+     * Indeksuje postawioną ramę portalu lub niestandardowy blok portalu
+     */
+    public void onBlockPlace(@NotNull BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        indexChangedBlock(block.getWorld(), block.getX(), block.getY(), block.getZ(), block.getBlockData());
+    }
+    
+    /**
+     * Indexes portal blocks placed by entities, such as endermen or falling blocks
+     * Indeksuje bloki portalu postawione przez encje, np. endermany lub spadające bloki
+     */
+    public void onEntityChangeBlock(@NotNull EntityChangeBlockEvent event) {
+        Block block = event.getBlock();
+        indexChangedBlock(block.getWorld(), block.getX(), block.getY(), block.getZ(), event.getBlockData());
+    }
+    
+    /**
+     * Queues the chunks around an end portal frame filled with an eye of ender for a rescan
+     * Kolejkuje do ponownego skanowania chunki wokół ramy portalu Endu wypełnionej okiem Endu
+     */
+    public void onEndFrameActivate(@NotNull PlayerInteractEvent event) {
+        Block block = event.getClickedBlock();
+        if (event.getAction() != Action.RIGHT_CLICK_BLOCK || block == null
+            || block.getType() != Material.END_PORTAL_FRAME || event.getMaterial() != Material.ENDER_EYE) {
+            return;
+        }
+        
+        // The lit portal lies within END_PORTAL_REACH blocks of any of its frames and appears after the event
+        World world = block.getWorld();
+        int minChunkX = (block.getX() - END_PORTAL_REACH) >> 4;
+        int maxChunkX = (block.getX() + END_PORTAL_REACH) >> 4;
+        int minChunkZ = (block.getZ() - END_PORTAL_REACH) >> 4;
+        int maxChunkZ = (block.getZ() + END_PORTAL_REACH) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                scanner.enqueue(world, chunkX, chunkZ);
+            }
+        }
+    }
+    
+    private void indexChangedBlock(@NotNull World world, int x, int y, int z, @NotNull BlockData blockData) {
+        if (materialRegistry.classify(blockData) != PortalKind.NONE) {
+            portalIndex.addBlock(world.getUID(), x, y, z);
+            scanner.enqueue(world, x >> 4, z >> 4);
+        }
+    }
+    
+    /**
+     * Drops index data and queued scans of an unloading world
+     * Usuwa dane indeksu i zakolejkowane skanowania wyładowywanego świata
+     */
+    public void onWorldUnload(@NotNull WorldUnloadEvent event) {
+        World world = event.getWorld();
+        portalIndex.removeWorld(world.getUID());
+        scanner.removeWorld(world.getUID());
+        portalCatalog.unloadWorld(world.getUID());
+    }
+}
@@ -0,0 +1,83 @@
+package org.rafalohaki.portalsPermission.listeners;
+
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.ServiceRegisterEvent;
+import org.bukkit.event.server.ServiceUnregisterEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.api.PortalProvider;
+import org.rafalohaki.portalsPermission.api.PortalProviderChangeEvent;
+import org.rafalohaki.portalsPermission.portal.ProvidedPortalIndex;
+
+/**
+ * Keeps the provided portal cache in sync with chunk loads, provider registrations and provider changes
+ * Utrzymuje pamięć podręczną portali dostawców zgodną z ładowaniem chunków, rejestracją i zmianami dostawców
+ *
+ * <p>Handlers are attached individually by {@link FeatureListenerRegistrar}.</p>
+ */
+public class PortalProviderListener implements Listener {
+    
+    private final ProvidedPortalIndex providedPortals;
+    
+    /**
+     * Constructor for PortalProviderListener
+     * Konstruktor dla PortalProviderListener
+     */
+    public PortalProviderListener(@NotNull ProvidedPortalIndex providedPortals) {
+        this.providedPortals = providedPortals;
+    }
+    
+    /**
+     * Asks the providers about a freshly loaded chunk
+     * Pyta dostawców o świeżo załadowany chunk
+     */
+    public void onChunkLoad(@NotNull ChunkLoadEvent event) {
+        providedPortals.loadChunk(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+    
+    /**
+     * Drops the cached portals of an unloading chunk
+     * Usuwa zapamiętane portale wyładowywanego chunku
+     */
+    public void onChunkUnload(@NotNull ChunkUnloadEvent event) {
+        providedPortals.unloadChunk(event.getWorld().getUID(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+    
+    /**
+     * Asks the providers again about a chunk whose portals they changed
+     * Ponownie pyta dostawców o chunk, w którym zmienili swoje portale
+     */
+    public void onProviderChange(@NotNull PortalProviderChangeEvent event) {
+        providedPortals.invalidate(event.getWorld(), event.getChunkX(), event.getChunkZ());
+    }
+    
+    /**
+     * Drops the cached portals of an unloading world
+     * Usuwa zapamiętane portale wyładowywanego świata
+     */
+    public void onWorldUnload(@NotNull WorldUnloadEvent event) {
+        providedPortals.unloadWorld(event.getWorld().getUID());
+    }
+    
+    /**
+     * Refreshes the providers next tick when a portal provider registers
+     * Odświeża dostawców w następnym ticku gdy zarejestruje się dostawca portali
+     */
+    public void onServiceRegister(@NotNull ServiceRegisterEvent event) {
+        if (event.getProvider().getService() == PortalProvider.class) {
+            providedPortals.requestRefresh();
+        }
+    }
+    
+    /**
+     * Refreshes the providers next tick when a portal provider unregisters, e.g. its plugin disabled
+     * Odświeża dostawców w następnym ticku gdy dostawca portali się wyrejestruje, np. po wyłączeniu pluginu
+     */
+    public void onServiceUnregister(@NotNull ServiceUnregisterEvent event) {
+        if (event.getProvider().getService() == PortalProvider.class) {
+            providedPortals.requestRefresh();
+        }
+    }
+}
@@ -1,30 +1,33 @@
 package org.rafalohaki.portalsPermission.listeners;
 
 import org.bukkit.entity.Player;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.rafalohaki.portalsPermission.managers.ConfigManager;
 import org.rafalohaki.portalsPermission.managers.CooldownManager;
-import org.rafalohaki.portalsPermission.services.IPortalKnockbackService;
-import org.rafalohaki.portalsPermission.services.IPortalMessageService;
-import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessPipeline;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContextPool;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.portal.ProvidedPortalIndex;
+import org.rafalohaki.portalsPermission.utils.PortalType;
 
 /**
  * Refactored portal access listener following SOLID principles
  * Zrefaktoryzowany listener dostępu do portali zgodny z zasadami SOLID
+ *
+ * <p>Handlers are attached individually by {@link FeatureListenerRegistrar}.</p>
  */
 public class RefactoredPortalAccessListener implements Listener {
     
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final CooldownManager cooldownManager;
-    private final IPortalPermissionChecker permissionChecker;
-    private final IPortalKnockbackService knockbackService;
-    private final IPortalMessageService messageService;
+    private final PortalAccessPipeline pipeline;
+    private final PortalDecisionContextPool contextPool;
     
     /**
      * Constructor for RefactoredPortalAccessListener
@@ -33,118 +36,67 @@ public class RefactoredPortalAccessListener implements Listener {
      * @param plugin The plugin instance
      * @param configManager The configuration manager
      * @param cooldownManager The cooldown manager
-     * @param permissionChecker The permission checker service
-     * @param knockbackService The knockback service
-     * @param messageService The message service
+     * @param pipeline The portal access pipeline
+     * @param materialRegistry The portal material registry
+     * @param providedPortals The provided portal cache
      */
     public RefactoredPortalAccessListener(@NotNull JavaPlugin plugin,
                                         @NotNull ConfigManager configManager,
                                         @NotNull CooldownManager cooldownManager,
-                                        @NotNull IPortalPermissionChecker permissionChecker,
-                                        @NotNull IPortalKnockbackService knockbackService,
-                                        @NotNull IPortalMessageService messageService) {
+                                        @NotNull PortalAccessPipeline pipeline,
+                                        @NotNull PortalMaterialRegistry materialRegistry,
+                                        @NotNull ProvidedPortalIndex providedPortals) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.cooldownManager = cooldownManager;
-        this.permissionChecker = permissionChecker;
-        this.knockbackService = knockbackService;
-        this.messageService = messageService;
+        this.pipeline = pipeline;
+        this.contextPool = new PortalDecisionContextPool(materialRegistry, providedPortals);
     }
     
     /**
-     * Handles player portal events with permission checking and cooldowns
-     * Obsługuje zdarzenia portali graczy ze sprawdzaniem uprawnień i cooldownów
+     * Handles player portal events by running the access pipeline
+     * Obsługuje zdarzenia portali graczy uruchamiając potok dostępu
      * 
      * @param event The portal event
      */
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onPlayerPortal(@NotNull PlayerPortalEvent event) {
-        if (!configManager.isEnabled()) {
-            return;
-        }
-        
         Player player = event.getPlayer();
         
-        // Debug logging
-        if (configManager.isDebugMode()) {
-            plugin.getLogger().info(String.format(
-                "Portal event for player %s at %s", 
-                player.getName(), 
-                event.getFrom().toString()
-            ));
-        }
-        
-        // Check cooldown first
-        if (handleCooldown(player, event)) {
-            return; // Event cancelled due to cooldown
-        }
-        
-        // Check permissions
-        if (handlePermissions(player, event)) {
-            return; // Event cancelled due to lack of permissions
-        }
-        
-        // Apply cooldown for successful portal use
-        applyCooldown(player);
-    }
-    
-    /**
-     * Handles cooldown checking and messaging
-     * Obsługuje sprawdzanie cooldownu i wiadomości
-     * 
-     * @param player The player
-     * @param event The portal event
-     * @return true if event should be cancelled due to cooldown
-     */
-    private boolean handleCooldown(@NotNull Player player, @NotNull PlayerPortalEvent event) {
-        if (!configManager.isCooldownEnabled()) {
-            return false;
-        }
-        
-        if (cooldownManager.hasCooldown(player)) {
-            int remainingTime = cooldownManager.getRemainingCooldown(player);
-            
-            // Send cooldown message
-            messageService.sendCooldownMessage(player, remainingTime);
+        // Resolve portal material, type and environments once for the whole event
+        PortalDecisionContext context = contextPool.acquire(player, event);
+        try {
+            StageResult result = pipeline.evaluate(context);
             
-            // Apply knockback
-            knockbackService.applyKnockbackAsync(player, event.getFrom());
-            
-            // Cancel event
-            event.setCancelled(true);
-            return true;
-        }
-        
-        return false;
-    }
-    
-    /**
-     * Handles permission checking and messaging
-     * Obsługuje sprawdzanie uprawnień i wiadomości
-     * 
-     * @param player The player
-     * @param event The portal event
-     * @return true if event should be cancelled due to lack of permissions
-     */
-    private boolean handlePermissions(@NotNull Player player, @NotNull PlayerPortalEvent event) {
-        if (!permissionChecker.hasPortalPermission(player, event)) {
-            // Get appropriate message key based on portal type, not target environment
-            String messageKey = permissionChecker.getMessageKey(
-                permissionChecker.getPortalTypeEnvironment(event)
-            );
+            if (result == StageResult.SKIP) {
+                return; // Plugin disabled
+            }
             
-            // Send permission denied message
-            messageService.sendPermissionDeniedMessage(player, messageKey);
+            // Debug logging
+            if (configManager.isDebugMode()) {
+                plugin.getLogger().info(String.format(
+                    "Portal event for player %s at %s: %s", 
+                    player.getName(), 
+                    event.getFrom().toString(),
+                    result
+                ));
+            }
             
-            // Apply knockback
-            knockbackService.applyKnockbackAsync(player, event.getFrom());
+            if (result == StageResult.DENY) {
+                event.setCancelled(true);
+                
+                // Denials by the cooldown itself are not counted again
+                if (!cooldownManager.hasCooldown(player, context.getPortalType())
+                    && !cooldownManager.hasDenialCooldown(player, context.getPortalType())) {
+                    cooldownManager.recordDenial(player, context.getPortalType());
+                }
+                return;
+            }
             
-            // Cancel event
-            event.setCancelled(true);
-            return true;
+            // Apply cooldown for successful portal use
+            applyCooldown(player, context.getPortalType());
+        } finally {
+            contextPool.release(context);
         }
-        
-        return false;
     }
     
     /**
@@ -152,19 +104,20 @@ public class RefactoredPortalAccessListener implements Listener {
      * Stosuje cooldown do gracza asynchronicznie
      * 
      * @param player The player
+     * @param type The type of the portal that was used
      */
-    private void applyCooldown(@NotNull Player player) {
+    private void applyCooldown(@NotNull Player player, @NotNull PortalType type) {
         if (configManager.isCooldownEnabled()) {
-            cooldownManager.setCooldownAsync(player);
+            cooldownManager.setCooldownAsync(player, type);
             
             if (configManager.isDebugMode()) {
-                int cooldownTime = configManager.getCooldownTime();
                 plugin.getLogger().info(String.format(
-                    "Applied %d second cooldown to player %s", 
-                    cooldownTime, 
+                    "Applied %s cooldown (tier %s) to player %s", 
+                    type.getPermissionKey(), 
+                    cooldownManager.getTier(player).name(), 
                     player.getName()
                 ));
             }
         }
     }
-}
\ No newline at end of file
+}
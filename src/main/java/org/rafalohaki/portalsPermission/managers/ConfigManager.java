@@ -5,8 +5,10 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 /**
@@ -18,6 +20,7 @@ public class ConfigManager {
     private final JavaPlugin plugin;
     private FileConfiguration config;
     private boolean debugMode;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
     
     public ConfigManager(@NotNull JavaPlugin plugin) {
         this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
@@ -38,6 +41,8 @@ public class ConfigManager {
                 if (debugMode) {
                     plugin.getLogger().info("Configuration loaded successfully");
                 }
+                
+                notifyReloadListeners();
             } catch (Exception e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to load configuration", e);
             }
@@ -58,6 +63,8 @@ public class ConfigManager {
                 if (debugMode) {
                     plugin.getLogger().info("Configuration reloaded successfully");
                 }
+                
+                notifyReloadListeners();
                 return true;
             } catch (Exception e) {
                 plugin.getLogger().log(Level.SEVERE, "Failed to reload configuration", e);
@@ -66,6 +73,28 @@ public class ConfigManager {
         });
     }
     
+    /**
+     * Registers a listener invoked after every successful load or reload (on the loading thread)
+     * Rejestruje listener wywoływany po każdym udanym załadowaniu lub przeładowaniu (w wątku ładowania)
+     */
+    public void addReloadListener(@NotNull Runnable listener) {
+        reloadListeners.add(Objects.requireNonNull(listener, "Reload listener cannot be null"));
+    }
+    
+    /**
+     * Notifies reload listeners, isolating failures so one listener cannot break the others
+     * Powiadamia listenery przeładowania, izolując błędy aby jeden listener nie psuł pozostałych
+     */
+    private void notifyReloadListeners() {
+        for (Runnable listener : reloadListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Reload listener failed", e);
+            }
+        }
+    }
+    
     // Settings getters
     public boolean isEnabled() {
         return config != null && config.getBoolean("settings.enabled", true);
@@ -109,6 +138,14 @@ public class ConfigManager {
         return config != null ? config.getDouble("knockback.height", 0.8) : 0.8;
     }
     
+    public @NotNull String getKnockbackMode() {
+        if (config == null) {
+            return "geometry";
+        }
+        String mode = config.getString("knockback.mode", "geometry");
+        return mode != null ? mode : "geometry";
+    }
+    
     public boolean isKnockbackSoundEnabled() {
         return config != null && config.getBoolean("knockback.play_sound", true);
     }
@@ -151,10 +188,183 @@ public class ConfigManager {
         return config != null ? config.getInt("cooldown.time_seconds", 5) : 5;
     }
     
+    public boolean isTickBasedCooldown() {
+        return config != null && config.getBoolean("cooldown.tick_based", false);
+    }
+    
+    public boolean isCooldownEscalationEnabled() {
+        return config != null && config.getBoolean("cooldown.escalation.enabled", false);
+    }
+    
+    public double getCooldownEscalationFactor() {
+        double factor = config != null ? config.getDouble("cooldown.escalation.factor", 2.0) : 2.0;
+        return Math.max(1.0, Math.min(10.0, factor));
+    }
+    
+    public double getCooldownEscalationMaxMultiplier() {
+        double max = config != null ? config.getDouble("cooldown.escalation.max_multiplier", 8.0) : 8.0;
+        return Math.max(1.0, max);
+    }
+    
+    public double getViolationHalfLifeSeconds() {
+        double seconds = config != null ? config.getDouble("cooldown.escalation.half_life_seconds", 60.0) : 60.0;
+        return Math.max(1.0, Math.min(86_400.0, seconds));
+    }
+    
+    public double getDenialViolationWeight() {
+        double weight = config != null ? config.getDouble("cooldown.escalation.denial_weight", 1.0) : 1.0;
+        return Math.max(0.0, Math.min(10.0, weight));
+    }
+    
+    public double getDenialCooldownMinScore() {
+        return config != null ? config.getDouble("cooldown.escalation.denial_cooldown_min_score", 2.0) : 2.0;
+    }
+    
     public boolean isCooldownMessageEnabled() {
         return config != null && config.getBoolean("cooldown.show_message", true);
     }
     
+    // Pipeline settings
+    public boolean isPipelineMetricsEnabled() {
+        return config != null && config.getBoolean("pipeline.metrics", true);
+    }
+    
+    public boolean isPipelineReorderEnabled() {
+        return config != null && config.getBoolean("pipeline.reorder_from_metrics", false);
+    }
+    
+    // Portal material settings
+    public boolean isEndFrameProximityEnabled() {
+        return config == null || config.getBoolean("portals.materials.include_end_frame", true);
+    }
+    
+    public @NotNull List<?> getCustomPortalMaterials() {
+        if (config == null) {
+            return List.of();
+        }
+        List<?> materials = config.getList("portals.materials.custom");
+        return materials != null ? materials : List.of();
+    }
+    
+    // Portal index scanner settings
+    public boolean isScannerEnabled() {
+        return config == null || config.getBoolean("scanner.enabled", true);
+    }
+    
+    public boolean isScanOnChunkLoadEnabled() {
+        return isScannerEnabled() && (config == null || config.getBoolean("scanner.scan_on_chunk_load", true));
+    }
+    
+    public int getScannerChunksPerTick() {
+        int chunks = config != null ? config.getInt("scanner.chunks_per_tick", 8) : 8;
+        return Math.max(1, Math.min(256, chunks));
+    }
+    
+    public int getScannerThreads() {
+        return config != null ? config.getInt("scanner.threads", 0) : 0;
+    }
+    
+    // Throttle settings
+    public boolean isThrottleEnabled() {
+        return config != null && config.getBoolean("throttle.enabled", false);
+    }
+    
+    public int getThrottleMaxAttempts() {
+        return config != null ? config.getInt("throttle.max_attempts", 5) : 5;
+    }
+    
+    public int getThrottleWindowSeconds() {
+        return config != null ? config.getInt("throttle.window_seconds", 10) : 10;
+    }
+    
+    // Security settings
+    public boolean isSecurityEnabled() {
+        return config != null && config.getBoolean("security.enabled", true);
+    }
+    
+    public boolean isEntityChecksEnabled() {
+        return isSecurityEnabled() && config.getBoolean("security.entity_checks", true);
+    }
+    
+    public boolean isVehicleChecksEnabled() {
+        return isSecurityEnabled() && config.getBoolean("security.vehicle_checks", true);
+    }
+    
+    public boolean isElytraChecksEnabled() {
+        return isSecurityEnabled() && config.getBoolean("security.elytra_checks", true);
+    }
+    
+    public boolean isMovementChecksEnabled() {
+        return isSecurityEnabled() && config.getBoolean("security.movement_checks", true);
+    }
+    
+    public boolean isVelocityChecksEnabled() {
+        return isSecurityEnabled() && config.getBoolean("security.velocity_checks", true);
+    }
+    
+    public int getTrajectoryLookaheadTicks() {
+        int ticks = config != null ? config.getInt("security.trajectory_lookahead_ticks", 10) : 10;
+        return Math.max(1, Math.min(40, ticks));
+    }
+    
+    public boolean isBatchedMovementEnabled() {
+        return config != null && config.getBoolean("security.movement.batched", false);
+    }
+    
+    public int getMovementTickBudgetMicros() {
+        int micros = config != null ? config.getInt("security.movement.tick_budget_micros", 500) : 500;
+        return Math.max(50, Math.min(50_000, micros));
+    }
+    
+    public boolean isRiskScoringEnabled() {
+        return isSecurityEnabled() && config.getBoolean("security.risk_scoring.enabled", false);
+    }
+    
+    public int getRiskScoringThreads() {
+        int threads = config != null ? config.getInt("security.risk_scoring.threads", 1) : 1;
+        return Math.max(1, Math.min(8, threads));
+    }
+    
+    public int getRiskWindowTicks() {
+        int ticks = config != null ? config.getInt("security.risk_scoring.window_ticks", 20) : 20;
+        return Math.max(6, Math.min(100, ticks));
+    }
+    
+    public boolean isAdaptiveChecksEnabled() {
+        return config != null && config.getBoolean("security.adaptive.enabled", false);
+    }
+    
+    public double getSampledChecksMspt() {
+        return config != null ? config.getDouble("security.adaptive.sampled_mspt", 40.0) : 40.0;
+    }
+    
+    public double getPortalOnlyChecksMspt() {
+        return config != null ? config.getDouble("security.adaptive.portal_only_mspt", 48.0) : 48.0;
+    }
+    
+    public double getAdaptiveHysteresisMspt() {
+        double margin = config != null ? config.getDouble("security.adaptive.hysteresis_mspt", 5.0) : 5.0;
+        return Math.max(0.0, margin);
+    }
+    
+    public int getAdaptiveSampleEvery() {
+        int every = config != null ? config.getInt("security.adaptive.sample_every", 4) : 4;
+        return Math.max(1, Math.min(100, every));
+    }
+    
+    public int getMaxTrackedEntities() {
+        int max = config != null ? config.getInt("security.state.max_tracked_entities", 20000) : 20000;
+        return Math.max(100, Math.min(1_000_000, max));
+    }
+    
+    public @NotNull String getStateEvictionPolicy() {
+        if (config == null) {
+            return "evict_oldest";
+        }
+        String policy = config.getString("security.state.eviction_policy", "evict_oldest");
+        return policy != null ? policy : "evict_oldest";
+    }
+    
     // Messages
     public @NotNull String getMessage(@NotNull String key) {
         Objects.requireNonNull(key, "Message key cannot be null");
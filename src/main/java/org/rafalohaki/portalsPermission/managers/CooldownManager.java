@@ -3,125 +3,308 @@ package org.rafalohaki.portalsPermission.managers;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.utils.PortalType;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CompletableFuture;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
-import org.bukkit.scheduler.BukkitTask;
 
 /**
  * Manager for handling player cooldowns with async operations
  * Zarządza cooldown graczy z operacjami asynchronicznymi
+ *
+ * <p>Deadlines live in a packed array of {@link PortalType#COUNT} entries per
+ * {@link PlayerSlotRegistry} slot, so a check is a slot probe and an array load. Each player's
+ * {@link CooldownTier} is resolved from permissions on first use and cached in the slot until the
+ * configuration is reloaded, so no permission chain runs per event. Unexpired deadlines of a
+ * released slot are parked by UUID and restored when the player rejoins. Deadlines are kept on the
+ * {@link PortalClock} cooldown timeline, so the "cooldown.tick_based" switch decides whether they
+ * follow ticks or real time. Cooldown lengths are scaled by the player's
+ * {@link ViolationScoreManager} score. Cooldowns started by repeated denials are kept apart from
+ * the use cooldown, so a throttled attempt is reported with its real reason instead of a wait
+ * time. Main thread only; writes requested elsewhere are handed to the main thread.</p>
+ *
+ * <p>Terminy są trzymane w spakowanej tablicy po {@link PortalType#COUNT} wpisów na slot
+ * {@link PlayerSlotRegistry}, więc sprawdzenie to odczyt slotu i tablicy. {@link CooldownTier}
+ * gracza jest ustalany z uprawnień przy pierwszym użyciu i trzymany w slocie do przeładowania
+ * konfiguracji, więc żaden łańcuch uprawnień nie działa przy każdym zdarzeniu. Niewygasłe terminy
+ * zwolnionego slotu są odkładane według UUID i przywracane po powrocie gracza. Terminy leżą na osi
+ * cooldownu {@link PortalClock}, więc przełącznik "cooldown.tick_based" decyduje, czy liczą się w
+ * tickach, czy w czasie rzeczywistym. Długość cooldownu jest skalowana wynikiem gracza z
+ * {@link ViolationScoreManager}. Cooldowny nałożone za powtarzane odmowy są trzymane osobno od
+ * cooldownu użycia, więc ograniczona próba jest zgłaszana z prawdziwym powodem zamiast czasu
+ * oczekiwania. Tylko główny wątek; zapisy zlecone gdzie indziej są przekazywane do głównego
+ * wątku.</p>
  */
-public class CooldownManager {
+public class CooldownManager implements PlayerSlotRegistry.SlotStore {
+    
+    private static final long NO_COOLDOWN = 0L;
+    private static final byte UNRESOLVED = -1;
+    private static final int TYPES = PortalType.COUNT;
     
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
-    private final ConcurrentHashMap<UUID, Long> cooldowns;
-    private BukkitTask cleanupTask;
+    private final PlayerSlotRegistry playerSlots;
+    private final ViolationScoreManager violationScores;
+    private final PortalClock clock;
     
-    public CooldownManager(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager) {
+    // Slot * TYPES + type -> cooldown end on the clock's cooldown timeline
+    private long[] cooldownEnds = new long[0];
+    // Slot * TYPES + type -> end of the cooldown started by repeated denials
+    private long[] denialEnds = new long[0];
+    // Unexpired deadlines of players who left: use ends, then denial ends
+    private final Map<UUID, long[]> parked = new HashMap<>();
+    // Slot -> index into tiers, or UNRESOLVED
+    private byte[] tierIndexes = new byte[0];
+    // Parsed on the config loader thread, read on the main thread
+    private volatile CooldownTier[] tiers = CooldownTier.fromConfig(null);
+    
+    public CooldownManager(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager,
+                           @NotNull PlayerSlotRegistry playerSlots,
+                           @NotNull ViolationScoreManager violationScores,
+                           @NotNull PortalClock clock) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.cooldowns = new ConcurrentHashMap<>();
+        this.playerSlots = playerSlots;
+        this.violationScores = violationScores;
+        this.clock = clock;
+        playerSlots.addStore(this);
+        
+        // Tiers may have changed, so every player is resolved again on next use
+        configManager.addReloadListener(() -> {
+            this.tiers = CooldownTier.fromConfig(configManager.getConfig());
+            plugin.getServer().getScheduler().runTask(plugin, () -> Arrays.fill(tierIndexes, UNRESOLVED));
+        });
+    }
+    
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > tierIndexes.length) {
+            int oldCapacity = tierIndexes.length;
+            cooldownEnds = Arrays.copyOf(cooldownEnds, capacity * TYPES);
+            denialEnds = Arrays.copyOf(denialEnds, capacity * TYPES);
+            tierIndexes = Arrays.copyOf(tierIndexes, capacity);
+            Arrays.fill(tierIndexes, oldCapacity, capacity, UNRESOLVED);
+        }
+    }
+    
+    @Override
+    public void clearSlot(int slot) {
+        Arrays.fill(cooldownEnds, slot * TYPES, slot * TYPES + TYPES, NO_COOLDOWN);
+        Arrays.fill(denialEnds, slot * TYPES, slot * TYPES + TYPES, NO_COOLDOWN);
+        tierIndexes[slot] = UNRESOLVED;
+    }
+    
+    @Override
+    public void parkSlot(int slot, @NotNull UUID owner) {
+        long now = clock.getCooldownMillis();
+        parked.values().removeIf(deadlines -> !anyAfter(deadlines, now));
         
-        // Start cleanup task
-        startCleanupTask();
+        long[] deadlines = new long[TYPES * 2];
+        System.arraycopy(cooldownEnds, slot * TYPES, deadlines, 0, TYPES);
+        System.arraycopy(denialEnds, slot * TYPES, deadlines, TYPES, TYPES);
+        if (anyAfter(deadlines, now)) {
+            parked.put(owner, deadlines);
+        }
+    }
+    
+    @Override
+    public void restoreSlot(int slot, @NotNull UUID owner) {
+        long[] deadlines = parked.remove(owner);
+        if (deadlines != null) {
+            System.arraycopy(deadlines, 0, cooldownEnds, slot * TYPES, TYPES);
+            System.arraycopy(deadlines, TYPES, denialEnds, slot * TYPES, TYPES);
+        }
+    }
+    
+    private static boolean anyAfter(long @NotNull [] deadlines, long now) {
+        for (long deadline : deadlines) {
+            if (deadline > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public int getBytesPerSlot() {
+        return 2 * TYPES * Long.BYTES + 1;
+    }
+    
+    /**
+     * Checks if player has active cooldown for a portal type
+     * Sprawdza czy gracz ma aktywny cooldown dla typu portalu
+     */
+    public boolean hasCooldown(@NotNull Player player, @NotNull PortalType type) {
+        return getRemainingMillis(cooldownEnds, player, type) > 0L;
     }
     
     /**
-     * Checks if player has active cooldown
-     * Sprawdza czy gracz ma aktywny cooldown
+     * Checks if player is throttled for a portal type after repeated denials
+     * Sprawdza czy gracz jest wstrzymany dla typu portalu po powtarzanych odmowach
      */
-    public boolean hasCooldown(@NotNull Player player) {
+    public boolean hasDenialCooldown(@NotNull Player player, @NotNull PortalType type) {
+        return getRemainingMillis(denialEnds, player, type) > 0L;
+    }
+    
+    /**
+     * Gets remaining cooldown time for a portal type in seconds
+     * Pobiera pozostały czas cooldown dla typu portalu w sekundach
+     */
+    public int getRemainingCooldown(@NotNull Player player, @NotNull PortalType type) {
+        return (int) Math.ceil(getRemainingMillis(cooldownEnds, player, type) / 1000.0);
+    }
+    
+    private long getRemainingMillis(long @NotNull [] ends, @NotNull Player player, @NotNull PortalType type) {
         if (!configManager.isCooldownEnabled()) {
-            return false;
+            return 0L;
         }
         
-        UUID playerId = player.getUniqueId();
-        Long cooldownEnd = cooldowns.get(playerId);
-        
-        if (cooldownEnd == null) {
-            return false;
+        int slot = playerSlots.slotOf(player);
+        if (slot == PlayerSlotRegistry.NO_SLOT) {
+            return 0L;
         }
         
-        long currentTime = System.currentTimeMillis();
-        if (currentTime >= cooldownEnd) {
-            cooldowns.remove(playerId);
-            return false;
+        long remaining = ends[slot * TYPES + type.index()] - clock.getCooldownMillis();
+        return Math.max(0L, remaining);
+    }
+    
+    /**
+     * Sets cooldown for a portal type; calls from other threads are applied on the next tick
+     * Ustawia cooldown dla typu portalu; wywołania z innych wątków są stosowane w następnym ticku
+     */
+    public CompletableFuture<Void> setCooldownAsync(@NotNull Player player, @NotNull PortalType type) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        // Slots and deadlines belong to the main thread
+        if (plugin.getServer().isPrimaryThread()) {
+            applyCooldown(player, type, future);
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, () -> applyCooldown(player, type, future));
         }
         
-        return true;
+        return future;
+    }
+    
+    private void applyCooldown(@NotNull Player player, @NotNull PortalType type, @NotNull CompletableFuture<Void> future) {
+        try {
+            if (!configManager.isCooldownEnabled()) {
+                future.complete(null);
+                return;
+            }
+            
+            int slot = playerSlots.acquire(player);
+            if (slot == PlayerSlotRegistry.NO_SLOT) {
+                future.complete(null);
+                return;
+            }
+            
+            int cooldownMillis = violationScores.escalate(getTier(player, slot).getMillis(type),
+                violationScores.getScore(player));
+            cooldownEnds[slot * TYPES + type.index()] = clock.getCooldownMillis() + cooldownMillis;
+            
+            if (configManager.isDebugMode()) {
+                plugin.getLogger().info("Set " + type.getPermissionKey() + " cooldown for player " + player.getName()
+                    + " for " + cooldownMillis + " ms");
+            }
+            
+            future.complete(null);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to set cooldown for player " + player.getName(), e);
+            future.completeExceptionally(e);
+        }
     }
     
     /**
-     * Gets remaining cooldown time in seconds
-     * Pobiera pozostały czas cooldown w sekundach
+     * Counts a denied portal attempt and starts an escalated denial cooldown for repeat offenders; main thread only
+     * Zlicza odrzuconą próbę użycia portalu i nakłada eskalowany cooldown odmów na powtarzających naruszenia; tylko główny wątek
+     *
+     * <p>While the denial cooldown runs, further attempts are rejected by the cheap cooldown check
+     * instead of the full denial path, and are answered with the permission message. Nothing is
+     * recorded while cooldown escalation is disabled.</p>
      */
-    public int getRemainingCooldown(@NotNull Player player) {
-        if (!configManager.isCooldownEnabled()) {
-            return 0;
+    public void recordDenial(@NotNull Player player, @NotNull PortalType type) {
+        if (!configManager.isCooldownEnabled() || !configManager.isCooldownEscalationEnabled()) {
+            return;
         }
         
-        UUID playerId = player.getUniqueId();
-        Long cooldownEnd = cooldowns.get(playerId);
-        
-        if (cooldownEnd == null) {
-            return 0;
+        double score = violationScores.record(player, configManager.getDenialViolationWeight());
+        int slot = playerSlots.slotOf(player);
+        if (slot == PlayerSlotRegistry.NO_SLOT || score < configManager.getDenialCooldownMinScore()) {
+            return;
         }
         
-        long currentTime = System.currentTimeMillis();
-        if (currentTime >= cooldownEnd) {
-            cooldowns.remove(playerId);
-            return 0;
-        }
+        int index = slot * TYPES + type.index();
+        int cooldownMillis = violationScores.escalate(getTier(player, slot).getMillis(type), score);
+        denialEnds[index] = Math.max(denialEnds[index], clock.getCooldownMillis() + cooldownMillis);
         
-        return (int) Math.ceil((cooldownEnd - currentTime) / 1000.0);
+        if (configManager.isDebugMode()) {
+            plugin.getLogger().info("Repeated denials by " + player.getName() + " (score " + String.format("%.2f", score)
+                + ") - " + type.getPermissionKey() + " denial cooldown of " + cooldownMillis + " ms applied");
+        }
     }
     
     /**
-     * Sets cooldown for player asynchronously
-     * Ustawia cooldown dla gracza asynchronicznie
+     * Gets the player's cooldown tier, resolving it from permissions once per slot
+     * Pobiera poziom cooldownu gracza, ustalając go z uprawnień raz na slot
      */
-    public CompletableFuture<Void> setCooldownAsync(@NotNull Player player) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-        
-        // Use BukkitScheduler for async operations
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                if (!configManager.isCooldownEnabled()) {
-                    future.complete(null);
-                    return;
-                }
-                
-                UUID playerId = player.getUniqueId();
-                int cooldownSeconds = configManager.getCooldownTime();
-                long cooldownEnd = System.currentTimeMillis() + (cooldownSeconds * 1000L);
-                
-                cooldowns.put(playerId, cooldownEnd);
-                
-                if (configManager.isDebugMode()) {
-                    plugin.getLogger().info("Set cooldown for player " + player.getName() + " for " + cooldownSeconds + " seconds");
+    public @NotNull CooldownTier getTier(@NotNull Player player) {
+        int slot = playerSlots.slotOf(player);
+        if (slot == PlayerSlotRegistry.NO_SLOT) {
+            return resolveTier(player, tiers);
+        }
+        return getTier(player, slot);
+    }
+    
+    private @NotNull CooldownTier getTier(@NotNull Player player, int slot) {
+        CooldownTier[] current = tiers;
+        int index = tierIndexes[slot];
+        if (index == UNRESOLVED || index >= current.length) {
+            CooldownTier tier = resolveTier(player, current);
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == tier) {
+                    tierIndexes[slot] = (byte) Math.min(i, Byte.MAX_VALUE);
+                    break;
                 }
-                
-                future.complete(null);
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to set cooldown for player " + player.getName(), e);
-                future.completeExceptionally(e);
             }
-        });
-        
-        return future;
+            return tier;
+        }
+        return current[index];
+    }
+    
+    private static @NotNull CooldownTier resolveTier(@NotNull Player player, @NotNull CooldownTier @NotNull [] tiers) {
+        // The last tier is the default one and has no permission
+        for (int i = 0; i < tiers.length - 1; i++) {
+            if (player.hasPermission(tiers[i].permission())) {
+                return tiers[i];
+            }
+        }
+        return tiers[tiers.length - 1];
     }
     
     /**
-     * Removes cooldown for player
-     * Usuwa cooldown dla gracza
+     * Gets the player's decayed violation score
+     * Pobiera wygaszony wynik naruszeń gracza
+     */
+    public double getViolationScore(@NotNull Player player) {
+        return violationScores.getScore(player);
+    }
+    
+    /**
+     * Removes every portal type cooldown for player
+     * Usuwa cooldown wszystkich typów portali dla gracza
      */
     public void removeCooldown(@NotNull Player player) {
-        UUID playerId = player.getUniqueId();
-        cooldowns.remove(playerId);
+        int slot = playerSlots.slotOf(player);
+        if (slot != PlayerSlotRegistry.NO_SLOT) {
+            Arrays.fill(cooldownEnds, slot * TYPES, slot * TYPES + TYPES, NO_COOLDOWN);
+            Arrays.fill(denialEnds, slot * TYPES, slot * TYPES + TYPES, NO_COOLDOWN);
+        }
+        parked.remove(player.getUniqueId());
+        violationScores.reset(player);
         
         if (configManager.isDebugMode()) {
             plugin.getLogger().info("Removed cooldown for player " + player.getName());
@@ -133,7 +316,10 @@ public class CooldownManager {
      * Czyści wszystkie cooldown
      */
     public void clearAllCooldowns() {
-        cooldowns.clear();
+        Arrays.fill(cooldownEnds, NO_COOLDOWN);
+        Arrays.fill(denialEnds, NO_COOLDOWN);
+        parked.clear();
+        violationScores.resetAll();
         
         if (configManager.isDebugMode()) {
             plugin.getLogger().info("Cleared all cooldowns");
@@ -141,42 +327,22 @@ public class CooldownManager {
     }
     
     /**
-     * Gets total number of active cooldowns
-     * Pobiera całkowitą liczbę aktywnych cooldown
+     * Gets the number of players with at least one active cooldown
+     * Pobiera liczbę graczy z co najmniej jednym aktywnym cooldown
      */
     public int getActiveCooldownCount() {
-        return cooldowns.size();
-    }
-    
-    /**
-     * Starts periodic cleanup task to remove expired cooldowns
-     * Uruchamia okresowe zadanie czyszczenia wygasłych cooldown
-     */
-    private void startCleanupTask() {
-        // Use BukkitScheduler for repeating task - runs every 30 seconds (600 ticks)
-        cleanupTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            try {
-                long currentTime = System.currentTimeMillis();
-                
-                // Use AtomicInteger to count removed entries in lambda
-                java.util.concurrent.atomic.AtomicInteger removedCount = new java.util.concurrent.atomic.AtomicInteger(0);
-                
-                cooldowns.entrySet().removeIf(entry -> {
-                    if (currentTime >= entry.getValue()) {
-                        removedCount.incrementAndGet();
-                        return true;
-                    }
-                    return false;
-                });
-                
-                // Only log if significant cleanup occurred (throttled logging)
-                if (configManager.isDebugMode() && removedCount.get() >= 5) {
-                    plugin.getLogger().info("Cleaned up " + removedCount.get() + " expired cooldowns");
+        long currentTime = clock.getCooldownMillis();
+        int count = 0;
+        for (int slot = 0, end = playerSlots.getHighWater(); slot < end; slot++) {
+            for (int type = 0; type < TYPES; type++) {
+                int index = slot * TYPES + type;
+                if (cooldownEnds[index] > currentTime || denialEnds[index] > currentTime) {
+                    count++;
+                    break;
                 }
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.WARNING, "Error during cooldown cleanup", e);
             }
-        }, 600L, 600L); // 30 seconds = 600 ticks
+        }
+        return count;
     }
     
     /**
@@ -185,10 +351,9 @@ public class CooldownManager {
      */
     public void shutdown() {
         try {
-            if (cleanupTask != null && !cleanupTask.isCancelled()) {
-                cleanupTask.cancel();
-            }
-            cooldowns.clear();
+            Arrays.fill(cooldownEnds, NO_COOLDOWN);
+            Arrays.fill(denialEnds, NO_COOLDOWN);
+            parked.clear();
             
             plugin.getLogger().info("CooldownManager shut down successfully");
         } catch (Exception e) {
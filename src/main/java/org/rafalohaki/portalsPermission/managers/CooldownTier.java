@@ -0,0 +1,75 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * A named set of per-portal-type cooldown lengths, granted by a permission node
+ * Nazwany zestaw długości cooldownu dla typów portali, nadawany przez uprawnienie
+ *
+ * @param name Display name of the tier
+ * @param permission Permission node selecting the tier, or null for the default tier
+ * @param millisByType Cooldown length in milliseconds indexed by {@link PortalType#index()}
+ */
+public record CooldownTier(@NotNull String name, @Nullable String permission, int @NotNull [] millisByType) {
+    
+    private static final Logger LOGGER = Logger.getLogger(CooldownTier.class.getName());
+    
+    /**
+     * Gets the cooldown length for a portal type
+     * Pobiera długość cooldownu dla typu portalu
+     */
+    public int getMillis(@NotNull PortalType type) {
+        return millisByType[type.index()];
+    }
+    
+    /**
+     * Parses "cooldown.tiers" in order and appends the default tier built from "cooldown.types"
+     * Parsuje "cooldown.tiers" w kolejności i dodaje domyślny poziom zbudowany z "cooldown.types"
+     *
+     * @return The tiers in match order; the last one is always the default tier
+     */
+    public static @NotNull CooldownTier @NotNull [] fromConfig(@Nullable ConfigurationSection config) {
+        int fallbackSeconds = config != null ? config.getInt("cooldown.time_seconds", 5) : 5;
+        int[] defaults = new int[PortalType.COUNT];
+        for (PortalType type : PortalType.values()) {
+            int seconds = config != null
+                ? config.getInt("cooldown.types." + type.getPermissionKey(), fallbackSeconds)
+                : fallbackSeconds;
+            defaults[type.index()] = Math.max(0, seconds) * 1000;
+        }
+        
+        List<CooldownTier> tiers = new ArrayList<>();
+        List<Map<?, ?>> rawTiers = config != null ? config.getMapList("cooldown.tiers") : List.of();
+        for (int i = 0; i < rawTiers.size(); i++) {
+            Map<?, ?> raw = rawTiers.get(i);
+            String name = raw.get("name") != null ? String.valueOf(raw.get("name")) : "tier-" + (i + 1);
+            Object permission = raw.get("permission");
+            if (permission == null || String.valueOf(permission).isBlank()) {
+                LOGGER.warning("Skipping cooldown tier '" + name + "': a permission is required");
+                continue;
+            }
+            
+            int[] millis = defaults.clone();
+            for (PortalType type : PortalType.values()) {
+                Object seconds = raw.get(type.getPermissionKey());
+                if (seconds instanceof Number number) {
+                    millis[type.index()] = Math.max(0, (int) Math.round(number.doubleValue() * 1000.0));
+                } else if (seconds != null) {
+                    LOGGER.warning("Cooldown tier '" + name + "': '" + type.getPermissionKey() + "' must be a number of seconds");
+                }
+            }
+            tiers.add(new CooldownTier(name, String.valueOf(permission).trim(), millis));
+        }
+        
+        tiers.add(new CooldownTier("default", null, defaults));
+        return tiers.toArray(new CooldownTier[0]);
+    }
+}
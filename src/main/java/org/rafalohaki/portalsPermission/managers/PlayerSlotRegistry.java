@@ -0,0 +1,312 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maps online players to small, recycled int slots that index all per-player state arrays
+ * Mapuje graczy online na małe, ponownie używane sloty int indeksujące wszystkie tablice stanu graczy
+ *
+ * <p>A slot is assigned on join and returned on quit. Per-player state lives in
+ * {@link SlotStore} column arrays indexed by slot, so a hot-path lookup is one probe of the
+ * UUID table followed by plain array loads. Stores grow together with the slot capacity, which
+ * makes the per-player footprint a fixed, reportable number of bytes. Stores holding penalties
+ * park them by UUID when a slot is released and restore them on the next assign, so a relog does
+ * not reset them. Main thread only.</p>
+ */
+public final class PlayerSlotRegistry {
+    
+    public static final int NO_SLOT = -1;
+    
+    private static final int INITIAL_CAPACITY = 64;
+    
+    /**
+     * Per-player state stored in arrays indexed by slot
+     * Stan graczy przechowywany w tablicach indeksowanych slotem
+     */
+    public interface SlotStore {
+        
+        /**
+         * Grows the backing arrays to hold at least the given number of slots
+         * Powiększa tablice tak aby mieściły co najmniej podaną liczbę slotów
+         */
+        void ensureCapacity(int capacity);
+        
+        /**
+         * Resets a slot before it is handed to another player
+         * Resetuje slot zanim zostanie przydzielony innemu graczowi
+         */
+        void clearSlot(int slot);
+        
+        /**
+         * Keeps the still relevant state of a leaving player before the slot is cleared
+         * Zachowuje wciąż istotny stan wychodzącego gracza zanim slot zostanie wyczyszczony
+         */
+        default void parkSlot(int slot, @NotNull UUID owner) {
+        }
+        
+        /**
+         * Restores state parked for a player who got a slot again
+         * Przywraca stan zachowany dla gracza, który ponownie otrzymał slot
+         */
+        default void restoreSlot(int slot, @NotNull UUID owner) {
+        }
+        
+        /**
+         * Gets the number of bytes each slot occupies in this store
+         * Pobiera liczbę bajtów zajmowanych przez każdy slot w tym magazynie
+         */
+        int getBytesPerSlot();
+    }
+    
+    private final List<SlotStore> stores = new ArrayList<>();
+    
+    // UUID -> slot, open addressing over both halves of the UUID
+    private long[] keyMost;
+    private long[] keyLeast;
+    private int[] keySlot;
+    private boolean[] keyUsed;
+    private int keyMask;
+    
+    // Slot -> owner, with a stack of released slots
+    private UUID[] owners = new UUID[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int highWater;
+    private int active;
+    
+    public PlayerSlotRegistry() {
+        allocateKeys(INITIAL_CAPACITY * 2);
+    }
+    
+    /**
+     * Registers a store and sizes it to the current capacity
+     * Rejestruje magazyn i dopasowuje go do aktualnej pojemności
+     */
+    public void addStore(@NotNull SlotStore store) {
+        store.ensureCapacity(owners.length);
+        stores.add(store);
+    }
+    
+    /**
+     * Gets the slot of a player, assigning one if an online player has none yet
+     * Pobiera slot gracza, przydzielając go jeśli gracz online jeszcze go nie ma
+     *
+     * @return The slot, or {@link #NO_SLOT} for players that are not online (e.g. NPCs)
+     */
+    public int acquire(@NotNull Player player) {
+        int slot = slotOf(player.getUniqueId());
+        if (slot != NO_SLOT || !player.isOnline()) {
+            return slot;
+        }
+        return assign(player.getUniqueId());
+    }
+    
+    /**
+     * Gets the slot of a player without assigning one
+     * Pobiera slot gracza bez przydzielania nowego
+     */
+    public int slotOf(@NotNull Player player) {
+        return slotOf(player.getUniqueId());
+    }
+    
+    public int slotOf(@NotNull UUID playerId) {
+        long most = playerId.getMostSignificantBits();
+        long least = playerId.getLeastSignificantBits();
+        int index = hash(most, least) & keyMask;
+        while (keyUsed[index]) {
+            if (keyMost[index] == most && keyLeast[index] == least) {
+                return keySlot[index];
+            }
+            index = (index + 1) & keyMask;
+        }
+        return NO_SLOT;
+    }
+    
+    /**
+     * Assigns a slot to a player, reusing released slots first
+     * Przydziela slot graczowi, najpierw używając zwolnionych slotów
+     */
+    public int assign(@NotNull UUID playerId) {
+        int existing = slotOf(playerId);
+        if (existing != NO_SLOT) {
+            return existing;
+        }
+        
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = highWater++;
+            if (slot >= owners.length) {
+                growSlots(owners.length << 1);
+            }
+        }
+        
+        owners[slot] = playerId;
+        active++;
+        if (active * 2 > keyMask + 1) {
+            rehashKeys((keyMask + 1) << 1);
+        }
+        insertKey(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), slot);
+        for (SlotStore store : stores) {
+            store.restoreSlot(slot, playerId);
+        }
+        return slot;
+    }
+    
+    /**
+     * Returns a player's slot to the pool, parking and then resetting it in every store
+     * Zwraca slot gracza do puli, zachowując, a następnie resetując go we wszystkich magazynach
+     */
+    public void release(@NotNull UUID playerId) {
+        long most = playerId.getMostSignificantBits();
+        long least = playerId.getLeastSignificantBits();
+        int index = hash(most, least) & keyMask;
+        while (keyUsed[index]) {
+            if (keyMost[index] == most && keyLeast[index] == least) {
+                int slot = keySlot[index];
+                removeKeyAt(index);
+                
+                owners[slot] = null;
+                for (SlotStore store : stores) {
+                    store.parkSlot(slot, playerId);
+                    store.clearSlot(slot);
+                }
+                freeSlots[freeCount++] = slot;
+                active--;
+                return;
+            }
+            index = (index + 1) & keyMask;
+        }
+    }
+    
+    /**
+     * Gets the player owning a slot
+     * Pobiera gracza będącego właścicielem slotu
+     */
+    public @Nullable UUID getOwner(int slot) {
+        return slot >= 0 && slot < owners.length ? owners[slot] : null;
+    }
+    
+    /**
+     * Gets one past the highest slot ever handed out; loops over slots stop here
+     * Pobiera indeks za najwyższym przydzielonym slotem; pętle po slotach kończą się tutaj
+     */
+    public int getHighWater() {
+        return highWater;
+    }
+    
+    public int getActiveCount() {
+        return active;
+    }
+    
+    public int getCapacity() {
+        return owners.length;
+    }
+    
+    /**
+     * Gets the bytes each slot costs across every registered store
+     * Pobiera liczbę bajtów kosztu każdego slotu we wszystkich zarejestrowanych magazynach
+     */
+    public int getBytesPerSlot() {
+        int bytes = 0;
+        for (SlotStore store : stores) {
+            bytes += store.getBytesPerSlot();
+        }
+        return bytes;
+    }
+    
+    /**
+     * Releases every slot, e.g. on shutdown
+     * Zwalnia wszystkie sloty, np. przy wyłączaniu
+     */
+    public void clear() {
+        for (int slot = 0; slot < highWater; slot++) {
+            if (owners[slot] != null) {
+                for (SlotStore store : stores) {
+                    store.clearSlot(slot);
+                }
+                owners[slot] = null;
+            }
+        }
+        allocateKeys(INITIAL_CAPACITY * 2);
+        freeCount = 0;
+        highWater = 0;
+        active = 0;
+    }
+    
+    private void growSlots(int capacity) {
+        UUID[] grownOwners = new UUID[capacity];
+        System.arraycopy(owners, 0, grownOwners, 0, owners.length);
+        owners = grownOwners;
+        
+        int[] grownFree = new int[capacity];
+        System.arraycopy(freeSlots, 0, grownFree, 0, freeCount);
+        freeSlots = grownFree;
+        
+        for (SlotStore store : stores) {
+            store.ensureCapacity(capacity);
+        }
+    }
+    
+    private void insertKey(long most, long least, int slot) {
+        int index = hash(most, least) & keyMask;
+        while (keyUsed[index]) {
+            index = (index + 1) & keyMask;
+        }
+        keyUsed[index] = true;
+        keyMost[index] = most;
+        keyLeast[index] = least;
+        keySlot[index] = slot;
+    }
+    
+    private void removeKeyAt(int slotIndex) {
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = slotIndex;
+        int index = (slotIndex + 1) & keyMask;
+        while (keyUsed[index]) {
+            int home = hash(keyMost[index], keyLeast[index]) & keyMask;
+            if (((index - home) & keyMask) >= ((index - gap) & keyMask)) {
+                keyMost[gap] = keyMost[index];
+                keyLeast[gap] = keyLeast[index];
+                keySlot[gap] = keySlot[index];
+                gap = index;
+            }
+            index = (index + 1) & keyMask;
+        }
+        keyUsed[gap] = false;
+    }
+    
+    private void rehashKeys(int capacity) {
+        long[] oldMost = keyMost;
+        long[] oldLeast = keyLeast;
+        int[] oldSlot = keySlot;
+        boolean[] oldUsed = keyUsed;
+        
+        allocateKeys(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                insertKey(oldMost[i], oldLeast[i], oldSlot[i]);
+            }
+        }
+    }
+    
+    private void allocateKeys(int capacity) {
+        keyMost = new long[capacity];
+        keyLeast = new long[capacity];
+        keySlot = new int[capacity];
+        keyUsed = new boolean[capacity];
+        keyMask = capacity - 1;
+    }
+    
+    private static int hash(long most, long least) {
+        return BlockKeys.mix(most ^ least);
+    }
+}
@@ -0,0 +1,132 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Single time source for cooldowns and security checks, published once per tick
+ * Jedno źródło czasu dla cooldownów i zabezpieczeń, publikowane raz na tick
+ *
+ * <p>A task running every tick captures the server tick and a monotonic millisecond timestamp
+ * into one immutable {@link Time} behind a volatile field, so hot paths read a single field
+ * instead of calling into the server and never see a tick and a timestamp from different
+ * ticks. The cooldown timeline follows "cooldown.tick_based": in real-time mode it is the
+ * monotonic clock, so a lagging server does not stretch cooldowns; in tick mode it advances
+ * 50 ms per tick, so cooldowns last a fixed number of ticks whatever the TPS. Both timelines
+ * start at zero when the clock is created. When a reload switches the mode, the cooldown timeline
+ * continues from its current position in the new mode instead of jumping to the other timeline,
+ * so deadlines already stored against it keep their remaining time. Readable from any thread.</p>
+ */
+public final class PortalClock {
+    
+    /**
+     * One published reading of the clock
+     * Jeden opublikowany odczyt zegara
+     *
+     * @param tick Server tick
+     * @param millis Monotonic milliseconds since the clock was created
+     * @param cooldownMillis Position on the configured cooldown timeline in milliseconds
+     */
+    public record Time(int tick, long millis, long cooldownMillis) {
+    }
+    
+    private static final long MILLIS_PER_TICK = 50L;
+    
+    private final JavaPlugin plugin;
+    private final long startNanos = System.nanoTime();
+    private final int startTick;
+    
+    private volatile Time now;
+    private volatile boolean tickBased;
+    private volatile boolean configured;
+    private volatile boolean announceSwitch;
+    private BukkitTask publishTask;
+    
+    // Mode the cooldown timeline currently follows and where it was anchored; main thread only
+    private boolean timelineTickBased;
+    private long anchorCooldownMillis;
+    private int anchorTick;
+    private long anchorMillis;
+    
+    /**
+     * Constructor for PortalClock
+     * Konstruktor dla PortalClock
+     */
+    public PortalClock(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager) {
+        this.plugin = plugin;
+        this.startTick = Bukkit.getCurrentTick();
+        this.anchorTick = startTick;
+        this.now = new Time(startTick, 0L, 0L);
+        configManager.addReloadListener(() -> {
+            // The initial load only picks the mode; switches made by later reloads are logged
+            this.announceSwitch = configured;
+            this.configured = true;
+            this.tickBased = configManager.isTickBasedCooldown();
+        });
+    }
+    
+    /**
+     * Starts publishing the time every tick; main thread only
+     * Rozpoczyna publikowanie czasu co tick; tylko główny wątek
+     */
+    public void start() {
+        if (publishTask == null) {
+            publish();
+            publishTask = Bukkit.getScheduler().runTaskTimer(plugin, this::publish, 1L, 1L);
+        }
+    }
+    
+    public void shutdown() {
+        if (publishTask != null) {
+            publishTask.cancel();
+            publishTask = null;
+        }
+    }
+    
+    private void publish() {
+        int tick = Bukkit.getCurrentTick();
+        long millis = (System.nanoTime() - startNanos) / 1_000_000L;
+        
+        boolean wanted = tickBased;
+        if (wanted != timelineTickBased) {
+            // Continue from the last published position, so stored cooldown deadlines are not shifted
+            anchorCooldownMillis = now.cooldownMillis();
+            anchorTick = tick;
+            anchorMillis = millis;
+            timelineTickBased = wanted;
+            if (announceSwitch) {
+                plugin.getLogger().info("Cooldown clock switched to " + (wanted ? "server ticks" : "real time")
+                    + "; active cooldowns keep their remaining time");
+            }
+        }
+        
+        long elapsed = wanted ? (long) (tick - anchorTick) * MILLIS_PER_TICK : millis - anchorMillis;
+        now = new Time(tick, millis, anchorCooldownMillis + elapsed);
+    }
+    
+    /**
+     * Gets the reading published for the current tick
+     * Pobiera odczyt opublikowany dla bieżącego ticku
+     */
+    public @NotNull Time now() {
+        return now;
+    }
+    
+    public int getTick() {
+        return now.tick();
+    }
+    
+    public long getMillis() {
+        return now.millis();
+    }
+    
+    public long getCooldownMillis() {
+        return now.cooldownMillis();
+    }
+    
+    public boolean isTickBased() {
+        return tickBased;
+    }
+}
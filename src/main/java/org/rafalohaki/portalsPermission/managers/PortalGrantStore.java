@@ -0,0 +1,318 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+import org.rafalohaki.portalsPermission.utils.VersionedFileWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Temporary per-portal-type access grants, expired by a timing wheel and persisted to grants.yml
+ * Tymczasowe dostępy do typów portali, wygaszane kołem czasowym i zapisywane w grants.yml
+ *
+ * <p>Each player with grants has one array of expiry timestamps indexed by
+ * {@link PortalType#index()}, so a lookup is a single hash probe and a comparison. Expiry is
+ * driven by a hashed wheel of one-second buckets: a grant is placed in the bucket of its expiry
+ * second and the wheel visits one bucket per second, so expired grants are removed without
+ * scanning the whole store. Grants longer than one revolution stay in their bucket until their
+ * round comes. Replaced or revoked grants leave stale wheel entries that are dropped when
+ * visited. Timestamps are wall-clock epoch milliseconds, because grants outlive restarts. Main
+ * thread only, except for file writes which work on serialized copies.</p>
+ */
+public final class PortalGrantStore {
+    
+    private static final String FILE_NAME = "grants.yml";
+    private static final int WHEEL_SIZE = 512; // buckets of one second
+    private static final long ADVANCE_INTERVAL_TICKS = 20L;
+    private static final long NO_GRANT = 0L;
+    
+    /**
+     * Scheduled expiry of one grant; stale once the grant was replaced or revoked
+     * Zaplanowane wygaśnięcie jednego dostępu; nieaktualne gdy dostęp zastąpiono lub cofnięto
+     */
+    private record Expiry(@NotNull UUID playerId, @NotNull PortalType type, long expiresAt) {
+    }
+    
+    private final JavaPlugin plugin;
+    private final Path file;
+    private final VersionedFileWriter writer;
+    private final Map<UUID, long[]> grants = new HashMap<>();
+    private final List<Expiry>[] wheel;
+    private final List<Runnable> changeListeners = new ArrayList<>();
+    private long cursorSecond;
+    private BukkitTask advanceTask;
+    private boolean loaded;
+    private long expiredCount;
+    
+    @SuppressWarnings("unchecked")
+    public PortalGrantStore(@NotNull JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.file = plugin.getDataFolder().toPath().resolve(FILE_NAME);
+        this.writer = new VersionedFileWriter(file);
+        this.wheel = new List[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Loads persisted grants, dropping those that expired while the server was down; main thread only
+     * Ładuje zapisane dostępy, pomijając te które wygasły gdy serwer był wyłączony; tylko główny wątek
+     */
+    public void start() {
+        long now = System.currentTimeMillis();
+        cursorSecond = now / 1000L;
+        loaded = true;
+        
+        if (Files.isRegularFile(file)) {
+            YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file.toFile());
+            ConfigurationSection section = yaml.getConfigurationSection("grants");
+            if (section != null) {
+                for (String key : section.getKeys(false)) {
+                    UUID playerId;
+                    try {
+                        playerId = UUID.fromString(key);
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().warning("Ignoring grant for invalid player id '" + key + "' in " + FILE_NAME);
+                        continue;
+                    }
+                    for (PortalType type : PortalType.values()) {
+                        long expiresAt = section.getLong(key + "." + type.getPermissionKey(), NO_GRANT);
+                        if (expiresAt > now) {
+                            put(playerId, type, expiresAt);
+                        }
+                    }
+                }
+            }
+        }
+        
+        if (!grants.isEmpty()) {
+            plugin.getLogger().info("Loaded " + grants.size() + " players with temporary portal grants");
+            startWheel();
+        }
+    }
+    
+    /**
+     * Stops the wheel and writes the grants synchronously
+     * Zatrzymuje koło i synchronicznie zapisuje dostępy
+     */
+    public void shutdown() {
+        stopWheel();
+        
+        // Never overwrite the file with an empty store that was not loaded from it
+        if (loaded) {
+            write(writer.nextVersion(), serialize());
+        }
+    }
+    
+    /**
+     * Checks if the player holds an unexpired grant for the portal type
+     * Sprawdza czy gracz ma niewygasły dostęp do typu portalu
+     */
+    public boolean hasGrant(@NotNull UUID playerId, @NotNull PortalType type) {
+        if (grants.isEmpty()) {
+            return false;
+        }
+        long[] expiries = grants.get(playerId);
+        return expiries != null && expiries[type.index()] > System.currentTimeMillis();
+    }
+    
+    /**
+     * Gets the remaining time of a grant in milliseconds, or 0 without one
+     * Pobiera pozostały czas dostępu w milisekundach, lub 0 jeśli go nie ma
+     */
+    public long getRemainingMillis(@NotNull UUID playerId, @NotNull PortalType type) {
+        long[] expiries = grants.get(playerId);
+        return expiries == null ? 0L : Math.max(0L, expiries[type.index()] - System.currentTimeMillis());
+    }
+    
+    /**
+     * Grants access to a portal type for a duration, replacing any existing grant of that type
+     * Nadaje dostęp do typu portalu na określony czas, zastępując istniejący dostęp tego typu
+     *
+     * @return The expiry timestamp in epoch milliseconds
+     */
+    public long grant(@NotNull UUID playerId, @NotNull PortalType type, long durationMillis) {
+        long expiresAt = System.currentTimeMillis() + Math.max(1L, durationMillis);
+        put(playerId, type, expiresAt);
+        startWheel();
+        changed();
+        return expiresAt;
+    }
+    
+    /**
+     * Revokes a player's grant for one portal type, or every grant when the type is null
+     * Cofa dostęp gracza do jednego typu portalu, lub wszystkie dostępy gdy typ jest null
+     *
+     * @return Whether an active grant was removed
+     */
+    public boolean revoke(@NotNull UUID playerId, @Nullable PortalType type) {
+        long[] expiries = grants.get(playerId);
+        if (expiries == null) {
+            return false;
+        }
+        
+        long now = System.currentTimeMillis();
+        boolean removed = false;
+        for (int i = 0; i < expiries.length; i++) {
+            if ((type == null || type.index() == i) && expiries[i] != NO_GRANT) {
+                removed |= expiries[i] > now;
+                expiries[i] = NO_GRANT;
+            }
+        }
+        removeIfEmpty(playerId, expiries);
+        changed();
+        return removed;
+    }
+    
+    /**
+     * Registers a listener run on the main thread whenever a grant is added, revoked or expires
+     * Rejestruje listener uruchamiany w głównym wątku gdy dostęp zostanie dodany, cofnięty lub wygaśnie
+     */
+    public void addChangeListener(@NotNull Runnable listener) {
+        changeListeners.add(listener);
+    }
+    
+    public int getPlayerCount() {
+        return grants.size();
+    }
+    
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+    
+    private void put(@NotNull UUID playerId, @NotNull PortalType type, long expiresAt) {
+        grants.computeIfAbsent(playerId, id -> new long[PortalType.COUNT])[type.index()] = expiresAt;
+        
+        // Ceiling second, so the grant has expired by the time its bucket is visited
+        long second = Math.max(cursorSecond + 1L, (expiresAt + 999L) / 1000L);
+        wheel[(int) (second % WHEEL_SIZE)].add(new Expiry(playerId, type, expiresAt));
+    }
+    
+    private void startWheel() {
+        if (advanceTask == null && !grants.isEmpty()) {
+            // The wheel is only idle once empty, so it can resume at the current second
+            cursorSecond = System.currentTimeMillis() / 1000L;
+            advanceTask = Bukkit.getScheduler().runTaskTimer(plugin, this::advance,
+                ADVANCE_INTERVAL_TICKS, ADVANCE_INTERVAL_TICKS);
+        }
+    }
+    
+    private void stopWheel() {
+        if (advanceTask != null) {
+            advanceTask.cancel();
+            advanceTask = null;
+        }
+    }
+    
+    /**
+     * Visits every bucket the cursor passed since the last run; a full revolution covers all of them
+     * Odwiedza każdy kubełek minięty przez kursor od ostatniego uruchomienia; pełny obrót obejmuje wszystkie
+     */
+    private void advance() {
+        long now = System.currentTimeMillis();
+        long nowSecond = now / 1000L;
+        long firstSecond = Math.max(cursorSecond + 1L, nowSecond - WHEEL_SIZE + 1L);
+        int expired = 0;
+        
+        for (long second = firstSecond; second <= nowSecond; second++) {
+            expired += expireBucket(wheel[(int) (second % WHEEL_SIZE)], now);
+        }
+        cursorSecond = Math.max(cursorSecond, nowSecond);
+        
+        if (expired > 0) {
+            expiredCount += expired;
+            changed();
+        }
+        if (grants.isEmpty()) {
+            stopWheel();
+            for (List<Expiry> bucket : wheel) {
+                bucket.clear();
+            }
+        }
+    }
+    
+    private int expireBucket(@NotNull List<Expiry> bucket, long now) {
+        int expired = 0;
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Expiry entry = bucket.get(i);
+            if (entry.expiresAt() > now) {
+                continue; // Due in a later revolution
+            }
+            
+            // Swap-remove; order inside a bucket does not matter
+            int last = bucket.size() - 1;
+            bucket.set(i, bucket.get(last));
+            bucket.remove(last);
+            
+            long[] expiries = grants.get(entry.playerId());
+            if (expiries != null && expiries[entry.type().index()] == entry.expiresAt()) {
+                expiries[entry.type().index()] = NO_GRANT;
+                removeIfEmpty(entry.playerId(), expiries);
+                expired++;
+            }
+        }
+        return expired;
+    }
+    
+    private void removeIfEmpty(@NotNull UUID playerId, long @NotNull [] expiries) {
+        for (long expiresAt : expiries) {
+            if (expiresAt != NO_GRANT) {
+                return;
+            }
+        }
+        grants.remove(playerId);
+    }
+    
+    private @NotNull String serialize() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.options().setHeader(List.of("Temporary portal grants managed by /portals grant; expiry in epoch milliseconds"));
+        for (Map.Entry<UUID, long[]> entry : grants.entrySet()) {
+            long[] expiries = entry.getValue();
+            for (PortalType type : PortalType.values()) {
+                if (expiries[type.index()] != NO_GRANT) {
+                    yaml.set("grants." + entry.getKey() + "." + type.getPermissionKey(), expiries[type.index()]);
+                }
+            }
+        }
+        return yaml.saveToString();
+    }
+    
+    private void changed() {
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+        saveAsync();
+    }
+    
+    private void saveAsync() {
+        if (!loaded) {
+            return;
+        }
+        long version = writer.nextVersion();
+        String contents = serialize();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> write(version, contents));
+    }
+    
+    private void write(long version, @NotNull String contents) {
+        try {
+            writer.write(version, contents);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save portal grants", e);
+        }
+    }
+}
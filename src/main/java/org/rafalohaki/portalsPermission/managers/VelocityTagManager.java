@@ -0,0 +1,128 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Tags velocity changes made by this plugin so the velocity security check can skip them
+ * Oznacza zmiany prędkości wykonane przez ten plugin aby sprawdzenie prędkości mogło je pominąć
+ *
+ * <p>A tag remembers the tick and the vector that was set. A {@code PlayerVelocityEvent}
+ * within {@link #TAG_WINDOW_TICKS} carrying the same vector is self-induced. Tags are stored in
+ * {@link PlayerSlotRegistry} slot-indexed columns. Ticks are read from the {@link PortalClock}.
+ * Main thread only.</p>
+ */
+public class VelocityTagManager implements PlayerSlotRegistry.SlotStore {
+    
+    private static final int TAG_WINDOW_TICKS = 2;
+    private static final double MATCH_EPSILON_SQUARED = 1.0E-4;
+    private static final int NO_TAG = Integer.MIN_VALUE / 2;
+    
+    private final PlayerSlotRegistry playerSlots;
+    private final PortalClock clock;
+    
+    // Slot-indexed columns: tick of the tag and the tagged vector
+    private int[] tagTicks = new int[0];
+    private double[] tagX = new double[0];
+    private double[] tagY = new double[0];
+    private double[] tagZ = new double[0];
+    private long skippedEvents;
+    private long checkedEvents;
+    
+    /**
+     * Constructor for VelocityTagManager
+     * Konstruktor dla VelocityTagManager
+     */
+    public VelocityTagManager(@NotNull PlayerSlotRegistry playerSlots, @NotNull PortalClock clock) {
+        this.playerSlots = playerSlots;
+        this.clock = clock;
+        playerSlots.addStore(this);
+    }
+    
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity <= tagTicks.length) {
+            return;
+        }
+        int oldLength = tagTicks.length;
+        tagTicks = Arrays.copyOf(tagTicks, capacity);
+        Arrays.fill(tagTicks, oldLength, capacity, NO_TAG);
+        tagX = Arrays.copyOf(tagX, capacity);
+        tagY = Arrays.copyOf(tagY, capacity);
+        tagZ = Arrays.copyOf(tagZ, capacity);
+    }
+    
+    @Override
+    public void clearSlot(int slot) {
+        tagTicks[slot] = NO_TAG;
+    }
+    
+    @Override
+    public int getBytesPerSlot() {
+        return Integer.BYTES + 3 * Double.BYTES;
+    }
+    
+    /**
+     * Records a velocity this plugin is about to set on a player
+     * Zapisuje prędkość którą plugin zaraz ustawi graczowi
+     */
+    public void tag(@NotNull Player player, @NotNull Vector velocity) {
+        int slot = playerSlots.acquire(player);
+        if (slot == PlayerSlotRegistry.NO_SLOT) {
+            return;
+        }
+        tagTicks[slot] = clock.getTick();
+        tagX[slot] = velocity.getX();
+        tagY[slot] = velocity.getY();
+        tagZ[slot] = velocity.getZ();
+    }
+    
+    /**
+     * Checks if a velocity event was caused by this plugin and counts the result
+     * Sprawdza czy zdarzenie prędkości zostało wywołane przez ten plugin i zlicza wynik
+     *
+     * @return true if the event should be skipped by security checks
+     */
+    public boolean isSelfInduced(@NotNull Player player, @NotNull Vector velocity) {
+        int slot = playerSlots.slotOf(player);
+        if (slot != PlayerSlotRegistry.NO_SLOT && clock.getTick() - tagTicks[slot] <= TAG_WINDOW_TICKS) {
+            double dx = velocity.getX() - tagX[slot];
+            double dy = velocity.getY() - tagY[slot];
+            double dz = velocity.getZ() - tagZ[slot];
+            if (dx * dx + dy * dy + dz * dz <= MATCH_EPSILON_SQUARED) {
+                skippedEvents++;
+                return true;
+            }
+        }
+        checkedEvents++;
+        return false;
+    }
+    
+    /**
+     * Forgets a player's tag, e.g. on quit
+     * Zapomina znacznik gracza, np. przy wyjściu
+     */
+    public void remove(@NotNull UUID playerId) {
+        int slot = playerSlots.slotOf(playerId);
+        if (slot != PlayerSlotRegistry.NO_SLOT) {
+            tagTicks[slot] = NO_TAG;
+        }
+    }
+    
+    public long getSkippedEvents() {
+        return skippedEvents;
+    }
+    
+    public long getCheckedEvents() {
+        return checkedEvents;
+    }
+    
+    public void resetCounters() {
+        skippedEvents = 0;
+        checkedEvents = 0;
+    }
+}
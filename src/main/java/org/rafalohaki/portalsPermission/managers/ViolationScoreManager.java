@@ -0,0 +1,172 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps an exponentially decaying violation score per player that scales cooldowns
+ * Przechowuje wygasający wykładniczo wynik naruszeń gracza, który skaluje cooldowny
+ *
+ * <p>Scores live in {@link PlayerSlotRegistry} slot-indexed columns together with the tick they
+ * were last written. Decay is applied only when a score is read or raised, so idle players cost
+ * nothing. A score of one is a first offence; each further point multiplies the cooldown by the
+ * configured factor, up to the configured cap. Scores of players who leave are parked until they
+ * rejoin or decay to zero. Main thread only.</p>
+ */
+public class ViolationScoreManager implements PlayerSlotRegistry.SlotStore {
+    
+    private final ConfigManager configManager;
+    private final PlayerSlotRegistry playerSlots;
+    private final PortalClock clock;
+    
+    // Slot-indexed columns: score at its last update and the tick of that update
+    private double[] scores = new double[0];
+    private int[] updatedTicks = new int[0];
+    private long violations;
+    // Undecayed scores of players who left
+    private final Map<UUID, ParkedScore> parked = new HashMap<>();
+    
+    private record ParkedScore(double score, int updatedTick) {
+    }
+    
+    /**
+     * Constructor for ViolationScoreManager
+     * Konstruktor dla ViolationScoreManager
+     */
+    public ViolationScoreManager(@NotNull ConfigManager configManager, @NotNull PlayerSlotRegistry playerSlots,
+                                 @NotNull PortalClock clock) {
+        this.configManager = configManager;
+        this.playerSlots = playerSlots;
+        this.clock = clock;
+        playerSlots.addStore(this);
+    }
+    
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > scores.length) {
+            scores = Arrays.copyOf(scores, capacity);
+            updatedTicks = Arrays.copyOf(updatedTicks, capacity);
+        }
+    }
+    
+    @Override
+    public void clearSlot(int slot) {
+        scores[slot] = 0.0;
+    }
+    
+    @Override
+    public void parkSlot(int slot, @NotNull UUID owner) {
+        int now = clock.getTick();
+        parked.values().removeIf(entry -> decay(entry.score(), entry.updatedTick(), now) == 0.0);
+        if (decayed(slot, now) > 0.0) {
+            parked.put(owner, new ParkedScore(scores[slot], updatedTicks[slot]));
+        }
+    }
+    
+    @Override
+    public void restoreSlot(int slot, @NotNull UUID owner) {
+        ParkedScore entry = parked.remove(owner);
+        if (entry != null) {
+            scores[slot] = entry.score();
+            updatedTicks[slot] = entry.updatedTick();
+        }
+    }
+    
+    @Override
+    public int getBytesPerSlot() {
+        return Double.BYTES + Integer.BYTES;
+    }
+    
+    /**
+     * Adds a violation to the player's decayed score
+     * Dodaje naruszenie do wygaszonego wyniku gracza
+     *
+     * @param weight How much the violation counts; 1.0 is an ordinary offence
+     * @return The score after the violation, or 0 if the player has no slot
+     */
+    public double record(@NotNull Player player, double weight) {
+        int slot = playerSlots.acquire(player);
+        if (slot == PlayerSlotRegistry.NO_SLOT) {
+            return 0.0;
+        }
+        
+        int now = clock.getTick();
+        double score = decayed(slot, now) + weight;
+        scores[slot] = score;
+        updatedTicks[slot] = now;
+        violations++;
+        return score;
+    }
+    
+    /**
+     * Gets the player's current score with decay applied
+     * Pobiera aktualny wynik gracza z uwzględnieniem wygaszania
+     */
+    public double getScore(@NotNull Player player) {
+        int slot = playerSlots.slotOf(player);
+        return slot == PlayerSlotRegistry.NO_SLOT ? 0.0 : decayed(slot, clock.getTick());
+    }
+    
+    /**
+     * Gets the cooldown multiplier for a score: 1 up to the first offence, then the factor per point
+     * Pobiera mnożnik cooldown dla wyniku: 1 do pierwszego naruszenia, potem czynnik za każdy punkt
+     */
+    public double getMultiplier(double score) {
+        if (!configManager.isCooldownEscalationEnabled() || score <= 1.0) {
+            return 1.0;
+        }
+        double multiplier = Math.pow(configManager.getCooldownEscalationFactor(), score - 1.0);
+        return Math.min(configManager.getCooldownEscalationMaxMultiplier(), multiplier);
+    }
+    
+    /**
+     * Scales a base cooldown by the multiplier of a score
+     * Skaluje bazowy cooldown mnożnikiem wyniku
+     */
+    public int escalate(int baseCooldown, double score) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.round(baseCooldown * getMultiplier(score)));
+    }
+    
+    /**
+     * Forgets a player's score, e.g. when staff clear the player's cooldown
+     * Zapomina wynik gracza, np. gdy administracja czyści cooldown gracza
+     */
+    public void reset(@NotNull Player player) {
+        int slot = playerSlots.slotOf(player);
+        if (slot != PlayerSlotRegistry.NO_SLOT) {
+            scores[slot] = 0.0;
+        }
+        parked.remove(player.getUniqueId());
+    }
+    
+    public void resetAll() {
+        Arrays.fill(scores, 0.0);
+        parked.clear();
+    }
+    
+    public long getViolationCount() {
+        return violations;
+    }
+    
+    private double decayed(int slot, int now) {
+        return decay(scores[slot], updatedTicks[slot], now);
+    }
+    
+    private double decay(double score, int updatedTick, int now) {
+        if (score == 0.0) {
+            return 0.0;
+        }
+        
+        int elapsed = now - updatedTick;
+        double halfLifeTicks = configManager.getViolationHalfLifeSeconds() * 20.0;
+        double current = score * Math.pow(0.5, elapsed / halfLifeTicks);
+        
+        // Scores this small no longer escalate anything; settle them at zero
+        return current < 0.01 ? 0.0 : current;
+    }
+}
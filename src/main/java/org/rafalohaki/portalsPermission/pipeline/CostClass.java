@@ -0,0 +1,16 @@
+package org.rafalohaki.portalsPermission.pipeline;
+
+/**
+ * Relative evaluation cost of a pipeline stage, cheapest first
+ * Względny koszt ewaluacji etapu potoku, od najtańszego
+ */
+public enum CostClass {
+    /** Reads a cached field */
+    CONSTANT,
+    /** Single map or array lookup */
+    LOOKUP,
+    /** Permission resolution through the permission backend */
+    PERMISSION,
+    /** Reads world state */
+    WORLD
+}
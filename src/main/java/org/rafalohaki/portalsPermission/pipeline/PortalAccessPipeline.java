@@ -0,0 +1,178 @@
+package org.rafalohaki.portalsPermission.pipeline;
+
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Ordered, short-circuiting chain of portal access stages
+ * Uporządkowany łańcuch etapów dostępu do portali z wczesnym przerwaniem
+ *
+ * <p>The chain is rebuilt on the main thread after every configuration (re)load: disabled stages are
+ * dropped and the rest are ordered by cost class, optionally refined by the observed decisions per
+ * nanosecond. Exempting stages such as the bypass run right after the constant stages, so no cheaper
+ * stage can deny a player they would let through. Stateful stages are never moved by metrics; they
+ * run after the stateless stages of their cost class, so they only count attempts those stages let
+ * through.</p>
+ */
+public final class PortalAccessPipeline {
+    
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final List<PortalAccessStage> stages;
+    private final Map<PortalAccessStage, StageMetrics> metrics;
+    
+    // Active chain and its metrics in the same order, published together on rebuild
+    private volatile Chain chain = new Chain(new PortalAccessStage[0], new StageMetrics[0]);
+    private volatile boolean metricsEnabled;
+    
+    public PortalAccessPipeline(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager) {
+        this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+        this.configManager = Objects.requireNonNull(configManager, "ConfigManager cannot be null");
+        this.stages = new ArrayList<>();
+        this.metrics = new IdentityHashMap<>();
+        // Stage metrics are written by the main thread, so they are read there as well
+        configManager.addReloadListener(() -> plugin.getServer().getScheduler().runTask(plugin, this::rebuild));
+    }
+    
+    /**
+     * Registers a stage; takes effect on the next rebuild
+     * Rejestruje etap; zaczyna działać przy następnej przebudowie
+     */
+    public synchronized void addStage(@NotNull PortalAccessStage stage) {
+        Objects.requireNonNull(stage, "Stage cannot be null");
+        stages.add(stage);
+        metrics.put(stage, new StageMetrics());
+    }
+    
+    /**
+     * Rebuilds the active chain from the registered stages; main thread only
+     * Przebudowuje aktywny łańcuch z zarejestrowanych etapów; tylko główny wątek
+     */
+    public synchronized void rebuild() {
+        this.metricsEnabled = configManager.isPipelineMetricsEnabled();
+        boolean reorderFromMetrics = configManager.isPipelineReorderEnabled();
+        
+        List<PortalAccessStage> active = new ArrayList<>();
+        for (PortalAccessStage stage : stages) {
+            stage.reload();
+            if (stage.isEnabled()) {
+                active.add(stage);
+            }
+        }
+        
+        Comparator<PortalAccessStage> order = Comparator.comparingInt(PortalAccessPipeline::orderGroup)
+            .thenComparing(PortalAccessStage::getCostClass)
+            .thenComparing(PortalAccessStage::isStateful);
+        if (reorderFromMetrics) {
+            // Stateful stages compare equal here and keep their registration order
+            order = order.thenComparingDouble(stage -> stage.isStateful() ? 0.0 : -metrics.get(stage).getEfficiency());
+        }
+        // Stable sort keeps registration order for equal keys
+        active.sort(order);
+        
+        StageMetrics[] activeMetrics = new StageMetrics[active.size()];
+        for (int i = 0; i < activeMetrics.length; i++) {
+            activeMetrics[i] = metrics.get(active.get(i));
+        }
+        this.chain = new Chain(active.toArray(new PortalAccessStage[0]), activeMetrics);
+    }
+    
+    /**
+     * Groups constant stages first, then exempting stages, then everything else
+     * Grupuje najpierw etapy stałe, potem etapy zwalniające, a następnie pozostałe
+     */
+    private static int orderGroup(@NotNull PortalAccessStage stage) {
+        if (stage.getCostClass() == CostClass.CONSTANT) {
+            return 0;
+        }
+        return stage.isExempting() ? 1 : 2;
+    }
+    
+    /**
+     * Runs the chain until the first terminal result; main thread only
+     * Uruchamia łańcuch do pierwszego wyniku końcowego; tylko główny wątek
+     *
+     * @param context The per-event decision context
+     * @return The first terminal result, or ALLOW if every stage continued
+     */
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        Chain current = this.chain;
+        PortalAccessStage[] activeStages = current.stages();
+        StageMetrics[] activeMetrics = current.metrics();
+        boolean timed = metricsEnabled;
+        
+        for (int i = 0; i < activeStages.length; i++) {
+            PortalAccessStage stage = activeStages[i];
+            StageResult result;
+            
+            if (timed) {
+                long start = System.nanoTime();
+                result = stage.evaluate(context);
+                activeMetrics[i].record(result, System.nanoTime() - start);
+            } else {
+                result = stage.evaluate(context);
+            }
+            
+            if (result == StageResult.DENY) {
+                stage.onDenied(context);
+                return result;
+            }
+            if (result.isTerminal()) {
+                return result;
+            }
+        }
+        
+        return StageResult.ALLOW;
+    }
+    
+    /**
+     * Gets the stages of the active chain in evaluation order
+     * Pobiera etapy aktywnego łańcucha w kolejności ewaluacji
+     */
+    public @NotNull List<PortalAccessStage> getActiveStages() {
+        return List.of(chain.stages());
+    }
+    
+    /**
+     * Gets all registered stages, including those dropped from the chain
+     * Pobiera wszystkie zarejestrowane etapy, również usunięte z łańcucha
+     */
+    public synchronized @NotNull List<PortalAccessStage> getStages() {
+        return Collections.unmodifiableList(new ArrayList<>(stages));
+    }
+    
+    public synchronized @NotNull StageMetrics getMetrics(@NotNull PortalAccessStage stage) {
+        StageMetrics stageMetrics = metrics.get(stage);
+        if (stageMetrics == null) {
+            throw new IllegalArgumentException("Stage not registered: " + stage.getName());
+        }
+        return stageMetrics;
+    }
+    
+    /**
+     * Resets all stage counters
+     * Resetuje liczniki wszystkich etapów
+     */
+    public synchronized void resetMetrics() {
+        for (StageMetrics stageMetrics : metrics.values()) {
+            stageMetrics.reset();
+        }
+    }
+    
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+    
+    private record Chain(@NotNull PortalAccessStage[] stages, @NotNull StageMetrics[] metrics) {
+    }
+}
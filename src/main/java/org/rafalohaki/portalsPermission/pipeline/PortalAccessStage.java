@@ -0,0 +1,69 @@
+package org.rafalohaki.portalsPermission.pipeline;
+
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+
+/**
+ * Single stage of the portal access pipeline
+ * Pojedynczy etap potoku dostępu do portali
+ */
+public interface PortalAccessStage {
+    
+    /**
+     * Gets the stage name shown in statistics
+     * Pobiera nazwę etapu wyświetlaną w statystykach
+     */
+    @NotNull String getName();
+    
+    /**
+     * Gets the declared cost class used for ordering
+     * Pobiera zadeklarowaną klasę kosztu używaną do sortowania
+     */
+    @NotNull CostClass getCostClass();
+    
+    /**
+     * Checks whether evaluating the stage changes state, such as counting an attempt
+     * Sprawdza czy ewaluacja etapu zmienia stan, np. zlicza próbę
+     *
+     * <p>Stateful stages keep a fixed position after the stateless stages of their cost class.</p>
+     */
+    default boolean isStateful() {
+        return false;
+    }
+    
+    /**
+     * Checks whether the stage exempts players from every stage after it, such as a bypass
+     * Sprawdza czy etap zwalnia graczy ze wszystkich kolejnych etapów, np. bypass
+     *
+     * <p>Exempting stages run right after the constant stages, whatever their own cost class.</p>
+     */
+    default boolean isExempting() {
+        return false;
+    }
+    
+    /**
+     * Refreshes cached configuration; called on every pipeline rebuild before {@link #isEnabled()}
+     * Odświeża buforowaną konfigurację; wywoływane przy każdej przebudowie potoku przed {@link #isEnabled()}
+     */
+    default void reload() {
+    }
+    
+    /**
+     * Checks whether the stage takes part in the chain; read only when the pipeline is rebuilt
+     * Sprawdza czy etap bierze udział w łańcuchu; odczytywane tylko przy przebudowie potoku
+     */
+    boolean isEnabled();
+    
+    /**
+     * Evaluates the stage; must not send feedback, see {@link #onDenied}
+     * Ewaluuje etap; nie może wysyłać komunikatów, zob. {@link #onDenied}
+     */
+    @NotNull StageResult evaluate(@NotNull PortalDecisionContext context);
+    
+    /**
+     * Sends feedback (messages, knockback) after this stage denied the event
+     * Wysyła informację zwrotną (wiadomości, knockback) po odmowie przez ten etap
+     */
+    default void onDenied(@NotNull PortalDecisionContext context) {
+    }
+}
@@ -0,0 +1,61 @@
+package org.rafalohaki.portalsPermission.pipeline;
+
+/**
+ * Hit and latency counters of a pipeline stage; written on the main thread only
+ * Liczniki trafień i opóźnień etapu potoku; zapisywane tylko w głównym wątku
+ */
+public final class StageMetrics {
+    
+    private long evaluations;
+    private long allows;
+    private long denials;
+    private long totalNanos;
+    
+    void record(StageResult result, long nanos) {
+        evaluations++;
+        totalNanos += nanos;
+        if (result == StageResult.DENY) {
+            denials++;
+        } else if (result == StageResult.ALLOW) {
+            allows++;
+        }
+    }
+    
+    void reset() {
+        evaluations = 0;
+        allows = 0;
+        denials = 0;
+        totalNanos = 0;
+    }
+    
+    public long getEvaluations() {
+        return evaluations;
+    }
+    
+    public long getAllows() {
+        return allows;
+    }
+    
+    public long getDenials() {
+        return denials;
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+    
+    public double getAverageNanos() {
+        return evaluations == 0 ? 0.0 : (double) totalNanos / evaluations;
+    }
+    
+    /**
+     * Terminal decisions per nanosecond spent - higher means the stage should run earlier
+     * Decyzje końcowe na nanosekundę - wyższa wartość oznacza że etap powinien działać wcześniej
+     */
+    double getEfficiency() {
+        if (evaluations == 0 || totalNanos == 0) {
+            return 0.0;
+        }
+        return (double) (denials + allows) / totalNanos;
+    }
+}
@@ -0,0 +1,20 @@
+package org.rafalohaki.portalsPermission.pipeline;
+
+/**
+ * Result of a single pipeline stage
+ * Wynik pojedynczego etapu potoku
+ */
+public enum StageResult {
+    /** No opinion - continue with the next stage */
+    CONTINUE,
+    /** Portal use is allowed, remaining stages are skipped */
+    ALLOW,
+    /** Portal use is denied, remaining stages are skipped */
+    DENY,
+    /** The plugin does not handle this event at all */
+    SKIP;
+    
+    public boolean isTerminal() {
+        return this != CONTINUE;
+    }
+}
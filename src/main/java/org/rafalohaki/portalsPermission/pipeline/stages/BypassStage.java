@@ -0,0 +1,49 @@
+package org.rafalohaki.portalsPermission.pipeline.stages;
+
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.pipeline.CostClass;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
+
+/**
+ * Allows players holding the bypass permission
+ * Przepuszcza graczy posiadających uprawnienie bypass
+ */
+public class BypassStage implements PortalAccessStage {
+    
+    private final IPortalPermissionChecker permissionChecker;
+    
+    public BypassStage(@NotNull IPortalPermissionChecker permissionChecker) {
+        this.permissionChecker = permissionChecker;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "bypass";
+    }
+    
+    @Override
+    public @NotNull CostClass getCostClass() {
+        return CostClass.PERMISSION;
+    }
+    
+    @Override
+    public boolean isExempting() {
+        return true;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+    
+    @Override
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        boolean bypass = permissionChecker.hasBypassPermission(context.getPlayer());
+        // Remember the answer so the permission stage does not ask again
+        context.setBypass(bypass);
+        return bypass ? StageResult.ALLOW : StageResult.CONTINUE;
+    }
+}
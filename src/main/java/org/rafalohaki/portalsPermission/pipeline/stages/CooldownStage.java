@@ -0,0 +1,73 @@
+package org.rafalohaki.portalsPermission.pipeline.stages;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.CooldownManager;
+import org.rafalohaki.portalsPermission.pipeline.CostClass;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.services.IPortalKnockbackService;
+import org.rafalohaki.portalsPermission.services.IPortalMessageService;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+/**
+ * Denies portal use while the player's portal cooldown or denial cooldown is active
+ * Blokuje użycie portalu gdy cooldown gracza lub cooldown odmów jest aktywny
+ *
+ * <p>A use cooldown is reported with the remaining time; a cooldown started by repeated denials
+ * is reported with the permission message, since that is why the player is held back.</p>
+ */
+public class CooldownStage implements PortalAccessStage {
+    
+    private final ConfigManager configManager;
+    private final CooldownManager cooldownManager;
+    private final IPortalMessageService messageService;
+    private final IPortalKnockbackService knockbackService;
+    
+    public CooldownStage(@NotNull ConfigManager configManager,
+                         @NotNull CooldownManager cooldownManager,
+                         @NotNull IPortalMessageService messageService,
+                         @NotNull IPortalKnockbackService knockbackService) {
+        this.configManager = configManager;
+        this.cooldownManager = cooldownManager;
+        this.messageService = messageService;
+        this.knockbackService = knockbackService;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "cooldown";
+    }
+    
+    @Override
+    public @NotNull CostClass getCostClass() {
+        return CostClass.LOOKUP;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return configManager.isCooldownEnabled();
+    }
+    
+    @Override
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        Player player = context.getPlayer();
+        PortalType type = context.getPortalType();
+        return cooldownManager.hasCooldown(player, type) || cooldownManager.hasDenialCooldown(player, type)
+            ? StageResult.DENY : StageResult.CONTINUE;
+    }
+    
+    @Override
+    public void onDenied(@NotNull PortalDecisionContext context) {
+        Player player = context.getPlayer();
+        PortalType type = context.getPortalType();
+        if (cooldownManager.hasCooldown(player, type)) {
+            messageService.sendCooldownMessage(player, cooldownManager.getRemainingCooldown(player, type));
+        } else {
+            messageService.sendPermissionDeniedMessage(context);
+        }
+        knockbackService.applyKnockbackAsync(context);
+    }
+}
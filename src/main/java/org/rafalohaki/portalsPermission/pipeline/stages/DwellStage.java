@@ -0,0 +1,54 @@
+package org.rafalohaki.portalsPermission.pipeline.stages;
+
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.pipeline.CostClass;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.services.IPortalKnockbackService;
+import org.rafalohaki.portalsPermission.services.IPortalSecurityService;
+
+/**
+ * Denies players who have been standing in a portal for too long
+ * Blokuje graczy którzy zbyt długo stoją w portalu
+ */
+public class DwellStage implements PortalAccessStage {
+    
+    private final ConfigManager configManager;
+    private final IPortalSecurityService securityService;
+    private final IPortalKnockbackService knockbackService;
+    
+    public DwellStage(@NotNull ConfigManager configManager,
+                      @NotNull IPortalSecurityService securityService,
+                      @NotNull IPortalKnockbackService knockbackService) {
+        this.configManager = configManager;
+        this.securityService = securityService;
+        this.knockbackService = knockbackService;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "dwell";
+    }
+    
+    @Override
+    public @NotNull CostClass getCostClass() {
+        return CostClass.LOOKUP;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return configManager.isSecurityEnabled();
+    }
+    
+    @Override
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        return securityService.hasEntityBeenInPortalTooLong(context.getPlayer()) ? StageResult.DENY : StageResult.CONTINUE;
+    }
+    
+    @Override
+    public void onDenied(@NotNull PortalDecisionContext context) {
+        knockbackService.applyKnockbackAsync(context);
+    }
+}
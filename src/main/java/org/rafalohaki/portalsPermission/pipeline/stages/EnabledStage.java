@@ -0,0 +1,47 @@
+package org.rafalohaki.portalsPermission.pipeline.stages;
+
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.pipeline.CostClass;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+
+/**
+ * Skips all processing when the plugin is disabled in configuration
+ * Pomija całe przetwarzanie gdy plugin jest wyłączony w konfiguracji
+ */
+public class EnabledStage implements PortalAccessStage {
+    
+    private final ConfigManager configManager;
+    private volatile boolean pluginEnabled;
+    
+    public EnabledStage(@NotNull ConfigManager configManager) {
+        this.configManager = configManager;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "enabled";
+    }
+    
+    @Override
+    public @NotNull CostClass getCostClass() {
+        return CostClass.CONSTANT;
+    }
+    
+    @Override
+    public void reload() {
+        this.pluginEnabled = configManager.isEnabled();
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+    
+    @Override
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        return pluginEnabled ? StageResult.CONTINUE : StageResult.SKIP;
+    }
+}
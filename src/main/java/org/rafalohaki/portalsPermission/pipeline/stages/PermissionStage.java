@@ -0,0 +1,56 @@
+package org.rafalohaki.portalsPermission.pipeline.stages;
+
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.pipeline.CostClass;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.services.IPortalKnockbackService;
+import org.rafalohaki.portalsPermission.services.IPortalMessageService;
+import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
+
+/**
+ * Applies access rules and the per-type block and permission settings
+ * Stosuje reguły dostępu oraz ustawienia blokady i uprawnień dla typów portali
+ */
+public class PermissionStage implements PortalAccessStage {
+    
+    private final IPortalPermissionChecker permissionChecker;
+    private final IPortalMessageService messageService;
+    private final IPortalKnockbackService knockbackService;
+    
+    public PermissionStage(@NotNull IPortalPermissionChecker permissionChecker,
+                           @NotNull IPortalMessageService messageService,
+                           @NotNull IPortalKnockbackService knockbackService) {
+        this.permissionChecker = permissionChecker;
+        this.messageService = messageService;
+        this.knockbackService = knockbackService;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "permission";
+    }
+    
+    @Override
+    public @NotNull CostClass getCostClass() {
+        return CostClass.PERMISSION;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+    
+    @Override
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        return permissionChecker.hasPortalPermission(context) ? StageResult.CONTINUE : StageResult.DENY;
+    }
+    
+    @Override
+    public void onDenied(@NotNull PortalDecisionContext context) {
+        // Message key is based on portal type, not target environment
+        messageService.sendPermissionDeniedMessage(context);
+        knockbackService.applyKnockbackAsync(context);
+    }
+}
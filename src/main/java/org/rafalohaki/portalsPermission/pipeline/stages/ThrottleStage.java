@@ -0,0 +1,133 @@
+package org.rafalohaki.portalsPermission.pipeline.stages;
+
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.pipeline.CostClass;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Silently denies players exceeding the configured number of portal attempts per window
+ * Po cichu blokuje graczy przekraczających skonfigurowaną liczbę prób wejścia w oknie czasu
+ *
+ * <p>Windows are kept in {@link PlayerSlotRegistry} slot-indexed columns; a zeroed slot reads
+ * as an expired window. The open window of a player who leaves is parked until they rejoin or it
+ * expires, so relogging does not reset the count. Main thread only.</p>
+ */
+public class ThrottleStage implements PortalAccessStage, PlayerSlotRegistry.SlotStore {
+    
+    private final ConfigManager configManager;
+    private final PlayerSlotRegistry playerSlots;
+    private final PortalClock clock;
+    
+    // Slot-indexed columns: window start in clock milliseconds and attempts in the window
+    private long[] windowStarts = new long[0];
+    private int[] attempts = new int[0];
+    // Open windows of players who left
+    private final Map<UUID, ParkedWindow> parked = new HashMap<>();
+    
+    private record ParkedWindow(long start, int attempts) {
+    }
+    
+    private volatile boolean enabled;
+    private volatile int maxAttempts;
+    private volatile long windowMillis;
+    
+    public ThrottleStage(@NotNull ConfigManager configManager, @NotNull PlayerSlotRegistry playerSlots,
+                         @NotNull PortalClock clock) {
+        this.configManager = configManager;
+        this.playerSlots = playerSlots;
+        this.clock = clock;
+        playerSlots.addStore(this);
+    }
+    
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > windowStarts.length) {
+            windowStarts = Arrays.copyOf(windowStarts, capacity);
+            attempts = Arrays.copyOf(attempts, capacity);
+        }
+    }
+    
+    @Override
+    public void clearSlot(int slot) {
+        windowStarts[slot] = 0L;
+        attempts[slot] = 0;
+    }
+    
+    @Override
+    public void parkSlot(int slot, @NotNull UUID owner) {
+        long now = clock.getMillis();
+        long window = windowMillis;
+        parked.values().removeIf(entry -> now - entry.start() >= window);
+        if (attempts[slot] > 0 && now - windowStarts[slot] < window) {
+            parked.put(owner, new ParkedWindow(windowStarts[slot], attempts[slot]));
+        }
+    }
+    
+    @Override
+    public void restoreSlot(int slot, @NotNull UUID owner) {
+        ParkedWindow entry = parked.remove(owner);
+        if (entry != null) {
+            windowStarts[slot] = entry.start();
+            attempts[slot] = entry.attempts();
+        }
+    }
+    
+    @Override
+    public int getBytesPerSlot() {
+        return Long.BYTES + Integer.BYTES;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "throttle";
+    }
+    
+    @Override
+    public @NotNull CostClass getCostClass() {
+        return CostClass.LOOKUP;
+    }
+    
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+    
+    @Override
+    public void reload() {
+        this.enabled = configManager.isThrottleEnabled();
+        this.maxAttempts = Math.max(1, configManager.getThrottleMaxAttempts());
+        this.windowMillis = Math.max(1, configManager.getThrottleWindowSeconds()) * 1000L;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @Override
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        int slot = playerSlots.acquire(context.getPlayer());
+        if (slot == PlayerSlotRegistry.NO_SLOT) {
+            return StageResult.CONTINUE;
+        }
+        
+        long now = clock.getMillis();
+        if (now - windowStarts[slot] >= windowMillis) {
+            windowStarts[slot] = now;
+            attempts[slot] = 1;
+            return StageResult.CONTINUE;
+        }
+        
+        return ++attempts[slot] > maxAttempts ? StageResult.DENY : StageResult.CONTINUE;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package org.rafalohaki.portalsPermission.pipeline.stages;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.pipeline.CostClass;
+import org.rafalohaki.portalsPermission.pipeline.PortalAccessStage;
+import org.rafalohaki.portalsPermission.pipeline.StageResult;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.services.IPortalSecurityService;
+
+/**
+ * Denies players tracked as riding a vehicle into a portal with unauthorized passengers
+ * Blokuje graczy śledzonych jako wjeżdżających do portalu pojazdem z nieuprawnionymi pasażerami
+ */
+public class VehicleStage implements PortalAccessStage {
+    
+    private final ConfigManager configManager;
+    private final IPortalSecurityService securityService;
+    
+    public VehicleStage(@NotNull ConfigManager configManager, @NotNull IPortalSecurityService securityService) {
+        this.configManager = configManager;
+        this.securityService = securityService;
+    }
+    
+    @Override
+    public @NotNull String getName() {
+        return "vehicle";
+    }
+    
+    @Override
+    public @NotNull CostClass getCostClass() {
+        return CostClass.LOOKUP;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return configManager.isSecurityEnabled();
+    }
+    
+    @Override
+    public @NotNull StageResult evaluate(@NotNull PortalDecisionContext context) {
+        Player player = context.getPlayer();
+        if (player.isInsideVehicle() && securityService.isPlayerInVehicleInPortal(player)) {
+            return StageResult.DENY;
+        }
+        return StageResult.CONTINUE;
+    }
+}
@@ -0,0 +1,47 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Access rule compiled into a cost-ordered predicate chain
+ * Reguła dostępu skompilowana do łańcucha predykatów uporządkowanego wg kosztu
+ */
+public final class CompiledRule {
+    
+    private final String name;
+    private final PolicyAction action;
+    private final RulePredicate[] predicates;
+    
+    CompiledRule(@NotNull String name, @NotNull PolicyAction action, @NotNull RulePredicate[] predicates) {
+        this.name = name;
+        this.action = action;
+        this.predicates = predicates;
+    }
+    
+    /**
+     * Checks all predicates, cheapest first, stopping at the first mismatch
+     * Sprawdza wszystkie predykaty, od najtańszego, zatrzymując się na pierwszym niedopasowaniu
+     */
+    boolean matches(@NotNull Entity entity, @NotNull World world) {
+        for (RulePredicate predicate : predicates) {
+            if (!predicate.test(entity, world)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public @NotNull String getName() {
+        return name;
+    }
+    
+    public @NotNull PolicyAction getAction() {
+        return action;
+    }
+    
+    public int getPredicateCount() {
+        return predicates.length;
+    }
+}
@@ -0,0 +1,28 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+/**
+ * Precomputed portal access decision
+ * Wstępnie obliczona decyzja o dostępie do portalu
+ *
+ * @param outcome Whether the portal may be used, and why not
+ * @param portalType The portal type the decision was computed for
+ * @param targetEnvironment Where the portal leads, or null if unknown
+ * @param messageKey The message key sent on denial
+ * @param knockbackProfile The knockback tuning used on denial
+ */
+public record Decision(
+    @NotNull DecisionOutcome outcome,
+    @NotNull PortalType portalType,
+    @Nullable World.Environment targetEnvironment,
+    @NotNull String messageKey,
+    @NotNull KnockbackProfile knockbackProfile
+) {
+    public boolean isAllowed() {
+        return outcome.isAllowed();
+    }
+}
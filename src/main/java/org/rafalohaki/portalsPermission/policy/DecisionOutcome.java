@@ -0,0 +1,21 @@
+package org.rafalohaki.portalsPermission.policy;
+
+/**
+ * Outcome of a portal access decision
+ * Wynik decyzji o dostępie do portalu
+ */
+public enum DecisionOutcome {
+    ALLOW,
+    /** Portal type is blocked in configuration */
+    DENY_BLOCKED,
+    /** Player lacks the permission for the portal type */
+    DENY_PERMISSION,
+    /** A configured access rule denied the portal */
+    DENY_RULE,
+    /** The access list of the portal region did not admit the player */
+    DENY_REGION;
+    
+    public boolean isAllowed() {
+        return this == ALLOW;
+    }
+}
@@ -0,0 +1,28 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * How denied players are pushed away from a portal
+ * Sposób odpychania graczy od portalu po odmowie
+ */
+public enum KnockbackMode {
+    /** Push away from the event location, then damage and set velocity again */
+    LEGACY,
+    /** Push along the portal plane normal toward a cached safe exit, velocity applied once */
+    GEOMETRY;
+    
+    /**
+     * Parses a knockback mode from configuration, defaulting to geometry
+     * Parsuje tryb knockbacku z konfiguracji, domyślnie geometry
+     */
+    public static @NotNull KnockbackMode fromConfig(@Nullable String value) {
+        if (value != null && value.trim().toLowerCase(Locale.ROOT).equals("legacy")) {
+            return LEGACY;
+        }
+        return GEOMETRY;
+    }
+}
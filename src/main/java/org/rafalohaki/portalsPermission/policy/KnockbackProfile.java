@@ -0,0 +1,38 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Knockback tuning applied for a portal destination
+ * Parametry knockbacku stosowane dla celu portalu
+ *
+ * @param horizontalMultiplier Multiplier applied to the whole knockback vector
+ * @param verticalFactor Fraction of the configured height added to the Y component
+ */
+public record KnockbackProfile(double horizontalMultiplier, double verticalFactor) {
+    
+    /** Stronger horizontal knockback for Nether portals */
+    public static final KnockbackProfile NETHER = new KnockbackProfile(1.2, 0.2);
+    
+    /** Moderate horizontal with some vertical for End portals */
+    public static final KnockbackProfile END = new KnockbackProfile(1.1, 0.4);
+    
+    /** Balanced knockback for everything else */
+    public static final KnockbackProfile DEFAULT = new KnockbackProfile(1.0, 0.3);
+    
+    /**
+     * Gets the profile for a target environment
+     * Pobiera profil dla docelowego środowiska
+     */
+    public static @NotNull KnockbackProfile forTarget(@Nullable World.Environment targetEnvironment) {
+        if (targetEnvironment == World.Environment.NETHER) {
+            return NETHER;
+        }
+        if (targetEnvironment == World.Environment.THE_END) {
+            return END;
+        }
+        return DEFAULT;
+    }
+}
@@ -0,0 +1,44 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Outcome of evaluating the compiled access policy
+ * Wynik ewaluacji skompilowanej polityki dostępu
+ */
+public enum PolicyAction {
+    ALLOW,
+    DENY,
+    /** No rule matched - fall back to the portal type settings */
+    NONE;
+    
+    /**
+     * Parses a rule action from configuration
+     * Parsuje akcję reguły z konfiguracji
+     *
+     * @param value The configured value ("allow" or "deny")
+     * @return The action, or null if the value is not a valid rule action
+     */
+    public static @Nullable PolicyAction fromConfig(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "allow" -> ALLOW;
+            case "deny" -> DENY;
+            default -> null;
+        };
+    }
+    
+    public boolean isTerminal() {
+        return this != NONE;
+    }
+    
+    @Override
+    public @NotNull String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,190 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerPortalEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.api.ProvidedPortal;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.portal.ProvidedPortalIndex;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.util.Objects;
+
+/**
+ * Per-event portal decision context, resolved once and passed through the services
+ * Kontekst decyzji portalu dla zdarzenia, ustalany raz i przekazywany przez serwisy
+ *
+ * <p>Instances are pooled by {@link PortalDecisionContextPool} and only valid until released,
+ * so asynchronous work must copy what it needs instead of keeping the context.</p>
+ */
+public final class PortalDecisionContext {
+    
+    private Player player;
+    private PlayerPortalEvent event;
+    private Location from;
+    private World world;
+    private Material portalMaterial;
+    private PortalType portalType;
+    private ProvidedPortal providedPortal;
+    private World.Environment sourceEnvironment;
+    private World.Environment targetEnvironment;
+    private int permissionBits;
+    private boolean permissionsResolved;
+    private boolean bypassResolved;
+    private boolean bypass;
+    private Decision decision;
+    
+    PortalDecisionContext() {
+    }
+    
+    /**
+     * Resolves portal material, type and environments for a new event (one block lookup)
+     * Ustala materiał portalu, typ i środowiska dla nowego zdarzenia (jeden odczyt bloku)
+     *
+     * <p>A portal reported by a provider at the event location overrides the type and target
+     * resolved from the block.</p>
+     */
+    @NotNull PortalDecisionContext reset(@NotNull PortalMaterialRegistry materialRegistry,
+                                         @NotNull ProvidedPortalIndex providedPortals,
+                                         @NotNull Player player, @NotNull PlayerPortalEvent event) {
+        this.player = Objects.requireNonNull(player, "Player cannot be null");
+        this.event = Objects.requireNonNull(event, "Event cannot be null");
+        this.from = event.getFrom();
+        this.world = from.getWorld();
+        Block block = from.getBlock();
+        this.portalMaterial = block.getType();
+        this.sourceEnvironment = world.getEnvironment();
+        this.providedPortal = providedPortals.find(from);
+        if (providedPortal != null) {
+            this.portalType = providedPortal.type();
+            this.targetEnvironment = providedPortal.targetEnvironment() != null
+                ? providedPortal.targetEnvironment()
+                : portalType.getTargetEnvironment(sourceEnvironment);
+        } else {
+            this.portalType = materialRegistry.getPortalType(block);
+            this.targetEnvironment = portalType.getTargetEnvironment(sourceEnvironment);
+        }
+        this.permissionBits = 0;
+        this.permissionsResolved = false;
+        this.bypassResolved = false;
+        this.bypass = false;
+        this.decision = null;
+        return this;
+    }
+    
+    /**
+     * Drops references so pooled contexts do not keep players or worlds alive
+     * Usuwa referencje aby konteksty w puli nie przytrzymywały graczy ani światów
+     */
+    void clear() {
+        this.player = null;
+        this.event = null;
+        this.from = null;
+        this.world = null;
+        this.portalMaterial = null;
+        this.portalType = null;
+        this.providedPortal = null;
+        this.sourceEnvironment = null;
+        this.targetEnvironment = null;
+        this.decision = null;
+    }
+    
+    public @NotNull Player getPlayer() {
+        return player;
+    }
+    
+    public @NotNull PlayerPortalEvent getEvent() {
+        return event;
+    }
+    
+    public @NotNull Location getFrom() {
+        return from;
+    }
+    
+    public @NotNull World getWorld() {
+        return world;
+    }
+    
+    public @NotNull Material getPortalMaterial() {
+        return portalMaterial;
+    }
+    
+    public @NotNull PortalType getPortalType() {
+        return portalType;
+    }
+    
+    /**
+     * Gets the provider portal the event happened in, if a provider reported one there
+     * Pobiera portal dostawcy w którym wystąpiło zdarzenie, jeśli dostawca go zgłosił
+     */
+    public @Nullable ProvidedPortal getProvidedPortal() {
+        return providedPortal;
+    }
+    
+    public @NotNull World.Environment getSourceEnvironment() {
+        return sourceEnvironment;
+    }
+    
+    public @Nullable World.Environment getTargetEnvironment() {
+        return targetEnvironment;
+    }
+    
+    /**
+     * Gets the resolved permission bits (see {@link PortalDecisionTable} BIT_* constants)
+     * Pobiera ustalone bity uprawnień (zob. stałe BIT_* w {@link PortalDecisionTable})
+     */
+    public int getPermissionBits() {
+        return permissionBits;
+    }
+    
+    public boolean isPermissionsResolved() {
+        return permissionsResolved;
+    }
+    
+    public void setPermissionBits(int permissionBits) {
+        this.permissionBits = permissionBits;
+        this.permissionsResolved = true;
+    }
+    
+    /**
+     * Checks whether the bypass permission was already resolved for this event
+     * Sprawdza czy uprawnienie bypass zostało już ustalone dla tego zdarzenia
+     */
+    public boolean isBypassResolved() {
+        return bypassResolved;
+    }
+    
+    public boolean hasBypass() {
+        return bypass;
+    }
+    
+    public void setBypass(boolean bypass) {
+        this.bypass = bypass;
+        this.bypassResolved = true;
+    }
+    
+    /**
+     * Gets the access decision if one was already made for this event
+     * Pobiera decyzję o dostępie jeśli została już podjęta dla tego zdarzenia
+     */
+    public @Nullable Decision getDecision() {
+        return decision;
+    }
+    
+    public void setDecision(@NotNull Decision decision) {
+        this.decision = decision;
+    }
+    
+    /**
+     * Gets the knockback profile for this portal, from the decision when available
+     * Pobiera profil knockbacku dla tego portalu, z decyzji jeśli jest dostępna
+     */
+    public @NotNull KnockbackProfile getKnockbackProfile() {
+        return decision != null ? decision.knockbackProfile() : KnockbackProfile.forTarget(targetEnvironment);
+    }
+}
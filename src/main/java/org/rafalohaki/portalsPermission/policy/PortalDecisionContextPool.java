@@ -0,0 +1,70 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerPortalEvent;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.portal.ProvidedPortalIndex;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+
+/**
+ * Small pool of reusable decision contexts; main thread only
+ * Mała pula wielokrotnie używanych kontekstów decyzji; tylko główny wątek
+ */
+public final class PortalDecisionContextPool {
+    
+    private static final int DEFAULT_MAX_POOLED = 4;
+    
+    private final PortalMaterialRegistry materialRegistry;
+    private final ProvidedPortalIndex providedPortals;
+    private final ArrayDeque<PortalDecisionContext> free;
+    private final int maxPooled;
+    
+    public PortalDecisionContextPool(@NotNull PortalMaterialRegistry materialRegistry,
+                                     @NotNull ProvidedPortalIndex providedPortals) {
+        this(materialRegistry, providedPortals, DEFAULT_MAX_POOLED);
+    }
+    
+    public PortalDecisionContextPool(@NotNull PortalMaterialRegistry materialRegistry,
+                                     @NotNull ProvidedPortalIndex providedPortals, int maxPooled) {
+        this.materialRegistry = Objects.requireNonNull(materialRegistry, "Material registry cannot be null");
+        this.providedPortals = Objects.requireNonNull(providedPortals, "Provided portal index cannot be null");
+        this.maxPooled = Math.max(1, maxPooled);
+        this.free = new ArrayDeque<>(this.maxPooled);
+    }
+    
+    /**
+     * Takes a context from the pool and resolves it for the event
+     * Pobiera kontekst z puli i ustala go dla zdarzenia
+     */
+    public @NotNull PortalDecisionContext acquire(@NotNull Player player, @NotNull PlayerPortalEvent event) {
+        PortalDecisionContext context = free.pollFirst();
+        if (context == null) {
+            context = new PortalDecisionContext();
+        }
+        return context.reset(materialRegistry, providedPortals, player, event);
+    }
+    
+    /**
+     * Returns a context to the pool; it must not be used afterwards
+     * Zwraca kontekst do puli; nie wolno go później używać
+     */
+    public void release(@NotNull PortalDecisionContext context) {
+        context.clear();
+        if (free.size() < maxPooled) {
+            free.addFirst(context);
+        }
+    }
+    
+    /**
+     * Creates a standalone context outside of any pool
+     * Tworzy samodzielny kontekst poza pulą
+     */
+    public static @NotNull PortalDecisionContext standalone(@NotNull PortalMaterialRegistry materialRegistry,
+                                                            @NotNull ProvidedPortalIndex providedPortals,
+                                                            @NotNull Player player, @NotNull PlayerPortalEvent event) {
+        return new PortalDecisionContext().reset(materialRegistry, providedPortals, player, event);
+    }
+}
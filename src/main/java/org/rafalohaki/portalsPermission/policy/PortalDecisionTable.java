@@ -0,0 +1,124 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+/**
+ * Decision matrix keyed by portal type, source environment and permission bits
+ * Macierz decyzji indeksowana typem portalu, środowiskiem źródłowym i bitami uprawnień
+ *
+ * <p>Built from configuration on load/reload, so a portal check is reduced to array indexing.</p>
+ */
+public final class PortalDecisionTable {
+    
+    /** Player holds the permission of the portal type */
+    public static final int BIT_TYPE_PERMISSION = 1;
+    
+    /** Player holds the bypass permission */
+    public static final int BIT_BYPASS = 1 << 1;
+    
+    /** Player holds an unexpired temporary grant for the portal type, which also lifts a type block */
+    public static final int BIT_GRANT = 1 << 2;
+    
+    public static final int PERMISSION_STATES = 1 << 3;
+    
+    private static final World.Environment[] ENVIRONMENTS = World.Environment.values();
+    private static final String REGION_MESSAGE_KEY = "no_permission_region";
+    
+    private final Decision[][][] decisions;
+    private final Decision[][] ruleAllow;
+    private final Decision[][] ruleDeny;
+    private final Decision[][] regionDeny;
+    
+    private PortalDecisionTable(@NotNull Decision[][][] decisions, @NotNull Decision[][] ruleAllow, @NotNull Decision[][] ruleDeny,
+                                @NotNull Decision[][] regionDeny) {
+        this.decisions = decisions;
+        this.ruleAllow = ruleAllow;
+        this.ruleDeny = ruleDeny;
+        this.regionDeny = regionDeny;
+    }
+    
+    /**
+     * Builds the table from the current configuration
+     * Buduje tablicę z aktualnej konfiguracji
+     */
+    public static @NotNull PortalDecisionTable build(@NotNull ConfigManager configManager) {
+        boolean[] blocked = new boolean[PortalType.COUNT];
+        blocked[PortalType.NETHER.index()] = configManager.isNetherBlocked();
+        blocked[PortalType.END.index()] = configManager.isEndBlocked();
+        blocked[PortalType.CUSTOM.index()] = configManager.isCustomBlocked();
+        
+        Decision[][][] decisions = new Decision[PortalType.COUNT][ENVIRONMENTS.length][PERMISSION_STATES];
+        Decision[][] ruleAllow = new Decision[PortalType.COUNT][ENVIRONMENTS.length];
+        Decision[][] ruleDeny = new Decision[PortalType.COUNT][ENVIRONMENTS.length];
+        Decision[][] regionDeny = new Decision[PortalType.COUNT][ENVIRONMENTS.length];
+        
+        for (PortalType type : PortalType.values()) {
+            for (World.Environment source : ENVIRONMENTS) {
+                World.Environment target = type.getTargetEnvironment(source);
+                KnockbackProfile profile = KnockbackProfile.forTarget(target);
+                String messageKey = type.getMessageKey();
+                
+                Decision allow = new Decision(DecisionOutcome.ALLOW, type, target, messageKey, profile);
+                Decision denyBlocked = new Decision(DecisionOutcome.DENY_BLOCKED, type, target, messageKey, profile);
+                Decision denyPermission = new Decision(DecisionOutcome.DENY_PERMISSION, type, target, messageKey, profile);
+                
+                Decision[] row = decisions[type.index()][source.ordinal()];
+                for (int bits = 0; bits < PERMISSION_STATES; bits++) {
+                    if ((bits & (BIT_BYPASS | BIT_GRANT)) != 0) {
+                        row[bits] = allow;
+                    } else if (blocked[type.index()]) {
+                        row[bits] = denyBlocked;
+                    } else if ((bits & BIT_TYPE_PERMISSION) != 0) {
+                        row[bits] = allow;
+                    } else {
+                        row[bits] = denyPermission;
+                    }
+                }
+                
+                ruleAllow[type.index()][source.ordinal()] = allow;
+                ruleDeny[type.index()][source.ordinal()] = new Decision(DecisionOutcome.DENY_RULE, type, target, messageKey, profile);
+                regionDeny[type.index()][source.ordinal()] = new Decision(DecisionOutcome.DENY_REGION, type, target,
+                    REGION_MESSAGE_KEY, profile);
+            }
+        }
+        
+        return new PortalDecisionTable(decisions, ruleAllow, ruleDeny, regionDeny);
+    }
+    
+    /**
+     * Looks up the decision for the given key
+     * Wyszukuje decyzję dla podanego klucza
+     */
+    public @NotNull Decision get(@NotNull PortalType type, @NotNull World.Environment source, int permissionBits) {
+        return decisions[type.index()][source.ordinal()][permissionBits];
+    }
+    
+    /**
+     * Gets the decision for a matched access rule
+     * Pobiera decyzję dla dopasowanej reguły dostępu
+     */
+    public @NotNull Decision forRule(@NotNull PortalType type, @NotNull World.Environment source, @NotNull PolicyAction action) {
+        return action == PolicyAction.ALLOW
+            ? ruleAllow[type.index()][source.ordinal()]
+            : ruleDeny[type.index()][source.ordinal()];
+    }
+    
+    /**
+     * Gets the decision for a portal region whose access list did not admit the player
+     * Pobiera decyzję dla obszaru portalu, którego lista dostępu nie dopuściła gracza
+     */
+    public @NotNull Decision forRegion(@NotNull PortalType type, @NotNull World.Environment source) {
+        return regionDeny[type.index()][source.ordinal()];
+    }
+    
+    /**
+     * Checks whether the decision for this type can depend on the type permission
+     * Sprawdza czy decyzja dla tego typu może zależeć od uprawnienia typu
+     */
+    public boolean needsTypePermission(@NotNull PortalType type, @NotNull World.Environment source) {
+        return decisions[type.index()][source.ordinal()][0].outcome() == DecisionOutcome.DENY_PERMISSION;
+    }
+}
@@ -0,0 +1,53 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+/**
+ * Compiled, immutable portal access policy
+ * Skompilowana, niezmienna polityka dostępu do portali
+ *
+ * <p>Rules are bucketed by portal type at compile time, so an evaluation only walks the rules
+ * that can match the portal being used, in configuration order (first match wins).</p>
+ */
+public final class PortalPolicy {
+    
+    public static final PortalPolicy EMPTY = new PortalPolicy(new CompiledRule[PortalType.COUNT][0], 0);
+    
+    private final CompiledRule[][] rulesByType;
+    private final int ruleCount;
+    
+    PortalPolicy(@NotNull CompiledRule[][] rulesByType, int ruleCount) {
+        this.rulesByType = rulesByType;
+        this.ruleCount = ruleCount;
+    }
+    
+    /**
+     * Evaluates the policy for an entity using a portal
+     * Ewaluuje politykę dla encji używającej portalu
+     *
+     * @param entity The entity using the portal
+     * @param world The world the portal is in
+     * @param portalType The type of the portal being used
+     * @return The action of the first matching rule, or NONE
+     */
+    public @NotNull PolicyAction evaluate(@NotNull Entity entity, @NotNull World world, @NotNull PortalType portalType) {
+        CompiledRule[] rules = rulesByType[portalType.index()];
+        for (CompiledRule rule : rules) {
+            if (rule.matches(entity, world)) {
+                return rule.getAction();
+            }
+        }
+        return PolicyAction.NONE;
+    }
+    
+    public boolean isEmpty() {
+        return ruleCount == 0;
+    }
+    
+    public int getRuleCount() {
+        return ruleCount;
+    }
+}
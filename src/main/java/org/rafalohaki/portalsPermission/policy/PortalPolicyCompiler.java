@@ -0,0 +1,253 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.GameMode;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.HumanEntity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Compiles the "rules" configuration list into a {@link PortalPolicy}
+ * Kompiluje listę "rules" z konfiguracji do {@link PortalPolicy}
+ *
+ * <p>Every rule becomes a chain of pre-bound predicates sorted by evaluation cost, so enum and
+ * set lookups run before world time reads and permission checks.</p>
+ */
+public final class PortalPolicyCompiler {
+    
+    private static final Logger LOGGER = Logger.getLogger(PortalPolicyCompiler.class.getName());
+    
+    // Predicate cost classes - lower runs first
+    private static final int COST_ENUM = 0;
+    private static final int COST_WORLD = 1;
+    private static final int COST_TIME = 2;
+    private static final int COST_PERMISSION = 3;
+    
+    private static final int WORLD_DAY_TICKS = 24000;
+    
+    private PortalPolicyCompiler() {
+    }
+    
+    /**
+     * Compiles rules from the given configuration root
+     * Kompiluje reguły z podanego korzenia konfiguracji
+     *
+     * @param config The configuration root (may be null if not loaded)
+     * @return The compiled policy, EMPTY when no valid rules are configured
+     */
+    public static @NotNull PortalPolicy compile(@Nullable ConfigurationSection config) {
+        if (config == null) {
+            return PortalPolicy.EMPTY;
+        }
+        
+        List<Map<?, ?>> rawRules = config.getMapList("rules");
+        if (rawRules.isEmpty()) {
+            return PortalPolicy.EMPTY;
+        }
+        
+        List<List<CompiledRule>> buckets = new ArrayList<>(PortalType.COUNT);
+        for (int i = 0; i < PortalType.COUNT; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        
+        int compiled = 0;
+        for (int i = 0; i < rawRules.size(); i++) {
+            Map<?, ?> raw = rawRules.get(i);
+            String name = raw.get("name") != null ? String.valueOf(raw.get("name")) : "rule-" + (i + 1);
+            
+            try {
+                PolicyAction action = PolicyAction.fromConfig(asString(raw.get("action")));
+                if (action == null || action == PolicyAction.NONE) {
+                    LOGGER.warning("Skipping portal rule '" + name + "': action must be 'allow' or 'deny'");
+                    continue;
+                }
+                
+                CompiledRule rule = new CompiledRule(name, action, compilePredicates(raw));
+                boolean[] types = parsePortalTypes(raw.get("portal_types"));
+                for (int type = 0; type < PortalType.COUNT; type++) {
+                    if (types[type]) {
+                        buckets.get(type).add(rule);
+                    }
+                }
+                compiled++;
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("Skipping portal rule '" + name + "': " + e.getMessage());
+            }
+        }
+        
+        if (compiled == 0) {
+            return PortalPolicy.EMPTY;
+        }
+        
+        CompiledRule[][] rulesByType = new CompiledRule[PortalType.COUNT][];
+        for (int type = 0; type < PortalType.COUNT; type++) {
+            rulesByType[type] = buckets.get(type).toArray(new CompiledRule[0]);
+        }
+        return new PortalPolicy(rulesByType, compiled);
+    }
+    
+    /**
+     * Builds the predicate chain of a single rule, ordered by cost
+     * Buduje łańcuch predykatów pojedynczej reguły, uporządkowany wg kosztu
+     */
+    private static @NotNull RulePredicate[] compilePredicates(@NotNull Map<?, ?> raw) {
+        List<CostedPredicate> predicates = new ArrayList<>();
+        
+        List<String> entityTypes = asStringList(raw.get("entity_types"));
+        if (!entityTypes.isEmpty()) {
+            EnumSet<EntityType> allowed = EnumSet.noneOf(EntityType.class);
+            for (String value : entityTypes) {
+                allowed.add(parseEnum(EntityType.class, value, "entity type"));
+            }
+            predicates.add(new CostedPredicate(COST_ENUM, (entity, world) -> allowed.contains(entity.getType())));
+        }
+        
+        List<String> gameModes = asStringList(raw.get("gamemodes"));
+        if (!gameModes.isEmpty()) {
+            EnumSet<GameMode> allowed = EnumSet.noneOf(GameMode.class);
+            for (String value : gameModes) {
+                allowed.add(parseEnum(GameMode.class, value, "gamemode"));
+            }
+            predicates.add(new CostedPredicate(COST_ENUM, (entity, world) ->
+                entity instanceof HumanEntity human && allowed.contains(human.getGameMode())));
+        }
+        
+        List<String> worlds = asStringList(raw.get("worlds"));
+        if (worlds.size() == 1) {
+            String worldName = worlds.get(0);
+            predicates.add(new CostedPredicate(COST_WORLD, (entity, world) -> worldName.equals(world.getName())));
+        } else if (!worlds.isEmpty()) {
+            Set<String> allowed = new HashSet<>(worlds);
+            predicates.add(new CostedPredicate(COST_WORLD, (entity, world) -> allowed.contains(world.getName())));
+        }
+        
+        String time = asString(raw.get("time"));
+        if (time != null && !time.isBlank()) {
+            predicates.add(new CostedPredicate(COST_TIME, compileTimeWindow(time)));
+        }
+        
+        String permission = asString(raw.get("permission"));
+        if (permission != null && !permission.isBlank()) {
+            String node = permission.trim();
+            if (node.startsWith("!")) {
+                String negated = node.substring(1);
+                predicates.add(new CostedPredicate(COST_PERMISSION, (entity, world) -> !entity.hasPermission(negated)));
+            } else {
+                predicates.add(new CostedPredicate(COST_PERMISSION, (entity, world) -> entity.hasPermission(node)));
+            }
+        }
+        
+        // Stable sort keeps configuration order within the same cost class
+        predicates.sort(Comparator.comparingInt(CostedPredicate::cost));
+        
+        RulePredicate[] chain = new RulePredicate[predicates.size()];
+        for (int i = 0; i < chain.length; i++) {
+            chain[i] = predicates.get(i).predicate();
+        }
+        return chain;
+    }
+    
+    /**
+     * Compiles a "start-end" world time window, wrapping over midnight when start > end
+     * Kompiluje okno czasu świata "start-end", z zawinięciem przez północ gdy start > end
+     */
+    private static @NotNull RulePredicate compileTimeWindow(@NotNull String value) {
+        String[] parts = value.split("-");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("time must be in 'start-end' format (world ticks 0-23999)");
+        }
+        
+        int start;
+        int end;
+        try {
+            start = Integer.parseInt(parts[0].trim());
+            end = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("time bounds must be numbers: " + value);
+        }
+        
+        if (start < 0 || start >= WORLD_DAY_TICKS || end < 0 || end >= WORLD_DAY_TICKS) {
+            throw new IllegalArgumentException("time bounds must be between 0 and 23999: " + value);
+        }
+        
+        if (start <= end) {
+            return (entity, world) -> {
+                long now = world.getTime();
+                return now >= start && now <= end;
+            };
+        }
+        return (entity, world) -> {
+            long now = world.getTime();
+            return now >= start || now <= end;
+        };
+    }
+    
+    /**
+     * Parses portal types; an empty list matches every portal type
+     * Parsuje typy portali; pusta lista pasuje do każdego typu portalu
+     */
+    private static boolean[] parsePortalTypes(@Nullable Object value) {
+        boolean[] types = new boolean[PortalType.COUNT];
+        List<String> configured = asStringList(value);
+        
+        if (configured.isEmpty()) {
+            Arrays.fill(types, true);
+            return types;
+        }
+        
+        for (String entry : configured) {
+            PortalType type = PortalType.fromConfig(entry);
+            if (type == null) {
+                throw new IllegalArgumentException("unknown portal type: " + entry);
+            }
+            types[type.index()] = true;
+        }
+        return types;
+    }
+    
+    private static <E extends Enum<E>> @NotNull E parseEnum(@NotNull Class<E> type, @NotNull String value, @NotNull String what) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + what + ": " + value);
+        }
+    }
+    
+    private static @Nullable String asString(@Nullable Object value) {
+        return value != null ? String.valueOf(value) : null;
+    }
+    
+    private static @NotNull List<String> asStringList(@Nullable Object value) {
+        List<String> result = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object element : list) {
+                if (element != null) {
+                    result.add(String.valueOf(element));
+                }
+            }
+        } else if (value != null) {
+            result.add(String.valueOf(value));
+        }
+        return result;
+    }
+    
+    /**
+     * Predicate paired with its cost class for ordering
+     * Predykat w parze z klasą kosztu dla sortowania
+     */
+    private record CostedPredicate(int cost, @NotNull RulePredicate predicate) {
+    }
+}
@@ -0,0 +1,23 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Pre-bound predicate of a compiled access rule
+ * Wstępnie związany predykat skompilowanej reguły dostępu
+ */
+@FunctionalInterface
+public interface RulePredicate {
+    
+    /**
+     * Tests the predicate without allocating
+     * Testuje predykat bez alokacji
+     *
+     * @param entity The entity using the portal
+     * @param world The world the portal is in
+     * @return true if the predicate matches
+     */
+    boolean test(@NotNull Entity entity, @NotNull World world);
+}
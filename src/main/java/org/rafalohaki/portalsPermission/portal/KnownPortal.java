@@ -0,0 +1,67 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Axis;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.util.UUID;
+
+/**
+ * A cataloged portal: connected portal blocks with a stable ID, bounding box and axis
+ * Skatalogowany portal: połączone bloki portalu ze stałym ID, obszarem ograniczającym i osią
+ *
+ * <p>The axis follows the block state convention: {@link Axis#X} and {@link Axis#Z} for
+ * vertical portals extending along that axis, {@link Axis#Y} for horizontal portals.</p>
+ */
+public record KnownPortal(int id,
+                          @NotNull UUID worldId,
+                          @NotNull PortalKind kind,
+                          @NotNull Axis axis,
+                          int minX, int minY, int minZ,
+                          int maxX, int maxY, int maxZ) {
+    
+    /**
+     * Gets the portal type used for permissions
+     * Pobiera typ portalu używany do uprawnień
+     */
+    public @Nullable PortalType getType() {
+        return kind.getPortalType();
+    }
+    
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+    
+    /**
+     * Checks if a position lies within the given distance of the bounding box
+     * Sprawdza czy pozycja leży w danej odległości od obszaru ograniczającego
+     */
+    public boolean isWithin(int x, int y, int z, int distance) {
+        return x >= minX - distance && x <= maxX + distance
+            && y >= minY - distance && y <= maxY + distance
+            && z >= minZ - distance && z <= maxZ + distance;
+    }
+    
+    public boolean intersects(int otherMinX, int otherMinY, int otherMinZ, int otherMaxX, int otherMaxY, int otherMaxZ) {
+        return minX <= otherMaxX && maxX >= otherMinX
+            && minY <= otherMaxY && maxY >= otherMinY
+            && minZ <= otherMaxZ && maxZ >= otherMinZ;
+    }
+    
+    public int getBlockVolume() {
+        return (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+    
+    public double getCenterX() {
+        return (minX + maxX + 1) / 2.0;
+    }
+    
+    public double getCenterY() {
+        return (minY + maxY + 1) / 2.0;
+    }
+    
+    public double getCenterZ() {
+        return (minZ + maxZ + 1) / 2.0;
+    }
+}
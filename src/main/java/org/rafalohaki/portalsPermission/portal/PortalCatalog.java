@@ -0,0 +1,564 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Axis;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Orientable;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.Long2ObjectHashMap;
+import org.rafalohaki.portalsPermission.utils.LongHashSet;
+import org.rafalohaki.portalsPermission.utils.VersionedFileWriter;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Catalog of portals with stable IDs, persisted per world and reconciled as chunks are scanned
+ * Katalog portali ze stałymi ID, zapisywany dla każdego świata i uzgadniany przy skanowaniu chunków
+ *
+ * <p>Connected portal blocks from the {@link PortalLocationIndex} are flood-filled into
+ * {@link KnownPortal}s. The catalog is loaded from disk on enable, so portals are known before
+ * their chunks are scanned; each chunk scan then confirms, updates or removes them. Main thread only,
+ * except for file writes which work on immutable copies through one {@link VersionedFileWriter} per
+ * world. A world stays dirty until a write of its latest changes has succeeded.</p>
+ */
+public final class PortalCatalog {
+    
+    private static final int FILE_MAGIC = 0x50504354; // "PPCT"
+    private static final short FILE_VERSION = 1;
+    private static final int MAX_PORTAL_BLOCKS = 4096;
+    private static final long SAVE_INTERVAL_TICKS = 20L * 60 * 5;
+    private static final Axis[] AXES = Axis.values();
+    private static final PortalKind[] KINDS = PortalKind.values();
+    private static final int[][] NEIGHBOURS = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+    
+    private final JavaPlugin plugin;
+    private final PortalMaterialRegistry materialRegistry;
+    private final PortalLocationIndex portalIndex;
+    private final Path directory;
+    private final Map<UUID, WorldCatalog> worlds = new HashMap<>();
+    // Kept after a world unloads, so a late write of its last snapshot still shares the lock
+    private final Map<UUID, VersionedFileWriter> writers = new ConcurrentHashMap<>();
+    private final List<Consumer<KnownPortal>> removalListeners = new ArrayList<>();
+    private BukkitTask saveTask;
+    
+    public PortalCatalog(@NotNull JavaPlugin plugin,
+                         @NotNull PortalMaterialRegistry materialRegistry,
+                         @NotNull PortalLocationIndex portalIndex) {
+        this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+        this.materialRegistry = Objects.requireNonNull(materialRegistry, "Material registry cannot be null");
+        this.portalIndex = Objects.requireNonNull(portalIndex, "Index cannot be null");
+        this.directory = plugin.getDataFolder().toPath().resolve("portals");
+    }
+    
+    /**
+     * Loads the catalog of every loaded world and starts periodic saving; main thread only
+     * Ładuje katalog każdego załadowanego świata i uruchamia okresowy zapis; tylko główny wątek
+     */
+    public void start() {
+        long started = System.nanoTime();
+        int portals = 0;
+        for (World world : Bukkit.getWorlds()) {
+            portals += getWorldCatalog(world.getUID()).portals.size();
+        }
+        plugin.getLogger().info("Loaded " + portals + " cataloged portals in "
+            + (System.nanoTime() - started) / 1_000_000 + " ms");
+        
+        if (saveTask == null) {
+            saveTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> saveAll(true), SAVE_INTERVAL_TICKS, SAVE_INTERVAL_TICKS);
+        }
+    }
+    
+    /**
+     * Reconciles the catalog with a freshly scanned chunk
+     * Uzgadnia katalog ze świeżo przeskanowanym chunkiem
+     */
+    public void onChunkScanned(@NotNull UUID worldId, long chunkKey) {
+        World world = Bukkit.getWorld(worldId);
+        if (world == null) {
+            return;
+        }
+        WorldCatalog catalog = getWorldCatalog(worldId);
+        long[] blocks = portalIndex.getChunkBlocks(worldId, chunkKey);
+        
+        // Portals break as a whole, so a portal with no block left in this chunk is gone
+        int[] ids = catalog.idsByChunk.get(chunkKey);
+        if (ids != null) {
+            for (int id : ids.clone()) {
+                KnownPortal portal = catalog.portals.get(id);
+                if (portal != null && !hasBlockInside(portal, blocks)) {
+                    removePortal(catalog, portal);
+                    notifyRemoved(portal);
+                }
+            }
+        }
+        
+        // Flood-fill indexed blocks that no cataloged portal covers yet
+        LongHashSet visited = null;
+        for (long key : blocks) {
+            if (visited != null && visited.contains(key)) {
+                continue;
+            }
+            int x = BlockKeys.blockX(key);
+            int y = BlockKeys.blockY(key);
+            int z = BlockKeys.blockZ(key);
+            if (findCovering(catalog, x, y, z) != null) {
+                continue;
+            }
+            
+            Block block = world.getBlockAt(x, y, z);
+            PortalKind kind = materialRegistry.classify(block);
+            if (!kind.isTraversable()) {
+                continue;
+            }
+            
+            if (visited == null) {
+                visited = new LongHashSet(64);
+            }
+            catalogRegion(world, catalog, block, kind, visited);
+        }
+    }
+    
+    /**
+     * Flood-fills a connected region of one portal kind and records it as a portal
+     * Wypełnia połączony obszar jednego rodzaju portalu i zapisuje go jako portal
+     */
+    private void catalogRegion(@NotNull World world, @NotNull WorldCatalog catalog, @NotNull Block start,
+                               @NotNull PortalKind kind, @NotNull LongHashSet visited) {
+        int minX = start.getX();
+        int minY = start.getY();
+        int minZ = start.getZ();
+        int maxX = minX;
+        int maxY = minY;
+        int maxZ = minZ;
+        
+        long[] stack = new long[64];
+        int top = 0;
+        long startKey = BlockKeys.blockKey(minX, minY, minZ);
+        stack[top++] = startKey;
+        visited.add(startKey);
+        int count = 0;
+        
+        while (top > 0 && count < MAX_PORTAL_BLOCKS) {
+            long key = stack[--top];
+            count++;
+            int x = BlockKeys.blockX(key);
+            int y = BlockKeys.blockY(key);
+            int z = BlockKeys.blockZ(key);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            minZ = Math.min(minZ, z);
+            maxZ = Math.max(maxZ, z);
+            
+            for (int[] offset : NEIGHBOURS) {
+                int nx = x + offset[0];
+                int ny = y + offset[1];
+                int nz = z + offset[2];
+                long neighbour = BlockKeys.blockKey(nx, ny, nz);
+                if (visited.contains(neighbour)
+                    || !portalIndex.contains(world, nx, ny, nz)
+                    || !world.isChunkLoaded(nx >> 4, nz >> 4)
+                    || materialRegistry.classify(world.getBlockAt(nx, ny, nz)) != kind) {
+                    continue;
+                }
+                visited.add(neighbour);
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = neighbour;
+            }
+        }
+        
+        Axis axis = resolveAxis(start.getBlockData(), minX, minY, minZ, maxX, maxY, maxZ);
+        
+        // A portal partially cataloged before (e.g. split across chunks) keeps its ID
+        KnownPortal existing = null;
+        for (KnownPortal candidate : candidatesIn(catalog, minX, minZ, maxX, maxZ)) {
+            if (candidate.kind() == kind && candidate.intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                existing = candidate;
+                break;
+            }
+        }
+        
+        int id;
+        if (existing != null) {
+            removePortal(catalog, existing);
+            notifyRemoved(existing);
+            id = existing.id();
+            minX = Math.min(minX, existing.minX());
+            maxX = Math.max(maxX, existing.maxX());
+            minY = Math.min(minY, existing.minY());
+            maxY = Math.max(maxY, existing.maxY());
+            minZ = Math.min(minZ, existing.minZ());
+            maxZ = Math.max(maxZ, existing.maxZ());
+        } else {
+            id = catalog.nextId++;
+        }
+        addPortal(catalog, new KnownPortal(id, world.getUID(), kind, axis, minX, minY, minZ, maxX, maxY, maxZ));
+    }
+    
+    private static @NotNull Axis resolveAxis(@NotNull BlockData data, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (data instanceof Orientable orientable) {
+            return orientable.getAxis();
+        }
+        if (minY == maxY) {
+            return Axis.Y;
+        }
+        return (maxX - minX) >= (maxZ - minZ) ? Axis.X : Axis.Z;
+    }
+    
+    private static boolean hasBlockInside(@NotNull KnownPortal portal, long @NotNull [] blocks) {
+        for (long key : blocks) {
+            if (portal.contains(BlockKeys.blockX(key), BlockKeys.blockY(key), BlockKeys.blockZ(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the cataloged portal containing a block position
+     * Pobiera skatalogowany portal zawierający pozycję bloku
+     */
+    public @Nullable KnownPortal getPortalAt(@NotNull World world, int x, int y, int z) {
+        WorldCatalog catalog = worlds.get(world.getUID());
+        return catalog != null ? findCovering(catalog, x, y, z) : null;
+    }
+    
+    /**
+     * Finds a cataloged portal within the given distance of a position
+     * Znajduje skatalogowany portal w danej odległości od pozycji
+     */
+    public @Nullable KnownPortal findNear(@NotNull World world, int x, int y, int z, int distance) {
+        WorldCatalog catalog = worlds.get(world.getUID());
+        if (catalog == null || catalog.portals.isEmpty()) {
+            return null;
+        }
+        for (KnownPortal portal : candidatesIn(catalog, x - distance, z - distance, x + distance, z + distance)) {
+            if (portal.isWithin(x, y, z, distance)) {
+                return portal;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets a portal by its ID
+     * Pobiera portal po jego ID
+     */
+    public @Nullable KnownPortal getPortal(@NotNull UUID worldId, int id) {
+        WorldCatalog catalog = worlds.get(worldId);
+        return catalog != null ? catalog.portals.get(id) : null;
+    }
+    
+    /**
+     * Checks if the catalog of a world has been loaded
+     * Sprawdza czy katalog świata został załadowany
+     */
+    public boolean isWorldLoaded(@NotNull UUID worldId) {
+        return worlds.containsKey(worldId);
+    }
+    
+    /**
+     * Checks if the loaded catalog of a world holds any portal
+     * Sprawdza czy załadowany katalog świata zawiera jakikolwiek portal
+     */
+    public boolean hasPortals(@NotNull UUID worldId) {
+        WorldCatalog catalog = worlds.get(worldId);
+        return catalog != null && !catalog.portals.isEmpty();
+    }
+    
+    public int getPortalCount() {
+        int count = 0;
+        for (WorldCatalog catalog : worlds.values()) {
+            count += catalog.portals.size();
+        }
+        return count;
+    }
+    
+    private static @Nullable KnownPortal findCovering(@NotNull WorldCatalog catalog, int x, int y, int z) {
+        int[] ids = catalog.idsByChunk.get(BlockKeys.chunkKey(x >> 4, z >> 4));
+        if (ids == null) {
+            return null;
+        }
+        for (int id : ids) {
+            KnownPortal portal = catalog.portals.get(id);
+            if (portal != null && portal.contains(x, y, z)) {
+                return portal;
+            }
+        }
+        return null;
+    }
+    
+    private static @NotNull List<KnownPortal> candidatesIn(@NotNull WorldCatalog catalog, int minX, int minZ, int maxX, int maxZ) {
+        List<KnownPortal> result = new ArrayList<>(2);
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                int[] ids = catalog.idsByChunk.get(BlockKeys.chunkKey(cx, cz));
+                if (ids == null) {
+                    continue;
+                }
+                for (int id : ids) {
+                    KnownPortal portal = catalog.portals.get(id);
+                    if (portal != null && !result.contains(portal)) {
+                        result.add(portal);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    private static void addPortal(@NotNull WorldCatalog catalog, @NotNull KnownPortal portal) {
+        catalog.portals.put(portal.id(), portal);
+        for (int cx = portal.minX() >> 4; cx <= portal.maxX() >> 4; cx++) {
+            for (int cz = portal.minZ() >> 4; cz <= portal.maxZ() >> 4; cz++) {
+                long chunkKey = BlockKeys.chunkKey(cx, cz);
+                int[] ids = catalog.idsByChunk.get(chunkKey);
+                int[] updated = ids == null ? new int[1] : Arrays.copyOf(ids, ids.length + 1);
+                updated[updated.length - 1] = portal.id();
+                catalog.idsByChunk.put(chunkKey, updated);
+            }
+        }
+        catalog.changes++;
+    }
+    
+    private static void removePortal(@NotNull WorldCatalog catalog, @NotNull KnownPortal portal) {
+        catalog.portals.remove(portal.id());
+        for (int cx = portal.minX() >> 4; cx <= portal.maxX() >> 4; cx++) {
+            for (int cz = portal.minZ() >> 4; cz <= portal.maxZ() >> 4; cz++) {
+                long chunkKey = BlockKeys.chunkKey(cx, cz);
+                int[] ids = catalog.idsByChunk.get(chunkKey);
+                if (ids == null) {
+                    continue;
+                }
+                int[] updated = new int[ids.length];
+                int size = 0;
+                for (int id : ids) {
+                    if (id != portal.id()) {
+                        updated[size++] = id;
+                    }
+                }
+                if (size == 0) {
+                    catalog.idsByChunk.remove(chunkKey);
+                } else {
+                    catalog.idsByChunk.put(chunkKey, Arrays.copyOf(updated, size));
+                }
+            }
+        }
+        catalog.changes++;
+    }
+    
+    /**
+     * Registers a listener run on the main thread when a portal record is removed, replaced or unloaded
+     * Rejestruje listener uruchamiany w głównym wątku gdy rekord portalu zostanie usunięty, zastąpiony lub wyładowany
+     */
+    public void addRemovalListener(@NotNull Consumer<KnownPortal> listener) {
+        removalListeners.add(listener);
+    }
+    
+    private void notifyRemoved(@NotNull KnownPortal portal) {
+        for (Consumer<KnownPortal> listener : removalListeners) {
+            listener.accept(portal);
+        }
+    }
+    
+    /**
+     * Gets the catalog of a world, loading it from disk on first use
+     * Pobiera katalog świata, ładując go z dysku przy pierwszym użyciu
+     */
+    private @NotNull WorldCatalog getWorldCatalog(@NotNull UUID worldId) {
+        WorldCatalog catalog = worlds.get(worldId);
+        if (catalog == null) {
+            catalog = read(worldId);
+            worlds.put(worldId, catalog);
+        }
+        return catalog;
+    }
+    
+    /**
+     * Saves and forgets the catalog of an unloading world
+     * Zapisuje i zapomina katalog wyładowywanego świata
+     */
+    public void unloadWorld(@NotNull UUID worldId) {
+        WorldCatalog catalog = worlds.remove(worldId);
+        if (catalog != null && !removalListeners.isEmpty()) {
+            catalog.portals.forEach((id, portal) -> notifyRemoved(portal));
+        }
+        if (catalog != null && catalog.isDirty()) {
+            save(worldId, catalog, true);
+        }
+    }
+    
+    /**
+     * Saves every changed world catalog
+     * Zapisuje każdy zmieniony katalog świata
+     *
+     * @param async Whether to write the files off the main thread
+     */
+    public void saveAll(boolean async) {
+        for (Map.Entry<UUID, WorldCatalog> entry : worlds.entrySet()) {
+            if (entry.getValue().isDirty()) {
+                save(entry.getKey(), entry.getValue(), async);
+            }
+        }
+    }
+    
+    /**
+     * Snapshots a world catalog and writes it, marking the snapshot saved only once the write succeeded
+     * Tworzy migawkę katalogu świata i zapisuje ją, oznaczając ją jako zapisaną dopiero po udanym zapisie
+     */
+    private void save(@NotNull UUID worldId, @NotNull WorldCatalog catalog, boolean async) {
+        long version = writerOf(worldId).nextVersion();
+        long changes = catalog.changes;
+        int nextId = catalog.nextId;
+        List<KnownPortal> portals = copyPortals(catalog);
+        if (!async) {
+            if (write(worldId, version, nextId, portals)) {
+                catalog.markSaved(changes);
+            }
+            return;
+        }
+        
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            // A disabled plugin cannot schedule; its shutdown save covers these changes
+            if (write(worldId, version, nextId, portals) && plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> catalog.markSaved(changes));
+            }
+        });
+    }
+    
+    private @NotNull VersionedFileWriter writerOf(@NotNull UUID worldId) {
+        return writers.computeIfAbsent(worldId, id -> new VersionedFileWriter(fileOf(id)));
+    }
+    
+    /**
+     * Stops periodic saving and writes pending changes synchronously
+     * Zatrzymuje okresowy zapis i synchronicznie zapisuje oczekujące zmiany
+     */
+    public void shutdown() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+        saveAll(false);
+    }
+    
+    private static @NotNull List<KnownPortal> copyPortals(@NotNull WorldCatalog catalog) {
+        List<KnownPortal> portals = new ArrayList<>(catalog.portals.size());
+        catalog.portals.forEach((id, portal) -> portals.add(portal));
+        return portals;
+    }
+    
+    private @NotNull Path fileOf(@NotNull UUID worldId) {
+        return directory.resolve(worldId + ".dat");
+    }
+    
+    /**
+     * Writes a world catalog atomically: magic, version, next ID, count, then fixed-size records
+     * Zapisuje katalog świata atomowo: magic, wersja, następne ID, liczba, potem rekordy stałej długości
+     *
+     * @param version The snapshot version taken from the world's writer on the main thread
+     * @return true if the snapshot or a newer one is on disk, false if the write failed
+     */
+    boolean write(@NotNull UUID worldId, long version, int nextId, @NotNull List<KnownPortal> portals) {
+        try {
+            writerOf(worldId).write(version, stream -> {
+                DataOutputStream out = new DataOutputStream(stream);
+                out.writeInt(FILE_MAGIC);
+                out.writeShort(FILE_VERSION);
+                out.writeInt(nextId);
+                out.writeInt(portals.size());
+                for (KnownPortal portal : portals) {
+                    out.writeInt(portal.id());
+                    out.writeByte(portal.kind().ordinal());
+                    out.writeByte(portal.axis().ordinal());
+                    out.writeInt(portal.minX());
+                    out.writeInt(portal.minY());
+                    out.writeInt(portal.minZ());
+                    out.writeInt(portal.maxX());
+                    out.writeInt(portal.maxY());
+                    out.writeInt(portal.maxZ());
+                }
+                out.flush();
+            });
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save portal catalog for world " + worldId, e);
+            return false;
+        }
+    }
+    
+    @NotNull WorldCatalog read(@NotNull UUID worldId) {
+        WorldCatalog catalog = new WorldCatalog();
+        Path file = fileOf(worldId);
+        if (!Files.isRegularFile(file)) {
+            return catalog;
+        }
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readShort() != FILE_VERSION) {
+                plugin.getLogger().warning("Ignoring portal catalog with unknown format: " + file.getFileName());
+                return catalog;
+            }
+            catalog.nextId = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                int kind = in.readUnsignedByte();
+                int axis = in.readUnsignedByte();
+                KnownPortal portal = new KnownPortal(id, worldId, KINDS[kind], AXES[axis],
+                    in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                addPortal(catalog, portal);
+            }
+            catalog.markSaved(catalog.changes);
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to read portal catalog " + file.getFileName() + ", it will be rebuilt", e);
+            return new WorldCatalog();
+        }
+        return catalog;
+    }
+    
+    /**
+     * Portals of one world
+     * Portale jednego świata
+     */
+    static final class WorldCatalog {
+        final Long2ObjectHashMap<KnownPortal> portals = new Long2ObjectHashMap<>(32);
+        final Long2ObjectHashMap<int[]> idsByChunk = new Long2ObjectHashMap<>(32);
+        int nextId = 1;
+        // Bumped on every change; savedChanges is the count covered by the last successful write
+        long changes;
+        long savedChanges;
+        
+        boolean isDirty() {
+            return changes != savedChanges;
+        }
+        
+        void markSaved(long savedAt) {
+            savedChanges = Math.max(savedChanges, savedAt);
+        }
+    }
+}
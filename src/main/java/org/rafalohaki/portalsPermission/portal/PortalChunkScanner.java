@@ -0,0 +1,392 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.LongHashSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Scans loaded chunks for portal blocks off the main thread and merges results into the index
+ * Skanuje załadowane chunki w poszukiwaniu bloków portali poza głównym wątkiem i scala wyniki z indeksem
+ *
+ * <p>Chunk snapshots are taken on the main thread in small batches per tick, scanned on a
+ * dedicated {@link ForkJoinPool}, and the results are drained back on the main thread.
+ * Chunks whose palette holds no portal block state are rejected without touching a block,
+ * and empty sections are skipped. A result whose chunk changed after the snapshot is discarded
+ * and the chunk queued again; a result for a chunk that unloaded meanwhile is dropped.</p>
+ */
+public final class PortalChunkScanner {
+    
+    private static final int MAX_IN_FLIGHT_FACTOR = 4;
+    private static final int MAX_RESULTS_PER_TICK = 256;
+    private static final long[] NO_BLOCKS = new long[0];
+    
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final PortalMaterialRegistry materialRegistry;
+    private final PortalLocationIndex index;
+    private final ForkJoinPool pool;
+    
+    // Main thread only
+    private final ArrayDeque<PendingChunk> pending = new ArrayDeque<>();
+    private final Map<UUID, LongHashSet> pendingKeys = new HashMap<>();
+    private final List<ChunkScanListener> listeners = new ArrayList<>();
+    private BukkitTask tickTask;
+    private long scannedChunks;
+    private long rejectedByPalette;
+    private long staleResults;
+    private long bootstrapStartedAt;
+    private long bootstrapFinishedAt;
+    private int bootstrapTotal;
+    
+    // Shared with scan workers
+    private final Queue<ScanResult> results = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    public PortalChunkScanner(@NotNull JavaPlugin plugin,
+                              @NotNull ConfigManager configManager,
+                              @NotNull PortalMaterialRegistry materialRegistry,
+                              @NotNull PortalLocationIndex index) {
+        this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
+        this.configManager = Objects.requireNonNull(configManager, "ConfigManager cannot be null");
+        this.materialRegistry = Objects.requireNonNull(materialRegistry, "Material registry cannot be null");
+        this.index = Objects.requireNonNull(index, "Index cannot be null");
+        
+        // Pool size is fixed for the lifetime of the plugin; changing scanner.threads needs a restart
+        int threads = configManager.getScannerThreads();
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        this.pool = new ForkJoinPool(threads, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("PortalsPermission-Scanner-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true);
+    }
+    
+    /**
+     * Starts the per-tick batch task and queues every loaded chunk; main thread only
+     * Uruchamia zadanie partii co tick i kolejkuje wszystkie załadowane chunki; tylko główny wątek
+     */
+    public void start() {
+        if (tickTask != null) {
+            return;
+        }
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        
+        if (configManager.isScannerEnabled()) {
+            bootstrap();
+        }
+    }
+    
+    /**
+     * Queues every currently loaded chunk of every world
+     * Kolejkuje każdy aktualnie załadowany chunk każdego świata
+     */
+    public void bootstrap() {
+        int queued = 0;
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                if (enqueue(world, chunk.getX(), chunk.getZ())) {
+                    queued++;
+                }
+            }
+        }
+        bootstrapStartedAt = System.currentTimeMillis();
+        bootstrapFinishedAt = 0L;
+        bootstrapTotal = queued;
+        
+        if (configManager.isDebugMode()) {
+            plugin.getLogger().info("Portal index bootstrap queued " + queued + " loaded chunks");
+        }
+    }
+    
+    /**
+     * Queues loaded chunks within a chunk radius around a center chunk
+     * Kolejkuje załadowane chunki w promieniu chunków wokół środkowego chunka
+     *
+     * @return The number of chunks queued
+     */
+    public int enqueueRadius(@NotNull World world, int centerChunkX, int centerChunkZ, int radius) {
+        int queued = 0;
+        for (int cx = centerChunkX - radius; cx <= centerChunkX + radius; cx++) {
+            for (int cz = centerChunkZ - radius; cz <= centerChunkZ + radius; cz++) {
+                if (world.isChunkLoaded(cx, cz) && enqueue(world, cx, cz)) {
+                    queued++;
+                }
+            }
+        }
+        return queued;
+    }
+    
+    /**
+     * Queues a single chunk for scanning; duplicates are ignored
+     * Kolejkuje pojedynczy chunk do skanowania; duplikaty są ignorowane
+     *
+     * @return true if the chunk was queued
+     */
+    public boolean enqueue(@NotNull World world, int chunkX, int chunkZ) {
+        long chunkKey = BlockKeys.chunkKey(chunkX, chunkZ);
+        UUID worldId = world.getUID();
+        if (!pendingKeys.computeIfAbsent(worldId, id -> new LongHashSet()).add(chunkKey)) {
+            return false;
+        }
+        pending.addLast(new PendingChunk(worldId, chunkX, chunkZ, chunkKey));
+        return true;
+    }
+    
+    /**
+     * Adds a listener notified on the main thread after a chunk result is merged
+     * Dodaje listener powiadamiany na głównym wątku po scaleniu wyniku chunka
+     */
+    public void addListener(@NotNull ChunkScanListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+    
+    /**
+     * Drops queued chunks of an unloaded world
+     * Usuwa zakolejkowane chunki wyładowanego świata
+     */
+    public void removeWorld(@NotNull UUID worldId) {
+        pendingKeys.remove(worldId);
+        pending.removeIf(chunk -> chunk.worldId().equals(worldId));
+    }
+    
+    /**
+     * Per-tick work: merge finished results, then snapshot the next batch of chunks
+     * Praca co tick: scal gotowe wyniki, potem wykonaj snapshot kolejnej partii chunków
+     */
+    private void tick() {
+        drainResults();
+        
+        int batch = configManager.getScannerChunksPerTick();
+        int maxInFlight = batch * MAX_IN_FLIGHT_FACTOR;
+        int submitted = 0;
+        
+        while (submitted < batch && inFlight.get() < maxInFlight) {
+            PendingChunk chunk = pending.pollFirst();
+            if (chunk == null) {
+                break;
+            }
+            LongHashSet keys = pendingKeys.get(chunk.worldId());
+            if (keys != null) {
+                keys.remove(chunk.chunkKey());
+            }
+            
+            World world = Bukkit.getWorld(chunk.worldId());
+            if (world == null || !world.isChunkLoaded(chunk.x(), chunk.z())) {
+                continue;
+            }
+            
+            ChunkSnapshot snapshot = world.getChunkAt(chunk.x(), chunk.z()).getChunkSnapshot(false, false, false);
+            long version = index.nextVersion();
+            int minY = world.getMinHeight();
+            int maxY = world.getMaxHeight();
+            inFlight.incrementAndGet();
+            submitted++;
+            
+            pool.execute(() -> {
+                try {
+                    results.add(new ScanResult(chunk.worldId(), chunk.chunkKey(), version, scan(snapshot, minY, maxY)));
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.WARNING, "Failed to scan chunk " + chunk.x() + "," + chunk.z(), e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        
+        if (bootstrapTotal > 0 && bootstrapFinishedAt == 0L && pending.isEmpty() && inFlight.get() == 0 && results.isEmpty()) {
+            bootstrapFinishedAt = System.currentTimeMillis();
+            plugin.getLogger().info("Portal index bootstrap finished: " + index.getBlockCount() + " portal blocks in "
+                + index.getPortalChunkCount() + " chunks (" + (bootstrapFinishedAt - bootstrapStartedAt) + " ms)");
+        }
+    }
+    
+    private void drainResults() {
+        ScanResult result;
+        int merged = 0;
+        while (merged < MAX_RESULTS_PER_TICK && (result = results.poll()) != null) {
+            int chunkX = BlockKeys.chunkX(result.chunkKey());
+            int chunkZ = BlockKeys.chunkZ(result.chunkKey());
+            World world = Bukkit.getWorld(result.worldId());
+            if (world == null || !world.isChunkLoaded(chunkX, chunkZ)) {
+                continue;
+            }
+            
+            long[] blocks = result.blocks();
+            if (blocks == null) {
+                rejectedByPalette++;
+                blocks = NO_BLOCKS;
+            }
+            if (!index.replaceChunk(result.worldId(), result.chunkKey(), blocks, result.version())) {
+                // Changed after the snapshot (e.g. a portal was created), so scan the current state
+                staleResults++;
+                enqueue(world, chunkX, chunkZ);
+                continue;
+            }
+            scannedChunks++;
+            merged++;
+            
+            for (ChunkScanListener listener : listeners) {
+                try {
+                    listener.onChunkScanned(result.worldId(), result.chunkKey());
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.WARNING, "Chunk scan listener failed", e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Scans a chunk snapshot for portal blocks; runs on a scan worker
+     * Skanuje snapshot chunka w poszukiwaniu bloków portali; działa w wątku skanera
+     *
+     * @return Packed block keys, or null if the chunk palette holds no portal state at all
+     */
+    private long @Nullable [] scan(@NotNull ChunkSnapshot snapshot, int minY, int maxY) {
+        BlockData[] probes = materialRegistry.getPaletteProbes();
+        if (probes != null && !containsAny(snapshot, probes)) {
+            return null;
+        }
+        
+        int baseX = snapshot.getX() << 4;
+        int baseZ = snapshot.getZ() << 4;
+        int minSection = minY >> 4;
+        int maxSection = (maxY - 1) >> 4;
+        
+        LongHashSet found = null;
+        for (int section = minSection; section <= maxSection; section++) {
+            if (snapshot.isSectionEmpty(section - minSection)) {
+                continue;
+            }
+            int sectionY = section << 4;
+            for (int y = sectionY; y < sectionY + 16; y++) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        Material type = snapshot.getBlockType(x, y, z);
+                        if (!materialRegistry.isPortalMaterial(type)) {
+                            continue;
+                        }
+                        if (materialRegistry.requiresStateCheck(type)
+                            && materialRegistry.classify(snapshot.getBlockData(x, y, z)) == PortalKind.NONE) {
+                            continue;
+                        }
+                        if (found == null) {
+                            found = new LongHashSet(64);
+                        }
+                        found.add(BlockKeys.blockKey(baseX + x, y, baseZ + z));
+                    }
+                }
+            }
+        }
+        return found != null ? found.toArray() : NO_BLOCKS;
+    }
+    
+    private static boolean containsAny(@NotNull ChunkSnapshot snapshot, BlockData @NotNull [] probes) {
+        for (BlockData probe : probes) {
+            if (snapshot.contains(probe)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Stops the batch task and the scan pool
+     * Zatrzymuje zadanie partii i pulę skanera
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        pending.clear();
+        pendingKeys.clear();
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+    
+    public long getScannedChunkCount() {
+        return scannedChunks;
+    }
+    
+    public long getPaletteRejectedCount() {
+        return rejectedByPalette;
+    }
+    
+    public long getStaleResultCount() {
+        return staleResults;
+    }
+    
+    public int getBootstrapTotal() {
+        return bootstrapTotal;
+    }
+    
+    public boolean isBootstrapComplete() {
+        return bootstrapFinishedAt != 0L || bootstrapTotal == 0;
+    }
+    
+    /**
+     * Gets bootstrap duration in milliseconds, or the time elapsed so far
+     * Pobiera czas trwania bootstrapu w milisekundach, lub czas który dotąd upłynął
+     */
+    public long getBootstrapMillis() {
+        if (bootstrapStartedAt == 0L) {
+            return 0L;
+        }
+        long end = bootstrapFinishedAt != 0L ? bootstrapFinishedAt : System.currentTimeMillis();
+        return end - bootstrapStartedAt;
+    }
+    
+    /**
+     * Callback for merged chunk scan results
+     * Callback dla scalonych wyników skanowania chunków
+     */
+    @FunctionalInterface
+    public interface ChunkScanListener {
+        void onChunkScanned(@NotNull UUID worldId, long chunkKey);
+    }
+    
+    private record PendingChunk(@NotNull UUID worldId, int x, int z, long chunkKey) {
+    }
+    
+    private record ScanResult(@NotNull UUID worldId, long chunkKey, long version, long @Nullable [] blocks) {
+    }
+}
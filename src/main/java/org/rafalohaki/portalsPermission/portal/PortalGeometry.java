@@ -0,0 +1,46 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cached geometry of a cataloged portal: outward normals and safe standing positions
+ * Zapamiętana geometria skatalogowanego portalu: normalne na zewnątrz i bezpieczne pozycje
+ *
+ * @param portal The portal record this geometry was computed for
+ * @param exits Safe exits, one per side of the portal that has a safe standing position
+ * @param computedAt When the exits were computed, in milliseconds
+ */
+public record PortalGeometry(@NotNull KnownPortal portal, Exit @NotNull [] exits, long computedAt) {
+    
+    /**
+     * Picks the safe exit on the side of the portal the position is on
+     * Wybiera bezpieczne wyjście po stronie portalu na której jest pozycja
+     *
+     * @return The exit, or null if the portal has no safe exit
+     */
+    public @Nullable Exit chooseExit(double x, double z) {
+        double dx = x - portal.getCenterX();
+        double dz = z - portal.getCenterZ();
+        Exit best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (Exit exit : exits) {
+            double score = exit.normalX() * dx + exit.normalZ() * dz;
+            if (score > bestScore) {
+                bestScore = score;
+                best = exit;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * A safe standing position in front of one side of the portal
+     * Bezpieczna pozycja przed jedną stroną portalu
+     *
+     * @param normalX Outward normal of this side, X component
+     * @param normalZ Outward normal of this side, Z component
+     */
+    public record Exit(double normalX, double normalZ, double x, double y, double z) {
+    }
+}
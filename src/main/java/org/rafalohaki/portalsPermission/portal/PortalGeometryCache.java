@@ -0,0 +1,124 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Axis;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.utils.Long2ObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Computes portal exits once per portal and caches them; main thread only
+ * Oblicza wyjścia portalu raz na portal i je zapamiętuje; tylko główny wątek
+ *
+ * <p>An entry is dropped when the catalog removes, replaces or unloads its portal (see
+ * {@link #evict(KnownPortal)}), and recomputed after {@link #TTL_MS} of {@link PortalClock} time,
+ * since the terrain in front of a portal can change.</p>
+ */
+public final class PortalGeometryCache {
+    
+    private static final long TTL_MS = 60_000L;
+    private static final int[] VERTICAL_STAND_OFFSETS = {0, 1, -1, 2};
+    private static final int[] HORIZONTAL_STAND_OFFSETS = {1, 0, 2};
+    
+    private final Map<UUID, Long2ObjectHashMap<PortalGeometry>> cache = new HashMap<>();
+    private final PortalClock clock;
+    
+    public PortalGeometryCache(@NotNull PortalClock clock) {
+        this.clock = clock;
+    }
+    
+    /**
+     * Gets the geometry of a portal, computing it if missing or stale
+     * Pobiera geometrię portalu, obliczając ją gdy brakuje lub jest nieaktualna
+     */
+    public @NotNull PortalGeometry resolve(@NotNull World world, @NotNull KnownPortal portal) {
+        Long2ObjectHashMap<PortalGeometry> worldCache = cache.computeIfAbsent(world.getUID(), id -> new Long2ObjectHashMap<>());
+        PortalGeometry geometry = worldCache.get(portal.id());
+        long now = clock.getMillis();
+        
+        if (geometry == null || geometry.portal() != portal || now - geometry.computedAt() > TTL_MS) {
+            geometry = new PortalGeometry(portal, computeExits(world, portal), now);
+            worldCache.put(portal.id(), geometry);
+        }
+        return geometry;
+    }
+    
+    /**
+     * Drops the cached geometry of a portal the catalog no longer holds
+     * Usuwa zapamiętaną geometrię portalu, którego katalog już nie przechowuje
+     */
+    public void evict(@NotNull KnownPortal portal) {
+        Long2ObjectHashMap<PortalGeometry> worldCache = cache.get(portal.worldId());
+        if (worldCache == null) {
+            return;
+        }
+        
+        PortalGeometry geometry = worldCache.get(portal.id());
+        // A rebuilt portal keeps its ID, so only drop the entry computed for this record
+        if (geometry != null && geometry.portal() == portal) {
+            worldCache.remove(portal.id());
+            if (worldCache.isEmpty()) {
+                cache.remove(portal.worldId());
+            }
+        }
+    }
+    
+    private static PortalGeometry.Exit @NotNull [] computeExits(@NotNull World world, @NotNull KnownPortal portal) {
+        List<PortalGeometry.Exit> exits = new ArrayList<>(4);
+        int centerX = (int) Math.floor(portal.getCenterX());
+        int centerZ = (int) Math.floor(portal.getCenterZ());
+        
+        if (portal.axis() == Axis.X) {
+            // Portal extends along X, so its faces point along Z
+            addExit(exits, world, 0, -1, centerX, portal.minZ() - 1, portal.minY(), VERTICAL_STAND_OFFSETS);
+            addExit(exits, world, 0, 1, centerX, portal.maxZ() + 1, portal.minY(), VERTICAL_STAND_OFFSETS);
+        } else if (portal.axis() == Axis.Z) {
+            addExit(exits, world, -1, 0, portal.minX() - 1, centerZ, portal.minY(), VERTICAL_STAND_OFFSETS);
+            addExit(exits, world, 1, 0, portal.maxX() + 1, centerZ, portal.minY(), VERTICAL_STAND_OFFSETS);
+        } else {
+            // Horizontal portal (End): stand on the frame ring around it
+            addExit(exits, world, -1, 0, portal.minX() - 1, centerZ, portal.minY(), HORIZONTAL_STAND_OFFSETS);
+            addExit(exits, world, 1, 0, portal.maxX() + 1, centerZ, portal.minY(), HORIZONTAL_STAND_OFFSETS);
+            addExit(exits, world, 0, -1, centerX, portal.minZ() - 1, portal.minY(), HORIZONTAL_STAND_OFFSETS);
+            addExit(exits, world, 0, 1, centerX, portal.maxZ() + 1, portal.minY(), HORIZONTAL_STAND_OFFSETS);
+        }
+        return exits.toArray(new PortalGeometry.Exit[0]);
+    }
+    
+    private static void addExit(@NotNull List<PortalGeometry.Exit> exits, @NotNull World world,
+                                double normalX, double normalZ, int x, int z, int baseY, int @NotNull [] offsets) {
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            return;
+        }
+        for (int offset : offsets) {
+            int y = baseY + offset;
+            if (isSafeStandingPosition(world, x, y, z)) {
+                exits.add(new PortalGeometry.Exit(normalX, normalZ, x + 0.5, y, z + 0.5));
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Checks for a solid floor with two passable, non-liquid blocks above it
+     * Sprawdza czy jest solidna podłoga z dwoma przechodnimi, niepłynnymi blokami nad nią
+     */
+    private static boolean isSafeStandingPosition(@NotNull World world, int x, int y, int z) {
+        if (y <= world.getMinHeight() || y + 1 >= world.getMaxHeight()) {
+            return false;
+        }
+        Block floor = world.getBlockAt(x, y - 1, z);
+        Block feet = world.getBlockAt(x, y, z);
+        Block head = world.getBlockAt(x, y + 1, z);
+        return floor.getType().isSolid()
+            && feet.isPassable() && !feet.isLiquid()
+            && head.isPassable() && !head.isLiquid();
+    }
+}
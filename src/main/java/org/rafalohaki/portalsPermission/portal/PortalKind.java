@@ -0,0 +1,47 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+/**
+ * Classification of a block material in the portal material registry
+ * Klasyfikacja materiału bloku w rejestrze materiałów portali
+ */
+public enum PortalKind {
+    NONE(null),
+    NETHER(PortalType.NETHER),
+    END(PortalType.END),
+    GATEWAY(PortalType.END),
+    /** End portal frame - counts for proximity checks but cannot be traversed */
+    FRAME(null),
+    CUSTOM(PortalType.CUSTOM);
+    
+    private static final PortalKind[] BY_ID = values();
+    
+    private final PortalType portalType;
+    
+    PortalKind(@Nullable PortalType portalType) {
+        this.portalType = portalType;
+    }
+    
+    /**
+     * Gets the portal type used for permissions, or null if the block cannot be traversed
+     * Pobiera typ portalu używany do uprawnień, lub null jeśli przez blok nie można przejść
+     */
+    public @Nullable PortalType getPortalType() {
+        return portalType;
+    }
+    
+    public boolean isTraversable() {
+        return portalType != null;
+    }
+    
+    byte id() {
+        return (byte) ordinal();
+    }
+    
+    static @NotNull PortalKind byId(byte id) {
+        return BY_ID[id];
+    }
+}
@@ -0,0 +1,296 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.Long2ObjectHashMap;
+import org.rafalohaki.portalsPermission.utils.LongHashSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-world index of known portal block positions; main thread only
+ * Indeks znanych pozycji bloków portali dla każdego świata; tylko główny wątek
+ *
+ * <p>Blocks are stored as packed long keys and grouped per chunk, so a chunk can be replaced
+ * wholesale after a rescan. Chunks that were scanned are remembered even when they hold no
+ * portals, which lets callers tell "no portal here" apart from "not scanned yet". Every chunk
+ * change is stamped with a version, so a scan of a snapshot taken before a later change is
+ * rejected instead of overwriting it. Unloaded chunks are forgotten.</p>
+ */
+public final class PortalLocationIndex {
+    
+    private static final long[] NO_BLOCKS = new long[0];
+    
+    private final Map<UUID, WorldIndex> worlds = new HashMap<>();
+    private int totalBlocks;
+    private int totalPortalChunks;
+    private long version;
+    
+    /**
+     * Gets a fresh version to stamp a chunk snapshot with
+     * Pobiera nową wersję do oznaczenia snapshotu chunka
+     */
+    public long nextVersion() {
+        return ++version;
+    }
+    
+    /**
+     * Replaces the indexed portal blocks of a chunk with a fresh scan result
+     * Zastępuje zaindeksowane bloki portali chunka świeżym wynikiem skanowania
+     *
+     * @param snapshotVersion The version taken from {@link #nextVersion()} when the chunk was snapshotted
+     * @return false if the chunk changed after the snapshot and the result was discarded
+     */
+    public boolean replaceChunk(@NotNull UUID worldId, long chunkKey, long @NotNull [] blockKeys, long snapshotVersion) {
+        WorldIndex index = worlds.computeIfAbsent(worldId, id -> new WorldIndex());
+        Long current = index.chunkVersions.get(chunkKey);
+        if (current != null && current > snapshotVersion) {
+            return false;
+        }
+        index.chunkVersions.put(chunkKey, snapshotVersion);
+        index.scannedChunks.add(chunkKey);
+        
+        long[] previous = blockKeys.length > 0
+            ? index.chunkBlocks.put(chunkKey, blockKeys)
+            : index.chunkBlocks.remove(chunkKey);
+        if (previous != null) {
+            for (long key : previous) {
+                index.blocks.remove(key);
+            }
+            totalBlocks -= previous.length;
+            totalPortalChunks--;
+        }
+        
+        if (blockKeys.length > 0) {
+            for (long key : blockKeys) {
+                index.blocks.add(key);
+            }
+            totalBlocks += blockKeys.length;
+            totalPortalChunks++;
+        }
+        return true;
+    }
+    
+    /**
+     * Adds a single portal block, e.g. from a portal creation event
+     * Dodaje pojedynczy blok portalu, np. ze zdarzenia utworzenia portalu
+     */
+    public void addBlock(@NotNull UUID worldId, int x, int y, int z) {
+        WorldIndex index = worlds.computeIfAbsent(worldId, id -> new WorldIndex());
+        long key = BlockKeys.blockKey(x, y, z);
+        if (!index.blocks.add(key)) {
+            return;
+        }
+        
+        long chunkKey = BlockKeys.chunkKey(x >> 4, z >> 4);
+        index.chunkVersions.put(chunkKey, ++version);
+        long[] current = index.chunkBlocks.get(chunkKey);
+        long[] updated;
+        if (current == null) {
+            updated = new long[] {key};
+            totalPortalChunks++;
+        } else {
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = key;
+        }
+        index.chunkBlocks.put(chunkKey, updated);
+        totalBlocks++;
+    }
+    
+    /**
+     * Removes a single portal block that turned out to be stale
+     * Usuwa pojedynczy blok portalu który okazał się nieaktualny
+     */
+    public void removeBlock(@NotNull UUID worldId, int x, int y, int z) {
+        WorldIndex index = worlds.get(worldId);
+        long key = BlockKeys.blockKey(x, y, z);
+        if (index == null || !index.blocks.remove(key)) {
+            return;
+        }
+        
+        long chunkKey = BlockKeys.chunkKey(x >> 4, z >> 4);
+        index.chunkVersions.put(chunkKey, ++version);
+        long[] current = index.chunkBlocks.get(chunkKey);
+        if (current != null) {
+            long[] updated = new long[current.length - 1];
+            int i = 0;
+            for (long existing : current) {
+                if (existing != key && i < updated.length) {
+                    updated[i++] = existing;
+                }
+            }
+            if (updated.length == 0) {
+                index.chunkBlocks.remove(chunkKey);
+                totalPortalChunks--;
+            } else {
+                index.chunkBlocks.put(chunkKey, updated);
+            }
+        }
+        totalBlocks--;
+    }
+    
+    /**
+     * Checks if a position is an indexed portal block
+     * Sprawdza czy pozycja jest zaindeksowanym blokiem portalu
+     */
+    public boolean contains(@NotNull World world, int x, int y, int z) {
+        WorldIndex index = worlds.get(world.getUID());
+        return index != null && index.blocks.contains(BlockKeys.blockKey(x, y, z));
+    }
+    
+    /**
+     * Checks if every chunk overlapped by the cube around a position has been scanned
+     * Sprawdza czy każdy chunk objęty sześcianem wokół pozycji został przeskanowany
+     */
+    public boolean isAreaIndexed(@NotNull World world, int x, int z, int radius) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return false;
+        }
+        for (int cx = (x - radius) >> 4; cx <= (x + radius) >> 4; cx++) {
+            for (int cz = (z - radius) >> 4; cz <= (z + radius) >> 4; cz++) {
+                if (!index.scannedChunks.contains(BlockKeys.chunkKey(cx, cz))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Finds an indexed portal block within the cube around a position
+     * Znajduje zaindeksowany blok portalu w sześcianie wokół pozycji
+     *
+     * @return The packed block key, or {@link Long#MIN_VALUE} if there is none
+     */
+    public long findNearby(@NotNull World world, int x, int y, int z, int radius) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null || index.blocks.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        
+        // Cheap reject: no overlapped chunk holds any portal block
+        boolean anyPortalChunk = false;
+        for (int cx = (x - radius) >> 4; cx <= (x + radius) >> 4 && !anyPortalChunk; cx++) {
+            for (int cz = (z - radius) >> 4; cz <= (z + radius) >> 4; cz++) {
+                if (index.chunkBlocks.containsKey(BlockKeys.chunkKey(cx, cz))) {
+                    anyPortalChunk = true;
+                    break;
+                }
+            }
+        }
+        if (!anyPortalChunk) {
+            return Long.MIN_VALUE;
+        }
+        
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    long key = BlockKeys.blockKey(x + dx, y + dy, z + dz);
+                    if (index.blocks.contains(key)) {
+                        return key;
+                    }
+                }
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+    
+    /**
+     * Checks if any portal block of a world is indexed
+     * Sprawdza czy jakikolwiek blok portalu świata jest zaindeksowany
+     */
+    public boolean hasPortals(@NotNull UUID worldId) {
+        WorldIndex index = worlds.get(worldId);
+        return index != null && !index.blocks.isEmpty();
+    }
+    
+    /**
+     * Checks if a chunk has been scanned
+     * Sprawdza czy chunk został przeskanowany
+     */
+    public boolean isChunkIndexed(@NotNull UUID worldId, long chunkKey) {
+        WorldIndex index = worlds.get(worldId);
+        return index != null && index.scannedChunks.contains(chunkKey);
+    }
+    
+    /**
+     * Gets the indexed portal blocks of a chunk
+     * Pobiera zaindeksowane bloki portali chunka
+     */
+    public long @NotNull [] getChunkBlocks(@NotNull UUID worldId, long chunkKey) {
+        WorldIndex index = worlds.get(worldId);
+        long[] blocks = index != null ? index.chunkBlocks.get(chunkKey) : null;
+        return blocks != null ? blocks : NO_BLOCKS;
+    }
+    
+    /**
+     * Drops everything known about an unloaded chunk; it reads as not scanned until it is scanned again
+     * Usuwa wszystko co wiadomo o wyładowanym chunku; uchodzi za nieprzeskanowany do ponownego skanowania
+     */
+    public void unloadChunk(@NotNull UUID worldId, long chunkKey) {
+        WorldIndex index = worlds.get(worldId);
+        if (index == null) {
+            return;
+        }
+        
+        index.scannedChunks.remove(chunkKey);
+        index.chunkVersions.remove(chunkKey);
+        long[] previous = index.chunkBlocks.remove(chunkKey);
+        if (previous != null) {
+            for (long key : previous) {
+                index.blocks.remove(key);
+            }
+            totalBlocks -= previous.length;
+            totalPortalChunks--;
+        }
+    }
+    
+    /**
+     * Drops everything known about a world, e.g. when it unloads
+     * Usuwa wszystko co wiadomo o świecie, np. gdy zostaje wyładowany
+     */
+    public void removeWorld(@NotNull UUID worldId) {
+        WorldIndex index = worlds.remove(worldId);
+        if (index != null) {
+            totalBlocks -= index.blocks.size();
+            totalPortalChunks -= index.chunkBlocks.size();
+        }
+    }
+    
+    public int getBlockCount() {
+        return totalBlocks;
+    }
+    
+    public int getPortalChunkCount() {
+        return totalPortalChunks;
+    }
+    
+    public int getScannedChunkCount() {
+        int count = 0;
+        for (WorldIndex index : worlds.values()) {
+            count += index.scannedChunks.size();
+        }
+        return count;
+    }
+    
+    public int getWorldCount() {
+        return worlds.size();
+    }
+    
+    /**
+     * Portal blocks of one world
+     * Bloki portali jednego świata
+     */
+    static final class WorldIndex {
+        final LongHashSet blocks = new LongHashSet(256);
+        final Long2ObjectHashMap<long[]> chunkBlocks = new Long2ObjectHashMap<>(64);
+        final LongHashSet scannedChunks = new LongHashSet(1024);
+        // Chunk key -> version of the last change, bounded by the loaded chunks
+        final Long2ObjectHashMap<Long> chunkVersions = new Long2ObjectHashMap<>(1024);
+    }
+}
@@ -0,0 +1,332 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Axis;
+import org.bukkit.Material;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Orientable;
+import org.bukkit.block.data.type.EndPortalFrame;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * Registry mapping block materials to portal kinds, shared by every classifier in the plugin
+ * Rejestr mapujący materiały bloków na rodzaje portali, współdzielony przez wszystkie klasyfikatory
+ *
+ * <p>Classification is a byte array lookup by {@link Material#ordinal()}. Custom materials may
+ * carry block state predicates, checked only for blocks of those materials.</p>
+ */
+public final class PortalMaterialRegistry {
+    
+    private static final Logger LOGGER = Logger.getLogger(PortalMaterialRegistry.class.getName());
+    private static final Material[] MATERIALS = Material.values();
+    
+    private final ConfigManager configManager;
+    private volatile Snapshot snapshot;
+    
+    public PortalMaterialRegistry(@NotNull ConfigManager configManager) {
+        this.configManager = Objects.requireNonNull(configManager, "ConfigManager cannot be null");
+        this.snapshot = build();
+        configManager.addReloadListener(() -> this.snapshot = build());
+    }
+    
+    /**
+     * Classifies a material, ignoring block state predicates
+     * Klasyfikuje materiał, ignorując predykaty stanu bloku
+     */
+    public @NotNull PortalKind classify(@NotNull Material material) {
+        return PortalKind.byId(snapshot.kinds[material.ordinal()]);
+    }
+    
+    /**
+     * Classifies a block, including block state predicates of custom materials
+     * Klasyfikuje blok, uwzględniając predykaty stanu bloku materiałów niestandardowych
+     */
+    public @NotNull PortalKind classify(@NotNull Block block) {
+        Snapshot current = this.snapshot;
+        Material material = block.getType();
+        int ordinal = material.ordinal();
+        
+        if (current.stateChecked.get(ordinal) && !current.matchesState(ordinal, block.getBlockData())) {
+            return PortalKind.NONE;
+        }
+        return PortalKind.byId(current.kinds[ordinal]);
+    }
+    
+    /**
+     * Classifies block data, including block state predicates of custom materials
+     * Klasyfikuje dane bloku, uwzględniając predykaty stanu bloku materiałów niestandardowych
+     */
+    public @NotNull PortalKind classify(@NotNull BlockData blockData) {
+        Snapshot current = this.snapshot;
+        int ordinal = blockData.getMaterial().ordinal();
+        
+        if (current.stateChecked.get(ordinal) && !current.matchesState(ordinal, blockData)) {
+            return PortalKind.NONE;
+        }
+        return PortalKind.byId(current.kinds[ordinal]);
+    }
+    
+    /**
+     * Checks if a material is any portal-related block (including frames)
+     * Sprawdza czy materiał jest dowolnym blokiem związanym z portalem (w tym ramą)
+     */
+    public boolean isPortalMaterial(@NotNull Material material) {
+        return snapshot.portalMaterials.get(material.ordinal());
+    }
+    
+    /**
+     * Checks if a block is any portal-related block (including frames), honouring state predicates
+     * Sprawdza czy blok jest dowolnym blokiem związanym z portalem (w tym ramą), z uwzględnieniem predykatów stanu
+     */
+    public boolean isPortalBlock(@NotNull Block block) {
+        Snapshot current = this.snapshot;
+        int ordinal = block.getType().ordinal();
+        if (!current.portalMaterials.get(ordinal)) {
+            return false;
+        }
+        return !current.stateChecked.get(ordinal) || current.matchesState(ordinal, block.getBlockData());
+    }
+    
+    /**
+     * Checks if blocks of this material need their block state checked
+     * Sprawdza czy bloki tego materiału wymagają sprawdzenia stanu bloku
+     */
+    public boolean requiresStateCheck(@NotNull Material material) {
+        return snapshot.stateChecked.get(material.ordinal());
+    }
+    
+    /**
+     * Gets the portal type of a block, CUSTOM for anything that is not a vanilla portal
+     * Pobiera typ portalu bloku, CUSTOM dla wszystkiego co nie jest portalem vanilla
+     */
+    public @NotNull PortalType getPortalType(@NotNull Block block) {
+        PortalType type = classify(block).getPortalType();
+        return type != null ? type : PortalType.CUSTOM;
+    }
+    
+    /**
+     * Gets all materials currently registered as portal-related
+     * Pobiera wszystkie materiały zarejestrowane jako związane z portalami
+     */
+    public @NotNull List<Material> getPortalMaterials() {
+        Snapshot current = this.snapshot;
+        List<Material> materials = new ArrayList<>();
+        for (int i = current.portalMaterials.nextSetBit(0); i >= 0; i = current.portalMaterials.nextSetBit(i + 1)) {
+            materials.add(MATERIALS[i]);
+        }
+        return materials;
+    }
+    
+    /**
+     * Gets every block state of every portal material, for chunk palette checks
+     * Pobiera każdy stan bloku każdego materiału portalu, do sprawdzania palety chunka
+     *
+     * @return The states, or null if custom materials make the set impossible to enumerate
+     */
+    public BlockData @Nullable [] getPaletteProbes() {
+        return snapshot.paletteProbes;
+    }
+    
+    public int getCustomMaterialCount() {
+        return snapshot.customCount;
+    }
+    
+    /**
+     * Builds a new registry snapshot from configuration
+     * Buduje nowy snapshot rejestru z konfiguracji
+     */
+    private @NotNull Snapshot build() {
+        byte[] kinds = new byte[MATERIALS.length];
+        BitSet portalMaterials = new BitSet(MATERIALS.length);
+        BitSet stateChecked = new BitSet(MATERIALS.length);
+        BitSet anyState = new BitSet(MATERIALS.length);
+        List<List<BlockData>> predicates = new ArrayList<>(MATERIALS.length);
+        for (int i = 0; i < MATERIALS.length; i++) {
+            predicates.add(null);
+        }
+        
+        register(kinds, portalMaterials, Material.NETHER_PORTAL, PortalKind.NETHER);
+        register(kinds, portalMaterials, Material.END_PORTAL, PortalKind.END);
+        register(kinds, portalMaterials, Material.END_GATEWAY, PortalKind.GATEWAY);
+        if (configManager.isEndFrameProximityEnabled()) {
+            register(kinds, portalMaterials, Material.END_PORTAL_FRAME, PortalKind.FRAME);
+        }
+        
+        int customCount = 0;
+        for (Object entry : configManager.getCustomPortalMaterials()) {
+            try {
+                CustomEntry custom = parseCustomEntry(entry);
+                Material material = custom.material();
+                if (isVanillaPortal(material)) {
+                    LOGGER.warning("Ignoring custom portal material " + material + ": already a vanilla portal block");
+                    continue;
+                }
+                
+                register(kinds, portalMaterials, material, custom.kind());
+                if (custom.state() != null) {
+                    stateChecked.set(material.ordinal());
+                    List<BlockData> states = predicates.get(material.ordinal());
+                    if (states == null) {
+                        states = new ArrayList<>();
+                        predicates.set(material.ordinal(), states);
+                    }
+                    states.add(custom.state());
+                } else {
+                    anyState.set(material.ordinal());
+                }
+                customCount++;
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("Skipping custom portal material '" + entry + "': " + e.getMessage());
+            }
+        }
+        
+        // A material listed both with and without a state predicate matches any state
+        stateChecked.andNot(anyState);
+        BlockData[][] statePredicates = new BlockData[MATERIALS.length][];
+        for (int i = stateChecked.nextSetBit(0); i >= 0; i = stateChecked.nextSetBit(i + 1)) {
+            statePredicates[i] = predicates.get(i).toArray(new BlockData[0]);
+        }
+        
+        // Custom materials may have arbitrary block states, so palette checks only cover vanilla portals
+        BlockData[] paletteProbes = null;
+        if (customCount == 0) {
+            List<BlockData> probes = new ArrayList<>();
+            for (int i = portalMaterials.nextSetBit(0); i >= 0; i = portalMaterials.nextSetBit(i + 1)) {
+                addAllStates(probes, MATERIALS[i]);
+            }
+            paletteProbes = probes.toArray(new BlockData[0]);
+        }
+        
+        return new Snapshot(kinds, portalMaterials, stateChecked, statePredicates, paletteProbes, customCount);
+    }
+    
+    private static void register(byte[] kinds, BitSet portalMaterials, @NotNull Material material, @NotNull PortalKind kind) {
+        kinds[material.ordinal()] = kind.id();
+        portalMaterials.set(material.ordinal());
+    }
+    
+    /**
+     * Expands a vanilla portal material into all of its block states
+     * Rozwija materiał portalu vanilla na wszystkie jego stany bloku
+     */
+    private static void addAllStates(@NotNull List<BlockData> out, @NotNull Material material) {
+        BlockData base = material.createBlockData();
+        if (base instanceof EndPortalFrame frame) {
+            for (BlockFace face : frame.getFaces()) {
+                for (boolean eye : new boolean[] {false, true}) {
+                    EndPortalFrame state = (EndPortalFrame) frame.clone();
+                    state.setFacing(face);
+                    state.setEye(eye);
+                    out.add(state);
+                }
+            }
+        } else if (base instanceof Orientable orientable) {
+            for (Axis axis : orientable.getAxes()) {
+                Orientable state = (Orientable) orientable.clone();
+                state.setAxis(axis);
+                out.add(state);
+            }
+        } else {
+            out.add(base);
+        }
+    }
+    
+    private static boolean isVanillaPortal(@NotNull Material material) {
+        return material == Material.NETHER_PORTAL || material == Material.END_PORTAL || material == Material.END_GATEWAY;
+    }
+    
+    /**
+     * Parses a custom entry: "MATERIAL", "minecraft:block[state=value]" or {block: ..., type: nether|end|custom}
+     * Parsuje wpis niestandardowy: "MATERIAL", "minecraft:block[state=value]" lub {block: ..., type: nether|end|custom}
+     */
+    private static @NotNull CustomEntry parseCustomEntry(@Nullable Object entry) {
+        String block;
+        PortalKind kind = PortalKind.CUSTOM;
+        
+        if (entry instanceof Map<?, ?> map) {
+            Object rawBlock = map.get("block");
+            if (rawBlock == null) {
+                throw new IllegalArgumentException("missing 'block'");
+            }
+            block = String.valueOf(rawBlock);
+            
+            Object rawType = map.get("type");
+            if (rawType != null) {
+                PortalType type = PortalType.fromConfig(String.valueOf(rawType));
+                if (type == null) {
+                    throw new IllegalArgumentException("unknown portal type: " + rawType);
+                }
+                kind = switch (type) {
+                    case NETHER -> PortalKind.NETHER;
+                    case END -> PortalKind.END;
+                    case CUSTOM -> PortalKind.CUSTOM;
+                };
+            }
+        } else if (entry != null) {
+            block = String.valueOf(entry);
+        } else {
+            throw new IllegalArgumentException("empty entry");
+        }
+        
+        block = block.trim();
+        if (block.indexOf('[') >= 0) {
+            BlockData state = Bukkit.createBlockData(block);
+            return new CustomEntry(state.getMaterial(), kind, state);
+        }
+        
+        Material material = Material.matchMaterial(block);
+        if (material == null || !material.isBlock()) {
+            throw new IllegalArgumentException("unknown block material: " + block.toUpperCase(Locale.ROOT));
+        }
+        return new CustomEntry(material, kind, null);
+    }
+    
+    private record CustomEntry(@NotNull Material material, @NotNull PortalKind kind, @Nullable BlockData state) {
+    }
+    
+    /**
+     * Immutable registry contents, swapped atomically on reload
+     * Niezmienna zawartość rejestru, podmieniana atomowo przy przeładowaniu
+     */
+    private static final class Snapshot {
+        
+        private final byte[] kinds;
+        private final BitSet portalMaterials;
+        private final BitSet stateChecked;
+        private final BlockData[][] statePredicates;
+        private final BlockData[] paletteProbes;
+        private final int customCount;
+        
+        Snapshot(byte[] kinds, BitSet portalMaterials, BitSet stateChecked, BlockData[][] statePredicates,
+                 BlockData[] paletteProbes, int customCount) {
+            this.kinds = kinds;
+            this.portalMaterials = portalMaterials;
+            this.stateChecked = stateChecked;
+            this.statePredicates = statePredicates;
+            this.paletteProbes = paletteProbes;
+            this.customCount = customCount;
+        }
+        
+        boolean matchesState(int ordinal, @NotNull BlockData blockData) {
+            for (BlockData predicate : statePredicates[ordinal]) {
+                if (blockData.matches(predicate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A box around one or more portals with an access list of its own
+ * Obszar wokół jednego lub kilku portali z własną listą dostępu
+ *
+ * <p>A player may use a portal inside the region only when listed by UUID, holding one of the
+ * permissions, or belonging to one of the groups. Groups are checked as the "group.&lt;name&gt;"
+ * permission that permission plugins such as LuckPerms grant to group members. A region with an
+ * empty access list admits only players with the bypass permission. Immutable; edits return a
+ * copy that replaces the region in the {@link PortalRegionIndex}.</p>
+ *
+ * @param name Unique region name, stored lower case
+ * @param worldId The world the region is in
+ * @param permissions Permission nodes granting access
+ * @param players Players granted access by UUID
+ * @param groups Permission groups granting access
+ */
+public record PortalRegion(@NotNull String name,
+                           @NotNull UUID worldId,
+                           int minX, int minY, int minZ,
+                           int maxX, int maxY, int maxZ,
+                           @NotNull Set<String> permissions,
+                           @NotNull Set<UUID> players,
+                           @NotNull Set<String> groups) {
+    
+    public PortalRegion {
+        permissions = Set.copyOf(permissions);
+        players = Set.copyOf(players);
+        groups = Set.copyOf(groups);
+    }
+    
+    /**
+     * Creates a region with an empty access list from two corners in any order
+     * Tworzy obszar z pustą listą dostępu z dwóch narożników w dowolnej kolejności
+     */
+    public static @NotNull PortalRegion of(@NotNull String name, @NotNull UUID worldId,
+                                           int x1, int y1, int z1, int x2, int y2, int z2) {
+        return new PortalRegion(name, worldId,
+            Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2),
+            Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2),
+            Set.of(), Set.of(), Set.of());
+    }
+    
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+    
+    /**
+     * Checks the player against the access list, cheapest entries first
+     * Sprawdza gracza względem listy dostępu, zaczynając od najtańszych wpisów
+     */
+    public boolean allows(@NotNull Player player) {
+        if (players.contains(player.getUniqueId())) {
+            return true;
+        }
+        for (String permission : permissions) {
+            if (player.hasPermission(permission)) {
+                return true;
+            }
+        }
+        for (String group : groups) {
+            if (player.hasPermission("group." + group)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns a copy with a permission added to or removed from the access list
+     * Zwraca kopię z uprawnieniem dodanym do lub usuniętym z listy dostępu
+     */
+    public @NotNull PortalRegion withPermission(@NotNull String permission, boolean add) {
+        return new PortalRegion(name, worldId, minX, minY, minZ, maxX, maxY, maxZ,
+            edit(permissions, permission, add), players, groups);
+    }
+    
+    /**
+     * Returns a copy with a player added to or removed from the access list
+     * Zwraca kopię z graczem dodanym do lub usuniętym z listy dostępu
+     */
+    public @NotNull PortalRegion withPlayer(@NotNull UUID playerId, boolean add) {
+        return new PortalRegion(name, worldId, minX, minY, minZ, maxX, maxY, maxZ,
+            permissions, edit(players, playerId, add), groups);
+    }
+    
+    /**
+     * Returns a copy with a group added to or removed from the access list
+     * Zwraca kopię z grupą dodaną do lub usuniętą z listy dostępu
+     */
+    public @NotNull PortalRegion withGroup(@NotNull String group, boolean add) {
+        return new PortalRegion(name, worldId, minX, minY, minZ, maxX, maxY, maxZ,
+            permissions, players, edit(groups, group.toLowerCase(Locale.ROOT), add));
+    }
+    
+    private static <T> @NotNull Set<T> edit(@NotNull Set<T> values, @NotNull T value, boolean add) {
+        Set<T> copy = new HashSet<>(values);
+        if (add) {
+            copy.add(value);
+        } else {
+            copy.remove(value);
+        }
+        return copy;
+    }
+}
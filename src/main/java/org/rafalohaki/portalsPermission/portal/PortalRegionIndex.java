@@ -0,0 +1,303 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.Long2ObjectHashMap;
+import org.rafalohaki.portalsPermission.utils.VersionedFileWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Per-world grid of portal regions with access lists, persisted to regions.yml
+ * Siatka obszarów portali z listami dostępu dla każdego świata, zapisywana w regions.yml
+ *
+ * <p>Each region is registered in every chunk cell its box overlaps, so a lookup is one probe of
+ * the chunk cell followed by a box test of the few regions sharing that chunk. Regions are
+ * limited to {@link #MAX_REGION_CHUNKS} chunks, which keeps the grid compact for boxes drawn
+ * around portals. Regions are edited in place by commands and written to disk right away, so no
+ * configuration reload is needed. Main thread only, except for file writes which work on
+ * serialized copies.</p>
+ */
+public final class PortalRegionIndex {
+    
+    public static final int MAX_REGION_CHUNKS = 1024;
+    
+    private static final String FILE_NAME = "regions.yml";
+    private static final PortalRegion[] NO_REGIONS = new PortalRegion[0];
+    
+    private final JavaPlugin plugin;
+    private final Path file;
+    private final VersionedFileWriter writer;
+    private final Map<String, PortalRegion> regions = new TreeMap<>();
+    private final Map<UUID, Long2ObjectHashMap<PortalRegion[]>> cells = new HashMap<>();
+    private int cellCount;
+    private boolean loaded;
+    
+    public PortalRegionIndex(@NotNull JavaPlugin plugin) {
+        this.plugin = plugin;
+        this.file = plugin.getDataFolder().toPath().resolve(FILE_NAME);
+        this.writer = new VersionedFileWriter(file);
+    }
+    
+    /**
+     * Loads the persisted regions; main thread only
+     * Ładuje zapisane obszary; tylko główny wątek
+     */
+    public void start() {
+        loaded = true;
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file.toFile());
+        ConfigurationSection section = yaml.getConfigurationSection("regions");
+        if (section == null) {
+            return;
+        }
+        
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection entry = section.getConfigurationSection(name);
+            PortalRegion region = entry != null ? read(name, entry) : null;
+            if (region == null) {
+                plugin.getLogger().warning("Ignoring invalid portal region '" + name + "' in " + FILE_NAME);
+                continue;
+            }
+            index(region);
+        }
+        plugin.getLogger().info("Loaded " + regions.size() + " portal regions");
+    }
+    
+    /**
+     * Writes pending changes synchronously
+     * Synchronicznie zapisuje oczekujące zmiany
+     */
+    public void shutdown() {
+        // Never overwrite the file with an empty index that was not loaded from it
+        if (loaded) {
+            write(writer.nextVersion(), serialize());
+        }
+    }
+    
+    /**
+     * Finds a region at the location whose access list does not admit the player
+     * Znajduje obszar w danej lokalizacji, którego lista dostępu nie dopuszcza gracza
+     *
+     * @return The denying region, or null if every region there admits the player
+     */
+    public @Nullable PortalRegion findDenying(@NotNull Player player, @NotNull Location location) {
+        if (regions.isEmpty()) {
+            return null;
+        }
+        
+        World world = location.getWorld();
+        Long2ObjectHashMap<PortalRegion[]> grid = world != null ? cells.get(world.getUID()) : null;
+        if (grid == null) {
+            return null;
+        }
+        
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        PortalRegion[] candidates = grid.get(BlockKeys.chunkKey(x >> 4, z >> 4));
+        if (candidates == null) {
+            return null;
+        }
+        
+        for (PortalRegion region : candidates) {
+            if (region.contains(x, y, z) && !region.allows(player)) {
+                return region;
+            }
+        }
+        return null;
+    }
+    
+    public @Nullable PortalRegion get(@NotNull String name) {
+        return regions.get(name.toLowerCase(Locale.ROOT));
+    }
+    
+    public @NotNull Collection<PortalRegion> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+    
+    /**
+     * Adds a region or replaces the region of the same name, then saves
+     * Dodaje obszar lub zastępuje obszar o tej samej nazwie, a następnie zapisuje
+     */
+    public void put(@NotNull PortalRegion region) {
+        PortalRegion previous = regions.get(region.name());
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(region);
+        saveAsync();
+    }
+    
+    /**
+     * Removes a region by name, then saves
+     * Usuwa obszar po nazwie, a następnie zapisuje
+     *
+     * @return The removed region, or null if there was none
+     */
+    public @Nullable PortalRegion remove(@NotNull String name) {
+        PortalRegion removed = regions.get(name.toLowerCase(Locale.ROOT));
+        if (removed != null) {
+            unindex(removed);
+            saveAsync();
+        }
+        return removed;
+    }
+    
+    public int getRegionCount() {
+        return regions.size();
+    }
+    
+    public int getCellCount() {
+        return cellCount;
+    }
+    
+    /**
+     * Counts the chunk cells a region would occupy
+     * Liczy komórki chunków, które zająłby obszar
+     */
+    public static long getChunkCount(@NotNull PortalRegion region) {
+        long width = (region.maxX() >> 4) - (region.minX() >> 4) + 1L;
+        long depth = (region.maxZ() >> 4) - (region.minZ() >> 4) + 1L;
+        return width * depth;
+    }
+    
+    private void index(@NotNull PortalRegion region) {
+        regions.put(region.name(), region);
+        Long2ObjectHashMap<PortalRegion[]> grid = cells.computeIfAbsent(region.worldId(), id -> new Long2ObjectHashMap<>(16));
+        for (int chunkX = region.minX() >> 4; chunkX <= region.maxX() >> 4; chunkX++) {
+            for (int chunkZ = region.minZ() >> 4; chunkZ <= region.maxZ() >> 4; chunkZ++) {
+                long key = BlockKeys.chunkKey(chunkX, chunkZ);
+                PortalRegion[] current = grid.get(key);
+                if (current == null) {
+                    current = NO_REGIONS;
+                    cellCount++;
+                }
+                PortalRegion[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = region;
+                grid.put(key, updated);
+            }
+        }
+    }
+    
+    private void unindex(@NotNull PortalRegion region) {
+        regions.remove(region.name());
+        Long2ObjectHashMap<PortalRegion[]> grid = cells.get(region.worldId());
+        if (grid == null) {
+            return;
+        }
+        
+        for (int chunkX = region.minX() >> 4; chunkX <= region.maxX() >> 4; chunkX++) {
+            for (int chunkZ = region.minZ() >> 4; chunkZ <= region.maxZ() >> 4; chunkZ++) {
+                long key = BlockKeys.chunkKey(chunkX, chunkZ);
+                PortalRegion[] current = grid.get(key);
+                if (current == null) {
+                    continue;
+                }
+                
+                List<PortalRegion> remaining = new ArrayList<>(current.length);
+                for (PortalRegion candidate : current) {
+                    if (candidate != region) {
+                        remaining.add(candidate);
+                    }
+                }
+                if (remaining.isEmpty()) {
+                    grid.remove(key);
+                    cellCount--;
+                } else {
+                    grid.put(key, remaining.toArray(NO_REGIONS));
+                }
+            }
+        }
+        if (grid.isEmpty()) {
+            cells.remove(region.worldId());
+        }
+    }
+    
+    private static @Nullable PortalRegion read(@NotNull String name, @NotNull ConfigurationSection entry) {
+        List<Integer> min = entry.getIntegerList("min");
+        List<Integer> max = entry.getIntegerList("max");
+        String worldId = entry.getString("world");
+        if (min.size() != 3 || max.size() != 3 || worldId == null) {
+            return null;
+        }
+        
+        try {
+            Set<UUID> players = new HashSet<>();
+            for (String player : entry.getStringList("players")) {
+                players.add(UUID.fromString(player));
+            }
+            Set<String> groups = new HashSet<>();
+            for (String group : entry.getStringList("groups")) {
+                groups.add(group.toLowerCase(Locale.ROOT));
+            }
+            
+            PortalRegion corners = PortalRegion.of(name.toLowerCase(Locale.ROOT), UUID.fromString(worldId),
+                min.get(0), min.get(1), min.get(2), max.get(0), max.get(1), max.get(2));
+            PortalRegion region = new PortalRegion(corners.name(), corners.worldId(),
+                corners.minX(), corners.minY(), corners.minZ(), corners.maxX(), corners.maxY(), corners.maxZ(),
+                new HashSet<>(entry.getStringList("permissions")), players, groups);
+            return getChunkCount(region) <= MAX_REGION_CHUNKS ? region : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private @NotNull String serialize() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.options().setHeader(List.of("Portal regions managed by /portals region"));
+        for (PortalRegion region : regions.values()) {
+            String path = "regions." + region.name() + ".";
+            yaml.set(path + "world", region.worldId().toString());
+            yaml.set(path + "min", List.of(region.minX(), region.minY(), region.minZ()));
+            yaml.set(path + "max", List.of(region.maxX(), region.maxY(), region.maxZ()));
+            yaml.set(path + "permissions", new ArrayList<>(region.permissions()));
+            yaml.set(path + "players", region.players().stream().map(UUID::toString).toList());
+            yaml.set(path + "groups", new ArrayList<>(region.groups()));
+        }
+        return yaml.saveToString();
+    }
+    
+    private void saveAsync() {
+        if (!loaded) {
+            return;
+        }
+        long version = writer.nextVersion();
+        String contents = serialize();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> write(version, contents));
+    }
+    
+    private void write(long version, @NotNull String contents) {
+        try {
+            writer.write(version, contents);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save portal regions", e);
+        }
+    }
+}
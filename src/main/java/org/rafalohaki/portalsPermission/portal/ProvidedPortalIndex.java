@@ -0,0 +1,267 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.api.PortalProvider;
+import org.rafalohaki.portalsPermission.api.ProvidedPortal;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.Long2ObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Per-chunk cache of the portals reported by {@link PortalProvider} services
+ * Pamięć podręczna portali zgłaszanych przez serwisy {@link PortalProvider} dla każdego chunku
+ *
+ * <p>Providers are asked once per chunk when it loads, and for every loaded chunk when a provider
+ * registers or unregisters; the answers are kept in a per-world chunk grid until the chunk unloads
+ * or is invalidated by its provider.
+ * A lookup during a portal event is therefore one probe of the chunk cell and a box test of the few
+ * portals in it, and never calls into another plugin. Without providers the grid stays empty and a
+ * lookup returns right away. A provider that throws is logged once and its answer for that chunk is
+ * skipped. Main thread only.</p>
+ */
+public final class ProvidedPortalIndex {
+    
+    private static final ProvidedPortal[] NO_PORTALS = new ProvidedPortal[0];
+    private static final PortalProvider[] NO_PROVIDERS = new PortalProvider[0];
+    
+    private final JavaPlugin plugin;
+    private final Map<UUID, Long2ObjectHashMap<ProvidedPortal[]>> cells = new HashMap<>();
+    private final List<Runnable> changeListeners = new ArrayList<>();
+    private PortalProvider[] providers = NO_PROVIDERS;
+    private List<String> providerNames = List.of();
+    private long[] failures = new long[0];
+    private boolean refreshPending;
+    private int cellCount;
+    private int portalCount;
+    private long providerCalls;
+    
+    public ProvidedPortalIndex(@NotNull JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Reloads the registered providers and asks them about every loaded chunk
+     * Przeładowuje zarejestrowanych dostawców i pyta ich o każdy załadowany chunk
+     */
+    public void refreshProviders() {
+        refreshPending = false;
+        cells.clear();
+        cellCount = 0;
+        portalCount = 0;
+        
+        Collection<RegisteredServiceProvider<PortalProvider>> registrations =
+            Bukkit.getServicesManager().getRegistrations(PortalProvider.class);
+        List<PortalProvider> found = new ArrayList<>(registrations.size());
+        List<String> names = new ArrayList<>(registrations.size());
+        for (RegisteredServiceProvider<PortalProvider> registration : registrations) {
+            found.add(registration.getProvider());
+            names.add(registration.getPlugin().getName());
+        }
+        this.providers = found.toArray(NO_PROVIDERS);
+        this.providerNames = List.copyOf(names);
+        this.failures = new long[providers.length];
+        
+        if (providers.length > 0) {
+            for (World world : Bukkit.getWorlds()) {
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    loadChunk(world, chunk.getX(), chunk.getZ());
+                }
+            }
+            plugin.getLogger().info("Cached " + portalCount + " portals from " + providers.length + " portal providers");
+        }
+        
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+    
+    /**
+     * Schedules a provider refresh for the next tick, merging repeated requests into one
+     * Planuje odświeżenie dostawców na następny tick, łącząc powtórzone żądania w jedno
+     */
+    public void requestRefresh() {
+        if (!refreshPending) {
+            refreshPending = true;
+            Bukkit.getScheduler().runTask(plugin, this::refreshProviders);
+        }
+    }
+    
+    /**
+     * Caches the providers' portals for a chunk, replacing any previous answer
+     * Zapamiętuje portale dostawców dla chunku, zastępując poprzednią odpowiedź
+     */
+    public void loadChunk(@NotNull World world, int chunkX, int chunkZ) {
+        if (providers.length == 0) {
+            return;
+        }
+        unloadChunk(world.getUID(), chunkX, chunkZ);
+        
+        List<ProvidedPortal> portals = null;
+        for (int i = 0; i < providers.length; i++) {
+            Collection<ProvidedPortal> answer = ask(i, world, chunkX, chunkZ);
+            if (answer == null || answer.isEmpty()) {
+                continue;
+            }
+            if (portals == null) {
+                portals = new ArrayList<>(answer.size());
+            }
+            for (ProvidedPortal portal : answer) {
+                if (portal != null) {
+                    portals.add(portal);
+                }
+            }
+        }
+        
+        if (portals != null && !portals.isEmpty()) {
+            cells.computeIfAbsent(world.getUID(), id -> new Long2ObjectHashMap<>(64))
+                .put(BlockKeys.chunkKey(chunkX, chunkZ), portals.toArray(NO_PORTALS));
+            cellCount++;
+            portalCount += portals.size();
+        }
+    }
+    
+    /**
+     * Drops the cached answers for a chunk whose provided portals changed, asking again if it is loaded
+     * Usuwa zapamiętane odpowiedzi dla chunku, którego portale dostawców się zmieniły, pytając ponownie gdy jest załadowany
+     */
+    public void invalidate(@NotNull World world, int chunkX, int chunkZ) {
+        if (world.isChunkLoaded(chunkX, chunkZ)) {
+            loadChunk(world, chunkX, chunkZ);
+        } else {
+            unloadChunk(world.getUID(), chunkX, chunkZ);
+        }
+    }
+    
+    /**
+     * Drops the cached portals of an unloaded chunk
+     * Usuwa zapamiętane portale wyładowanego chunku
+     */
+    public void unloadChunk(@NotNull UUID worldId, int chunkX, int chunkZ) {
+        Long2ObjectHashMap<ProvidedPortal[]> grid = cells.get(worldId);
+        if (grid == null) {
+            return;
+        }
+        
+        ProvidedPortal[] removed = grid.remove(BlockKeys.chunkKey(chunkX, chunkZ));
+        if (removed != null) {
+            cellCount--;
+            portalCount -= removed.length;
+            if (grid.isEmpty()) {
+                cells.remove(worldId);
+            }
+        }
+    }
+    
+    /**
+     * Drops the cached portals of an unloaded world
+     * Usuwa zapamiętane portale wyładowanego świata
+     */
+    public void unloadWorld(@NotNull UUID worldId) {
+        Long2ObjectHashMap<ProvidedPortal[]> grid = cells.remove(worldId);
+        if (grid != null) {
+            cellCount -= grid.size();
+            grid.forEach((key, portals) -> portalCount -= portals.length);
+        }
+    }
+    
+    /**
+     * Finds the cached provider portal at a location
+     * Znajduje zapamiętany portal dostawcy w danej lokalizacji
+     *
+     * @return The first portal containing the block, or null if none was reported there
+     */
+    public @Nullable ProvidedPortal find(@NotNull Location location) {
+        if (cells.isEmpty()) {
+            return null;
+        }
+        
+        World world = location.getWorld();
+        Long2ObjectHashMap<ProvidedPortal[]> grid = world != null ? cells.get(world.getUID()) : null;
+        if (grid == null) {
+            return null;
+        }
+        
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        ProvidedPortal[] candidates = grid.get(BlockKeys.chunkKey(x >> 4, z >> 4));
+        if (candidates == null) {
+            return null;
+        }
+        
+        for (ProvidedPortal portal : candidates) {
+            if (portal.contains(x, y, z)) {
+                return portal;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Registers a listener run on the main thread after the providers were refreshed
+     * Rejestruje listener uruchamiany w głównym wątku po odświeżeniu dostawców
+     */
+    public void addChangeListener(@NotNull Runnable listener) {
+        changeListeners.add(listener);
+    }
+    
+    public boolean hasProviders() {
+        return providers.length > 0;
+    }
+    
+    /**
+     * Gets the names of the plugins that registered the current providers
+     * Pobiera nazwy pluginów które zarejestrowały aktualnych dostawców
+     */
+    public @NotNull List<String> getProviderNames() {
+        return providerNames;
+    }
+    
+    public int getCellCount() {
+        return cellCount;
+    }
+    
+    public int getPortalCount() {
+        return portalCount;
+    }
+    
+    public long getProviderCalls() {
+        return providerCalls;
+    }
+    
+    public long getProviderFailures() {
+        long total = 0L;
+        for (long count : failures) {
+            total += count;
+        }
+        return total;
+    }
+    
+    private @Nullable Collection<ProvidedPortal> ask(int providerIndex, @NotNull World world, int chunkX, int chunkZ) {
+        providerCalls++;
+        try {
+            return providers[providerIndex].getPortals(world, chunkX, chunkZ);
+        } catch (RuntimeException | LinkageError e) {
+            // Log the first failure only; a broken provider would otherwise fail on every chunk
+            if (failures[providerIndex]++ == 0L) {
+                plugin.getLogger().log(Level.WARNING, "Portal provider of " + providerNames.get(providerIndex)
+                    + " failed for chunk " + chunkX + "," + chunkZ + " in " + world.getName(), e);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.Long2ObjectHashMap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One row of portal security state per tracked entity, stored column by column
+ * Jeden wiersz stanu zabezpieczeń portali na śledzoną encję, przechowywany kolumnami
+ *
+ * <p>Rows are keyed by entity id in an open-addressing table; cooldown end, dwell ticks and
+ * flags live in parallel primitive arrays, so a lookup is one probe with no boxing. Slots move
+ * when rows are removed, so a slot is only valid until the next insert or removal. The table is
+ * owned by the main thread; async readers such as commands use the {@link Snapshot} published
+ * by {@link #publish(int)}. The row count is capped by {@code security.state.max_tracked_entities}.</p>
+ */
+public final class EntitySecurityTable {
+    
+    public static final int NONE = Integer.MIN_VALUE;
+    
+    public static final byte FLAG_PLAYER = 1;
+    public static final byte FLAG_IN_VEHICLE = 1 << 1;
+    public static final byte FLAG_GLIDING = 1 << 2;
+    
+    private static final int NO_PORTAL = -1;
+    
+    private final ConfigManager configManager;
+    
+    private boolean[] used;
+    private int[] ids;
+    private UUID[] uuids;
+    private int[] cooldownEnd;
+    private int[] firstEntry;
+    private int[] lastSeen;
+    private int[] lastTouched;
+    private byte[] flags;
+    private UUID[] portalWorld;
+    private int[] portalId;
+    private int mask;
+    private int size;
+    private int dwelling;
+    private boolean dirty;
+    private long evictions;
+    
+    // World -> portal id -> live occupant count, derived from the portal columns
+    private final Map<UUID, Long2ObjectHashMap<int[]>> occupancy = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    
+    /**
+     * Constructor for EntitySecurityTable
+     * Konstruktor dla EntitySecurityTable
+     */
+    public EntitySecurityTable(@NotNull ConfigManager configManager) {
+        this.configManager = configManager;
+        allocate(64);
+    }
+    
+    /**
+     * Finds the slot of an entity's row
+     * Znajduje slot wiersza encji
+     *
+     * @return The slot, or -1 if the entity has no row
+     */
+    public int find(int entityId) {
+        int index = hash(entityId) & mask;
+        while (used[index]) {
+            if (ids[index] == entityId) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Finds or creates the row of an entity, applying the eviction policy when the table is full
+     * Znajduje lub tworzy wiersz encji, stosując politykę usuwania gdy tabela jest pełna
+     *
+     * @return The slot, or -1 if the policy rejected the new entity
+     */
+    public int findOrInsert(@NotNull Entity entity, int now) {
+        int entityId = entity.getEntityId();
+        int existing = find(entityId);
+        if (existing >= 0) {
+            return existing;
+        }
+        
+        boolean player = entity instanceof Player;
+        if (size >= configManager.getMaxTrackedEntities()) {
+            EvictionPolicy policy = EvictionPolicy.fromConfig(configManager.getStateEvictionPolicy());
+            if (policy == EvictionPolicy.REJECT_NEW && !player) {
+                return -1;
+            }
+            evictSampled();
+        }
+        if (size + 1 > (mask + 1) * 3 / 4) {
+            rehash((mask + 1) << 1);
+        }
+        
+        int index = hash(entityId) & mask;
+        while (used[index]) {
+            index = (index + 1) & mask;
+        }
+        used[index] = true;
+        ids[index] = entityId;
+        uuids[index] = entity.getUniqueId();
+        cooldownEnd[index] = NONE;
+        firstEntry[index] = NONE;
+        lastSeen[index] = NONE;
+        lastTouched[index] = now;
+        flags[index] = player ? FLAG_PLAYER : 0;
+        portalWorld[index] = null;
+        portalId[index] = NO_PORTAL;
+        size++;
+        dirty = true;
+        return index;
+    }
+    
+    /**
+     * Removes an entity's row
+     * Usuwa wiersz encji
+     */
+    public void remove(int entityId) {
+        int slot = find(entityId);
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+    
+    public int getCooldownEnd(int slot) {
+        return cooldownEnd[slot];
+    }
+    
+    public void setCooldownEnd(int slot, int tick, int now) {
+        cooldownEnd[slot] = tick;
+        lastTouched[slot] = now;
+        dirty = true;
+    }
+    
+    public int getFirstEntry(int slot) {
+        return firstEntry[slot];
+    }
+    
+    public int getLastSeen(int slot) {
+        return lastSeen[slot];
+    }
+    
+    /**
+     * Refreshes the last-seen tick of a stay in progress; no other column changes
+     * Odświeża tick ostatniego widzenia trwającego pobytu; inne kolumny się nie zmieniają
+     */
+    public void refreshDwell(int slot, int now) {
+        lastSeen[slot] = now;
+        lastTouched[slot] = now;
+    }
+    
+    /**
+     * Starts a new portal stay, moving the entity's occupancy to the given portal
+     * Rozpoczyna nowy pobyt w portalu, przenosząc zajętość encji do danego portalu
+     */
+    public void startDwell(int slot, int now, @Nullable UUID worldId, int catalogPortalId) {
+        leavePortal(slot);
+        if (firstEntry[slot] == NONE) {
+            dwelling++;
+        }
+        firstEntry[slot] = now;
+        lastSeen[slot] = now;
+        lastTouched[slot] = now;
+        if (worldId != null && catalogPortalId != NO_PORTAL) {
+            portalWorld[slot] = worldId;
+            portalId[slot] = catalogPortalId;
+            occupancy.computeIfAbsent(worldId, id -> new Long2ObjectHashMap<>())
+                .computeIfAbsent(catalogPortalId, id -> new int[1])[0]++;
+        }
+        dirty = true;
+    }
+    
+    /**
+     * Ends the entity's portal stay, if any
+     * Kończy pobyt encji w portalu, jeśli trwa
+     */
+    public void endDwell(int slot) {
+        leavePortal(slot);
+        if (firstEntry[slot] != NONE) {
+            dwelling--;
+            firstEntry[slot] = NONE;
+            lastSeen[slot] = NONE;
+            dirty = true;
+        }
+    }
+    
+    public boolean hasFlag(int slot, byte flag) {
+        return (flags[slot] & flag) != 0;
+    }
+    
+    public void setFlag(int slot, byte flag, boolean value, int now) {
+        byte current = flags[slot];
+        byte updated = (byte) (value ? current | flag : current & ~flag);
+        if (updated != current) {
+            flags[slot] = updated;
+            lastTouched[slot] = now;
+            dirty = true;
+        }
+    }
+    
+    /**
+     * Gets the number of entities currently inside a cataloged portal
+     * Pobiera liczbę encji obecnie znajdujących się w skatalogowanym portalu
+     */
+    public int getOccupancy(@NotNull UUID worldId, int catalogPortalId) {
+        Long2ObjectHashMap<int[]> counts = occupancy.get(worldId);
+        if (counts == null) {
+            return 0;
+        }
+        int[] count = counts.get(catalogPortalId);
+        return count != null ? count[0] : 0;
+    }
+    
+    /**
+     * Ends stale stays, clears expired cooldowns and drops rows that hold no state any more
+     * Kończy nieaktualne pobyty, czyści wygasłe cooldowny i usuwa wiersze bez żadnego stanu
+     *
+     * @param now The current tick
+     * @param dwellGraceTicks Ticks without a portal event after which a stay has ended
+     */
+    public void sweep(int now, int dwellGraceTicks) {
+        if (size == 0) {
+            return;
+        }
+        
+        int index = 0;
+        while (index <= mask) {
+            if (!used[index]) {
+                index++;
+                continue;
+            }
+            if (firstEntry[index] != NONE && now - lastSeen[index] > dwellGraceTicks) {
+                endDwell(index);
+            }
+            if (cooldownEnd[index] != NONE && now >= cooldownEnd[index]) {
+                cooldownEnd[index] = NONE;
+                dirty = true;
+            }
+            if (firstEntry[index] == NONE && cooldownEnd[index] == NONE && (flags[index] & ~FLAG_PLAYER) == 0) {
+                // Backward shift may move a later row into this slot, so it is examined again
+                removeSlot(index);
+                continue;
+            }
+            index++;
+        }
+    }
+    
+    /**
+     * Publishes a read-only copy of every row if anything changed since the last publish
+     * Publikuje kopię tylko do odczytu wszystkich wierszy jeśli coś zmieniło się od ostatniej publikacji
+     */
+    public void publish(int now) {
+        if (!dirty) {
+            return;
+        }
+        
+        UUID[] snapshotIds = new UUID[size];
+        int[] snapshotCooldowns = new int[size];
+        int[] snapshotEntries = new int[size];
+        byte[] snapshotFlags = new byte[size];
+        int row = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (used[i]) {
+                snapshotIds[row] = uuids[i];
+                snapshotCooldowns[row] = cooldownEnd[i];
+                snapshotEntries[row] = firstEntry[i];
+                snapshotFlags[row] = flags[i];
+                row++;
+            }
+        }
+        
+        this.snapshot = new Snapshot(now, snapshotIds, snapshotCooldowns, snapshotEntries, snapshotFlags);
+        dirty = false;
+    }
+    
+    /**
+     * Gets the last published snapshot; safe from any thread
+     * Pobiera ostatnio opublikowaną migawkę; bezpieczne z dowolnego wątku
+     */
+    public @NotNull Snapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int getDwellingCount() {
+        return dwelling;
+    }
+    
+    public long getEvictionCount() {
+        return evictions;
+    }
+    
+    public void clear() {
+        allocate(64);
+        size = 0;
+        dwelling = 0;
+        occupancy.clear();
+        dirty = true;
+    }
+    
+    /**
+     * Drops the least recently touched of a few randomly sampled rows
+     * Usuwa najdawniej używany z kilku losowo wybranych wierszy
+     */
+    private void evictSampled() {
+        if (size == 0) {
+            return;
+        }
+        
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int victim = -1;
+        int oldest = Integer.MAX_VALUE;
+        for (int sample = 0; sample < EvictionPolicy.SAMPLE_SIZE; sample++) {
+            int index = random.nextInt(mask + 1);
+            while (!used[index]) {
+                index = (index + 1) & mask;
+            }
+            if (lastTouched[index] < oldest) {
+                oldest = lastTouched[index];
+                victim = index;
+            }
+        }
+        
+        removeSlot(victim);
+        evictions++;
+    }
+    
+    private void leavePortal(int slot) {
+        UUID worldId = portalWorld[slot];
+        if (worldId == null) {
+            return;
+        }
+        
+        Long2ObjectHashMap<int[]> counts = occupancy.get(worldId);
+        if (counts != null) {
+            int[] count = counts.get(portalId[slot]);
+            if (count != null && --count[0] <= 0) {
+                counts.remove(portalId[slot]);
+                if (counts.isEmpty()) {
+                    occupancy.remove(worldId);
+                }
+            }
+        }
+        portalWorld[slot] = null;
+        portalId[slot] = NO_PORTAL;
+    }
+    
+    private void removeSlot(int slot) {
+        endDwell(slot);
+        size--;
+        dirty = true;
+        
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = slot;
+        int index = (slot + 1) & mask;
+        while (used[index]) {
+            int home = hash(ids[index]) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                move(index, gap);
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        used[gap] = false;
+        uuids[gap] = null;
+        portalWorld[gap] = null;
+    }
+    
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        uuids[to] = uuids[from];
+        cooldownEnd[to] = cooldownEnd[from];
+        firstEntry[to] = firstEntry[from];
+        lastSeen[to] = lastSeen[from];
+        lastTouched[to] = lastTouched[from];
+        flags[to] = flags[from];
+        portalWorld[to] = portalWorld[from];
+        portalId[to] = portalId[from];
+    }
+    
+    private void rehash(int capacity) {
+        boolean[] oldUsed = used;
+        int[] oldIds = ids;
+        UUID[] oldUuids = uuids;
+        int[] oldCooldownEnd = cooldownEnd;
+        int[] oldFirstEntry = firstEntry;
+        int[] oldLastSeen = lastSeen;
+        int[] oldLastTouched = lastTouched;
+        byte[] oldFlags = flags;
+        UUID[] oldPortalWorld = portalWorld;
+        int[] oldPortalId = portalId;
+        
+        allocate(capacity);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (!oldUsed[i]) {
+                continue;
+            }
+            int index = hash(oldIds[i]) & mask;
+            while (used[index]) {
+                index = (index + 1) & mask;
+            }
+            used[index] = true;
+            ids[index] = oldIds[i];
+            uuids[index] = oldUuids[i];
+            cooldownEnd[index] = oldCooldownEnd[i];
+            firstEntry[index] = oldFirstEntry[i];
+            lastSeen[index] = oldLastSeen[i];
+            lastTouched[index] = oldLastTouched[i];
+            flags[index] = oldFlags[i];
+            portalWorld[index] = oldPortalWorld[i];
+            portalId[index] = oldPortalId[i];
+        }
+    }
+    
+    private void allocate(int capacity) {
+        used = new boolean[capacity];
+        ids = new int[capacity];
+        uuids = new UUID[capacity];
+        cooldownEnd = new int[capacity];
+        firstEntry = new int[capacity];
+        lastSeen = new int[capacity];
+        lastTouched = new int[capacity];
+        flags = new byte[capacity];
+        portalWorld = new UUID[capacity];
+        portalId = new int[capacity];
+        Arrays.fill(portalId, NO_PORTAL);
+        mask = capacity - 1;
+    }
+    
+    private static int hash(int entityId) {
+        return BlockKeys.mix(entityId);
+    }
+    
+    /**
+     * Immutable copy of the table for readers off the main thread
+     * Niezmienna kopia tabeli dla czytelników poza głównym wątkiem
+     */
+    public static final class Snapshot {
+        
+        static final Snapshot EMPTY = new Snapshot(0, new UUID[0], new int[0], new int[0], new byte[0]);
+        
+        private final int tick;
+        private final UUID[] uuids;
+        private final int[] cooldownEnd;
+        private final int[] firstEntry;
+        private final byte[] flags;
+        
+        private Snapshot(int tick, UUID[] uuids, int[] cooldownEnd, int[] firstEntry, byte[] flags) {
+            this.tick = tick;
+            this.uuids = uuids;
+            this.cooldownEnd = cooldownEnd;
+            this.firstEntry = firstEntry;
+            this.flags = flags;
+        }
+        
+        /**
+         * Gets the tick the snapshot was taken at
+         * Pobiera tick w którym wykonano migawkę
+         */
+        public int getTick() {
+            return tick;
+        }
+        
+        public int size() {
+            return uuids.length;
+        }
+        
+        /**
+         * Gets the cooldown end tick of an entity, or {@link #NONE}
+         * Pobiera tick końca cooldownu encji lub {@link #NONE}
+         */
+        public int getCooldownEnd(@NotNull UUID entityId) {
+            for (int i = 0; i < uuids.length; i++) {
+                if (entityId.equals(uuids[i])) {
+                    return cooldownEnd[i];
+                }
+            }
+            return NONE;
+        }
+        
+        public int countCooldownsActiveAt(int now) {
+            int count = 0;
+            for (int end : cooldownEnd) {
+                if (end != NONE && end > now) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        public int countDwelling() {
+            int count = 0;
+            for (int entry : firstEntry) {
+                if (entry != NONE) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        public int countFlag(byte flag) {
+            int count = 0;
+            for (byte value : flags) {
+                if ((value & flag) != 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
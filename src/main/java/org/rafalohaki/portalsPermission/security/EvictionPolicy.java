@@ -0,0 +1,31 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * What a security state table does when it is full and a new entity arrives
+ * Co tabela stanu zabezpieczeń robi gdy jest pełna i pojawia się nowa encja
+ */
+public enum EvictionPolicy {
+    /** Drop the least recently active of a few sampled entries to make room */
+    EVICT_OLDEST,
+    /** Do not track new non-player entities; players still evict the oldest entry */
+    REJECT_NEW;
+    
+    /** Entries examined per eviction; a small sample approximates the oldest without a full scan */
+    public static final int SAMPLE_SIZE = 8;
+    
+    /**
+     * Parses an eviction policy from configuration, defaulting to evict_oldest
+     * Parsuje politykę usuwania z konfiguracji, domyślnie evict_oldest
+     */
+    public static @NotNull EvictionPolicy fromConfig(@Nullable String value) {
+        if (value != null && value.trim().toLowerCase(Locale.ROOT).equals("reject_new")) {
+            return REJECT_NEW;
+        }
+        return EVICT_OLDEST;
+    }
+}
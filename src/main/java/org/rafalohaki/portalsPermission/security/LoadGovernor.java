@@ -0,0 +1,193 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Degrades security checks while the server is lagging, based on Paper's average tick time
+ * Ogranicza sprawdzenia zabezpieczeń gdy serwer się zacina, na podstawie średniego czasu ticku z Papera
+ *
+ * <p>Once a second the average MSPT is compared with the configured thresholds. A tier is entered
+ * when MSPT reaches its threshold and left only when MSPT falls below it by the hysteresis margin,
+ * so the tier does not flap around a threshold. In {@link LoadTier#SAMPLED} a per-slot move counter
+ * admits every Nth move of each player. Main thread only.</p>
+ */
+public final class LoadGovernor implements PlayerSlotRegistry.SlotStore {
+    
+    private static final long EVALUATE_INTERVAL_TICKS = 20L;
+    
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final PlayerSlotRegistry playerSlots;
+    
+    // Slot -> moves seen since the last admitted one
+    private int[] moveCounters = new int[0];
+    
+    private LoadTier tier = LoadTier.FULL;
+    private double lastMspt;
+    private BukkitTask evaluateTask;
+    private final long[] ticksInTier = new long[LoadTier.values().length];
+    private long transitions;
+    private long skippedChecks;
+    
+    /**
+     * Constructor for LoadGovernor
+     * Konstruktor dla LoadGovernor
+     */
+    public LoadGovernor(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager,
+                        @NotNull PlayerSlotRegistry playerSlots) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.playerSlots = playerSlots;
+        playerSlots.addStore(this);
+    }
+    
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > moveCounters.length) {
+            moveCounters = Arrays.copyOf(moveCounters, capacity);
+        }
+    }
+    
+    @Override
+    public void clearSlot(int slot) {
+        moveCounters[slot] = 0;
+    }
+    
+    @Override
+    public int getBytesPerSlot() {
+        return Integer.BYTES;
+    }
+    
+    /**
+     * Starts the periodic MSPT evaluation; main thread only
+     * Uruchamia okresową ocenę MSPT; tylko główny wątek
+     */
+    public void start() {
+        if (evaluateTask == null) {
+            evaluateTask = Bukkit.getScheduler().runTaskTimer(plugin, this::evaluate,
+                EVALUATE_INTERVAL_TICKS, EVALUATE_INTERVAL_TICKS);
+        }
+    }
+    
+    public void shutdown() {
+        if (evaluateTask != null) {
+            evaluateTask.cancel();
+            evaluateTask = null;
+        }
+        tier = LoadTier.FULL;
+    }
+    
+    private void evaluate() {
+        ticksInTier[tier.ordinal()] += EVALUATE_INTERVAL_TICKS;
+        lastMspt = Bukkit.getAverageTickTime();
+        setTier(configManager.isAdaptiveChecksEnabled() ? nextTier(lastMspt) : LoadTier.FULL);
+    }
+    
+    private @NotNull LoadTier nextTier(double mspt) {
+        double sampledAt = configManager.getSampledChecksMspt();
+        double portalOnlyAt = Math.max(sampledAt, configManager.getPortalOnlyChecksMspt());
+        double hysteresis = configManager.getAdaptiveHysteresisMspt();
+        
+        // Escalation is immediate; each step down needs MSPT below the threshold minus the margin
+        if (mspt >= portalOnlyAt) {
+            return LoadTier.PORTAL_ONLY;
+        }
+        if (tier == LoadTier.PORTAL_ONLY && mspt >= portalOnlyAt - hysteresis) {
+            return LoadTier.PORTAL_ONLY;
+        }
+        if (mspt >= sampledAt) {
+            return LoadTier.SAMPLED;
+        }
+        if (tier != LoadTier.FULL && mspt >= sampledAt - hysteresis) {
+            return LoadTier.SAMPLED;
+        }
+        return LoadTier.FULL;
+    }
+    
+    private void setTier(@NotNull LoadTier next) {
+        if (next == tier) {
+            return;
+        }
+        
+        if (configManager.isDebugMode()) {
+            plugin.getLogger().info("Security check tier " + tier + " -> " + next + " (MSPT " + String.format("%.1f", lastMspt) + ")");
+        }
+        tier = next;
+        transitions++;
+    }
+    
+    /**
+     * Checks if proximity, velocity and movement checks may run at all
+     * Sprawdza czy sprawdzenia bliskości, prędkości i ruchu mogą się w ogóle wykonać
+     */
+    public boolean allowsMovementChecks() {
+        if (tier == LoadTier.PORTAL_ONLY) {
+            skippedChecks++;
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Checks if this move of the player should be checked under the current tier
+     * Sprawdza czy ten ruch gracza powinien zostać sprawdzony w obecnym poziomie
+     */
+    public boolean admitMove(@NotNull Player player) {
+        if (tier == LoadTier.FULL) {
+            return true;
+        }
+        if (tier == LoadTier.PORTAL_ONLY) {
+            skippedChecks++;
+            return false;
+        }
+        
+        int slot = playerSlots.slotOf(player);
+        if (slot == PlayerSlotRegistry.NO_SLOT) {
+            return true;
+        }
+        if (++moveCounters[slot] >= configManager.getAdaptiveSampleEvery()) {
+            moveCounters[slot] = 0;
+            return true;
+        }
+        skippedChecks++;
+        return false;
+    }
+    
+    public @NotNull LoadTier getTier() {
+        return tier;
+    }
+    
+    public double getLastMspt() {
+        return lastMspt;
+    }
+    
+    /**
+     * Gets the ticks spent in a tier since the last reset
+     * Pobiera liczbę ticków spędzonych w danym poziomie od ostatniego resetu
+     */
+    public long getTicksInTier(@NotNull LoadTier tier) {
+        return ticksInTier[tier.ordinal()];
+    }
+    
+    public long getTransitionCount() {
+        return transitions;
+    }
+    
+    public long getSkippedCheckCount() {
+        return skippedChecks;
+    }
+    
+    public void resetCounters() {
+        Arrays.fill(ticksInTier, 0L);
+        transitions = 0;
+        skippedChecks = 0;
+    }
+}
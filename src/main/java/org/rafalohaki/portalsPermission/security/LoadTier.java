@@ -0,0 +1,26 @@
+package org.rafalohaki.portalsPermission.security;
+
+/**
+ * How much security checking the server can currently afford
+ * Ile sprawdzeń zabezpieczeń serwer może obecnie udźwignąć
+ */
+public enum LoadTier {
+    
+    /**
+     * Every movement, velocity and proximity check runs
+     * Wykonywane są wszystkie sprawdzenia ruchu, prędkości i bliskości
+     */
+    FULL,
+    
+    /**
+     * Only every Nth move of each player is checked
+     * Sprawdzany jest tylko co N-ty ruch każdego gracza
+     */
+    SAMPLED,
+    
+    /**
+     * Only portal events are checked; movement, velocity and proximity checks are skipped
+     * Sprawdzane są tylko zdarzenia portali; sprawdzenia ruchu, prędkości i bliskości są pomijane
+     */
+    PORTAL_ONLY
+}
@@ -0,0 +1,240 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.ObjDoubleConsumer;
+import java.util.logging.Level;
+
+/**
+ * Batches movement checks into one budgeted pass per tick instead of one check per move event
+ * Grupuje sprawdzanie ruchu w jeden przebieg na tick z limitem czasu zamiast sprawdzania przy każdym ruchu
+ *
+ * <p>A move event only sets the player's bit in a dirty bitset indexed by {@link PlayerSlotRegistry}
+ * slot and extends the recorded path. Once per tick the dirty players are visited in slot order
+ * until the configured microsecond budget is spent; the rest carry over to the next tick, starting
+ * where the pass stopped. The path is measured from the first to the last move since the player
+ * was last visited and reported as blocks per tick. Main thread only.</p>
+ */
+public final class MovementSweeper implements PlayerSlotRegistry.SlotStore {
+    
+    // The clock is read once per this many players to keep the budget check itself cheap
+    private static final int BUDGET_CHECK_INTERVAL = 8;
+    // A move whose start is further than this from the recorded end follows a teleport
+    private static final double CONTINUITY_EPSILON_SQUARED = 1.0E-4;
+    
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final PlayerSlotRegistry playerSlots;
+    private final PortalClock clock;
+    private final ObjDoubleConsumer<Player> check;
+    
+    // One bit per slot, set between a move and the pass that visits it
+    private long[] dirty = new long[0];
+    // Slot-indexed path since the last visit: start, end and their ticks
+    private double[] startX = new double[0];
+    private double[] startY = new double[0];
+    private double[] startZ = new double[0];
+    private double[] endX = new double[0];
+    private double[] endY = new double[0];
+    private double[] endZ = new double[0];
+    private int[] startTick = new int[0];
+    private int[] endTick = new int[0];
+    
+    private int dirtyCount;
+    private int cursorWord;
+    private BukkitTask tickTask;
+    private long visited;
+    private long carryOvers;
+    
+    /**
+     * Constructor for MovementSweeper
+     * Konstruktor dla MovementSweeper
+     *
+     * @param check Receives each visited player with its speed in blocks per tick
+     */
+    public MovementSweeper(@NotNull JavaPlugin plugin,
+                           @NotNull ConfigManager configManager,
+                           @NotNull PlayerSlotRegistry playerSlots,
+                           @NotNull PortalClock clock,
+                           @NotNull ObjDoubleConsumer<Player> check) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.playerSlots = playerSlots;
+        this.clock = clock;
+        this.check = check;
+        playerSlots.addStore(this);
+    }
+    
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity <= startTick.length) {
+            return;
+        }
+        dirty = Arrays.copyOf(dirty, (capacity + 63) >>> 6);
+        startX = Arrays.copyOf(startX, capacity);
+        startY = Arrays.copyOf(startY, capacity);
+        startZ = Arrays.copyOf(startZ, capacity);
+        endX = Arrays.copyOf(endX, capacity);
+        endY = Arrays.copyOf(endY, capacity);
+        endZ = Arrays.copyOf(endZ, capacity);
+        startTick = Arrays.copyOf(startTick, capacity);
+        endTick = Arrays.copyOf(endTick, capacity);
+    }
+    
+    @Override
+    public void clearSlot(int slot) {
+        long bit = 1L << slot;
+        if ((dirty[slot >>> 6] & bit) != 0) {
+            dirty[slot >>> 6] &= ~bit;
+            dirtyCount--;
+        }
+    }
+    
+    @Override
+    public int getBytesPerSlot() {
+        // Six coordinates, two ticks and one bit rounded up to a byte
+        return 6 * Double.BYTES + 2 * Integer.BYTES + 1;
+    }
+    
+    /**
+     * Records a move and marks the player for the next pass
+     * Zapisuje ruch i oznacza gracza do następnego przebiegu
+     *
+     * @return false if the player has no slot and must be checked directly
+     */
+    public boolean markDirty(@NotNull Player player, @NotNull Location from, @NotNull Location to) {
+        int slot = playerSlots.slotOf(player);
+        if (slot == PlayerSlotRegistry.NO_SLOT) {
+            return false;
+        }
+        
+        int now = clock.getTick();
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        if ((dirty[word] & bit) == 0 || !continues(slot, from)) {
+            if ((dirty[word] & bit) == 0) {
+                dirty[word] |= bit;
+                dirtyCount++;
+            }
+            startX[slot] = from.getX();
+            startY[slot] = from.getY();
+            startZ[slot] = from.getZ();
+            startTick[slot] = now;
+        }
+        endX[slot] = to.getX();
+        endY[slot] = to.getY();
+        endZ[slot] = to.getZ();
+        endTick[slot] = now;
+        
+        if (tickTask == null) {
+            tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        return true;
+    }
+    
+    private boolean continues(int slot, @NotNull Location from) {
+        double dx = from.getX() - endX[slot];
+        double dy = from.getY() - endY[slot];
+        double dz = from.getZ() - endZ[slot];
+        return dx * dx + dy * dy + dz * dz <= CONTINUITY_EPSILON_SQUARED;
+    }
+    
+    /**
+     * Visits dirty players until the budget is spent; the task stops itself when none are left
+     * Odwiedza oznaczonych graczy aż do wyczerpania limitu; zadanie zatrzymuje się gdy nie ma żadnych
+     */
+    private void tick() {
+        if (dirtyCount == 0) {
+            tickTask.cancel();
+            tickTask = null;
+            cursorWord = 0;
+            return;
+        }
+        
+        long deadline = System.nanoTime() + configManager.getMovementTickBudgetMicros() * 1000L;
+        int words = (playerSlots.getHighWater() + 63) >>> 6;
+        int sinceCheck = 0;
+        
+        for (int scanned = 0; scanned < words && dirtyCount > 0; scanned++) {
+            int word = (cursorWord + scanned) % words;
+            while (dirty[word] != 0) {
+                if (++sinceCheck >= BUDGET_CHECK_INTERVAL) {
+                    sinceCheck = 0;
+                    if (System.nanoTime() >= deadline) {
+                        // Resume from this word on the next tick
+                        cursorWord = word;
+                        carryOvers++;
+                        return;
+                    }
+                }
+                
+                int slot = (word << 6) + Long.numberOfTrailingZeros(dirty[word]);
+                dirty[word] &= dirty[word] - 1;
+                dirtyCount--;
+                visit(slot);
+            }
+        }
+        cursorWord = 0;
+    }
+    
+    private void visit(int slot) {
+        UUID playerId = playerSlots.getOwner(slot);
+        Player player = playerId != null ? Bukkit.getPlayer(playerId) : null;
+        if (player == null) {
+            return;
+        }
+        
+        double dx = endX[slot] - startX[slot];
+        double dy = endY[slot] - startY[slot];
+        double dz = endZ[slot] - startZ[slot];
+        int ticks = Math.max(1, endTick[slot] - startTick[slot] + 1);
+        visited++;
+        
+        try {
+            check.accept(player, Math.sqrt(dx * dx + dy * dy + dz * dz) / ticks);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Error checking batched movement for player: " + player.getName(), e);
+        }
+    }
+    
+    /**
+     * Drops all pending moves and stops the task
+     * Usuwa wszystkie oczekujące ruchy i zatrzymuje zadanie
+     */
+    public void clear() {
+        Arrays.fill(dirty, 0L);
+        dirtyCount = 0;
+        cursorWord = 0;
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+    
+    public int getPendingCount() {
+        return dirtyCount;
+    }
+    
+    public long getVisitedCount() {
+        return visited;
+    }
+    
+    public long getCarryOverCount() {
+        return carryOvers;
+    }
+    
+    public void resetCounters() {
+        visited = 0;
+        carryOvers = 0;
+    }
+}
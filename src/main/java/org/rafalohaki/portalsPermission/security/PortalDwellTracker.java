@@ -0,0 +1,114 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.portal.KnownPortal;
+import org.rafalohaki.portalsPermission.portal.PortalCatalog;
+
+import java.util.UUID;
+
+/**
+ * Measures how long entities stay inside portals and how many occupy each cataloged portal
+ * Mierzy jak długo encje przebywają w portalach i ile z nich zajmuje każdy skatalogowany portal
+ *
+ * <p>The first-entry tick is recorded once; the per-tick portal event only refreshes the
+ * last-seen tick of an existing row in the {@link EntitySecurityTable}, so staying in a portal
+ * allocates nothing. Stays whose entity has not been seen for {@link #EXIT_GRACE_TICKS} are
+ * ended by the table sweep. Main thread only.</p>
+ */
+public final class PortalDwellTracker {
+    
+    // The portal event fires every tick inside; a short gap still counts as the same stay
+    public static final int EXIT_GRACE_TICKS = 5;
+    
+    private final PortalCatalog portalCatalog;
+    private final EntitySecurityTable table;
+    private final PortalClock clock;
+    
+    /**
+     * Constructor for PortalDwellTracker
+     * Konstruktor dla PortalDwellTracker
+     */
+    public PortalDwellTracker(@NotNull PortalCatalog portalCatalog, @NotNull EntitySecurityTable table,
+                              @NotNull PortalClock clock) {
+        this.portalCatalog = portalCatalog;
+        this.table = table;
+        this.clock = clock;
+    }
+    
+    /**
+     * Records that an entity is inside a portal this tick
+     * Zapisuje że encja znajduje się w portalu w tym ticku
+     *
+     * @param entity The entity inside the portal
+     * @param portalLocation The portal block location reported by the event
+     */
+    public void touch(@NotNull Entity entity, @NotNull Location portalLocation) {
+        int now = clock.getTick();
+        int slot = table.findOrInsert(entity, now);
+        if (slot < 0) {
+            return;
+        }
+        
+        if (table.getFirstEntry(slot) != EntitySecurityTable.NONE && now - table.getLastSeen(slot) <= EXIT_GRACE_TICKS) {
+            table.refreshDwell(slot, now);
+            return;
+        }
+        
+        // A new stay, possibly after leaving and coming back before the sweep ran
+        World world = portalLocation.getWorld();
+        KnownPortal portal = world != null
+            ? portalCatalog.getPortalAt(world, portalLocation.getBlockX(), portalLocation.getBlockY(), portalLocation.getBlockZ())
+            : null;
+        if (portal != null) {
+            table.startDwell(slot, now, portal.worldId(), portal.id());
+        } else {
+            table.startDwell(slot, now, null, -1);
+        }
+    }
+    
+    /**
+     * Gets how many ticks an entity has been inside a portal in its current stay
+     * Pobiera ile ticków encja przebywa w portalu podczas obecnego pobytu
+     *
+     * @return The dwell time in ticks, or 0 if the entity is not inside a portal
+     */
+    public int getDwellTicks(@NotNull Entity entity) {
+        int slot = table.find(entity.getEntityId());
+        if (slot < 0 || table.getFirstEntry(slot) == EntitySecurityTable.NONE) {
+            return 0;
+        }
+        
+        int now = clock.getTick();
+        if (now - table.getLastSeen(slot) > EXIT_GRACE_TICKS) {
+            return 0;
+        }
+        return now - table.getFirstEntry(slot);
+    }
+    
+    /**
+     * Ends an entity's stay, e.g. after it teleported
+     * Kończy pobyt encji, np. po teleportacji
+     */
+    public void remove(@NotNull Entity entity) {
+        int slot = table.find(entity.getEntityId());
+        if (slot >= 0) {
+            table.endDwell(slot);
+        }
+    }
+    
+    /**
+     * Gets the number of entities currently inside a cataloged portal
+     * Pobiera liczbę encji obecnie znajdujących się w skatalogowanym portalu
+     */
+    public int getOccupancy(@NotNull UUID worldId, int portalId) {
+        return table.getOccupancy(worldId, portalId);
+    }
+    
+    public int getTrackedCount() {
+        return table.getDwellingCount();
+    }
+}
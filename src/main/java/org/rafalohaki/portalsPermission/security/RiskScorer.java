@@ -0,0 +1,378 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjDoubleConsumer;
+import java.util.logging.Level;
+
+/**
+ * Scores player movement off the main thread from per-tick position snapshots
+ * Ocenia ruch graczy poza głównym wątkiem na podstawie migawek pozycji z każdego ticku
+ *
+ * <p>Each tick the main thread only copies positions of slotted players into an immutable,
+ * slot-ordered frame; the server-side velocity is not sampled, since it does not follow client
+ * movement. Every {@link #STRIDE_TICKS} ticks the last {@code security.risk_scoring.window_ticks}
+ * frames are handed to a worker, which walks consecutive frames and scores speed and acceleration
+ * derived from position deltas; teleport gaps break the chain instead of reading as speed. A
+ * verdict needs at least {@link #MIN_FAST_SAMPLES} samples over the speed threshold, so a single
+ * lagged packet never flags a player. Only samples newer than the previous window are scored, so
+ * overlapping windows never report the same sample twice. Verdicts return through a lock-free
+ * queue and are applied at the start of the next tick on the main thread.</p>
+ */
+public final class RiskScorer {
+    
+    public static final double MAX_SPEED_PER_TICK = 0.5;
+    public static final double MAX_VELOCITY = 2.0;
+    
+    private static final int STRIDE_TICKS = 5;
+    private static final double MAX_ACCELERATION = 0.6;
+    private static final double TELEPORT_GAP_BLOCKS = 8.0;
+    private static final double TELEPORT_GAP_SCORE = 0.25;
+    private static final double VERDICT_SCORE = 1.0;
+    private static final int MIN_FAST_SAMPLES = 2;
+    
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final PlayerSlotRegistry playerSlots;
+    private final PortalClock clock;
+    private final ObjDoubleConsumer<Player> verdictAction;
+    
+    // Main thread: the ring of recent frames
+    private Frame[] ring = new Frame[0];
+    private int ringHead;
+    private int ringSize;
+    private int ticksSinceSubmit;
+    private int lastSubmittedTick = Integer.MIN_VALUE;
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private BukkitTask tickTask;
+    private ExecutorService pool;
+    
+    // Shared with workers
+    private final Queue<Verdict> verdicts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong windowsScored = new AtomicLong();
+    private final AtomicLong verdictsIssued = new AtomicLong();
+    private long windowsDropped;
+    
+    /**
+     * Constructor for RiskScorer
+     * Konstruktor dla RiskScorer
+     *
+     * @param verdictAction Applied on the main thread to a flagged player, with its score
+     */
+    public RiskScorer(@NotNull JavaPlugin plugin,
+                      @NotNull ConfigManager configManager,
+                      @NotNull PlayerSlotRegistry playerSlots,
+                      @NotNull PortalClock clock,
+                      @NotNull ObjDoubleConsumer<Player> verdictAction) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.playerSlots = playerSlots;
+        this.clock = clock;
+        this.verdictAction = verdictAction;
+    }
+    
+    /**
+     * Starts the per-tick capture task; main thread only
+     * Uruchamia zadanie przechwytywania co tick; tylko główny wątek
+     */
+    public void start() {
+        if (tickTask == null) {
+            tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+    
+    private void tick() {
+        // Verdicts from the previous windows are applied before anything else this tick
+        applyVerdicts();
+        
+        if (!configManager.isRiskScoringEnabled()) {
+            if (ringSize > 0) {
+                resetRing();
+            }
+            return;
+        }
+        
+        int window = configManager.getRiskWindowTicks();
+        if (ring.length != window) {
+            ring = new Frame[window];
+            resetRing();
+        }
+        
+        ring[ringHead] = capture(clock.getTick());
+        ringHead = (ringHead + 1) % ring.length;
+        ringSize = Math.min(ringSize + 1, ring.length);
+        
+        if (++ticksSinceSubmit >= STRIDE_TICKS && ringSize > 1) {
+            ticksSinceSubmit = 0;
+            submit();
+        }
+    }
+    
+    private void resetRing() {
+        Arrays.fill(ring, null);
+        ringHead = 0;
+        ringSize = 0;
+        ticksSinceSubmit = 0;
+        lastSubmittedTick = Integer.MIN_VALUE;
+    }
+    
+    /**
+     * Copies every slotted player's position into a slot-ordered frame
+     * Kopiuje pozycję każdego gracza ze slotem do ramki uporządkowanej według slotów
+     */
+    private @NotNull Frame capture(int tick) {
+        int highWater = playerSlots.getHighWater();
+        Frame frame = new Frame(tick, playerSlots.getActiveCount());
+        
+        for (int slot = 0; slot < highWater && frame.count < frame.slots.length; slot++) {
+            UUID playerId = playerSlots.getOwner(slot);
+            Player player = playerId != null ? Bukkit.getPlayer(playerId) : null;
+            if (player == null) {
+                continue;
+            }
+            
+            player.getLocation(scratch);
+            World world = scratch.getWorld();
+            int i = frame.count++;
+            frame.slots[i] = slot;
+            frame.players[i] = playerId;
+            frame.worlds[i] = world != null ? world.getUID().getLeastSignificantBits() : 0L;
+            frame.x[i] = scratch.getX();
+            frame.y[i] = scratch.getY();
+            frame.z[i] = scratch.getZ();
+        }
+        return frame;
+    }
+    
+    private void submit() {
+        // A busy pool means scoring falls behind; drop the window rather than queue work without bound
+        if (inFlight.get() >= configManager.getRiskScoringThreads()) {
+            windowsDropped++;
+            return;
+        }
+        
+        Frame[] window = new Frame[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            window[i] = ring[(ringHead - ringSize + i + ring.length) % ring.length];
+        }
+        int scoreAfterTick = lastSubmittedTick;
+        lastSubmittedTick = window[window.length - 1].tick;
+        
+        if (pool == null) {
+            // Pool size is fixed once created; changing security.risk_scoring.threads needs a restart
+            AtomicInteger threadIndex = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(configManager.getRiskScoringThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "PortalsPermission-Risk-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        inFlight.incrementAndGet();
+        pool.execute(() -> {
+            try {
+                score(window, scoreAfterTick);
+                windowsScored.incrementAndGet();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Error scoring player movement window", e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+    
+    /**
+     * Scores one window of frames; runs on a worker and touches nothing but the frames
+     * Ocenia jedno okno ramek; działa na wątku roboczym i dotyka tylko ramek
+     *
+     * @param scoreAfterTick Samples at or before this tick were scored by an earlier window
+     */
+    private void score(Frame @NotNull [] window, int scoreAfterTick) {
+        int slotCount = 0;
+        for (Frame frame : window) {
+            if (frame.count > 0) {
+                slotCount = Math.max(slotCount, frame.slots[frame.count - 1] + 1);
+            }
+        }
+        double[] lastSpeed = new double[slotCount];
+        boolean[] hasSpeed = new boolean[slotCount];
+        double[] scores = new double[slotCount];
+        int[] fastSamples = new int[slotCount];
+        UUID[] flagged = new UUID[slotCount];
+        
+        for (int f = 1; f < window.length; f++) {
+            Frame prev = window[f - 1];
+            Frame cur = window[f];
+            boolean fresh = cur.tick > scoreAfterTick;
+            int ticks = Math.max(1, cur.tick - prev.tick);
+            
+            // Both frames are ordered by slot, so matching players is a linear merge
+            int i = 0;
+            int j = 0;
+            while (i < prev.count && j < cur.count) {
+                int prevSlot = prev.slots[i];
+                int slot = cur.slots[j];
+                if (prevSlot < slot) {
+                    i++;
+                    continue;
+                }
+                if (prevSlot > slot) {
+                    j++;
+                    continue;
+                }
+                
+                if (!prev.players[i].equals(cur.players[j])) {
+                    // The slot changed hands between frames
+                    hasSpeed[slot] = false;
+                    scores[slot] = 0.0;
+                    fastSamples[slot] = 0;
+                    flagged[slot] = null;
+                } else {
+                    double dx = cur.x[j] - prev.x[i];
+                    double dy = cur.y[j] - prev.y[i];
+                    double dz = cur.z[j] - prev.z[i];
+                    double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                    
+                    if (prev.worlds[i] != cur.worlds[j] || distance > TELEPORT_GAP_BLOCKS * ticks) {
+                        // A teleport is not movement; start a new chain after it
+                        hasSpeed[slot] = false;
+                        if (fresh) {
+                            scores[slot] += TELEPORT_GAP_SCORE;
+                        }
+                    } else {
+                        double speed = distance / ticks;
+                        if (fresh) {
+                            if (speed > MAX_SPEED_PER_TICK) {
+                                scores[slot] += 1.0;
+                                fastSamples[slot]++;
+                            }
+                            if (hasSpeed[slot] && Math.abs(speed - lastSpeed[slot]) / ticks > MAX_ACCELERATION) {
+                                scores[slot] += 0.5;
+                            }
+                            flagged[slot] = cur.players[j];
+                        }
+                        lastSpeed[slot] = speed;
+                        hasSpeed[slot] = true;
+                    }
+                }
+                i++;
+                j++;
+            }
+        }
+        
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (scores[slot] >= VERDICT_SCORE && fastSamples[slot] >= MIN_FAST_SAMPLES && flagged[slot] != null) {
+                verdicts.add(new Verdict(flagged[slot], scores[slot]));
+                verdictsIssued.incrementAndGet();
+            }
+        }
+    }
+    
+    private void applyVerdicts() {
+        Verdict verdict;
+        while ((verdict = verdicts.poll()) != null) {
+            Player player = Bukkit.getPlayer(verdict.playerId());
+            if (player == null) {
+                continue;
+            }
+            
+            try {
+                verdictAction.accept(player, verdict.score());
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Error applying movement risk verdict for player: " + player.getName(), e);
+            }
+        }
+    }
+    
+    /**
+     * Stops capturing and the worker pool; pending verdicts are dropped
+     * Zatrzymuje przechwytywanie i pulę wątków; oczekujące werdykty są odrzucane
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        resetRing();
+        verdicts.clear();
+        
+        if (pool != null) {
+            pool.shutdownNow();
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pool = null;
+        }
+    }
+    
+    public int getBufferedFrameCount() {
+        return ringSize;
+    }
+    
+    public long getWindowsScored() {
+        return windowsScored.get();
+    }
+    
+    public long getVerdictsIssued() {
+        return verdictsIssued.get();
+    }
+    
+    public long getWindowsDropped() {
+        return windowsDropped;
+    }
+    
+    public void resetCounters() {
+        windowsScored.set(0);
+        verdictsIssued.set(0);
+        windowsDropped = 0;
+    }
+    
+    /**
+     * One tick of player samples in slot order; never written after capture
+     * Jeden tick próbek graczy w kolejności slotów; nigdy nie zmieniany po przechwyceniu
+     */
+    private static final class Frame {
+        private final int tick;
+        private final int[] slots;
+        private final UUID[] players;
+        private final long[] worlds;
+        private final double[] x;
+        private final double[] y;
+        private final double[] z;
+        private int count;
+        
+        private Frame(int tick, int capacity) {
+            this.tick = tick;
+            this.slots = new int[capacity];
+            this.players = new UUID[capacity];
+            this.worlds = new long[capacity];
+            this.x = new double[capacity];
+            this.y = new double[capacity];
+            this.z = new double[capacity];
+        }
+    }
+    
+    private record Verdict(@NotNull UUID playerId, double score) {
+    }
+}
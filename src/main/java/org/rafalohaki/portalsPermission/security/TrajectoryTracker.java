@@ -0,0 +1,273 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.portal.PortalLocationIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Predicts whether gliding or fast-moving players are about to fly into a portal
+ * Przewiduje czy szybujący lub szybko poruszający się gracze zaraz wlecą do portalu
+ *
+ * <p>Only players in a small active set are followed: those gliding, and for a short window
+ * those who boosted or received a large velocity. Every tick each player's displacement since the
+ * previous tick is projected a few ticks ahead and ray-marched voxel by voxel through the
+ * {@link PortalLocationIndex}, so the cost is the active set size, not world block lookups. The
+ * displacement comes from consecutive positions, since the server-side velocity does not follow
+ * client movement. Main thread only.</p>
+ */
+public final class TrajectoryTracker {
+    
+    private static final int BOOST_TRACK_TICKS = 40;
+    private static final int INTERDICT_REPEAT_TICKS = 20;
+    private static final int MAX_MARCH_STEPS = 96;
+    // Longer jumps between two ticks are teleports, not flight
+    private static final double MAX_TICK_DISPLACEMENT_SQUARED = 10.0 * 10.0;
+    
+    private final JavaPlugin plugin;
+    private final ConfigManager configManager;
+    private final PortalLocationIndex portalIndex;
+    private final PortalClock clock;
+    private final Consumer<Player> interdiction;
+    private final List<Tracked> active = new ArrayList<>();
+    private final Map<UUID, Tracked> byPlayer = new HashMap<>();
+    private BukkitTask tickTask;
+    private long interdictions;
+    
+    /**
+     * Constructor for TrajectoryTracker
+     * Konstruktor dla TrajectoryTracker
+     *
+     * @param interdiction Action applied to a player whose projected path crosses a portal
+     */
+    public TrajectoryTracker(@NotNull JavaPlugin plugin,
+                             @NotNull ConfigManager configManager,
+                             @NotNull PortalLocationIndex portalIndex,
+                             @NotNull PortalClock clock,
+                             @NotNull Consumer<Player> interdiction) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.portalIndex = portalIndex;
+        this.clock = clock;
+        this.interdiction = interdiction;
+    }
+    
+    /**
+     * Starts or stops following a gliding player
+     * Rozpoczyna lub kończy śledzenie szybującego gracza
+     */
+    public void setGliding(@NotNull Player player, boolean gliding) {
+        if (gliding) {
+            track(player, 0);
+        } else {
+            Tracked tracked = byPlayer.get(player.getUniqueId());
+            // Keep boosted players until their window ends
+            if (tracked != null && tracked.trackUntilTick <= clock.getTick()) {
+                untrack(tracked);
+            }
+        }
+    }
+    
+    /**
+     * Follows a player for a short window after a boost or a large velocity change
+     * Śledzi gracza przez krótki czas po boostcie lub dużej zmianie prędkości
+     */
+    public void trackBurst(@NotNull Player player) {
+        track(player, clock.getTick() + BOOST_TRACK_TICKS);
+    }
+    
+    private void track(@NotNull Player player, int untilTick) {
+        Tracked tracked = byPlayer.get(player.getUniqueId());
+        if (tracked == null) {
+            tracked = new Tracked(player);
+            byPlayer.put(player.getUniqueId(), tracked);
+            active.add(tracked);
+        }
+        tracked.trackUntilTick = Math.max(tracked.trackUntilTick, untilTick);
+        
+        if (tickTask == null) {
+            tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+    
+    private void untrack(@NotNull Tracked tracked) {
+        byPlayer.remove(tracked.player.getUniqueId());
+        active.remove(tracked);
+    }
+    
+    /**
+     * Projects and ray-marches every active player; the task stops itself when the set is empty
+     * Rzutuje i śledzi promień każdego aktywnego gracza; zadanie zatrzymuje się gdy zbiór jest pusty
+     */
+    private void tick() {
+        int now = clock.getTick();
+        int lookahead = configManager.getTrajectoryLookaheadTicks();
+        
+        for (int i = active.size() - 1; i >= 0; i--) {
+            Tracked tracked = active.get(i);
+            Player player = tracked.player;
+            
+            if (!player.isOnline() || player.isDead() || (!player.isGliding() && tracked.trackUntilTick <= now)) {
+                // Swap-remove keeps the per-tick loop free of shifting
+                Tracked last = active.remove(active.size() - 1);
+                if (last != tracked) {
+                    active.set(i, last);
+                }
+                byPlayer.remove(player.getUniqueId());
+                continue;
+            }
+            
+            try {
+                Location location = player.getLocation();
+                World world = location.getWorld();
+                double x = location.getX();
+                double y = location.getY();
+                double z = location.getZ();
+                
+                // Displacement per tick from the previous sample; the first sample only primes it
+                boolean sampled = tracked.lastWorld == world && tracked.lastTick == now - 1;
+                double dx = x - tracked.lastX;
+                double dy = y - tracked.lastY;
+                double dz = z - tracked.lastZ;
+                tracked.lastWorld = world;
+                tracked.lastTick = now;
+                tracked.lastX = x;
+                tracked.lastY = y;
+                tracked.lastZ = z;
+                
+                if (world == null || !sampled || dx * dx + dy * dy + dz * dz > MAX_TICK_DISPLACEMENT_SQUARED
+                        || now - tracked.lastInterdictTick < INTERDICT_REPEAT_TICKS) {
+                    continue;
+                }
+                
+                if (crossesPortal(world, x, y, z, dx * lookahead, dy * lookahead, dz * lookahead)) {
+                    tracked.lastInterdictTick = now;
+                    interdictions++;
+                    interdiction.accept(player);
+                    
+                    if (configManager.isDebugMode()) {
+                        plugin.getLogger().info("Player " + player.getName() + " projected to reach a portal within "
+                            + lookahead + " ticks - interdicted");
+                    }
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Trajectory check failed for player " + player.getName(), e);
+            }
+        }
+        
+        if (active.isEmpty() && tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+    
+    /**
+     * Walks the voxels along a displacement (Amanatides-Woo) and checks feet and head blocks
+     * Przechodzi przez woksele wzdłuż przemieszczenia (Amanatides-Woo) i sprawdza bloki stóp i głowy
+     */
+    private boolean crossesPortal(@NotNull World world, double x, double y, double z, double dx, double dy, double dz) {
+        int bx = (int) Math.floor(x);
+        int by = (int) Math.floor(y);
+        int bz = (int) Math.floor(z);
+        
+        int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        int stepZ = dz > 0 ? 1 : (dz < 0 ? -1 : 0);
+        
+        double tDeltaX = stepX != 0 ? 1.0 / Math.abs(dx) : Double.POSITIVE_INFINITY;
+        double tDeltaY = stepY != 0 ? 1.0 / Math.abs(dy) : Double.POSITIVE_INFINITY;
+        double tDeltaZ = stepZ != 0 ? 1.0 / Math.abs(dz) : Double.POSITIVE_INFINITY;
+        
+        double tMaxX = stepX > 0 ? (bx + 1 - x) * tDeltaX : (stepX < 0 ? (x - bx) * tDeltaX : Double.POSITIVE_INFINITY);
+        double tMaxY = stepY > 0 ? (by + 1 - y) * tDeltaY : (stepY < 0 ? (y - by) * tDeltaY : Double.POSITIVE_INFINITY);
+        double tMaxZ = stepZ > 0 ? (bz + 1 - z) * tDeltaZ : (stepZ < 0 ? (z - bz) * tDeltaZ : Double.POSITIVE_INFINITY);
+        
+        for (int step = 0; step < MAX_MARCH_STEPS; step++) {
+            if (portalIndex.contains(world, bx, by, bz) || portalIndex.contains(world, bx, by + 1, bz)) {
+                return true;
+            }
+            
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                if (tMaxX > 1.0) {
+                    return false;
+                }
+                bx += stepX;
+                tMaxX += tDeltaX;
+            } else if (tMaxY < tMaxZ) {
+                if (tMaxY > 1.0) {
+                    return false;
+                }
+                by += stepY;
+                tMaxY += tDeltaY;
+            } else {
+                if (tMaxZ > 1.0) {
+                    return false;
+                }
+                bz += stepZ;
+                tMaxZ += tDeltaZ;
+            }
+        }
+        return false;
+    }
+    
+    public int getActiveCount() {
+        return active.size();
+    }
+    
+    public long getInterdictionCount() {
+        return interdictions;
+    }
+    
+    /**
+     * Stops following a player, e.g. on quit or death
+     * Przestaje śledzić gracza, np. przy wyjściu lub śmierci
+     */
+    public void remove(@NotNull Player player) {
+        Tracked tracked = byPlayer.get(player.getUniqueId());
+        if (tracked != null) {
+            untrack(tracked);
+        }
+    }
+    
+    /**
+     * Stops the tick task and forgets every player
+     * Zatrzymuje zadanie co tick i zapomina wszystkich graczy
+     */
+    public void clear() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        active.clear();
+        byPlayer.clear();
+    }
+    
+    private static final class Tracked {
+        private final Player player;
+        private int trackUntilTick;
+        private int lastInterdictTick = Integer.MIN_VALUE / 2;
+        private World lastWorld;
+        private int lastTick = Integer.MIN_VALUE / 2;
+        private double lastX;
+        private double lastY;
+        private double lastZ;
+        
+        private Tracked(@NotNull Player player) {
+            this.player = player;
+        }
+    }
+}
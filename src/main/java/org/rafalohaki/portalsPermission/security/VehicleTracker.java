@@ -0,0 +1,238 @@
+package org.rafalohaki.portalsPermission.security;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.portal.PortalKind;
+import org.rafalohaki.portalsPermission.portal.PortalLocationIndex;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.Long2ObjectHashMap;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+/**
+ * Tracks ridden vehicles approaching portals and caches whether their passengers may pass
+ * Śledzi pojazdy z pasażerami zbliżające się do portali i zapamiętuje czy pasażerowie mogą przejść
+ *
+ * <p>Vehicle moves are sampled only when the vehicle changes block and are answered from the
+ * {@link PortalLocationIndex}, so riding far from portals costs one index lookup per block.
+ * Passenger authorization is computed once per vehicle and portal type and reused until a
+ * passenger mounts or dismounts, or the entry ages out. Main thread only.</p>
+ */
+public final class VehicleTracker {
+    
+    private static final int ZONE_RADIUS = 1;
+    private static final int ZONE_HOLD_TICKS = 40;
+    private static final int AUTH_TTL_TICKS = 100;
+    private static final int SWEEP_INTERVAL_TICKS = 200;
+    
+    private final PortalMaterialRegistry materialRegistry;
+    private final PortalLocationIndex portalIndex;
+    private final IPortalPermissionChecker permissionChecker;
+    private final PortalClock clock;
+    
+    // Entity id -> vehicle state; entity ids are unique for the server session
+    private final Long2ObjectHashMap<VehicleState> states = new Long2ObjectHashMap<>();
+    private int lastSweepTick;
+    private long samples;
+    private long portalHits;
+    
+    /**
+     * Constructor for VehicleTracker
+     * Konstruktor dla VehicleTracker
+     */
+    public VehicleTracker(@NotNull PortalMaterialRegistry materialRegistry,
+                          @NotNull PortalLocationIndex portalIndex,
+                          @NotNull IPortalPermissionChecker permissionChecker,
+                          @NotNull PortalClock clock) {
+        this.materialRegistry = materialRegistry;
+        this.portalIndex = portalIndex;
+        this.permissionChecker = permissionChecker;
+        this.clock = clock;
+    }
+    
+    /**
+     * Samples a vehicle move; only block changes of ridden vehicles reach the portal index
+     * Próbkuje ruch pojazdu; tylko zmiany bloku pojazdów z pasażerami trafiają do indeksu portali
+     *
+     * @return true if the vehicle is now within a portal zone
+     */
+    public boolean onVehicleMove(@NotNull Entity vehicle, @NotNull Location from, @NotNull Location to) {
+        if (vehicle.isEmpty()) {
+            return false;
+        }
+        
+        int x = to.getBlockX();
+        int y = to.getBlockY();
+        int z = to.getBlockZ();
+        if (x == from.getBlockX() && y == from.getBlockY() && z == from.getBlockZ()) {
+            return false;
+        }
+        
+        int now = clock.getTick();
+        samples++;
+        sweepIfDue(now);
+        
+        World world = to.getWorld();
+        return world != null && markIfNearPortal(vehicle, world, x, y, z, now);
+    }
+    
+    /**
+     * Marks a vehicle as within a portal zone if an indexed portal block is next to the given position
+     * Oznacza pojazd jako będący w strefie portalu jeśli obok podanej pozycji jest zindeksowany blok portalu
+     *
+     * @return true if a portal was found
+     */
+    public boolean markIfNearPortal(@NotNull Entity vehicle, @NotNull World world, int x, int y, int z, int now) {
+        long key = portalIndex.findNearby(world, x, y, z, ZONE_RADIUS);
+        if (key == Long.MIN_VALUE) {
+            return false;
+        }
+        
+        int px = BlockKeys.blockX(key);
+        int py = BlockKeys.blockY(key);
+        int pz = BlockKeys.blockZ(key);
+        PortalKind kind = materialRegistry.classify(world.getBlockAt(px, py, pz));
+        if (kind == PortalKind.NONE) {
+            // The portal was broken since it was indexed
+            portalIndex.removeBlock(world.getUID(), px, py, pz);
+            return false;
+        }
+        
+        portalHits++;
+        VehicleState state = states.computeIfAbsent(vehicle.getEntityId(), id -> new VehicleState());
+        state.zoneUntilTick = now + ZONE_HOLD_TICKS;
+        
+        // End frames mark the zone but carry no destination type of their own
+        PortalType type = kind.getPortalType();
+        if (type != null) {
+            state.portalType = type;
+        }
+        return true;
+    }
+    
+    /**
+     * Marks a vehicle as within a portal zone regardless of the index, e.g. when mounted next to a portal
+     * Oznacza pojazd jako będący w strefie portalu niezależnie od indeksu, np. przy wsiadaniu obok portalu
+     */
+    public void markZone(@NotNull Entity vehicle) {
+        VehicleState state = states.computeIfAbsent(vehicle.getEntityId(), id -> new VehicleState());
+        state.zoneUntilTick = clock.getTick() + ZONE_HOLD_TICKS;
+    }
+    
+    /**
+     * Checks if a vehicle was recently seen next to a portal
+     * Sprawdza czy pojazd był niedawno widziany obok portalu
+     */
+    public boolean isInPortalZone(@NotNull Entity vehicle) {
+        VehicleState state = states.get(vehicle.getEntityId());
+        return state != null && state.zoneUntilTick >= clock.getTick();
+    }
+    
+    /**
+     * Gets the portal type last seen next to a vehicle
+     * Pobiera typ portalu ostatnio widzianego obok pojazdu
+     */
+    public @Nullable PortalType getZonePortalType(@NotNull Entity vehicle) {
+        VehicleState state = states.get(vehicle.getEntityId());
+        return state != null ? state.portalType : null;
+    }
+    
+    /**
+     * Checks if every player riding the vehicle may use the given portal type; cached per vehicle
+     * Sprawdza czy każdy gracz jadący pojazdem może użyć danego typu portalu; zapamiętywane per pojazd
+     *
+     * <p>Non-player passengers never need permission, matching vanilla mob travel.</p>
+     */
+    public boolean isAuthorized(@NotNull Entity vehicle, @NotNull PortalType type) {
+        int now = clock.getTick();
+        VehicleState state = states.computeIfAbsent(vehicle.getEntityId(), id -> new VehicleState());
+        if (state.authType == type && now - state.authTick < AUTH_TTL_TICKS) {
+            return state.authorized;
+        }
+        
+        boolean authorized = true;
+        Location location = vehicle.getLocation();
+        for (Entity passenger : vehicle.getPassengers()) {
+            if (passenger instanceof Player player && !permissionChecker.decide(player, location, type).isAllowed()) {
+                authorized = false;
+                break;
+            }
+        }
+        
+        state.authType = type;
+        state.authTick = now;
+        state.authorized = authorized;
+        return authorized;
+    }
+    
+    /**
+     * Drops the cached passenger authorization after a passenger change
+     * Usuwa zapamiętaną autoryzację pasażerów po zmianie pasażera
+     */
+    public void invalidate(@NotNull Entity vehicle) {
+        VehicleState state = states.get(vehicle.getEntityId());
+        if (state != null) {
+            state.authType = null;
+        }
+    }
+    
+    /**
+     * Forgets a vehicle, e.g. when it is removed from its world
+     * Zapomina pojazd, np. gdy zostaje usunięty ze świata
+     */
+    public void remove(@NotNull Entity vehicle) {
+        states.remove(vehicle.getEntityId());
+    }
+    
+    /**
+     * Drops every cached authorization, e.g. after permissions or policy were reloaded
+     * Usuwa wszystkie zapamiętane autoryzacje, np. po przeładowaniu uprawnień lub polityki
+     */
+    public void invalidateAll() {
+        states.forEach((key, state) -> state.authType = null);
+    }
+    
+    public void clear() {
+        states.clear();
+    }
+    
+    public int getTrackedCount() {
+        return states.size();
+    }
+    
+    public long getSampleCount() {
+        return samples;
+    }
+    
+    public long getPortalHitCount() {
+        return portalHits;
+    }
+    
+    private void sweepIfDue(int now) {
+        if (now - lastSweepTick < SWEEP_INTERVAL_TICKS) {
+            return;
+        }
+        lastSweepTick = now;
+        
+        for (long key : states.keys()) {
+            VehicleState state = states.get(key);
+            if (state != null && state.zoneUntilTick < now && now - state.authTick >= AUTH_TTL_TICKS) {
+                states.remove(key);
+            }
+        }
+    }
+    
+    private static final class VehicleState {
+        private int zoneUntilTick = Integer.MIN_VALUE;
+        private @Nullable PortalType portalType;
+        private @Nullable PortalType authType;
+        private int authTick;
+        private boolean authorized;
+    }
+}
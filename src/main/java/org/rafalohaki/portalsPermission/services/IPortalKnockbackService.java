@@ -6,6 +6,8 @@ import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.policy.KnockbackProfile;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -25,6 +27,26 @@ public interface IPortalKnockbackService {
      */
     @NotNull CompletableFuture<Void> applyKnockbackAsync(@NotNull Player player, @NotNull Location portalLocation);
     
+    /**
+     * Applies knockback using an already resolved profile, skipping the portal block lookup
+     * Stosuje knockback z już ustalonym profilem, pomijając odczyt bloku portalu
+     * 
+     * @param player The player to apply knockback to
+     * @param portalLocation The portal location
+     * @param profile The knockback profile from the access decision
+     * @return CompletableFuture that completes when knockback is applied
+     */
+    @NotNull CompletableFuture<Void> applyKnockbackAsync(@NotNull Player player, @NotNull Location portalLocation, @NotNull KnockbackProfile profile);
+    
+    /**
+     * Applies knockback for a resolved portal decision context
+     * Stosuje knockback dla ustalonego kontekstu decyzji portalu
+     * 
+     * @param context The per-event decision context (not retained after the call)
+     * @return CompletableFuture that completes when knockback is applied
+     */
+    @NotNull CompletableFuture<Void> applyKnockbackAsync(@NotNull PortalDecisionContext context);
+    
     /**
      * Calculates knockback vector for player
      * Oblicza wektor knockbacku dla gracza
@@ -42,6 +64,23 @@ public interface IPortalKnockbackService {
                                            double strength, 
                                            double height);
     
+    /**
+     * Calculates knockback vector for player using a knockback profile
+     * Oblicza wektor knockbacku dla gracza używając profilu knockbacku
+     * 
+     * @param playerLocation The player's location
+     * @param portalLocation The portal location
+     * @param profile The knockback profile
+     * @param strength The knockback strength
+     * @param height The knockback height
+     * @return The calculated knockback vector
+     */
+    @NotNull Vector calculateKnockbackVector(@NotNull Location playerLocation, 
+                                           @NotNull Location portalLocation,
+                                           @NotNull KnockbackProfile profile, 
+                                           double strength, 
+                                           double height);
+    
     /**
      * Gets target environment from portal location
      * Pobiera docelowe środowisko z lokalizacji portalu
@@ -2,6 +2,7 @@ package org.rafalohaki.portalsPermission.services;
 
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
 
 /**
  * Interface for portal message service
@@ -36,6 +37,14 @@ public interface IPortalMessageService {
      */
     void sendPermissionDeniedMessage(@NotNull Player player, @NotNull String messageKey);
     
+    /**
+     * Sends a permission denied message using the context's decision
+     * Wysyła wiadomość o braku uprawnień używając decyzji z kontekstu
+     * 
+     * @param context The per-event decision context
+     */
+    void sendPermissionDeniedMessage(@NotNull PortalDecisionContext context);
+    
     /**
      * Checks if cooldown messages are enabled
      * Sprawdza czy wiadomości o cooldownie są włączone
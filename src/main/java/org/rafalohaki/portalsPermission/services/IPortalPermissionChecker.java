@@ -1,10 +1,14 @@
 package org.rafalohaki.portalsPermission.services;
 
-import org.bukkit.World;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.policy.Decision;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.policy.PortalPolicy;
+import org.rafalohaki.portalsPermission.utils.PortalType;
 
 /**
  * Interface for portal permission checking service
@@ -22,6 +26,45 @@ public interface IPortalPermissionChecker {
      */
     boolean hasPortalPermission(@NotNull Player player, @NotNull PlayerPortalEvent event);
     
+    /**
+     * Checks if player has permission to use the portal, reusing the resolved context
+     * Sprawdza czy gracz ma uprawnienia do użycia portalu, używając ustalonego kontekstu
+     * 
+     * @param context The per-event decision context
+     * @return true if player has permission, false otherwise
+     */
+    boolean hasPortalPermission(@NotNull PortalDecisionContext context);
+    
+    /**
+     * Decides portal access from the precomputed decision table
+     * Decyduje o dostępie do portalu na podstawie wstępnie obliczonej tablicy decyzji
+     * 
+     * @param player The player to check
+     * @param event The portal event
+     * @return The decision, including message key and knockback profile
+     */
+    @NotNull Decision decide(@NotNull Player player, @NotNull PlayerPortalEvent event);
+    
+    /**
+     * Decides portal access for a resolved context and caches the decision in it
+     * Decyduje o dostępie do portalu dla ustalonego kontekstu i zapisuje w nim decyzję
+     * 
+     * @param context The per-event decision context
+     * @return The decision, including message key and knockback profile
+     */
+    @NotNull Decision decide(@NotNull PortalDecisionContext context);
+    
+    /**
+     * Decides portal access for a player about to use a portal without a portal event, e.g. as a vehicle passenger
+     * Decyduje o dostępie do portalu dla gracza bez zdarzenia portalu, np. jako pasażera pojazdu
+     * 
+     * @param player The player to check
+     * @param location Where the portal is entered; portal regions are checked here
+     * @param type The portal type
+     * @return The decision, including message key and knockback profile
+     */
+    @NotNull Decision decide(@NotNull Player player, @NotNull Location location, @NotNull PortalType type);
+    
     /**
      * Checks if player has bypass permission
      * Sprawdza czy gracz ma uprawnienia do ominięcia
@@ -31,6 +74,23 @@ public interface IPortalPermissionChecker {
      */
     boolean hasBypassPermission(@NotNull Player player);
     
+    /**
+     * Gets the currently compiled access policy
+     * Pobiera aktualnie skompilowaną politykę dostępu
+     * 
+     * @return The compiled policy (EMPTY when no rules are configured)
+     */
+    @NotNull PortalPolicy getPolicy();
+    
+    /**
+     * Gets the portal type reported by a provider at the event location, else of the block
+     * Pobiera typ portalu zgłoszony przez dostawcę w miejscu zdarzenia, w przeciwnym razie typ bloku
+     * 
+     * @param event The portal event
+     * @return The portal type
+     */
+    @NotNull PortalType getPortalType(@NotNull PlayerPortalEvent event);
+    
     /**
      * Gets the target environment for the portal
      * Pobiera docelowe środowisko dla portalu
@@ -6,11 +6,18 @@ import org.bukkit.event.entity.EntityPortalEnterEvent;
 import io.papermc.paper.event.entity.EntityPortalReadyEvent;
 import org.bukkit.event.vehicle.VehicleEnterEvent;
 import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.security.EntitySecurityTable;
+import org.rafalohaki.portalsPermission.security.LoadGovernor;
+import org.rafalohaki.portalsPermission.security.MovementSweeper;
+import org.rafalohaki.portalsPermission.security.RiskScorer;
 
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -43,6 +50,12 @@ public interface IPortalSecurityService {
      */
     void handleVehicleExit(@NotNull VehicleExitEvent event);
     
+    /**
+     * Handles vehicle move event - tracks ridden vehicles approaching portals
+     * Obsługuje zdarzenie ruchu pojazdu - śledzi pojazdy z pasażerami zbliżające się do portali
+     */
+    void handleVehicleMove(@NotNull VehicleMoveEvent event);
+    
     /**
      * Sets portal cooldown for entity asynchronously
      * Ustawia cooldown portalu dla encji asynchronicznie
@@ -68,8 +81,8 @@ public interface IPortalSecurityService {
     void removeEntityPortalCooldown(@NotNull Entity entity);
     
     /**
-     * Checks if player is in vehicle within portal area
-     * Sprawdza czy gracz jest w pojeździe w obszarze portalu
+     * Checks if player rides a vehicle within a portal area with passengers not all authorized
+     * Sprawdza czy gracz jedzie pojazdem w obszarze portalu z pasażerami bez pełnych uprawnień
      */
     boolean isPlayerInVehicleInPortal(@NotNull Player player);
     
@@ -77,7 +90,7 @@ public interface IPortalSecurityService {
      * Tracks entity portal entry time for long-stay detection
      * Śledzi czas wejścia encji do portalu dla wykrywania długiego przebywania
      */
-    void trackEntityPortalEntry(@NotNull Entity entity);
+    void trackEntityPortalEntry(@NotNull Entity entity, @NotNull Location portalLocation);
     
     /**
      * Removes entity portal entry tracking
@@ -91,6 +104,54 @@ public interface IPortalSecurityService {
      */
     boolean hasEntityBeenInPortalTooLong(@NotNull Entity entity);
     
+    /**
+     * Gets the number of entities currently inside a cataloged portal
+     * Pobiera liczbę encji obecnie znajdujących się w skatalogowanym portalu
+     */
+    int getPortalOccupancy(@NotNull UUID worldId, int portalId);
+    
+    /**
+     * Gets the number of entities currently inside any portal
+     * Pobiera liczbę encji obecnie znajdujących się w dowolnym portalu
+     */
+    int getEntitiesInPortalsCount();
+    
+    /**
+     * Gets the last published read-only copy of the per-entity security state; safe from any thread
+     * Pobiera ostatnio opublikowaną kopię stanu zabezpieczeń encji tylko do odczytu; bezpieczne z dowolnego wątku
+     */
+    @NotNull EntitySecurityTable.Snapshot getStateSnapshot();
+    
+    /**
+     * Gets the per-tick movement pass used when batched movement checks are enabled
+     * Pobiera przebieg ruchu na tick używany gdy włączone jest grupowe sprawdzanie ruchu
+     */
+    @NotNull MovementSweeper getMovementSweeper();
+    
+    /**
+     * Gets the off-thread movement risk scorer
+     * Pobiera ocenę ryzyka ruchu działającą poza głównym wątkiem
+     */
+    @NotNull RiskScorer getRiskScorer();
+    
+    /**
+     * Gets the governor choosing the check tier from the server's tick time
+     * Pobiera regulator wybierający poziom sprawdzeń na podstawie czasu ticku serwera
+     */
+    @NotNull LoadGovernor getLoadGovernor();
+    
+    /**
+     * Drops every piece of security state held for an entity, e.g. on quit, death or removal
+     * Usuwa cały stan zabezpieczeń przechowywany dla encji, np. przy wyjściu, śmierci lub usunięciu
+     */
+    void evictEntity(@NotNull Entity entity);
+    
+    /**
+     * Drops security state for every entity of a world that is being unloaded
+     * Usuwa stan zabezpieczeń wszystkich encji świata, który jest wyładowywany
+     */
+    void evictWorld(@NotNull World world);
+    
     /**
      * Clears all portal security data
      * Czyści wszystkie dane zabezpieczeń portali
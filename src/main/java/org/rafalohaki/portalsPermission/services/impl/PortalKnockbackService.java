@@ -2,7 +2,6 @@ package org.rafalohaki.portalsPermission.services.impl;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -10,8 +9,19 @@ import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.managers.VelocityTagManager;
+import org.rafalohaki.portalsPermission.policy.KnockbackMode;
+import org.rafalohaki.portalsPermission.policy.KnockbackProfile;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.portal.KnownPortal;
+import org.rafalohaki.portalsPermission.portal.PortalCatalog;
+import org.rafalohaki.portalsPermission.portal.PortalGeometry;
+import org.rafalohaki.portalsPermission.portal.PortalGeometryCache;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
 import org.rafalohaki.portalsPermission.services.IPortalKnockbackService;
 import org.rafalohaki.portalsPermission.services.ISoundService;
+import org.rafalohaki.portalsPermission.utils.PortalType;
 
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
@@ -25,6 +35,10 @@ public class PortalKnockbackService implements IPortalKnockbackService {
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final ISoundService soundService;
+    private final PortalMaterialRegistry materialRegistry;
+    private final PortalCatalog portalCatalog;
+    private final VelocityTagManager velocityTags;
+    private final PortalGeometryCache geometryCache;
     
     /**
      * Constructor for PortalKnockbackService
@@ -33,19 +47,51 @@ public class PortalKnockbackService implements IPortalKnockbackService {
      * @param plugin The plugin instance
      * @param configManager The configuration manager
      * @param soundService The sound service
+     * @param materialRegistry The portal material registry
+     * @param portalCatalog The portal catalog used for geometry knockback
+     * @param velocityTags Tags velocity set by this service so security checks skip it
+     * @param clock The clock timing cached portal geometry
      * @throws IllegalArgumentException if any parameter is null
      */
-    public PortalKnockbackService(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager, @NotNull ISoundService soundService) {
+    public PortalKnockbackService(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager,
+                                  @NotNull ISoundService soundService, @NotNull PortalMaterialRegistry materialRegistry,
+                                  @NotNull PortalCatalog portalCatalog, @NotNull VelocityTagManager velocityTags,
+                                  @NotNull PortalClock clock) {
         this.plugin = Objects.requireNonNull(plugin, "Plugin cannot be null");
         this.configManager = Objects.requireNonNull(configManager, "ConfigManager cannot be null");
         this.soundService = Objects.requireNonNull(soundService, "SoundService cannot be null");
+        this.materialRegistry = Objects.requireNonNull(materialRegistry, "Material registry cannot be null");
+        this.portalCatalog = Objects.requireNonNull(portalCatalog, "Portal catalog cannot be null");
+        this.velocityTags = Objects.requireNonNull(velocityTags, "Velocity tags cannot be null");
+        this.geometryCache = new PortalGeometryCache(Objects.requireNonNull(clock, "Clock cannot be null"));
+        portalCatalog.addRemovalListener(geometryCache::evict);
     }
     
     @Override
     @NotNull
     public CompletableFuture<Void> applyKnockbackAsync(@NotNull Player player, @NotNull Location portalLocation) {
+        Objects.requireNonNull(portalLocation, "Portal location cannot be null");
+        return applyKnockbackAsync(player, portalLocation, KnockbackProfile.forTarget(getTargetEnvironmentFromLocation(portalLocation)));
+    }
+    
+    @Override
+    @NotNull
+    public CompletableFuture<Void> applyKnockbackAsync(@NotNull PortalDecisionContext context) {
+        Objects.requireNonNull(context, "Context cannot be null");
+        // The context is pooled, so copy what the async task needs
+        return applyKnockbackAsync(context.getPlayer(), context.getFrom().clone(), context.getKnockbackProfile());
+    }
+    
+    @Override
+    @NotNull
+    public CompletableFuture<Void> applyKnockbackAsync(@NotNull Player player, @NotNull Location portalLocation, @NotNull KnockbackProfile profile) {
         Objects.requireNonNull(player, "Player cannot be null");
         Objects.requireNonNull(portalLocation, "Portal location cannot be null");
+        Objects.requireNonNull(profile, "Knockback profile cannot be null");
+        
+        if (KnockbackMode.fromConfig(configManager.getKnockbackMode()) == KnockbackMode.GEOMETRY) {
+            return applyGeometryKnockbackAsync(player, portalLocation, profile);
+        }
         
         CompletableFuture<Void> future = new CompletableFuture<>();
         
@@ -69,14 +115,13 @@ public class PortalKnockbackService implements IPortalKnockbackService {
                     return;
                 }
                 
-                World.Environment targetEnvironment = getTargetEnvironmentFromLocation(portalLocation);
                 double strength = configManager.getKnockbackStrength();
                 double height = configManager.getKnockbackHeight();
                 
                 Vector knockback = calculateKnockbackVector(
                     playerLocation, 
                     portalLocation, 
-                    targetEnvironment, 
+                    profile, 
                     strength, 
                     height
                 );
@@ -102,6 +147,106 @@ public class PortalKnockbackService implements IPortalKnockbackService {
         return future;
     }
     
+    /**
+     * Geometry mode: resolves the portal and its cached exit on the main thread, then sets velocity once
+     * Tryb geometry: ustala portal i jego zapamiętane wyjście na głównym wątku, potem ustawia prędkość raz
+     */
+    private @NotNull CompletableFuture<Void> applyGeometryKnockbackAsync(@NotNull Player player,
+                                                                       @NotNull Location portalLocation,
+                                                                       @NotNull KnockbackProfile profile) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                if (isKnockbackEnabled() && player.isOnline() && !player.isDead()) {
+                    applyVelocityOnce(player, calculateGeometryKnockbackVector(player.getLocation(), portalLocation, profile));
+                    playKnockbackSound(player);
+                }
+                future.complete(null);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+        
+        // The catalog and block checks belong on the main thread, where portal events already run
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+        return future;
+    }
+    
+    /**
+     * Calculates a push along the portal normal toward the cached safe exit on the player's side
+     * Oblicza odepchnięcie wzdłuż normalnej portalu w stronę zapamiętanego bezpiecznego wyjścia po stronie gracza
+     */
+    private @NotNull Vector calculateGeometryKnockbackVector(@NotNull Location playerLocation,
+                                                             @NotNull Location portalLocation,
+                                                             @NotNull KnockbackProfile profile) {
+        double strength = configManager.getKnockbackStrength();
+        double height = configManager.getKnockbackHeight();
+        World world = playerLocation.getWorld();
+        
+        KnownPortal portal = portalCatalog.getPortalAt(world,
+            portalLocation.getBlockX(), portalLocation.getBlockY(), portalLocation.getBlockZ());
+        if (portal == null) {
+            portal = portalCatalog.findNear(world,
+                portalLocation.getBlockX(), portalLocation.getBlockY(), portalLocation.getBlockZ(), 1);
+        }
+        PortalGeometry.Exit exit = portal != null
+            ? geometryCache.resolve(world, portal).chooseExit(playerLocation.getX(), playerLocation.getZ())
+            : null;
+        
+        if (exit == null) {
+            // Portal not cataloged yet or boxed in: fall back to pushing away from the event location
+            return calculateKnockbackVector(playerLocation, portalLocation, profile, strength, height);
+        }
+        
+        // Head for the exit, but never less than half the push along the outward normal
+        double dx = exit.x() - playerLocation.getX();
+        double dz = exit.z() - playerLocation.getZ();
+        double length = Math.sqrt(dx * dx + dz * dz);
+        if (length < 0.001) {
+            dx = exit.normalX();
+            dz = exit.normalZ();
+        } else {
+            dx /= length;
+            dz /= length;
+        }
+        double alongNormal = dx * exit.normalX() + dz * exit.normalZ();
+        if (alongNormal < 0.5) {
+            dx += exit.normalX() * (0.5 - alongNormal);
+            dz += exit.normalZ() * (0.5 - alongNormal);
+            double corrected = Math.sqrt(dx * dx + dz * dz);
+            dx /= corrected;
+            dz /= corrected;
+        }
+        
+        double horizontal = strength * profile.horizontalMultiplier();
+        double vertical = height * (0.3 + profile.verticalFactor());
+        if (exit.y() > playerLocation.getY() + 0.5) {
+            // The exit is a step up, so lift enough to clear it
+            vertical = Math.max(vertical, 0.42);
+        }
+        return new Vector(dx * horizontal, vertical, dz * horizontal);
+    }
+    
+    /**
+     * Sets velocity a single time without damage, so no damage events or armour wear are caused
+     * Ustawia prędkość jeden raz bez obrażeń, więc nie powoduje zdarzeń obrażeń ani zużycia zbroi
+     */
+    private void applyVelocityOnce(@NotNull Player player, @NotNull Vector knockback) {
+        if (!Double.isFinite(knockback.getX()) || !Double.isFinite(knockback.getY()) || !Double.isFinite(knockback.getZ())) {
+            return;
+        }
+        try {
+            velocityTags.tag(player, knockback);
+            player.setVelocity(knockback);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to apply knockback to player " + player.getName() + ": " + e.getMessage());
+        }
+    }
+    
     @Override
     @NotNull
     public Vector calculateKnockbackVector(@NotNull Location playerLocation, 
@@ -109,6 +254,16 @@ public class PortalKnockbackService implements IPortalKnockbackService {
                                          @Nullable World.Environment targetEnvironment, 
                                          double strength, 
                                          double height) {
+        return calculateKnockbackVector(playerLocation, portalLocation, KnockbackProfile.forTarget(targetEnvironment), strength, height);
+    }
+    
+    @Override
+    @NotNull
+    public Vector calculateKnockbackVector(@NotNull Location playerLocation, 
+                                         @NotNull Location portalLocation,
+                                         @NotNull KnockbackProfile profile, 
+                                         double strength, 
+                                         double height) {
         Objects.requireNonNull(playerLocation, "Player location cannot be null");
         Objects.requireNonNull(portalLocation, "Portal location cannot be null");
         
@@ -150,19 +305,11 @@ public class PortalKnockbackService implements IPortalKnockbackService {
         // Add minimum vertical component for knockback effect
         knockbackDirection.setY(Math.max(knockbackDirection.getY(), height * 0.3));
         
-        // Environment-specific adjustments
-        if (targetEnvironment == World.Environment.NETHER) {
-            // Stronger horizontal knockback for Nether portals
-            knockbackDirection.multiply(1.2);
-            knockbackDirection.setY(knockbackDirection.getY() + height * 0.2);
-        } else if (targetEnvironment == World.Environment.THE_END) {
-            // Moderate horizontal with some vertical for End portals
-            knockbackDirection.multiply(1.1);
-            knockbackDirection.setY(knockbackDirection.getY() + height * 0.4);
-        } else {
-            // Normal world - balanced knockback
-            knockbackDirection.setY(knockbackDirection.getY() + height * 0.3);
+        // Destination-specific adjustments
+        if (profile.horizontalMultiplier() != 1.0) {
+            knockbackDirection.multiply(profile.horizontalMultiplier());
         }
+        knockbackDirection.setY(knockbackDirection.getY() + height * profile.verticalFactor());
         
         return knockbackDirection;
     }
@@ -177,22 +324,8 @@ public class PortalKnockbackService implements IPortalKnockbackService {
     @Override
     @Nullable
     public World.Environment getTargetEnvironmentFromLocation(@NotNull Location portalLocation) {
-        Material portalMaterial = portalLocation.getBlock().getType();
-        
-        switch (portalMaterial) {
-            case NETHER_PORTAL:
-                return portalLocation.getWorld().getEnvironment() == World.Environment.NETHER 
-                    ? World.Environment.NORMAL 
-                    : World.Environment.NETHER;
-            case END_PORTAL:
-                return World.Environment.THE_END;
-            case END_GATEWAY:
-                return portalLocation.getWorld().getEnvironment() == World.Environment.THE_END 
-                    ? World.Environment.NORMAL 
-                    : World.Environment.THE_END;
-            default:
-                return null;
-        }
+        PortalType type = materialRegistry.getPortalType(portalLocation.getBlock());
+        return type.getTargetEnvironment(portalLocation.getWorld().getEnvironment());
     }
     
     @Override
@@ -212,6 +345,9 @@ public class PortalKnockbackService implements IPortalKnockbackService {
         }
         
         try {
+            // Tag first: every setVelocity below fires a PlayerVelocityEvent with this vector
+            velocityTags.tag(player, knockback);
+            
             // Modern Paper API 1.21+ compatible knockback using velocity
             player.setVelocity(knockback);
             
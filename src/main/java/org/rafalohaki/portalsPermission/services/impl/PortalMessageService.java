@@ -6,6 +6,8 @@ import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.policy.Decision;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
 import org.rafalohaki.portalsPermission.services.IPortalMessageService;
 
 import java.util.Objects;
@@ -113,6 +115,21 @@ public class PortalMessageService implements IPortalMessageService {
         player.sendMessage(component);
     }
     
+    /**
+     * Sends a permission denied message using the context's decision
+     * Wysyła wiadomość o braku uprawnień używając decyzji z kontekstu
+     * 
+     * @param context The per-event decision context
+     */
+    @Override
+    public void sendPermissionDeniedMessage(@NotNull PortalDecisionContext context) {
+        Objects.requireNonNull(context, "Context cannot be null");
+        
+        Decision decision = context.getDecision();
+        String messageKey = decision != null ? decision.messageKey() : context.getPortalType().getMessageKey();
+        sendPermissionDeniedMessage(context.getPlayer(), messageKey);
+    }
+    
     /**
      * Checks if cooldown messages are enabled
      * Sprawdza czy wiadomości o cooldownie są włączone
@@ -1,13 +1,28 @@
 package org.rafalohaki.portalsPermission.services.impl;
 
-import org.bukkit.Material;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.rafalohaki.portalsPermission.api.ProvidedPortal;
 import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PortalGrantStore;
+import org.rafalohaki.portalsPermission.policy.Decision;
+import org.rafalohaki.portalsPermission.policy.PolicyAction;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContext;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionContextPool;
+import org.rafalohaki.portalsPermission.policy.PortalDecisionTable;
+import org.rafalohaki.portalsPermission.policy.PortalPolicy;
+import org.rafalohaki.portalsPermission.policy.PortalPolicyCompiler;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.portal.PortalRegionIndex;
+import org.rafalohaki.portalsPermission.portal.ProvidedPortalIndex;
 import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.util.Objects;
 
 /**
  * Implementation of portal permission checking service
@@ -16,15 +31,58 @@ import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
 public class PortalPermissionChecker implements IPortalPermissionChecker {
     
     private final ConfigManager configManager;
+    private final PortalMaterialRegistry materialRegistry;
+    
+    // Temporary grants are checked before the permission plugin
+    private final PortalGrantStore grantStore;
+    
+    // Per-portal access lists, looked up by the event's from location
+    private final PortalRegionIndex regionIndex;
+    
+    // Portals reported by other plugins, cached per chunk so checks never call into them
+    private final ProvidedPortalIndex providedPortals;
+    
+    // Compiled rules, decision table and permission nodes, swapped atomically on reload
+    private volatile CompiledState state;
     
     /**
      * Constructor for PortalPermissionChecker
      * Konstruktor dla PortalPermissionChecker
      * 
      * @param configManager The configuration manager
+     * @param materialRegistry The portal material registry
+     * @param grantStore The temporary access grant store
+     * @param regionIndex The portal region index
+     * @param providedPortals The provided portal cache
      */
-    public PortalPermissionChecker(@NotNull ConfigManager configManager) {
+    public PortalPermissionChecker(@NotNull ConfigManager configManager, @NotNull PortalMaterialRegistry materialRegistry,
+                                   @NotNull PortalGrantStore grantStore, @NotNull PortalRegionIndex regionIndex,
+                                   @NotNull ProvidedPortalIndex providedPortals) {
         this.configManager = configManager;
+        this.materialRegistry = materialRegistry;
+        this.grantStore = grantStore;
+        this.regionIndex = regionIndex;
+        this.providedPortals = providedPortals;
+        this.state = compileState();
+        configManager.addReloadListener(() -> this.state = compileState());
+    }
+    
+    /**
+     * Compiles access rules, the decision table and permission nodes from the current configuration
+     * Kompiluje reguły dostępu, tablicę decyzji i węzły uprawnień z aktualnej konfiguracji
+     */
+    private @NotNull CompiledState compileState() {
+        String[] typePermissions = new String[PortalType.COUNT];
+        for (PortalType type : PortalType.values()) {
+            typePermissions[type.index()] = configManager.getPermission(type.getPermissionKey());
+        }
+        
+        return new CompiledState(
+            PortalPolicyCompiler.compile(configManager.getConfig()),
+            PortalDecisionTable.build(configManager),
+            typePermissions,
+            configManager.getPermission("bypass")
+        );
     }
     
     /**
@@ -37,19 +95,140 @@ public class PortalPermissionChecker implements IPortalPermissionChecker {
      */
     @Override
     public boolean hasPortalPermission(@NotNull Player player, @NotNull PlayerPortalEvent event) {
-        if (hasBypassPermission(player)) {
-            return true;
+        return decide(player, event).isAllowed();
+    }
+    
+    /**
+     * Checks if player has permission to use the portal, reusing the resolved context
+     * Sprawdza czy gracz ma uprawnienia do użycia portalu, używając ustalonego kontekstu
+     * 
+     * @param context The per-event decision context
+     * @return true if player has permission, false otherwise
+     */
+    @Override
+    public boolean hasPortalPermission(@NotNull PortalDecisionContext context) {
+        return decide(context).isAllowed();
+    }
+    
+    /**
+     * Decides portal access by indexing the precomputed decision table
+     * Decyduje o dostępie do portalu indeksując wstępnie obliczoną tablicę decyzji
+     * 
+     * @param player The player to check
+     * @param event The portal event
+     * @return The precomputed decision
+     */
+    @Override
+    @NotNull
+    public Decision decide(@NotNull Player player, @NotNull PlayerPortalEvent event) {
+        return decide(PortalDecisionContextPool.standalone(materialRegistry, providedPortals, player, event));
+    }
+    
+    /**
+     * Decides portal access for a resolved context and stores the decision in it
+     * Decyduje o dostępie do portalu dla ustalonego kontekstu i zapisuje w nim decyzję
+     * 
+     * @param context The per-event decision context
+     * @return The precomputed decision
+     */
+    @Override
+    @NotNull
+    public Decision decide(@NotNull PortalDecisionContext context) {
+        Decision existing = context.getDecision();
+        if (existing != null) {
+            return existing;
         }
         
-        // Use portal type environment for permission checking, not target environment
-        World.Environment portalTypeEnvironment = getPortalTypeEnvironment(event);
+        CompiledState current = this.state;
+        Player player = context.getPlayer();
+        PortalType type = context.getPortalType();
+        World.Environment source = context.getSourceEnvironment();
+        Decision decision;
         
-        if (isPortalTypeBlocked(portalTypeEnvironment)) {
-            return false;
+        if (!context.isBypassResolved()) {
+            context.setBypass(player.hasPermission(current.bypassPermission()));
         }
         
-        String requiredPermission = getRequiredPermission(portalTypeEnvironment);
-        return requiredPermission == null || player.hasPermission(requiredPermission);
+        if (context.hasBypass()) {
+            context.setPermissionBits(PortalDecisionTable.BIT_BYPASS);
+            decision = current.table().get(type, source, PortalDecisionTable.BIT_BYPASS);
+        } else if (regionIndex.findDenying(player, context.getFrom()) != null) {
+            // A portal region's access list restricts the portal further than its type settings
+            decision = current.table().forRegion(type, source);
+        } else {
+            PolicyAction action = current.policy().isEmpty()
+                ? PolicyAction.NONE
+                : current.policy().evaluate(player, context.getWorld(), type);
+            
+            if (action.isTerminal()) {
+                // Configured rules take precedence over the per-type settings
+                decision = current.table().forRule(type, source, action);
+            } else {
+                int permissionBits = 0;
+                if (grantStore.hasGrant(player.getUniqueId(), type)) {
+                    // A temporary grant admits the player even where the type is blocked outright
+                    permissionBits |= PortalDecisionTable.BIT_GRANT;
+                } else if (current.table().needsTypePermission(type, source)
+                        && (player.hasPermission(current.typePermissions()[type.index()])
+                            || hasProvidedPermission(player, context.getProvidedPortal()))) {
+                    permissionBits |= PortalDecisionTable.BIT_TYPE_PERMISSION;
+                }
+                context.setPermissionBits(permissionBits);
+                decision = current.table().get(type, source, permissionBits);
+            }
+        }
+        
+        context.setDecision(decision);
+        return decision;
+    }
+    
+    /**
+     * Decides portal access for a player outside of a portal event by indexing the decision table
+     * Decyduje o dostępie do portalu dla gracza poza zdarzeniem portalu indeksując tablicę decyzji
+     * 
+     * @param player The player to check
+     * @param location Where the portal is entered; portal regions are checked here
+     * @param type The portal type
+     * @return The precomputed decision
+     */
+    @Override
+    @NotNull
+    public Decision decide(@NotNull Player player, @NotNull Location location, @NotNull PortalType type) {
+        CompiledState current = this.state;
+        World world = Objects.requireNonNull(location.getWorld(), "Location must have a world");
+        World.Environment source = world.getEnvironment();
+        
+        if (player.hasPermission(current.bypassPermission())) {
+            return current.table().get(type, source, PortalDecisionTable.BIT_BYPASS);
+        }
+        if (regionIndex.findDenying(player, location) != null) {
+            // Same region check as a portal event, so riding a vehicle does not skip it
+            return current.table().forRegion(type, source);
+        }
+        
+        PolicyAction action = current.policy().isEmpty()
+            ? PolicyAction.NONE
+            : current.policy().evaluate(player, world, type);
+        if (action.isTerminal()) {
+            return current.table().forRule(type, source, action);
+        }
+        
+        int permissionBits = 0;
+        if (grantStore.hasGrant(player.getUniqueId(), type)) {
+            permissionBits |= PortalDecisionTable.BIT_GRANT;
+        } else if (current.table().needsTypePermission(type, source)
+                && player.hasPermission(current.typePermissions()[type.index()])) {
+            permissionBits |= PortalDecisionTable.BIT_TYPE_PERMISSION;
+        }
+        return current.table().get(type, source, permissionBits);
+    }
+    
+    /**
+     * Checks the permission a provider attached to its portal, which admits the player on its own
+     * Sprawdza uprawnienie dołączone przez dostawcę do portalu, które samo dopuszcza gracza
+     */
+    private static boolean hasProvidedPermission(@NotNull Player player, @Nullable ProvidedPortal portal) {
+        return portal != null && portal.permission() != null && player.hasPermission(portal.permission());
     }
     
     /**
@@ -61,7 +240,33 @@ public class PortalPermissionChecker implements IPortalPermissionChecker {
      */
     @Override
     public boolean hasBypassPermission(@NotNull Player player) {
-        return player.hasPermission("portals.bypass");
+        return player.hasPermission(state.bypassPermission());
+    }
+    
+    /**
+     * Gets the currently compiled access policy
+     * Pobiera aktualnie skompilowaną politykę dostępu
+     *
+     * @return The compiled policy
+     */
+    @Override
+    @NotNull
+    public PortalPolicy getPolicy() {
+        return state.policy();
+    }
+    
+    /**
+     * Gets the portal type reported by a provider at the event location, else of the block
+     * Pobiera typ portalu zgłoszony przez dostawcę w miejscu zdarzenia, w przeciwnym razie typ bloku
+     * 
+     * @param event The portal event
+     * @return The portal type
+     */
+    @Override
+    @NotNull
+    public PortalType getPortalType(@NotNull PlayerPortalEvent event) {
+        ProvidedPortal provided = providedPortals.find(event.getFrom());
+        return provided != null ? provided.type() : materialRegistry.getPortalType(event.getFrom().getBlock());
     }
     
     /**
@@ -74,22 +279,12 @@ public class PortalPermissionChecker implements IPortalPermissionChecker {
     @Override
     @Nullable
     public World.Environment getTargetEnvironment(@NotNull PlayerPortalEvent event) {
-        Material portalMaterial = event.getFrom().getBlock().getType();
-        
-        switch (portalMaterial) {
-            case NETHER_PORTAL:
-                return event.getFrom().getWorld().getEnvironment() == World.Environment.NETHER 
-                    ? World.Environment.NORMAL 
-                    : World.Environment.NETHER;
-            case END_PORTAL:
-                return World.Environment.THE_END;
-            case END_GATEWAY:
-                return event.getFrom().getWorld().getEnvironment() == World.Environment.THE_END 
-                    ? World.Environment.NORMAL 
-                    : World.Environment.THE_END;
-            default:
-                return null;
+        ProvidedPortal provided = providedPortals.find(event.getFrom());
+        if (provided != null && provided.targetEnvironment() != null) {
+            return provided.targetEnvironment();
         }
+        PortalType type = provided != null ? provided.type() : materialRegistry.getPortalType(event.getFrom().getBlock());
+        return type.getTargetEnvironment(event.getFrom().getWorld().getEnvironment());
     }
     
     /**
@@ -99,19 +294,10 @@ public class PortalPermissionChecker implements IPortalPermissionChecker {
      * @param event The portal event
      * @return The portal type environment for permission checking
      */
+    @Override
     @Nullable
     public World.Environment getPortalTypeEnvironment(@NotNull PlayerPortalEvent event) {
-        Material portalMaterial = event.getFrom().getBlock().getType();
-        
-        switch (portalMaterial) {
-            case NETHER_PORTAL:
-                return World.Environment.NETHER; // Always check nether permission for nether portals
-            case END_PORTAL:
-            case END_GATEWAY:
-                return World.Environment.THE_END; // Always check end permission for end portals
-            default:
-                return World.Environment.NORMAL; // Custom portals use normal/custom permission
-        }
+        return getPortalType(event).getEnvironment();
     }
     
     /**
@@ -124,20 +310,8 @@ public class PortalPermissionChecker implements IPortalPermissionChecker {
     @Override
     @Nullable
     public String getRequiredPermission(@Nullable World.Environment environment) {
-        if (environment == null) {
-            return null;
-        }
-        
-        switch (environment) {
-            case NETHER:
-                return "portals.nether";
-            case THE_END:
-                return "portals.end";
-            case NORMAL:
-                return "portals.custom";
-            default:
-                return null;
-        }
+        PortalType type = PortalType.fromEnvironment(environment);
+        return type != null ? state.typePermissions()[type.index()] : null;
     }
     
     /**
@@ -150,20 +324,8 @@ public class PortalPermissionChecker implements IPortalPermissionChecker {
     @Override
     @NotNull
     public String getMessageKey(@Nullable World.Environment environment) {
-        if (environment == null) {
-            return "no_permission_custom";
-        }
-        
-        switch (environment) {
-            case NETHER:
-                return "no_permission_nether";
-            case THE_END:
-                return "no_permission_end";
-            case NORMAL:
-                return "no_permission_custom";
-            default:
-                return "no_permission_custom";
-        }
+        PortalType type = PortalType.fromEnvironment(environment);
+        return (type != null ? type : PortalType.CUSTOM).getMessageKey();
     }
     
     /**
@@ -175,20 +337,27 @@ public class PortalPermissionChecker implements IPortalPermissionChecker {
      */
     @Override
     public boolean isPortalTypeBlocked(@Nullable World.Environment environment) {
-        if (environment == null) {
+        PortalType type = PortalType.fromEnvironment(environment);
+        if (type == null) {
             return false;
         }
         
-        switch (environment) {
-            case NETHER:
-                return configManager.isNetherBlocked();
-            case THE_END:
-                return configManager.isEndBlocked();
-            case NORMAL:
-            case CUSTOM:
-                return configManager.isCustomBlocked();
-            default:
-                return false;
-        }
+        return switch (type) {
+            case NETHER -> configManager.isNetherBlocked();
+            case END -> configManager.isEndBlocked();
+            case CUSTOM -> configManager.isCustomBlocked();
+        };
+    }
+    
+    /**
+     * Immutable snapshot of everything compiled from configuration
+     * Niezmienny snapshot wszystkiego co skompilowano z konfiguracji
+     */
+    private record CompiledState(
+        @NotNull PortalPolicy policy,
+        @NotNull PortalDecisionTable table,
+        @NotNull String[] typePermissions,
+        @NotNull String bypassPermission
+    ) {
     }
-}
\ No newline at end of file
+}
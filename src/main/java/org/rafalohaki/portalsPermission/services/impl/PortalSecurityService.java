@@ -6,17 +6,35 @@ import org.bukkit.event.entity.EntityPortalEnterEvent;
 import io.papermc.paper.event.entity.EntityPortalReadyEvent;
 import org.bukkit.event.vehicle.VehicleEnterEvent;
 import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitScheduler;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.managers.PlayerSlotRegistry;
+import org.rafalohaki.portalsPermission.managers.PortalClock;
+import org.rafalohaki.portalsPermission.managers.PortalGrantStore;
+import org.rafalohaki.portalsPermission.managers.ViolationScoreManager;
+import org.rafalohaki.portalsPermission.portal.PortalCatalog;
+import org.rafalohaki.portalsPermission.portal.PortalLocationIndex;
+import org.rafalohaki.portalsPermission.portal.PortalMaterialRegistry;
+import org.rafalohaki.portalsPermission.security.EntitySecurityTable;
+import org.rafalohaki.portalsPermission.security.LoadGovernor;
+import org.rafalohaki.portalsPermission.security.MovementSweeper;
+import org.rafalohaki.portalsPermission.security.PortalDwellTracker;
+import org.rafalohaki.portalsPermission.security.RiskScorer;
+import org.rafalohaki.portalsPermission.security.TrajectoryTracker;
+import org.rafalohaki.portalsPermission.security.VehicleTracker;
+import org.rafalohaki.portalsPermission.services.IPortalPermissionChecker;
 import org.rafalohaki.portalsPermission.services.IPortalSecurityService;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+import org.rafalohaki.portalsPermission.utils.PortalType;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.UUID;
 import java.util.logging.Level;
 import org.bukkit.scheduler.BukkitTask;
@@ -29,48 +47,90 @@ public class PortalSecurityService implements IPortalSecurityService {
     
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
+    private final PortalMaterialRegistry materialRegistry;
+    private final PortalLocationIndex portalIndex;
     private final BukkitScheduler scheduler;
     private BukkitTask cleanupTask;
+    private int sweepsSincePublish;
     
-    // Entity portal cooldowns (UUID -> cooldown end time in ticks)
-    private final ConcurrentHashMap<UUID, Long> entityPortalCooldowns;
+    // One row per tracked entity: cooldown end, dwell ticks and flags (main thread only)
+    private final EntitySecurityTable stateTable;
     
-    // Entity portal entry tracking (UUID -> entry time in milliseconds)
-    private final ConcurrentHashMap<UUID, Long> entityPortalEntryTimes;
+    // Ticks each entity has spent inside a portal, with per-portal occupancy
+    private final PortalDwellTracker dwellTracker;
     
-    // Players in vehicles within portal areas
-    private final ConcurrentHashMap<UUID, Boolean> playersInVehicleInPortal;
+    // Ridden vehicles near portals and their cached passenger authorization
+    private final VehicleTracker vehicleTracker;
     
-    // Players using elytra near portals
-    private final ConcurrentHashMap<UUID, Boolean> playersGlidingNearPortal;
+    // Gliding and boosted players whose flight path is projected every tick
+    private final TrajectoryTracker trajectoryTracker;
+    
+    // Players that moved since the last budgeted movement pass
+    private final MovementSweeper movementSweeper;
+    
+    // Off-thread movement scoring over per-tick position snapshots
+    private final RiskScorer riskScorer;
+    
+    // Tick-time driven tier deciding which checks the server can afford
+    private final LoadGovernor loadGovernor;
+    
+    // Decaying per-player violation score that lengthens repeat offenders' cooldowns
+    private final ViolationScoreManager violationScores;
+    
+    // Shared tick and millisecond source, published once per tick
+    private final PortalClock clock;
     
     // Throttling for debug logs to prevent spam
-    private volatile long lastDebugLogTime = 0;
+    private volatile long lastDebugLogTime = -DEBUG_LOG_THROTTLE_MS;
     
     // Configuration constants
     private static final int DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS = 100; // 5 seconds
-    private static final long MAX_PORTAL_STAY_TIME_MS = 30000; // 30 seconds
-    private static final int CLEANUP_INTERVAL_SECONDS = 60;
-    private static final double MAX_MOVEMENT_SPEED_NEAR_PORTAL = 0.5; // blocks per tick
-    private static final double MAX_VELOCITY_NEAR_PORTAL = 2.0; // blocks per second
+    private static final int MAX_PORTAL_STAY_TICKS = 600; // 30 seconds
+    private static final long SWEEP_INTERVAL_TICKS = 10L;
+    private static final int PUBLISH_EVERY_SWEEPS = 2;
+    private static final double MAX_MOVEMENT_SPEED_NEAR_PORTAL = RiskScorer.MAX_SPEED_PER_TICK; // blocks per tick
+    private static final double MAX_VELOCITY_NEAR_PORTAL = RiskScorer.MAX_VELOCITY; // blocks per second
     private static final long DEBUG_LOG_THROTTLE_MS = 5000; // 5 seconds between debug logs
+    private static final int NEAR_PORTAL_RADIUS = 2; // blocks around the player checked for portals
     
     /**
      * Constructor for PortalSecurityService
      * Konstruktor dla PortalSecurityService
      */
-    public PortalSecurityService(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager) {
+    public PortalSecurityService(@NotNull JavaPlugin plugin, @NotNull ConfigManager configManager,
+                                 @NotNull PortalMaterialRegistry materialRegistry,
+                                 @NotNull PortalLocationIndex portalIndex,
+                                 @NotNull PortalCatalog portalCatalog,
+                                 @NotNull IPortalPermissionChecker permissionChecker,
+                                 @NotNull PlayerSlotRegistry playerSlots,
+                                 @NotNull ViolationScoreManager violationScores,
+                                 @NotNull PortalClock clock,
+                                 @NotNull PortalGrantStore grantStore) {
         this.plugin = plugin;
         this.configManager = configManager;
+        this.materialRegistry = materialRegistry;
+        this.portalIndex = portalIndex;
         this.scheduler = plugin.getServer().getScheduler();
-        
-        this.entityPortalCooldowns = new ConcurrentHashMap<>();
-        this.entityPortalEntryTimes = new ConcurrentHashMap<>();
-        this.playersInVehicleInPortal = new ConcurrentHashMap<>();
-        this.playersGlidingNearPortal = new ConcurrentHashMap<>();
+        this.violationScores = violationScores;
+        this.clock = clock;
+        
+        this.stateTable = new EntitySecurityTable(configManager);
+        this.dwellTracker = new PortalDwellTracker(portalCatalog, stateTable, clock);
+        this.vehicleTracker = new VehicleTracker(materialRegistry, portalIndex, permissionChecker, clock);
+        this.trajectoryTracker = new TrajectoryTracker(plugin, configManager, portalIndex, clock,
+            player -> penalize(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS));
+        this.movementSweeper = new MovementSweeper(plugin, configManager, playerSlots, clock, this::checkMovementSpeed);
+        this.riskScorer = new RiskScorer(plugin, configManager, playerSlots, clock, this::applyRiskVerdict);
+        this.loadGovernor = new LoadGovernor(plugin, configManager, playerSlots);
+        
+        // Cached passenger authorization follows reloaded permissions, rules and temporary grants
+        configManager.addReloadListener(() -> scheduler.runTask(plugin, vehicleTracker::invalidateAll));
+        grantStore.addChangeListener(vehicleTracker::invalidateAll);
         
         // Start cleanup tasks
         startCleanupTasks();
+        riskScorer.start();
+        loadGovernor.start();
         
         if (configManager.isDebugMode()) {
             plugin.getLogger().info("PortalSecurityService initialized successfully");
@@ -86,7 +146,7 @@ public class PortalSecurityService implements IPortalSecurityService {
         }
         
         // Track entity portal entry time for long-stay detection
-        trackEntityPortalEntry(entity);
+        trackEntityPortalEntry(entity, event.getLocation());
         
         // Check if entity has active portal cooldown
         if (hasEntityPortalCooldown(entity)) {
@@ -111,32 +171,35 @@ public class PortalSecurityService implements IPortalSecurityService {
             }
         }
         
-        // Enhanced vehicle bypass prevention - check if entity is a vehicle with passengers
-        if (entity instanceof org.bukkit.entity.Vehicle vehicle) {
-            var passengers = vehicle.getPassengers();
-            if (!passengers.isEmpty()) {
-                // Block vehicle with passengers from entering portal
+        // Vehicles pass only when every riding player may use this portal; the answer is cached per vehicle
+        if (entity instanceof org.bukkit.entity.Vehicle vehicle && !vehicle.isEmpty()) {
+            PortalType portalType = materialRegistry.getPortalType(event.getLocation().getBlock());
+            vehicleTracker.markZone(vehicle);
+            
+            if (!vehicleTracker.isAuthorized(vehicle, portalType)) {
+                // Block vehicle with unauthorized passengers from entering portal
                 event.setCancelled(true);
                 
                 // Set cooldown for the vehicle
                 setEntityPortalCooldownAsync(vehicle, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
                 
                 // Also set cooldown for all passengers to prevent immediate re-entry
-                for (Entity passenger : passengers) {
+                for (Entity passenger : vehicle.getPassengers()) {
                     if (passenger instanceof Player player) {
-                        setEntityPortalCooldownAsync(passenger, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
+                        penalize(passenger, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
                         
                         if (configManager.isDebugMode()) {
                             plugin.getLogger().info("Player " + player.getName() + " and their vehicle " + vehicle.getType() + " blocked from portal entry");
                         }
                     }
                 }
-                
-                if (configManager.isDebugMode()) {
-                    plugin.getLogger().info("Vehicle " + vehicle.getType() + " with " + passengers.size() + " passengers blocked from portal");
-                }
                 return;
             }
+            
+            if (configManager.isDebugMode()) {
+                plugin.getLogger().info("Vehicle " + vehicle.getType() + " with authorized passengers allowed into portal");
+            }
+            return;
         }
         
         if (configManager.isDebugMode()) {
@@ -157,7 +220,7 @@ public class PortalSecurityService implements IPortalSecurityService {
             event.setCancelled(true);
             
             // Set cooldown to prevent immediate re-entry
-            setEntityPortalCooldownAsync(entity, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
+            penalize(entity, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
             
             if (configManager.isDebugMode()) {
                 plugin.getLogger().info("Entity " + entity.getType() + " (" + entity.getUniqueId() + ") blocked from portal teleportation due to long stay");
@@ -182,17 +245,22 @@ public class PortalSecurityService implements IPortalSecurityService {
     
     @Override
     public void handleVehicleEnter(@NotNull VehicleEnterEvent event) {
-        if (!(event.getEntered() instanceof Player player)) {
+        if (!configManager.isEnabled()) {
             return;
         }
         
-        if (!configManager.isEnabled()) {
+        // Passengers changed, so the cached authorization no longer applies
+        vehicleTracker.invalidate(event.getVehicle());
+        
+        if (!(event.getEntered() instanceof Player player)) {
             return;
         }
         
+        setStateFlag(player, EntitySecurityTable.FLAG_IN_VEHICLE, true);
+        
         // Check if player is entering vehicle near portal
         if (isNearPortal(player)) {
-            playersInVehicleInPortal.put(player.getUniqueId(), true);
+            vehicleTracker.markZone(event.getVehicle());
             
             if (configManager.isDebugMode()) {
                 plugin.getLogger().info("Player " + player.getName() + " entered vehicle near portal");
@@ -202,82 +270,131 @@ public class PortalSecurityService implements IPortalSecurityService {
     
     @Override
     public void handleVehicleExit(@NotNull VehicleExitEvent event) {
-        if (!(event.getExited() instanceof Player player)) {
+        if (!configManager.isEnabled()) {
             return;
         }
         
-        if (!configManager.isEnabled()) {
+        // Passengers changed, so the cached authorization no longer applies
+        vehicleTracker.invalidate(event.getVehicle());
+        
+        if (!(event.getExited() instanceof Player player)) {
             return;
         }
         
-        // Remove player from vehicle-in-portal tracking
-        playersInVehicleInPortal.remove(player.getUniqueId());
+        setStateFlag(player, EntitySecurityTable.FLAG_IN_VEHICLE, false);
         
         if (configManager.isDebugMode()) {
             plugin.getLogger().info("Player " + player.getName() + " exited vehicle");
         }
     }
     
+    @Override
+    public void handleVehicleMove(@NotNull VehicleMoveEvent event) {
+        org.bukkit.entity.Vehicle vehicle = event.getVehicle();
+        
+        // Ridden vehicles are still checked by the portal event itself
+        if (!loadGovernor.allowsMovementChecks()) {
+            return;
+        }
+        
+        // Only ridden vehicles that changed block reach the portal index
+        if (vehicleTracker.onVehicleMove(vehicle, event.getFrom(), event.getTo())
+                && configManager.isDebugMode()) {
+            long currentTime = clock.getMillis();
+            if ((currentTime - lastDebugLogTime) > DEBUG_LOG_THROTTLE_MS) {
+                plugin.getLogger().info("Vehicle " + vehicle.getType() + " (" + vehicle.getEntityId() + ") approaching portal");
+                lastDebugLogTime = currentTime;
+            }
+        }
+    }
+    
     @Override
     public CompletableFuture<Void> setEntityPortalCooldownAsync(@NotNull Entity entity, int cooldownTicks) {
         CompletableFuture<Void> future = new CompletableFuture<>();
         
-        scheduler.runTaskAsynchronously(plugin, () -> {
-            try {
-                UUID entityId = entity.getUniqueId();
-                long currentTick = plugin.getServer().getCurrentTick();
-                long cooldownEnd = currentTick + cooldownTicks;
-                
-                entityPortalCooldowns.put(entityId, cooldownEnd);
-                
-                if (configManager.isDebugMode()) {
-                    plugin.getLogger().info("Set portal cooldown for entity " + entity.getType() + " (" + entityId + ") for " + cooldownTicks + " ticks");
-                }
-                
-                future.complete(null);
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.WARNING, "Failed to set portal cooldown for entity " + entity.getUniqueId(), e);
-                future.completeExceptionally(e);
-            }
-        });
+        // The state table belongs to the main thread; callers elsewhere hand the write over
+        if (plugin.getServer().isPrimaryThread()) {
+            applyEntityPortalCooldown(entity, cooldownTicks, future);
+        } else {
+            scheduler.runTask(plugin, () -> applyEntityPortalCooldown(entity, cooldownTicks, future));
+        }
         
         return future;
     }
     
-    @Override
-    public boolean hasEntityPortalCooldown(@NotNull Entity entity) {
-        UUID entityId = entity.getUniqueId();
-        Long cooldownEnd = entityPortalCooldowns.get(entityId);
-        
-        if (cooldownEnd == null) {
-            return false;
+    /**
+     * Applies a security cooldown; players are scored and repeat offenders get an escalated one
+     * Nakłada cooldown zabezpieczeń; gracze są oceniani a powtarzający naruszenia dostają dłuższy
+     *
+     * <p>Triggers while the entity is already on cooldown are the same offence and only keep the
+     * cooldown from running out early.</p>
+     */
+    private void penalize(@NotNull Entity entity, int baseTicks) {
+        if (!(entity instanceof Player player)) {
+            setEntityPortalCooldownAsync(entity, baseTicks);
+            return;
         }
         
-        long currentTick = plugin.getServer().getCurrentTick();
-        if (currentTick >= cooldownEnd) {
-            entityPortalCooldowns.remove(entityId);
-            return false;
+        int remaining = getRemainingEntityPortalCooldown(player);
+        if (remaining > 0) {
+            int cooldownTicks = violationScores.escalate(baseTicks, violationScores.getScore(player));
+            if (cooldownTicks > remaining) {
+                setEntityPortalCooldownAsync(player, cooldownTicks);
+            }
+            return;
         }
         
-        return true;
+        double score = violationScores.record(player, 1.0);
+        setEntityPortalCooldownAsync(player, violationScores.escalate(baseTicks, score));
+    }
+    
+    private void applyEntityPortalCooldown(@NotNull Entity entity, int cooldownTicks,
+                                           @NotNull CompletableFuture<Void> future) {
+        try {
+            int currentTick = clock.getTick();
+            int slot = stateTable.findOrInsert(entity, currentTick);
+            
+            if (slot < 0) {
+                if (configManager.isDebugMode()) {
+                    plugin.getLogger().info("Security state table full - cooldown for entity " + entity.getType() + " not stored");
+                }
+            } else {
+                stateTable.setCooldownEnd(slot, currentTick + cooldownTicks, currentTick);
+                
+                if (configManager.isDebugMode()) {
+                    plugin.getLogger().info("Set portal cooldown for entity " + entity.getType() + " (" + entity.getUniqueId() + ") for " + cooldownTicks + " ticks");
+                }
+            }
+            
+            future.complete(null);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to set portal cooldown for entity " + entity.getUniqueId(), e);
+            future.completeExceptionally(e);
+        }
+    }
+    
+    @Override
+    public boolean hasEntityPortalCooldown(@NotNull Entity entity) {
+        return getRemainingEntityPortalCooldown(entity) > 0;
     }
     
     @Override
     public int getRemainingEntityPortalCooldown(@NotNull Entity entity) {
-        UUID entityId = entity.getUniqueId();
-        Long cooldownEnd = entityPortalCooldowns.get(entityId);
+        int currentTick = clock.getTick();
+        int cooldownEnd;
         
-        if (cooldownEnd == null) {
-            return 0;
+        if (plugin.getServer().isPrimaryThread()) {
+            int slot = stateTable.find(entity.getEntityId());
+            cooldownEnd = slot >= 0 ? stateTable.getCooldownEnd(slot) : EntitySecurityTable.NONE;
+        } else {
+            // Off the main thread only the published snapshot may be read
+            cooldownEnd = stateTable.getSnapshot().getCooldownEnd(entity.getUniqueId());
         }
         
-        long currentTick = plugin.getServer().getCurrentTick();
-        if (currentTick >= cooldownEnd) {
-            entityPortalCooldowns.remove(entityId);
+        if (cooldownEnd == EntitySecurityTable.NONE || currentTick >= cooldownEnd) {
             return 0;
         }
-        
-        return (int) (cooldownEnd - currentTick);
+        return cooldownEnd - currentTick;
     }
     
     /**
@@ -288,24 +405,33 @@ public class PortalSecurityService implements IPortalSecurityService {
      */
     @Override
     public void removeEntityPortalCooldown(@NotNull Entity entity) {
-        UUID entityId = entity.getUniqueId();
-        entityPortalCooldowns.remove(entityId);
+        int slot = stateTable.find(entity.getEntityId());
+        if (slot >= 0) {
+            stateTable.setCooldownEnd(slot, EntitySecurityTable.NONE, clock.getTick());
+        }
         
         if (configManager.isDebugMode()) {
-            plugin.getLogger().info("Removed portal cooldown for entity " + entity.getType() + " (" + entityId + ")");
+            plugin.getLogger().info("Removed portal cooldown for entity " + entity.getType() + " (" + entity.getUniqueId() + ")");
         }
     }
     
     /**
-     * Checks if player is in vehicle within portal area
-     * Sprawdza czy gracz jest w pojeździe w obszarze portalu
+     * Checks if player rides a vehicle within a portal area whose passengers are not all authorized
+     * Sprawdza czy gracz jedzie pojazdem w obszarze portalu którego pasażerowie nie są w pełni uprawnieni
      * 
      * @param player The player to check
      * @return true if player is in vehicle in portal, false otherwise
      */
     @Override
     public boolean isPlayerInVehicleInPortal(@NotNull Player player) {
-        return playersInVehicleInPortal.getOrDefault(player.getUniqueId(), false);
+        Entity vehicle = player.getVehicle();
+        if (vehicle == null || !vehicleTracker.isInPortalZone(vehicle)) {
+            return false;
+        }
+        
+        // Without a known portal type the vehicle is treated as unauthorized, as before
+        PortalType portalType = vehicleTracker.getZonePortalType(vehicle);
+        return portalType == null || !vehicleTracker.isAuthorized(vehicle, portalType);
     }
     
     /**
@@ -313,16 +439,16 @@ public class PortalSecurityService implements IPortalSecurityService {
      * Śledzi czas wejścia encji do portalu dla monitorowania bezpieczeństwa
      * 
      * @param entity The entity to track
+     * @param portalLocation The portal block the entity is in
      */
     @Override
-    public void trackEntityPortalEntry(@NotNull Entity entity) {
-        UUID entityId = entity.getUniqueId();
-        long currentTime = System.currentTimeMillis();
-        
-        entityPortalEntryTimes.put(entityId, currentTime);
+    public void trackEntityPortalEntry(@NotNull Entity entity, @NotNull Location portalLocation) {
+        // Only the first tick of a stay is recorded; later ticks refresh the last-seen tick
+        dwellTracker.touch(entity, portalLocation);
         
+        long currentTime = clock.getMillis();
         if (configManager.isDebugMode() && (currentTime - lastDebugLogTime) > DEBUG_LOG_THROTTLE_MS) {
-            plugin.getLogger().info("Tracking portal entry for entity " + entity.getType() + " (" + entityId + ")");
+            plugin.getLogger().info("Tracking portal entry for entity " + entity.getType() + " (" + entity.getUniqueId() + ")");
             lastDebugLogTime = currentTime;
         }
     }
@@ -335,52 +461,57 @@ public class PortalSecurityService implements IPortalSecurityService {
      */
     @Override
     public void removeEntityPortalTracking(@NotNull Entity entity) {
-        UUID entityId = entity.getUniqueId();
-        entityPortalEntryTimes.remove(entityId);
+        dwellTracker.remove(entity);
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.getMillis();
         if (configManager.isDebugMode() && (currentTime - lastDebugLogTime) > DEBUG_LOG_THROTTLE_MS) {
-            plugin.getLogger().info("Removed portal tracking for entity " + entity.getType() + " (" + entityId + ")");
+            plugin.getLogger().info("Removed portal tracking for entity " + entity.getType() + " (" + entity.getUniqueId() + ")");
             lastDebugLogTime = currentTime;
         }
     }
     
     @Override
     public boolean hasEntityBeenInPortalTooLong(@NotNull Entity entity) {
-        UUID entityId = entity.getUniqueId();
-        Long entryTime = entityPortalEntryTimes.get(entityId);
-        
-        if (entryTime == null) {
-            return false;
-        }
-        
-        long currentTime = System.currentTimeMillis();
-        long timeInPortal = currentTime - entryTime;
-        
-        return timeInPortal > MAX_PORTAL_STAY_TIME_MS;
+        return dwellTracker.getDwellTicks(entity) > MAX_PORTAL_STAY_TICKS;
+    }
+    
+    @Override
+    public int getPortalOccupancy(@NotNull UUID worldId, int portalId) {
+        return dwellTracker.getOccupancy(worldId, portalId);
+    }
+    
+    @Override
+    public int getEntitiesInPortalsCount() {
+        return dwellTracker.getTrackedCount();
     }
     
     @Override
     public void handlePlayerGlideToggle(@NotNull Player player, boolean isGliding) {
-        if (isGliding && isNearPortal(player)) {
-            playersGlidingNearPortal.put(player.getUniqueId(), true);
-            
+        // Follow the flight path while gliding, so portals are caught before they are reached
+        trajectoryTracker.setGliding(player, isGliding);
+        setStateFlag(player, EntitySecurityTable.FLAG_GLIDING, isGliding);
+        
+        if (isGliding && loadGovernor.allowsMovementChecks() && isNearPortal(player)) {
             // Set cooldown to prevent immediate portal use after gliding
-            setEntityPortalCooldownAsync(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
+            penalize(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
             
             if (configManager.isDebugMode()) {
                 plugin.getLogger().info("Player " + player.getName() + " started gliding near portal - cooldown applied");
             }
-        } else {
-            playersGlidingNearPortal.remove(player.getUniqueId());
         }
     }
     
     @Override
     public void handlePlayerElytraBoost(@NotNull Player player) {
+        if (!loadGovernor.allowsMovementChecks()) {
+            return;
+        }
+        
+        trajectoryTracker.trackBurst(player);
+        
         if (isNearPortal(player)) {
             // Apply extended cooldown for elytra boost near portals
-            setEntityPortalCooldownAsync(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS * 2);
+            penalize(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS * 2);
             
             if (configManager.isDebugMode()) {
                 plugin.getLogger().info("Player " + player.getName() + " used elytra boost near portal - extended cooldown applied");
@@ -392,30 +523,100 @@ public class PortalSecurityService implements IPortalSecurityService {
     public void handlePlayerMovement(@NotNull Player player, @NotNull Location from, @Nullable Location to) {
         if (to == null) return;
         
-        // Check if player is moving too fast near a portal
+        // Scored off the main thread from per-tick snapshots instead
+        if (configManager.isRiskScoringEnabled()) {
+            return;
+        }
+        
+        // Nothing to guard in a world without a single known portal
+        if (isPortalFreeArea(to)) {
+            return;
+        }
+        
+        // Under load only every Nth move is checked, or none at all
+        if (!loadGovernor.admitMove(player)) {
+            return;
+        }
+        
+        // In batched mode the move is only recorded; the per-tick pass checks it within its budget
+        if (configManager.isBatchedMovementEnabled() && movementSweeper.markDirty(player, from, to)) {
+            return;
+        }
+        
+        checkMovementSpeed(player, from.distance(to));
+    }
+    
+    /**
+     * Checks if the area around a position was scanned and the world has no indexed portal
+     * Sprawdza czy obszar wokół pozycji został przeskanowany, a świat nie ma zaindeksowanego portalu
+     *
+     * <p>Costs a few hash probes, far less than the speed check; unscanned areas are never skipped. The
+     * persisted catalog is not consulted, since it says nothing about chunks it never covered.</p>
+     */
+    private boolean isPortalFreeArea(@NotNull Location location) {
+        org.bukkit.World world = location.getWorld();
+        if (world == null) {
+            return true;
+        }
+        return !portalIndex.hasPortals(world.getUID())
+            && portalIndex.isAreaIndexed(world, location.getBlockX(), location.getBlockZ(), NEAR_PORTAL_RADIUS);
+    }
+    
+    /**
+     * Applies a cooldown to a player moving too fast near a portal
+     * Nakłada cooldown na gracza poruszającego się zbyt szybko przy portalu
+     *
+     * @param blocksPerTick The distance moved per tick
+     */
+    private void checkMovementSpeed(@NotNull Player player, double blocksPerTick) {
+        // The speed test is far cheaper than the proximity scan, so it goes first
+        if (blocksPerTick > MAX_MOVEMENT_SPEED_NEAR_PORTAL && isNearPortal(player)) {
+            penalize(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
+            
+            if (configManager.isDebugMode()) {
+                plugin.getLogger().info("Player " + player.getName() + " moving too fast near portal (" + 
+                    String.format("%.2f", blocksPerTick) + " blocks) - cooldown applied");
+            }
+        }
+    }
+    
+    /**
+     * Applies a risk verdict from the off-thread scorer; only players still near a portal are affected
+     * Stosuje werdykt oceny ryzyka z wątku roboczego; dotyczy tylko graczy nadal będących przy portalu
+     */
+    private void applyRiskVerdict(@NotNull Player player, double score) {
         if (isNearPortal(player)) {
-            double distance = from.distance(to);
+            penalize(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
             
-            // If movement speed exceeds threshold, apply cooldown
-            if (distance > MAX_MOVEMENT_SPEED_NEAR_PORTAL) {
-                setEntityPortalCooldownAsync(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
-                
-                if (configManager.isDebugMode()) {
-                    plugin.getLogger().info("Player " + player.getName() + " moving too fast near portal (" + 
-                        String.format("%.2f", distance) + " blocks) - cooldown applied");
-                }
+            if (configManager.isDebugMode()) {
+                plugin.getLogger().info("Player " + player.getName() + " flagged by movement scoring near portal (score " + 
+                    String.format("%.2f", score) + ") - cooldown applied");
             }
         }
     }
     
     @Override
     public void handlePlayerVelocityChange(@NotNull Player player, @NotNull Vector velocity) {
+        if (!loadGovernor.allowsMovementChecks()) {
+            return;
+        }
+        
+        // A large velocity may carry the player into a portal before the next proximity check
+        if (velocity.lengthSquared() > MAX_VELOCITY_NEAR_PORTAL * MAX_VELOCITY_NEAR_PORTAL) {
+            trajectoryTracker.trackBurst(player);
+        }
+        
+        // The off-thread scorer covers the velocity threshold from its snapshots
+        if (configManager.isRiskScoringEnabled()) {
+            return;
+        }
+        
         if (isNearPortal(player)) {
             double velocityMagnitude = velocity.length();
             
             // If velocity exceeds threshold near portal, apply cooldown
             if (velocityMagnitude > MAX_VELOCITY_NEAR_PORTAL) {
-                setEntityPortalCooldownAsync(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
+                penalize(player, DEFAULT_ENTITY_PORTAL_COOLDOWN_TICKS);
                 
                 if (configManager.isDebugMode()) {
                     plugin.getLogger().info("Player " + player.getName() + " high velocity near portal (" + 
@@ -425,12 +626,69 @@ public class PortalSecurityService implements IPortalSecurityService {
         }
     }
 
+    @Override
+    @NotNull
+    public EntitySecurityTable.Snapshot getStateSnapshot() {
+        return stateTable.getSnapshot();
+    }
+    
+    @Override
+    @NotNull
+    public MovementSweeper getMovementSweeper() {
+        return movementSweeper;
+    }
+    
+    @Override
+    @NotNull
+    public RiskScorer getRiskScorer() {
+        return riskScorer;
+    }
+    
+    @Override
+    @NotNull
+    public LoadGovernor getLoadGovernor() {
+        return loadGovernor;
+    }
+    
+    /**
+     * Sets or clears a flag in the entity's state row; clearing never creates a row
+     * Ustawia lub czyści flagę w wierszu stanu encji; czyszczenie nigdy nie tworzy wiersza
+     */
+    private void setStateFlag(@NotNull Entity entity, byte flag, boolean value) {
+        int currentTick = clock.getTick();
+        int slot = value ? stateTable.findOrInsert(entity, currentTick) : stateTable.find(entity.getEntityId());
+        if (slot >= 0) {
+            stateTable.setFlag(slot, flag, value, currentTick);
+        }
+    }
+    
+    @Override
+    public void evictEntity(@NotNull Entity entity) {
+        stateTable.remove(entity.getEntityId());
+        vehicleTracker.remove(entity);
+        
+        if (entity instanceof Player player) {
+            trajectoryTracker.remove(player);
+        }
+    }
+    
+    @Override
+    public void evictWorld(@NotNull World world) {
+        for (Entity entity : world.getEntities()) {
+            evictEntity(entity);
+        }
+        
+        if (configManager.isDebugMode()) {
+            plugin.getLogger().info("Evicted portal security data for world " + world.getName());
+        }
+    }
+    
     @Override
     public void clearAllSecurityData() {
-        entityPortalCooldowns.clear();
-        entityPortalEntryTimes.clear();
-        playersInVehicleInPortal.clear();
-        playersGlidingNearPortal.clear();
+        stateTable.clear();
+        vehicleTracker.clear();
+        trajectoryTracker.clear();
+        movementSweeper.clear();
         
         if (configManager.isDebugMode()) {
             plugin.getLogger().info("Cleared all portal security data");
@@ -443,6 +701,8 @@ public class PortalSecurityService implements IPortalSecurityService {
             if (cleanupTask != null && !cleanupTask.isCancelled()) {
                 cleanupTask.cancel();
             }
+            riskScorer.shutdown();
+            loadGovernor.shutdown();
             
             clearAllSecurityData();
             
@@ -466,15 +726,32 @@ public class PortalSecurityService implements IPortalSecurityService {
         }
         
         // Check 5x5x5 area around player for portal blocks (increased from 3x3x3)
-        int radius = 2;
+        int radius = NEAR_PORTAL_RADIUS;
+        int baseX = playerLocation.getBlockX();
+        int baseY = playerLocation.getBlockY();
+        int baseZ = playerLocation.getBlockZ();
+        
+        // Scanned areas are answered from the portal index without touching the world
+        if (portalIndex.isAreaIndexed(world, baseX, baseZ, radius)) {
+            long key = portalIndex.findNearby(world, baseX, baseY, baseZ, radius);
+            if (key == Long.MIN_VALUE) {
+                return false;
+            }
+            int x = BlockKeys.blockX(key);
+            int y = BlockKeys.blockY(key);
+            int z = BlockKeys.blockZ(key);
+            if (materialRegistry.isPortalBlock(world.getBlockAt(x, y, z))) {
+                return true;
+            }
+            // The portal was broken since it was indexed; drop it and fall back to a block scan
+            portalIndex.removeBlock(world.getUID(), x, y, z);
+        }
+        
         for (int x = -radius; x <= radius; x++) {
             for (int y = -radius; y <= radius; y++) {
                 for (int z = -radius; z <= radius; z++) {
-                    Location checkLocation = playerLocation.clone().add(x, y, z);
-                    org.bukkit.Material blockType = world.getBlockAt(checkLocation).getType();
-                    
-                    // Check for all portal types including End Portal frames
-                    if (isPortalBlock(blockType)) {
+                    // Classification comes from the shared material registry (includes frames and custom blocks)
+                    if (materialRegistry.isPortalBlock(world.getBlockAt(baseX + x, baseY + y, baseZ + z))) {
                         return true;
                     }
                 }
@@ -485,78 +762,22 @@ public class PortalSecurityService implements IPortalSecurityService {
     }
     
     /**
-     * Checks if a material is a portal-related block
-     * @param material The material to check
-     * @return true if material is portal-related, false otherwise
-     */
-    private boolean isPortalBlock(@NotNull org.bukkit.Material material) {
-        return material == org.bukkit.Material.NETHER_PORTAL ||
-               material == org.bukkit.Material.END_PORTAL ||
-               material == org.bukkit.Material.END_PORTAL_FRAME ||
-               material.name().contains("PORTAL");
-    }
-    
-    /**
-     * Starts periodic cleanup tasks for expired data
-     * Uruchamia okresowe zadania czyszczenia wygasłych danych
+     * Starts the main-thread sweep of expired state, which also publishes the read-only snapshot
+     * Uruchamia czyszczenie wygasłego stanu na głównym wątku, które publikuje też migawkę tylko do odczytu
      */
     private void startCleanupTasks() {
-        cleanupTask = scheduler.runTaskTimerAsynchronously(plugin, () -> {
+        cleanupTask = scheduler.runTaskTimer(plugin, () -> {
             try {
-                cleanupExpiredCooldowns();
-                cleanupExpiredPortalEntries();
+                int currentTick = clock.getTick();
+                stateTable.sweep(currentTick, PortalDwellTracker.EXIT_GRACE_TICKS);
+                
+                if (++sweepsSincePublish >= PUBLISH_EVERY_SWEEPS) {
+                    sweepsSincePublish = 0;
+                    stateTable.publish(currentTick);
+                }
             } catch (Exception e) {
                 plugin.getLogger().log(Level.WARNING, "Error during portal security cleanup", e);
             }
-        }, CLEANUP_INTERVAL_SECONDS * 20L, CLEANUP_INTERVAL_SECONDS * 20L); // Convert seconds to ticks
-    }
-    
-    /**
-     * Cleans up expired portal cooldowns
-     * Czyści wygasłe cooldowny portali
-     */
-    private void cleanupExpiredCooldowns() {
-        long currentTick = plugin.getServer().getCurrentTick();
-        int removedCount = 0;
-        
-        var iterator = entityPortalCooldowns.entrySet().iterator();
-        while (iterator.hasNext()) {
-            var entry = iterator.next();
-            if (currentTick >= entry.getValue()) {
-                iterator.remove();
-                removedCount++;
-            }
-        }
-        
-        // Only log if significant cleanup occurred (throttled logging)
-        if (configManager.isDebugMode() && removedCount >= 5) {
-            plugin.getLogger().info("Cleaned up " + removedCount + " expired portal cooldowns");
-        }
-    }
-    
-    /**
-     * Cleans up expired portal entry tracking
-     * Czyści wygasłe śledzenie wejść do portali
-     */
-    private void cleanupExpiredPortalEntries() {
-        long currentTime = System.currentTimeMillis();
-        int removedCount = 0;
-        
-        var iterator = entityPortalEntryTimes.entrySet().iterator();
-        while (iterator.hasNext()) {
-            var entry = iterator.next();
-            long timeInPortal = currentTime - entry.getValue();
-            
-            // Remove entries older than max stay time + buffer
-            if (timeInPortal > (MAX_PORTAL_STAY_TIME_MS + 60000)) { // 1 minute buffer
-                iterator.remove();
-                removedCount++;
-            }
-        }
-        
-        // Only log if significant cleanup occurred (throttled logging)
-        if (configManager.isDebugMode() && removedCount >= 5) {
-            plugin.getLogger().info("Cleaned up " + removedCount + " expired portal entry trackings");
-        }
+        }, SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package org.rafalohaki.portalsPermission.utils;
+
+/**
+ * Packs block and chunk coordinates into primitive long keys
+ * Pakuje współrzędne bloków i chunków w klucze typu long
+ *
+ * <p>Block keys use 26 bits for x and z and 12 bits for y, which covers the whole world border
+ * and every supported build height.</p>
+ */
+public final class BlockKeys {
+    
+    private BlockKeys() {
+    }
+    
+    public static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+    
+    public static int blockX(long key) {
+        return (int) (key >> 38);
+    }
+    
+    public static int blockY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+    
+    public static int blockZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+    
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkZ << 32) | (chunkX & 0xFFFFFFFFL);
+    }
+    
+    public static int chunkX(long key) {
+        return (int) key;
+    }
+    
+    public static int chunkZ(long key) {
+        return (int) (key >> 32);
+    }
+    
+    /**
+     * Gets the key of the chunk containing a block key
+     * Pobiera klucz chunka zawierającego klucz bloku
+     */
+    public static long chunkKeyOfBlock(long blockKey) {
+        return chunkKey(blockX(blockKey) >> 4, blockZ(blockKey) >> 4);
+    }
+    
+    /**
+     * Spreads key bits for open addressing tables
+     * Rozprasza bity klucza dla tablic z adresowaniem otwartym
+     */
+    public static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,215 @@
+package org.rafalohaki.portalsPermission.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * Open addressing hash map from primitive longs to objects; not thread safe
+ * Mapa haszująca z prymitywnych wartości long na obiekty z adresowaniem otwartym; nie jest bezpieczna wątkowo
+ *
+ * <p>{@link Long#MIN_VALUE} is reserved and cannot be used as a key.</p>
+ *
+ * @param <V> The value type
+ */
+public final class Long2ObjectHashMap<V> {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+    
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    
+    public Long2ObjectHashMap() {
+        this(16);
+    }
+    
+    public Long2ObjectHashMap(int expectedSize) {
+        int capacity = LongHashSet.tableSizeFor((int) Math.ceil(Math.max(4, expectedSize) / LOAD_FACTOR));
+        this.keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(long key) {
+        int index = find(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+    
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+    
+    /**
+     * Associates a value with a key
+     * Przypisuje wartość do klucza
+     *
+     * @return The previous value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(long key, V value) {
+        checkKey(key);
+        int index = BlockKeys.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the value for a key, creating it when absent
+     * Pobiera wartość dla klucza, tworząc ją gdy jej brak
+     */
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+    
+    /**
+     * Removes a key
+     * Usuwa klucz
+     *
+     * @return The removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(long key) {
+        int index = find(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        shiftKeys(index);
+        size--;
+        return previous;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    /**
+     * Visits every entry; the map must not be modified while visiting
+     * Odwiedza każdy wpis; mapy nie wolno modyfikować w trakcie
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super V> visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                visitor.visit(keys[i], (V) values[i]);
+            }
+        }
+    }
+    
+    /**
+     * Copies all keys into a new array
+     * Kopiuje wszystkie klucze do nowej tablicy
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+    
+    @FunctionalInterface
+    public interface Visitor<V> {
+        void visit(long key, V value);
+    }
+    
+    private int find(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int index = BlockKeys.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+    
+    private void shiftKeys(int pos) {
+        int last;
+        long current;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if ((current = keys[pos]) == EMPTY) {
+                    keys[last] = EMPTY;
+                    values[last] = null;
+                    return;
+                }
+                int slot = BlockKeys.mix(current) & mask;
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+    
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[newCapacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = BlockKeys.mix(oldKeys[i]) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+    
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE is reserved");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.rafalohaki.portalsPermission.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash set of primitive longs; not thread safe
+ * Zbiór haszujący prymitywnych wartości long z adresowaniem otwartym; nie jest bezpieczny wątkowo
+ *
+ * <p>{@link Long#MIN_VALUE} marks empty slots and is tracked separately.</p>
+ */
+public final class LongHashSet {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+    
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsEmptyKey;
+    
+    public LongHashSet() {
+        this(16);
+    }
+    
+    public LongHashSet(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(4, expectedSize) / LOAD_FACTOR));
+        this.keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        this.mask = capacity - 1;
+    }
+    
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmptyKey;
+        }
+        int index = BlockKeys.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+    
+    /**
+     * Adds a key
+     * Dodaje klucz
+     *
+     * @return true if the key was not present before
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            boolean added = !containsEmptyKey;
+            containsEmptyKey = true;
+            if (added) {
+                size++;
+            }
+            return added;
+        }
+        int index = BlockKeys.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        if (++size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+    
+    /**
+     * Removes a key, shifting later entries back to keep probe chains intact
+     * Usuwa klucz, przesuwając kolejne wpisy aby zachować ciągłość sekwencji sondowania
+     *
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        if (key == EMPTY) {
+            boolean removed = containsEmptyKey;
+            containsEmptyKey = false;
+            if (removed) {
+                size--;
+            }
+            return removed;
+        }
+        int index = BlockKeys.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                shiftKeys(index);
+                size--;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        containsEmptyKey = false;
+        size = 0;
+    }
+    
+    /**
+     * Copies all keys into a new array
+     * Kopiuje wszystkie klucze do nowej tablicy
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int i = 0;
+        if (containsEmptyKey) {
+            result[i++] = EMPTY;
+        }
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+    
+    private void shiftKeys(int pos) {
+        int last;
+        long current;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            while (true) {
+                if ((current = keys[pos]) == EMPTY) {
+                    keys[last] = EMPTY;
+                    return;
+                }
+                int slot = BlockKeys.mix(current) & mask;
+                // Move the entry back unless its home slot lies cyclically between last and pos
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+        }
+    }
+    
+    private void rehash(int newCapacity) {
+        long[] old = keys;
+        keys = new long[newCapacity];
+        Arrays.fill(keys, EMPTY);
+        mask = newCapacity - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int index = BlockKeys.mix(key) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+    
+    static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        return Math.max(4, n);
+    }
+}
@@ -4,82 +4,128 @@ import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Locale;
+
 /**
- * Sealed class representing different portal types using modern Java 21 features
- * Sealed class reprezentująca różne typy portali używając nowoczesnych funkcji Java 21
+ * Portal types as singleton constants, usable as dense array indices
+ * Typy portali jako stałe singletonowe, używalne jako gęste indeksy tablic
  */
-public sealed interface PortalType permits PortalType.NetherPortal, PortalType.EndPortal, PortalType.CustomPortal {
+public enum PortalType {
+    
+    /**
+     * Nether portal
+     * Portal do Netheru
+     */
+    NETHER("nether", "no_permission_nether", World.Environment.NETHER),
+    
+    /**
+     * End portal and end gateway
+     * Portal do Endu i brama Endu
+     */
+    END("end", "no_permission_end", World.Environment.THE_END),
+    
+    /**
+     * Custom portal (other plugins)
+     * Portal niestandardowy (inne pluginy)
+     */
+    CUSTOM("custom", "no_permission_custom", World.Environment.NORMAL);
+    
+    /** Number of portal types, for sizing lookup tables */
+    public static final int COUNT = values().length;
+    
+    private static final PortalType[] BY_INDEX = values();
+    
+    private final String permissionKey;
+    private final String messageKey;
+    private final World.Environment environment;
+    
+    PortalType(@NotNull String permissionKey, @NotNull String messageKey, @NotNull World.Environment environment) {
+        this.permissionKey = permissionKey;
+        this.messageKey = messageKey;
+        this.environment = environment;
+    }
     
     /**
      * Gets the permission key for this portal type
      * Pobiera klucz uprawnień dla tego typu portalu
      */
-    @NotNull String getPermissionKey();
+    public @NotNull String getPermissionKey() {
+        return permissionKey;
+    }
     
     /**
      * Gets the message key for this portal type
      * Pobiera klucz wiadomości dla tego typu portalu
      */
-    @NotNull String getMessageKey();
+    public @NotNull String getMessageKey() {
+        return messageKey;
+    }
     
     /**
-     * Creates a PortalType from World.Environment
-     * Tworzy PortalType z World.Environment
+     * Gets the environment used for permission checks of this portal type
+     * Pobiera środowisko używane do sprawdzania uprawnień tego typu portalu
      */
-    static @Nullable PortalType fromEnvironment(@Nullable World.Environment environment) {
-        return switch (environment) {
-            case null -> null;
-            case NETHER -> new NetherPortal();
-            case THE_END -> new EndPortal();
-            case NORMAL, CUSTOM -> new CustomPortal();
+    public @NotNull World.Environment getEnvironment() {
+        return environment;
+    }
+    
+    /**
+     * Gets the dense index of this portal type
+     * Pobiera gęsty indeks tego typu portalu
+     */
+    public int index() {
+        return ordinal();
+    }
+    
+    /**
+     * Resolves where this portal type leads from the given source environment
+     * Ustala dokąd prowadzi ten typ portalu ze środowiska źródłowego
+     *
+     * @param source The environment of the world the portal is in
+     * @return The target environment, or null if unknown (custom portals)
+     */
+    public @Nullable World.Environment getTargetEnvironment(@Nullable World.Environment source) {
+        return switch (this) {
+            case NETHER -> source == World.Environment.NETHER ? World.Environment.NORMAL : World.Environment.NETHER;
+            case END -> source == World.Environment.THE_END ? World.Environment.NORMAL : World.Environment.THE_END;
+            case CUSTOM -> null;
         };
     }
     
     /**
-     * Nether portal implementation
-     * Implementacja portalu do Netheru
+     * Gets a PortalType by its dense index
+     * Pobiera PortalType po gęstym indeksie
      */
-    record NetherPortal() implements PortalType {
-        @Override
-        public @NotNull String getPermissionKey() {
-            return "nether";
-        }
-        
-        @Override
-        public @NotNull String getMessageKey() {
-            return "no_permission_nether";
-        }
+    public static @NotNull PortalType byIndex(int index) {
+        return BY_INDEX[index];
     }
     
     /**
-     * End portal implementation
-     * Implementacja portalu do Endu
+     * Creates a PortalType from World.Environment without allocating
+     * Tworzy PortalType z World.Environment bez alokacji
      */
-    record EndPortal() implements PortalType {
-        @Override
-        public @NotNull String getPermissionKey() {
-            return "end";
-        }
-        
-        @Override
-        public @NotNull String getMessageKey() {
-            return "no_permission_end";
-        }
+    public static @Nullable PortalType fromEnvironment(@Nullable World.Environment environment) {
+        return switch (environment) {
+            case null -> null;
+            case NETHER -> NETHER;
+            case THE_END -> END;
+            case NORMAL, CUSTOM -> CUSTOM;
+        };
     }
     
     /**
-     * Custom portal implementation
-     * Implementacja portalu niestandardowego
+     * Parses a portal type name from configuration
+     * Parsuje nazwę typu portalu z konfiguracji
      */
-    record CustomPortal() implements PortalType {
-        @Override
-        public @NotNull String getPermissionKey() {
-            return "custom";
-        }
-        
-        @Override
-        public @NotNull String getMessageKey() {
-            return "no_permission_custom";
+    public static @Nullable PortalType fromConfig(@Nullable String value) {
+        if (value == null) {
+            return null;
         }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "nether" -> NETHER;
+            case "end" -> END;
+            case "custom" -> CUSTOM;
+            default -> null;
+        };
     }
-}
\ No newline at end of file
+}
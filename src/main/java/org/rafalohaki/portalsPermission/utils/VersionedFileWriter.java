@@ -0,0 +1,91 @@
+package org.rafalohaki.portalsPermission.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Atomic writer of one file that discards snapshots older than the newest one written
+ * Atomowy zapis jednego pliku, który odrzuca migawki starsze od najnowszej zapisanej
+ *
+ * <p>A version is taken where the snapshot is built, usually the main thread, and the snapshot is
+ * written on any thread. Writes are serialized per file, go to a temporary sibling and replace the
+ * file with an atomic move, so concurrent saves never share a half-written temporary file and a
+ * snapshot finishing late never overwrites a newer one.</p>
+ */
+public final class VersionedFileWriter {
+    
+    /**
+     * Streams a snapshot into the temporary file
+     * Zapisuje migawkę do pliku tymczasowego
+     */
+    @FunctionalInterface
+    public interface Contents {
+        void writeTo(@NotNull OutputStream out) throws IOException;
+    }
+    
+    private final Path file;
+    private final Path temp;
+    private final AtomicLong versions = new AtomicLong();
+    private final Object writeLock = new Object();
+    private long writtenVersion;
+    
+    public VersionedFileWriter(@NotNull Path file) {
+        this.file = Objects.requireNonNull(file, "File cannot be null");
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+    
+    /**
+     * Takes the version of a new snapshot; later versions win over earlier ones
+     * Pobiera wersję nowej migawki; późniejsze wersje wygrywają z wcześniejszymi
+     */
+    public long nextVersion() {
+        return versions.incrementAndGet();
+    }
+    
+    /**
+     * Writes a snapshot atomically unless a newer one was already written
+     * Zapisuje migawkę atomowo, chyba że nowsza została już zapisana
+     *
+     * @param version The version taken with {@link #nextVersion()} when the snapshot was built
+     * @return true if the snapshot was written, false if a newer one made it obsolete
+     * @throws IOException If the file could not be written; the previous file is left intact
+     */
+    public boolean write(long version, @NotNull Contents contents) throws IOException {
+        synchronized (writeLock) {
+            if (version < writtenVersion) {
+                return false;
+            }
+            
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                contents.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writtenVersion = version;
+            return true;
+        }
+    }
+    
+    /**
+     * Writes a text snapshot as UTF-8, e.g. a serialized YAML document
+     * Zapisuje migawkę tekstową jako UTF-8, np. zserializowany dokument YAML
+     *
+     * @see #write(long, Contents)
+     */
+    public boolean write(long version, @NotNull String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return write(version, out -> out.write(bytes));
+    }
+}
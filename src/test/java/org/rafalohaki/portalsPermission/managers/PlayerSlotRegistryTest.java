@@ -0,0 +1,195 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PlayerSlotRegistry}
+ * Testy dla {@link PlayerSlotRegistry}
+ */
+class PlayerSlotRegistryTest {
+    
+    /**
+     * Store recording the calls made by the registry
+     * Magazyn zapisujący wywołania wykonane przez rejestr
+     */
+    private static final class RecordingStore implements PlayerSlotRegistry.SlotStore {
+        int capacity;
+        final List<Integer> cleared = new ArrayList<>();
+        final Map<UUID, Integer> parked = new HashMap<>();
+        final Map<UUID, Integer> restored = new HashMap<>();
+        int clearedWhenParked = -1;
+        
+        @Override
+        public void ensureCapacity(int capacity) {
+            this.capacity = Math.max(this.capacity, capacity);
+        }
+        
+        @Override
+        public void clearSlot(int slot) {
+            cleared.add(slot);
+        }
+        
+        @Override
+        public void parkSlot(int slot, UUID owner) {
+            clearedWhenParked = cleared.size();
+            parked.put(owner, slot);
+        }
+        
+        @Override
+        public void restoreSlot(int slot, UUID owner) {
+            restored.put(owner, slot);
+        }
+        
+        @Override
+        public int getBytesPerSlot() {
+            return 12;
+        }
+    }
+    
+    @Test
+    void assignIsIdempotentAndSlotsAreDense() {
+        PlayerSlotRegistry registry = new PlayerSlotRegistry();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        
+        assertEquals(0, registry.assign(first));
+        assertEquals(1, registry.assign(second));
+        assertEquals(0, registry.assign(first));
+        assertEquals(0, registry.slotOf(first));
+        assertEquals(1, registry.slotOf(second));
+        assertEquals(PlayerSlotRegistry.NO_SLOT, registry.slotOf(UUID.randomUUID()));
+        assertEquals(2, registry.getActiveCount());
+        assertEquals(2, registry.getHighWater());
+        assertEquals(first, registry.getOwner(0));
+    }
+    
+    @Test
+    void releasedSlotsAreClearedAndReused() {
+        PlayerSlotRegistry registry = new PlayerSlotRegistry();
+        RecordingStore store = new RecordingStore();
+        registry.addStore(store);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        registry.assign(first);
+        registry.assign(second);
+        
+        registry.release(first);
+        
+        assertEquals(List.of(0), store.cleared);
+        assertEquals(PlayerSlotRegistry.NO_SLOT, registry.slotOf(first));
+        assertNull(registry.getOwner(0));
+        assertEquals(1, registry.slotOf(second));
+        assertEquals(0, registry.assign(UUID.randomUUID()));
+        assertEquals(2, registry.getHighWater());
+        
+        // Releasing an unknown player changes nothing
+        registry.release(UUID.randomUUID());
+        assertEquals(List.of(0), store.cleared);
+    }
+    
+    @Test
+    void releaseParksBeforeClearingAndAssignRestores() {
+        PlayerSlotRegistry registry = new PlayerSlotRegistry();
+        RecordingStore store = new RecordingStore();
+        registry.addStore(store);
+        UUID player = UUID.randomUUID();
+        registry.assign(player);
+        registry.assign(UUID.randomUUID());
+        
+        registry.release(player);
+        assertEquals(Map.of(player, 0), store.parked);
+        assertEquals(0, store.clearedWhenParked);
+        assertEquals(List.of(0), store.cleared);
+        
+        // The relog lands on a different slot when the old one was taken meanwhile
+        registry.assign(UUID.randomUUID());
+        int slot = registry.assign(player);
+        assertEquals(2, slot);
+        assertEquals(Integer.valueOf(slot), store.restored.get(player));
+    }
+    
+    @Test
+    void storesGrowWithTheSlotCapacity() {
+        PlayerSlotRegistry registry = new PlayerSlotRegistry();
+        RecordingStore store = new RecordingStore();
+        registry.addStore(store);
+        int initial = registry.getCapacity();
+        assertEquals(initial, store.capacity);
+        
+        for (int i = 0; i <= initial; i++) {
+            registry.assign(UUID.randomUUID());
+        }
+        
+        assertTrue(registry.getCapacity() > initial);
+        assertEquals(registry.getCapacity(), store.capacity);
+        assertEquals(12, registry.getBytesPerSlot());
+    }
+    
+    @Test
+    void lookupsSurviveBackwardShiftDeletion() {
+        PlayerSlotRegistry registry = new PlayerSlotRegistry();
+        Map<UUID, Integer> expected = new HashMap<>();
+        List<UUID> online = new ArrayList<>();
+        Random random = new Random(99L);
+        
+        // Random joins and quits push the UUID table through growth and many deletions
+        for (int i = 0; i < 5_000; i++) {
+            if (!online.isEmpty() && random.nextInt(5) < 2) {
+                UUID leaving = online.remove(random.nextInt(online.size()));
+                registry.release(leaving);
+                expected.remove(leaving);
+            } else {
+                UUID joining = new UUID(random.nextLong(), random.nextLong());
+                online.add(joining);
+                expected.put(joining, registry.assign(joining));
+            }
+            
+            if (i % 250 == 0) {
+                assertConsistent(registry, expected);
+            }
+        }
+        assertConsistent(registry, expected);
+    }
+    
+    @Test
+    void clearReleasesEverySlot() {
+        PlayerSlotRegistry registry = new PlayerSlotRegistry();
+        RecordingStore store = new RecordingStore();
+        registry.addStore(store);
+        UUID player = UUID.randomUUID();
+        registry.assign(player);
+        registry.assign(UUID.randomUUID());
+        
+        registry.clear();
+        
+        assertEquals(2, store.cleared.size());
+        assertEquals(0, registry.getActiveCount());
+        assertEquals(0, registry.getHighWater());
+        assertEquals(PlayerSlotRegistry.NO_SLOT, registry.slotOf(player));
+        assertEquals(0, registry.assign(player));
+    }
+    
+    private static void assertConsistent(PlayerSlotRegistry registry, Map<UUID, Integer> expected) {
+        assertEquals(expected.size(), registry.getActiveCount());
+        Set<Integer> slots = new HashSet<>();
+        for (Map.Entry<UUID, Integer> entry : expected.entrySet()) {
+            int slot = entry.getValue();
+            assertEquals(slot, registry.slotOf(entry.getKey()));
+            assertEquals(entry.getKey(), registry.getOwner(slot));
+            assertTrue(slots.add(slot), "slot handed out twice: " + slot);
+        }
+    }
+}
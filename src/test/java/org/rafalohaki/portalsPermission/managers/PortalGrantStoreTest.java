@@ -0,0 +1,138 @@
+package org.rafalohaki.portalsPermission.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+/**
+ * Persistence tests for {@link PortalGrantStore}
+ * Testy zapisu i odczytu {@link PortalGrantStore}
+ */
+class PortalGrantStoreTest {
+    
+    @TempDir
+    Path dataFolder;
+    
+    private JavaPlugin plugin;
+    private MockedStatic<Bukkit> bukkit;
+    
+    @BeforeEach
+    void setUp() {
+        plugin = mock(JavaPlugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("PortalGrantStoreTest"));
+        
+        // Timers are never run; asynchronous writes run right away
+        BukkitScheduler scheduler = mock(BukkitScheduler.class);
+        when(scheduler.runTaskTimer(any(Plugin.class), any(Runnable.class), anyLong(), anyLong()))
+            .thenAnswer(invocation -> mock(BukkitTask.class));
+        when(scheduler.runTaskAsynchronously(any(Plugin.class), any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return mock(BukkitTask.class);
+        });
+        bukkit = mockStatic(Bukkit.class);
+        bukkit.when(Bukkit::getScheduler).thenReturn(scheduler);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        bukkit.close();
+    }
+    
+    @Test
+    void grantsSurviveARestart() {
+        UUID player = UUID.randomUUID();
+        PortalGrantStore store = new PortalGrantStore(plugin);
+        store.start();
+        store.grant(player, PortalType.NETHER, 60_000L);
+        store.grant(player, PortalType.END, 60_000L);
+        store.revoke(player, PortalType.END);
+        store.shutdown();
+        
+        PortalGrantStore restarted = new PortalGrantStore(plugin);
+        restarted.start();
+        
+        assertTrue(restarted.hasGrant(player, PortalType.NETHER));
+        assertFalse(restarted.hasGrant(player, PortalType.END));
+        assertFalse(restarted.hasGrant(player, PortalType.CUSTOM));
+        long remaining = restarted.getRemainingMillis(player, PortalType.NETHER);
+        assertTrue(remaining > 0L && remaining <= 60_000L);
+        assertEquals(1, restarted.getPlayerCount());
+    }
+    
+    @Test
+    void revokingEveryGrantRemovesThePlayer() {
+        UUID player = UUID.randomUUID();
+        PortalGrantStore store = new PortalGrantStore(plugin);
+        store.start();
+        store.grant(player, PortalType.NETHER, 60_000L);
+        store.grant(player, PortalType.CUSTOM, 60_000L);
+        
+        assertTrue(store.revoke(player, null));
+        assertFalse(store.revoke(player, null));
+        store.shutdown();
+        
+        PortalGrantStore restarted = new PortalGrantStore(plugin);
+        restarted.start();
+        assertEquals(0, restarted.getPlayerCount());
+    }
+    
+    @Test
+    void grantsExpiredWhileStoppedAreDropped() throws IOException {
+        UUID player = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        writeGrants("""
+            grants:
+              %s:
+                nether: %d
+                end: %d
+              not-a-uuid:
+                nether: %d
+            """.formatted(player, now - 1_000L, now + 60_000L, now + 60_000L));
+        
+        PortalGrantStore store = new PortalGrantStore(plugin);
+        store.start();
+        
+        assertFalse(store.hasGrant(player, PortalType.NETHER));
+        assertTrue(store.hasGrant(player, PortalType.END));
+        assertEquals(1, store.getPlayerCount());
+    }
+    
+    @Test
+    void storeThatWasNotLoadedNeverOverwritesTheFile() throws IOException {
+        String contents = "grants:\n  " + UUID.randomUUID() + ":\n    end: " + (System.currentTimeMillis() + 60_000L) + "\n";
+        writeGrants(contents);
+        
+        new PortalGrantStore(plugin).shutdown();
+        
+        assertEquals(contents, Files.readString(dataFolder.resolve("grants.yml"), StandardCharsets.UTF_8));
+    }
+    
+    private void writeGrants(String contents) throws IOException {
+        Files.writeString(dataFolder.resolve("grants.yml"), contents, StandardCharsets.UTF_8);
+    }
+}
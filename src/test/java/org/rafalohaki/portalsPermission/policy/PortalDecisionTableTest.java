@@ -0,0 +1,93 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+import org.rafalohaki.portalsPermission.managers.ConfigManager;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link PortalDecisionTable}
+ * Testy dla {@link PortalDecisionTable}
+ */
+class PortalDecisionTableTest {
+    
+    @Test
+    void unblockedTypeDependsOnTheTypePermission() {
+        PortalDecisionTable table = PortalDecisionTable.build(config(false, false, false));
+        
+        assertEquals(DecisionOutcome.DENY_PERMISSION, table.get(PortalType.NETHER, World.Environment.NORMAL, 0).outcome());
+        assertEquals(DecisionOutcome.ALLOW, table.get(PortalType.NETHER, World.Environment.NORMAL,
+            PortalDecisionTable.BIT_TYPE_PERMISSION).outcome());
+        assertTrue(table.needsTypePermission(PortalType.NETHER, World.Environment.NORMAL));
+    }
+    
+    @Test
+    void blockedTypeIgnoresTheTypePermission() {
+        PortalDecisionTable table = PortalDecisionTable.build(config(true, false, false));
+        
+        assertEquals(DecisionOutcome.DENY_BLOCKED, table.get(PortalType.NETHER, World.Environment.NORMAL,
+            PortalDecisionTable.BIT_TYPE_PERMISSION).outcome());
+        assertFalse(table.needsTypePermission(PortalType.NETHER, World.Environment.NORMAL));
+        assertEquals(DecisionOutcome.DENY_PERMISSION, table.get(PortalType.END, World.Environment.NORMAL, 0).outcome());
+    }
+    
+    @Test
+    void bypassAndGrantLiftABlock() {
+        PortalDecisionTable table = PortalDecisionTable.build(config(true, true, true));
+        
+        for (PortalType type : PortalType.values()) {
+            for (World.Environment source : World.Environment.values()) {
+                assertEquals(DecisionOutcome.DENY_BLOCKED, table.get(type, source, 0).outcome());
+                assertTrue(table.get(type, source, PortalDecisionTable.BIT_BYPASS).isAllowed());
+                assertTrue(table.get(type, source, PortalDecisionTable.BIT_GRANT).isAllowed());
+                assertTrue(table.get(type, source, PortalDecisionTable.PERMISSION_STATES - 1).isAllowed());
+            }
+        }
+    }
+    
+    @Test
+    void decisionsCarryTargetMessageAndKnockback() {
+        PortalDecisionTable table = PortalDecisionTable.build(config(false, false, false));
+        
+        Decision toNether = table.get(PortalType.NETHER, World.Environment.NORMAL, 0);
+        assertEquals(World.Environment.NETHER, toNether.targetEnvironment());
+        assertEquals(PortalType.NETHER.getMessageKey(), toNether.messageKey());
+        assertSame(KnockbackProfile.forTarget(World.Environment.NETHER), toNether.knockbackProfile());
+        
+        Decision backHome = table.get(PortalType.NETHER, World.Environment.NETHER, 0);
+        assertEquals(World.Environment.NORMAL, backHome.targetEnvironment());
+        
+        assertNull(table.get(PortalType.CUSTOM, World.Environment.NORMAL, 0).targetEnvironment());
+    }
+    
+    @Test
+    void ruleAndRegionDecisionsAreShared() {
+        PortalDecisionTable table = PortalDecisionTable.build(config(false, false, false));
+        
+        Decision ruleAllow = table.forRule(PortalType.END, World.Environment.NORMAL, PolicyAction.ALLOW);
+        assertEquals(DecisionOutcome.ALLOW, ruleAllow.outcome());
+        assertSame(ruleAllow, table.forRule(PortalType.END, World.Environment.NORMAL, PolicyAction.ALLOW));
+        assertEquals(DecisionOutcome.DENY_RULE,
+            table.forRule(PortalType.END, World.Environment.NORMAL, PolicyAction.DENY).outcome());
+        
+        Decision region = table.forRegion(PortalType.END, World.Environment.NORMAL);
+        assertEquals(DecisionOutcome.DENY_REGION, region.outcome());
+        assertEquals("no_permission_region", region.messageKey());
+    }
+    
+    private static ConfigManager config(boolean netherBlocked, boolean endBlocked, boolean customBlocked) {
+        ConfigManager configManager = mock(ConfigManager.class);
+        when(configManager.isNetherBlocked()).thenReturn(netherBlocked);
+        when(configManager.isEndBlocked()).thenReturn(endBlocked);
+        when(configManager.isCustomBlocked()).thenReturn(customBlocked);
+        return configManager;
+    }
+}
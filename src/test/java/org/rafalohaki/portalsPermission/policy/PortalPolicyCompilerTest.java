@@ -0,0 +1,156 @@
+package org.rafalohaki.portalsPermission.policy;
+
+import org.bukkit.GameMode;
+import org.bukkit.World;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rafalohaki.portalsPermission.utils.PortalType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link PortalPolicyCompiler} and the compiled {@link PortalPolicy}
+ * Testy dla {@link PortalPolicyCompiler} i skompilowanej {@link PortalPolicy}
+ */
+class PortalPolicyCompilerTest {
+    
+    private Player player;
+    private World world;
+    
+    @BeforeEach
+    void setUp() {
+        player = mock(Player.class);
+        when(player.getGameMode()).thenReturn(GameMode.SURVIVAL);
+        world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        when(world.getTime()).thenReturn(6000L);
+    }
+    
+    @Test
+    void missingOrEmptyRulesCompileToTheEmptyPolicy() throws InvalidConfigurationException {
+        assertSame(PortalPolicy.EMPTY, PortalPolicyCompiler.compile(null));
+        assertSame(PortalPolicy.EMPTY, PortalPolicyCompiler.compile(yaml("enabled: true")));
+        assertSame(PortalPolicy.EMPTY, PortalPolicyCompiler.compile(yaml("rules: []")));
+    }
+    
+    @Test
+    void firstMatchingRuleWinsWithinItsPortalType() throws InvalidConfigurationException {
+        PortalPolicy policy = PortalPolicyCompiler.compile(yaml("""
+            rules:
+              - name: creative-nether
+                action: allow
+                portal_types: [nether]
+                gamemodes: [creative]
+              - name: no-nether
+                action: deny
+                portal_types: [nether]
+              - name: everything
+                action: allow
+            """));
+        
+        assertEquals(3, policy.getRuleCount());
+        assertEquals(PolicyAction.DENY, policy.evaluate(player, world, PortalType.NETHER));
+        assertEquals(PolicyAction.ALLOW, policy.evaluate(player, world, PortalType.END));
+        
+        when(player.getGameMode()).thenReturn(GameMode.CREATIVE);
+        assertEquals(PolicyAction.ALLOW, policy.evaluate(player, world, PortalType.NETHER));
+    }
+    
+    @Test
+    void invalidRulesAreSkipped() throws InvalidConfigurationException {
+        PortalPolicy policy = PortalPolicyCompiler.compile(yaml("""
+            rules:
+              - action: maybe
+              - action: deny
+                gamemodes: [flying]
+              - action: deny
+                time: "25000-100"
+              - action: deny
+                portal_types: [wormhole]
+              - action: deny
+                worlds: [world]
+            """));
+        
+        assertEquals(1, policy.getRuleCount());
+        assertEquals(PolicyAction.DENY, policy.evaluate(player, world, PortalType.CUSTOM));
+    }
+    
+    @Test
+    void worldsAndTimeWindowsMatch() throws InvalidConfigurationException {
+        PortalPolicy policy = PortalPolicyCompiler.compile(yaml("""
+            rules:
+              - action: deny
+                worlds: [world, world_nether]
+                time: "22000-2000"
+            """));
+        
+        // 6000 is outside the window that wraps over midnight
+        assertEquals(PolicyAction.NONE, policy.evaluate(player, world, PortalType.NETHER));
+        
+        when(world.getTime()).thenReturn(23000L);
+        assertEquals(PolicyAction.DENY, policy.evaluate(player, world, PortalType.NETHER));
+        when(world.getTime()).thenReturn(1000L);
+        assertEquals(PolicyAction.DENY, policy.evaluate(player, world, PortalType.NETHER));
+        
+        when(world.getName()).thenReturn("world_the_end");
+        assertEquals(PolicyAction.NONE, policy.evaluate(player, world, PortalType.NETHER));
+    }
+    
+    @Test
+    void negatedPermissionMatchesPlayersWithoutIt() throws InvalidConfigurationException {
+        PortalPolicy policy = PortalPolicyCompiler.compile(yaml("""
+            rules:
+              - action: deny
+                permission: "!portals.vip"
+            """));
+        
+        when(player.hasPermission("portals.vip")).thenReturn(false);
+        assertEquals(PolicyAction.DENY, policy.evaluate(player, world, PortalType.END));
+        
+        when(player.hasPermission("portals.vip")).thenReturn(true);
+        assertEquals(PolicyAction.NONE, policy.evaluate(player, world, PortalType.END));
+    }
+    
+    @Test
+    void cheapPredicatesRunBeforePermissionChecks() throws InvalidConfigurationException {
+        // Permission is listed first but must be evaluated last
+        PortalPolicy policy = PortalPolicyCompiler.compile(yaml("""
+            rules:
+              - action: deny
+                permission: portals.restricted
+                gamemodes: [adventure]
+            """));
+        
+        assertEquals(PolicyAction.NONE, policy.evaluate(player, world, PortalType.NETHER));
+        verify(player, never()).hasPermission(anyString());
+    }
+    
+    @Test
+    void emptyPortalTypeListMatchesEveryType() throws InvalidConfigurationException {
+        PortalPolicy policy = PortalPolicyCompiler.compile(yaml("""
+            rules:
+              - action: deny
+            """));
+        
+        assertFalse(policy.isEmpty());
+        for (PortalType type : PortalType.values()) {
+            assertEquals(PolicyAction.DENY, policy.evaluate(player, world, type));
+        }
+    }
+    
+    private static YamlConfiguration yaml(String contents) throws InvalidConfigurationException {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.loadFromString(contents);
+        return yaml;
+    }
+}
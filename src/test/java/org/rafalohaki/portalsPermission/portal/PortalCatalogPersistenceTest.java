@@ -0,0 +1,135 @@
+package org.rafalohaki.portalsPermission.portal;
+
+import org.bukkit.Axis;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rafalohaki.portalsPermission.utils.BlockKeys;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Round-trip tests for the binary world catalog files of {@link PortalCatalog}
+ * Testy zapisu i odczytu binarnych plików katalogu świata {@link PortalCatalog}
+ */
+class PortalCatalogPersistenceTest {
+    
+    @TempDir
+    Path dataFolder;
+    
+    private PortalCatalog catalog;
+    private final UUID worldId = UUID.randomUUID();
+    
+    @BeforeEach
+    void setUp() {
+        JavaPlugin plugin = mock(JavaPlugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("PortalCatalogPersistenceTest"));
+        catalog = new PortalCatalog(plugin, mock(PortalMaterialRegistry.class), new PortalLocationIndex());
+    }
+    
+    @Test
+    void portalsSurviveAWriteAndRead() {
+        KnownPortal nether = new KnownPortal(1, worldId, PortalKind.NETHER, Axis.X, 10, 64, 5, 13, 68, 5);
+        KnownPortal end = new KnownPortal(2, worldId, PortalKind.END, Axis.Y, -3, 40, -3, -1, 40, -1);
+        // Spans the border of chunks 0 and 1 on the Z axis
+        KnownPortal gateway = new KnownPortal(5, worldId, PortalKind.GATEWAY, Axis.Z, 100, 70, 14, 100, 72, 17);
+        
+        catalog.write(worldId, 1, 6, List.of(nether, end, gateway));
+        PortalCatalog.WorldCatalog loaded = catalog.read(worldId);
+        
+        assertEquals(6, loaded.nextId);
+        assertEquals(3, loaded.portals.size());
+        assertEquals(nether, loaded.portals.get(1));
+        assertEquals(end, loaded.portals.get(2));
+        assertEquals(gateway, loaded.portals.get(5));
+        assertFalse(loaded.isDirty());
+        
+        assertArrayEquals(new int[] {2}, loaded.idsByChunk.get(BlockKeys.chunkKey(-1, -1)));
+        assertArrayEquals(new int[] {5}, loaded.idsByChunk.get(BlockKeys.chunkKey(6, 0)));
+        assertArrayEquals(new int[] {5}, loaded.idsByChunk.get(BlockKeys.chunkKey(6, 1)));
+        assertFalse(Files.exists(dataFolder.resolve("portals").resolve(worldId + ".dat.tmp")));
+    }
+    
+    @Test
+    void aLaterWriteReplacesTheFile() {
+        catalog.write(worldId, 1, 3, List.of(new KnownPortal(1, worldId, PortalKind.NETHER, Axis.X, 0, 64, 0, 3, 68, 0),
+            new KnownPortal(2, worldId, PortalKind.NETHER, Axis.Z, 50, 64, 50, 50, 68, 53)));
+        catalog.write(worldId, 2, 3, List.of(new KnownPortal(2, worldId, PortalKind.NETHER, Axis.Z, 50, 64, 50, 50, 68, 53)));
+        
+        PortalCatalog.WorldCatalog loaded = catalog.read(worldId);
+        
+        assertEquals(1, loaded.portals.size());
+        assertTrue(loaded.portals.containsKey(2));
+        assertFalse(loaded.idsByChunk.containsKey(BlockKeys.chunkKey(0, 0)));
+    }
+    
+    @Test
+    void anOlderSnapshotFinishingLateIsDropped() {
+        assertTrue(catalog.write(worldId, 2, 3, List.of(new KnownPortal(2, worldId, PortalKind.END, Axis.Y, 0, 40, 0, 2, 40, 2))));
+        assertTrue(catalog.write(worldId, 1, 2, List.of(new KnownPortal(1, worldId, PortalKind.NETHER, Axis.X, 0, 64, 0, 3, 68, 0))));
+        
+        PortalCatalog.WorldCatalog loaded = catalog.read(worldId);
+        
+        assertEquals(3, loaded.nextId);
+        assertEquals(1, loaded.portals.size());
+        assertTrue(loaded.portals.containsKey(2));
+    }
+    
+    @Test
+    void missingFileGivesAnEmptyCatalog() {
+        PortalCatalog.WorldCatalog loaded = catalog.read(worldId);
+        
+        assertTrue(loaded.portals.isEmpty());
+        assertEquals(1, loaded.nextId);
+    }
+    
+    @Test
+    void unknownFormatIsIgnored() throws IOException {
+        Path file = catalogFile();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x12345678);
+            out.writeShort(1);
+            out.writeInt(9);
+            out.writeInt(0);
+        }
+        
+        PortalCatalog.WorldCatalog loaded = catalog.read(worldId);
+        
+        assertTrue(loaded.portals.isEmpty());
+        assertEquals(1, loaded.nextId);
+    }
+    
+    @Test
+    void truncatedFileIsRebuilt() throws IOException {
+        catalog.write(worldId, 1, 4, List.of(new KnownPortal(3, worldId, PortalKind.CUSTOM, Axis.X, 1, 2, 3, 4, 5, 6)));
+        Path file = catalogFile();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        
+        PortalCatalog.WorldCatalog loaded = catalog.read(worldId);
+        
+        assertTrue(loaded.portals.isEmpty());
+        assertEquals(1, loaded.nextId);
+    }
+    
+    private Path catalogFile() throws IOException {
+        Path directory = Files.createDirectories(dataFolder.resolve("portals"));
+        return directory.resolve(worldId + ".dat");
+    }
+}
@@ -0,0 +1,131 @@
+package org.rafalohaki.portalsPermission.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link Long2ObjectHashMap}
+ * Testy dla {@link Long2ObjectHashMap}
+ */
+class Long2ObjectHashMapTest {
+    
+    @Test
+    void putGetAndReplace() {
+        Long2ObjectHashMap<String> map = new Long2ObjectHashMap<>();
+        
+        assertNull(map.put(42L, "a"));
+        assertEquals("a", map.put(42L, "b"));
+        assertEquals("b", map.get(42L));
+        assertTrue(map.containsKey(42L));
+        assertFalse(map.containsKey(43L));
+        assertNull(map.get(43L));
+        assertEquals(1, map.size());
+    }
+    
+    @Test
+    void reservedKeyIsRejected() {
+        Long2ObjectHashMap<String> map = new Long2ObjectHashMap<>();
+        
+        assertThrows(IllegalArgumentException.class, () -> map.put(Long.MIN_VALUE, "x"));
+        assertNull(map.get(Long.MIN_VALUE));
+        assertNull(map.remove(Long.MIN_VALUE));
+        assertTrue(map.isEmpty());
+    }
+    
+    @Test
+    void computeIfAbsentCreatesOnce() {
+        Long2ObjectHashMap<StringBuilder> map = new Long2ObjectHashMap<>();
+        
+        StringBuilder first = map.computeIfAbsent(7L, key -> new StringBuilder("v" + key));
+        StringBuilder second = map.computeIfAbsent(7L, key -> new StringBuilder("other"));
+        
+        assertSame(first, second);
+        assertEquals("v7", first.toString());
+        assertEquals(1, map.size());
+    }
+    
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        // A tiny table forces long probe chains, so backward shifting is exercised
+        Long2ObjectHashMap<Long> map = new Long2ObjectHashMap<>(4);
+        for (long key = 0; key < 64; key++) {
+            map.put(key * 1024L, key);
+        }
+        for (long key = 0; key < 64; key += 2) {
+            assertEquals(key, map.remove(key * 1024L));
+        }
+        
+        assertEquals(32, map.size());
+        for (long key = 0; key < 64; key++) {
+            if (key % 2 == 0) {
+                assertFalse(map.containsKey(key * 1024L));
+            } else {
+                assertEquals(key, map.get(key * 1024L));
+            }
+        }
+    }
+    
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Long2ObjectHashMap<Integer> map = new Long2ObjectHashMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(1234L);
+        
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(512) - 256L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+    
+    @Test
+    void keysAndForEachVisitEveryEntry() {
+        Long2ObjectHashMap<String> map = new Long2ObjectHashMap<>();
+        map.put(-5L, "a");
+        map.put(0L, "b");
+        map.put(Long.MAX_VALUE, "c");
+        
+        long[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(new long[] {-5L, 0L, Long.MAX_VALUE}, keys);
+        
+        Map<Long, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(Map.of(-5L, "a", 0L, "b", Long.MAX_VALUE, "c"), visited);
+    }
+    
+    @Test
+    void clearEmptiesTheMap() {
+        Long2ObjectHashMap<String> map = new Long2ObjectHashMap<>();
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, "v");
+        }
+        map.clear();
+        
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.keys().length);
+        assertNull(map.get(1L));
+        
+        map.put(1L, "again");
+        assertEquals("again", map.get(1L));
+    }
+}
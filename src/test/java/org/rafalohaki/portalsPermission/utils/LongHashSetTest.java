@@ -0,0 +1,106 @@
+package org.rafalohaki.portalsPermission.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link LongHashSet}
+ * Testy dla {@link LongHashSet}
+ */
+class LongHashSetTest {
+    
+    @Test
+    void addReportsWhetherTheKeyWasNew() {
+        LongHashSet set = new LongHashSet();
+        
+        assertTrue(set.add(10L));
+        assertFalse(set.add(10L));
+        assertTrue(set.contains(10L));
+        assertFalse(set.contains(11L));
+        assertEquals(1, set.size());
+    }
+    
+    @Test
+    void emptyMarkerIsStoredSeparately() {
+        LongHashSet set = new LongHashSet();
+        
+        assertFalse(set.contains(Long.MIN_VALUE));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertFalse(set.add(Long.MIN_VALUE));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertEquals(1, set.size());
+        assertArrayEquals(new long[] {Long.MIN_VALUE}, set.toArray());
+        
+        assertTrue(set.remove(Long.MIN_VALUE));
+        assertFalse(set.remove(Long.MIN_VALUE));
+        assertTrue(set.isEmpty());
+    }
+    
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        LongHashSet set = new LongHashSet(4);
+        for (long key = 0; key < 64; key++) {
+            set.add(key << 20);
+        }
+        for (long key = 1; key < 64; key += 2) {
+            assertTrue(set.remove(key << 20));
+        }
+        
+        assertEquals(32, set.size());
+        for (long key = 0; key < 64; key++) {
+            assertEquals(key % 2 == 0, set.contains(key << 20));
+        }
+    }
+    
+    @Test
+    void matchesHashSetUnderRandomOperations() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(4321L);
+        
+        for (int i = 0; i < 20_000; i++) {
+            long key = BlockKeys.blockKey(random.nextInt(32) - 16, random.nextInt(8), random.nextInt(32) - 16);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        
+        long[] actual = set.toArray();
+        Arrays.sort(actual);
+        long[] wanted = expected.stream().mapToLong(Long::longValue).sorted().toArray();
+        assertArrayEquals(wanted, actual);
+    }
+    
+    @Test
+    void clearEmptiesTheSet() {
+        LongHashSet set = new LongHashSet();
+        set.add(1L);
+        set.add(Long.MIN_VALUE);
+        set.clear();
+        
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(1L));
+        assertFalse(set.contains(Long.MIN_VALUE));
+        assertEquals(0, set.toArray().length);
+    }
+    
+    @Test
+    void tableSizeForRoundsUpToAPowerOfTwoOfAtLeastFour() {
+        assertEquals(4, LongHashSet.tableSizeFor(1));
+        assertEquals(16, LongHashSet.tableSizeFor(9));
+        assertEquals(16, LongHashSet.tableSizeFor(16));
+        assertEquals(32, LongHashSet.tableSizeFor(17));
+    }
+}